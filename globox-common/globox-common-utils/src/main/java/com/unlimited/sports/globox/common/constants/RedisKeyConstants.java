@@ -38,16 +38,41 @@ public final class RedisKeyConstants {
     public static final String REFRESH_TOKEN_PREFIX = "refresh_token:";
 
     /**
-     * Refresh Token 用户索引前缀（用于批量删除）
+     * Refresh Token 旧版用户索引前缀（每个 token 一个 key，已由 REFRESH_TOKEN_REGISTRY_PREFIX 取代，仅用于迁移期清理）
      */
     public static final String REFRESH_TOKEN_USER_PREFIX = "refresh_token:user:";
     public static final String REFRESH_TOKEN_USER_CLIENT_PREFIX = "refresh_token:user_client:";
 
+    /**
+     * Refresh Token 用户登记表前缀（Hash，后接 userId；field 为 token 哈希，value 为 "客户端类型|过期时间戳秒"）
+     */
+    public static final String REFRESH_TOKEN_REGISTRY_PREFIX = "refresh_token:registry:";
+
+    /**
+     * Refresh Token 登记表回填（旧版索引迁移）的执行锁
+     */
+    public static final String REFRESH_TOKEN_REGISTRY_BACKFILL_LOCK = "refresh_token:registry_backfill:lock";
+
     /**
      * Access Token JTI 缓存前缀（用于单点登录控制）
      */
     public static final String ACCESS_TOKEN_JTI_PREFIX = "access_token:jti:";
 
+    /**
+     * Access Token JTI 变更通知频道（消息内容为变更的 JTI key，网关据此失效本地缓存）
+     */
+    public static final String ACCESS_TOKEN_JTI_CHANNEL = "access_token:jti:changed";
+
+    /**
+     * 用户基础信息（UserInfoVo）共享缓存前缀，后接 userId
+     */
+    public static final String USER_INFO_CACHE_PREFIX = "user:info:";
+
+    /**
+     * 用户基础信息变更通知频道（消息内容为 userId，各服务据此失效本地缓存）
+     */
+    public static final String USER_INFO_CHANGED_CHANNEL = "user:info:changed";
+
 
     /**
      * 微信临时凭证前缀
@@ -58,5 +83,15 @@ public final class RedisKeyConstants {
      * 球盒号序列前缀（按日期）
      */
     public static final String GLOBOX_NO_SEQ_PREFIX = "globox:no:seq:";
+
+    /**
+     * 雪花算法 workerId 租约前缀（后接 workerId，值为持有者标识）
+     */
+    public static final String ID_GENERATOR_WORKER_PREFIX = "id-generator:worker:";
+
+    /**
+     * 雪花算法各 workerId 已发号的最大时间戳（Hash，field 为 workerId，不过期）
+     */
+    public static final String ID_GENERATOR_WORKER_LAST_TIMESTAMP = "id-generator:worker-last-ts";
 }
 
@@ -41,6 +41,7 @@ public enum VenueCode implements ResultCode {
     // 场馆场地相关 7041-7060
     VENUE_NOT_EXIST(7041, "未找到该场馆信息，请返回列表重新进入"),
     COURT_NOT_EXIST(7042, "场地信息已变更，请刷新页面后再试"),
+    VENUE_SYNC_FAILED(7043, "场馆数据同步失败"),
 
 
     // 兜底错误
@@ -3,25 +3,45 @@ package com.unlimited.sports.globox.common.utils;
 import org.springframework.core.DefaultParameterNameDiscoverer;
 import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * SpEL 解析工具：基于方法参数名注入变量
  * - 入参：spel / method / args
  * - 返回：spel 计算后的 String
+ *
+ * 表达式和方法参数名解析一次后缓存；表达式以 MIXED 模式编译，执行若干次后转为字节码，
+ * 编译后的表达式遇到类型变化等问题时自动回退解释执行
  */
 public final class SpelMethodArgsUtils {
 
-    private static final ExpressionParser PARSER = new SpelExpressionParser();
+    private static final ExpressionParser PARSER = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, SpelMethodArgsUtils.class.getClassLoader()));
     private static final DefaultParameterNameDiscoverer NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
 
+    private static final String[] NO_PARAM_NAMES = new String[0];
+
+    private static final Map<String, Expression> EXPRESSION_CACHE = new ConcurrentHashMap<>();
+    private static final Map<Method, String[]> PARAM_NAMES_CACHE = new ConcurrentHashMap<>();
+
     private SpelMethodArgsUtils() {}
 
     public static String eval(String spel, Method method, Object[] args) {
-        if (spel == null || spel.isBlank()) {
+        return eval(parse(spel), method, args);
+    }
+
+    /**
+     * 使用已解析的表达式计算，调用方可自行缓存 {@link #parse(String)} 的结果
+     */
+    public static String eval(Expression exp, Method method, Object[] args) {
+        if (exp == null) {
             throw new IllegalArgumentException("spel is blank");
         }
         if (method == null) {
@@ -30,20 +50,37 @@ public final class SpelMethodArgsUtils {
 
         StandardEvaluationContext ctx = new StandardEvaluationContext();
 
-        String[] paramNames = NAME_DISCOVERER.getParameterNames(method);
-        if (paramNames != null) {
-            int n = Math.min(paramNames.length, args == null ? 0 : args.length);
-            for (int i = 0; i < n; i++) {
-                ctx.setVariable(paramNames[i], args[i]);
-            }
+        String[] paramNames = parameterNames(method);
+        int n = Math.min(paramNames.length, args == null ? 0 : args.length);
+        for (int i = 0; i < n; i++) {
+            ctx.setVariable(paramNames[i], args[i]);
         }
 
-        Expression exp = PARSER.parseExpression(spel);
         String result = exp.getValue(ctx, String.class);
 
         if (result == null) {
-            throw new IllegalArgumentException("spel result is null, spel=" + spel);
+            throw new IllegalArgumentException("spel result is null, spel=" + exp.getExpressionString());
         }
         return result;
     }
-}
\ No newline at end of file
+
+    /**
+     * 解析表达式（带缓存），解析结果线程安全，可重复使用
+     */
+    public static Expression parse(String spel) {
+        if (spel == null || spel.isBlank()) {
+            throw new IllegalArgumentException("spel is blank");
+        }
+        return EXPRESSION_CACHE.computeIfAbsent(spel, PARSER::parseExpression);
+    }
+
+    /**
+     * 方法参数名（带缓存），编译时未保留参数名时返回空数组
+     */
+    public static String[] parameterNames(Method method) {
+        return PARAM_NAMES_CACHE.computeIfAbsent(method, m -> {
+            String[] names = NAME_DISCOVERER.getParameterNames(m);
+            return names != null ? names : NO_PARAM_NAMES;
+        });
+    }
+}
@@ -0,0 +1,183 @@
+package com.unlimited.sports.globox.common.utils;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.lang.reflect.Method;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SpelMethodArgsUtils 的缓存与计算测试
+ */
+class SpelMethodArgsUtilsTest {
+
+    /**
+     * 超过 SpEL MIXED 模式的编译阈值（解释执行 100 次后编译）
+     */
+    private static final int BEYOND_COMPILE_THRESHOLD = 300;
+
+    /**
+     * 压测：预热次数
+     */
+    private static final int BENCHMARK_WARMUP_ROUNDS = 50_000;
+
+    /**
+     * 压测：计算次数
+     */
+    private static final int BENCHMARK_ROUNDS = 200_000;
+
+    private static final SpelExpressionParser UNCACHED_PARSER = new SpelExpressionParser();
+
+    private static final DefaultParameterNameDiscoverer UNCACHED_NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
+
+    @SuppressWarnings("unused")
+    private static void lockOrder(String orderNo, Long userId) {
+    }
+
+    @SuppressWarnings("unused")
+    private static void lockById(Object id) {
+    }
+
+    @Test
+    void parseReturnsCachedExpressionForSameText() {
+        Expression first = SpelMethodArgsUtils.parse("'order:' + #orderNo");
+        Expression second = SpelMethodArgsUtils.parse("'order:' + #orderNo");
+
+        assertSame(first, second);
+        assertEquals("'order:' + #orderNo", first.getExpressionString());
+    }
+
+    @Test
+    void parseRejectsBlankText() {
+        assertThrows(IllegalArgumentException.class, () -> SpelMethodArgsUtils.parse(null));
+        assertThrows(IllegalArgumentException.class, () -> SpelMethodArgsUtils.parse("  "));
+    }
+
+    @Test
+    void parameterNamesAreResolvedOnceAndCached() throws Exception {
+        Method method = method("lockOrder", String.class, Long.class);
+
+        String[] first = SpelMethodArgsUtils.parameterNames(method);
+        String[] second = SpelMethodArgsUtils.parameterNames(method);
+
+        assertArrayEquals(new String[]{"orderNo", "userId"}, first);
+        assertSame(first, second);
+    }
+
+    @Test
+    void evalBindsArgumentsByParameterName() throws Exception {
+        Method method = method("lockOrder", String.class, Long.class);
+
+        assertEquals("order:NO1:7",
+                SpelMethodArgsUtils.eval("'order:' + #orderNo + ':' + #userId", method, new Object[]{"NO1", 7L}));
+    }
+
+    @Test
+    void cachedExpressionGivesSameResultAsTextOverload() throws Exception {
+        Method method = method("lockOrder", String.class, Long.class);
+        Expression expression = SpelMethodArgsUtils.parse("#orderNo");
+
+        for (int i = 0; i < BEYOND_COMPILE_THRESHOLD; i++) {
+            Object[] args = {"NO" + i, (long) i};
+            assertEquals(SpelMethodArgsUtils.eval("#orderNo", method, args),
+                    SpelMethodArgsUtils.eval(expression, method, args));
+        }
+    }
+
+    @Test
+    void compiledExpressionFallsBackWhenArgumentTypeChanges() throws Exception {
+        Method method = method("lockById", Object.class);
+        Expression expression = SpelMethodArgsUtils.parse("'id:' + #id.toString()");
+
+        // 足够多次后表达式按 Long 编译，之后传入 String 需回退解释执行
+        for (long i = 0; i < BEYOND_COMPILE_THRESHOLD; i++) {
+            assertEquals("id:" + i, SpelMethodArgsUtils.eval(expression, method, new Object[]{i}));
+        }
+        assertEquals("id:abc", SpelMethodArgsUtils.eval(expression, method, new Object[]{"abc"}));
+        assertEquals("id:42", SpelMethodArgsUtils.eval(expression, method, new Object[]{42L}));
+    }
+
+    @Test
+    void missingArgumentsAreNotBound() throws Exception {
+        Method method = method("lockOrder", String.class, Long.class);
+
+        assertEquals("const", SpelMethodArgsUtils.eval("'const'", method, null));
+        assertEquals("NO1:null",
+                SpelMethodArgsUtils.eval("#orderNo + ':' + #userId", method, new Object[]{"NO1"}));
+    }
+
+    @Test
+    void nullResultIsRejected() throws Exception {
+        Method method = method("lockOrder", String.class, Long.class);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> SpelMethodArgsUtils.eval("#orderNo", method, new Object[]{null, 1L}));
+        assertThrows(IllegalArgumentException.class,
+                () -> SpelMethodArgsUtils.eval((Expression) null, method, new Object[0]));
+        assertThrows(IllegalArgumentException.class,
+                () -> SpelMethodArgsUtils.eval("#orderNo", null, new Object[]{"NO1"}));
+    }
+
+    /**
+     * 单次计算锁键 / bizKey 的耗时对比
+     * 改造前：每次调用都重新解析表达式、查找方法参数名（读取 class 文件的调试信息）；
+     * 改造后：表达式和参数名按缓存复用，表达式执行若干次后编译为字节码
+     */
+    @Test
+    @Tag("benchmark")
+    void evalLatencyAgainstParsingEveryCall() throws Exception {
+        Method method = method("lockOrder", String.class, Long.class);
+        String spel = "'order:' + #orderNo + ':' + #userId";
+        Expression expression = SpelMethodArgsUtils.parse(spel);
+        Object[] args = {"NO1", 7L};
+        assertEquals(evalParsingEveryCall(spel, method, args), SpelMethodArgsUtils.eval(expression, method, args));
+
+        evalNanos(BENCHMARK_WARMUP_ROUNDS, () -> evalParsingEveryCall(spel, method, args));
+        evalNanos(BENCHMARK_WARMUP_ROUNDS, () -> SpelMethodArgsUtils.eval(expression, method, args));
+        long before = evalNanos(BENCHMARK_ROUNDS, () -> evalParsingEveryCall(spel, method, args));
+        long after = evalNanos(BENCHMARK_ROUNDS, () -> SpelMethodArgsUtils.eval(expression, method, args));
+
+        System.out.printf("SpEL 计算（%d 次）：每次解析 %.2fus/次，缓存并编译 %.2fus/次%n",
+                BENCHMARK_ROUNDS, before / 1e3 / BENCHMARK_ROUNDS, after / 1e3 / BENCHMARK_ROUNDS);
+        assertTrue(after * 2 < before, () -> "before=" + before + "ns, after=" + after + "ns");
+    }
+
+    private static long evalNanos(int rounds, Supplier<String> evaluation) {
+        int length = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            length += evaluation.get().length();
+        }
+        long elapsed = System.nanoTime() - start;
+        assertTrue(length > 0);
+        return elapsed;
+    }
+
+    /**
+     * 改造前 SpelMethodArgsUtils.eval 的计算方式（解析器和参数名发现器同样为单例）
+     */
+    private static String evalParsingEveryCall(String spel, Method method, Object[] args) {
+        StandardEvaluationContext ctx = new StandardEvaluationContext();
+        String[] paramNames = UNCACHED_NAME_DISCOVERER.getParameterNames(method);
+        if (paramNames != null) {
+            for (int i = 0; i < Math.min(paramNames.length, args.length); i++) {
+                ctx.setVariable(paramNames[i], args[i]);
+            }
+        }
+        return UNCACHED_PARSER.parseExpression(spel).getValue(ctx, String.class);
+    }
+
+    private static Method method(String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+        return SpelMethodArgsUtilsTest.class.getDeclaredMethod(name, parameterTypes);
+    }
+}
@@ -0,0 +1,59 @@
+package com.unlimited.sports.globox.common.lock;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * 批量锁句柄
+ * 由 {@link RedisDistributedLock#tryLockBatch} 返回，加锁失败时携带冲突的锁键
+ */
+@Getter
+public class BatchLock {
+
+    /**
+     * 本次加锁的锁键（已去重排序）
+     */
+    private final List<String> lockKeys;
+
+    /**
+     * 持有者令牌，释放时只删除值等于该令牌的锁键
+     */
+    private final String token;
+
+    /**
+     * 冲突的锁键，加锁成功时为空
+     */
+    private final List<String> conflictKeys;
+
+    /**
+     * 看门狗续期任务，未启用看门狗时为 null
+     */
+    @Getter(lombok.AccessLevel.NONE)
+    private volatile ScheduledFuture<?> renewTask;
+
+    public BatchLock(List<String> lockKeys, String token, List<String> conflictKeys) {
+        this.lockKeys = lockKeys;
+        this.token = token;
+        this.conflictKeys = conflictKeys;
+    }
+
+    /**
+     * 是否已成功持有全部锁（锁键为空时视为加锁失败）
+     */
+    public boolean isLocked() {
+        return !lockKeys.isEmpty() && conflictKeys.isEmpty();
+    }
+
+    void setRenewTask(ScheduledFuture<?> renewTask) {
+        this.renewTask = renewTask;
+    }
+
+    void cancelRenewTask() {
+        ScheduledFuture<?> task = renewTask;
+        if (task != null) {
+            task.cancel(false);
+        }
+    }
+}
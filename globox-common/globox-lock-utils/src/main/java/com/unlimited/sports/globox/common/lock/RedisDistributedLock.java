@@ -1,128 +1,232 @@
 package com.unlimited.sports.globox.common.lock;
 
-import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
-import org.redisson.api.RLock;
+import org.redisson.api.RScript;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Redis分布式锁工具类
- * 支持MultiLock批量加锁，避免死锁
+ * 批量加锁通过一个 Lua 脚本原子完成：要么全部锁键都被占用，要么一个都不占用，
+ * 加锁和释放各只需一次 Redis 往返。
+ * leaseTime 不大于 0 时与 Redisson 的看门狗一致：按 lockWatchdogTimeout 持有，每隔其 1/3 续期一次，直到释放
  */
 @Slf4j
 @Component
 public class RedisDistributedLock {
 
+    /**
+     * 批量加锁脚本
+     * KEYS: 锁键, ARGV[1]: 持有者令牌, ARGV[2]: 持有时间（毫秒）
+     * 返回冲突的锁键列表，为空表示全部加锁成功
+     */
+    private static final String BATCH_LOCK_SCRIPT =
+            "local conflicts = {} " +
+            "for i = 1, #KEYS do " +
+            "  if redis.call('exists', KEYS[i]) == 1 then " +
+            "    conflicts[#conflicts + 1] = KEYS[i] " +
+            "  end " +
+            "end " +
+            "if #conflicts > 0 then " +
+            "  return conflicts " +
+            "end " +
+            "for i = 1, #KEYS do " +
+            "  redis.call('set', KEYS[i], ARGV[1], 'PX', ARGV[2]) " +
+            "end " +
+            "return conflicts";
+
+    /**
+     * 批量释放脚本，只删除仍由当前令牌持有的锁键
+     * KEYS: 锁键, ARGV[1]: 持有者令牌
+     * 返回实际释放的数量
+     */
+    private static final String BATCH_UNLOCK_SCRIPT =
+            "local released = 0 " +
+            "for i = 1, #KEYS do " +
+            "  if redis.call('get', KEYS[i]) == ARGV[1] then " +
+            "    redis.call('del', KEYS[i]) " +
+            "    released = released + 1 " +
+            "  end " +
+            "end " +
+            "return released";
+
+    /**
+     * 批量续期脚本，只续期仍由当前令牌持有的锁键
+     * KEYS: 锁键, ARGV[1]: 持有者令牌, ARGV[2]: 持有时间（毫秒）
+     * 返回实际续期的数量
+     */
+    private static final String BATCH_RENEW_SCRIPT =
+            "local renewed = 0 " +
+            "for i = 1, #KEYS do " +
+            "  if redis.call('get', KEYS[i]) == ARGV[1] then " +
+            "    redis.call('pexpire', KEYS[i], ARGV[2]) " +
+            "    renewed = renewed + 1 " +
+            "  end " +
+            "end " +
+            "return renewed";
+
+    /**
+     * 等待期间的重试间隔（毫秒）
+     */
+    private static final long RETRY_INTERVAL_MILLIS = 50L;
+
+    /**
+     * 看门狗线程数
+     */
+    private static final int WATCHDOG_THREADS = 2;
+
     @Autowired
     private RedissonClient redissonClient;
 
+    private final ScheduledExecutorService watchdogExecutor = Executors.newScheduledThreadPool(WATCHDOG_THREADS,
+            new ThreadFactory() {
+                private final AtomicInteger index = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "batch-lock-watchdog-" + index.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    @PreDestroy
+    public void shutdown() {
+        watchdogExecutor.shutdownNow();
+    }
+
     /**
-     * 批量获取多个锁（逐个加锁，确保所有锁都获取成功）
-     * 内部自动排序避免死锁
+     * 批量获取多个锁（单个 Lua 脚本原子加锁，全部成功或全部失败）
      *
-     * @param lockKeys 锁键列表
-     * @param waitTime 等待时间
-     * @param leaseTime 锁持有时间
+     * @param lockKeys 锁键列表，为空时返回加锁失败的句柄
+     * @param waitTime 等待时间，期间按固定间隔重试
+     * @param leaseTime 锁持有时间，不大于 0 时启用看门狗续期直到 {@link #unlockBatch} 释放
      * @param timeUnit 时间单位
-     * @return 所有锁都获取成功返回锁列表，否则返回null
+     * @return 批量锁句柄，{@link BatchLock#isLocked()} 为 false 时可通过 {@link BatchLock#getConflictKeys()} 获取冲突锁键
      */
-    public List<RLock> tryLockMultiple(List<String> lockKeys, long waitTime, long leaseTime, TimeUnit timeUnit) {
+    public BatchLock tryLockBatch(List<String> lockKeys, long waitTime, long leaseTime, TimeUnit timeUnit) {
+        String token = UUID.randomUUID().toString();
         if (lockKeys == null || lockKeys.isEmpty()) {
             log.warn("锁键列表为空");
-            return null;
+            return new BatchLock(List.of(), token, List.of());
         }
 
-        // 去重并排序，避免死锁
+        // 去重并排序，保证日志和冲突结果稳定
         List<String> sortedKeys = lockKeys.stream()
                 .distinct()
                 .sorted()
                 .toList();
-
-        log.debug("开始批量获取锁（逐个加锁），共{}个锁，已排序，锁键: {}", sortedKeys.size(), sortedKeys);
-
-        List<RLock> acquiredLocks = new java.util.ArrayList<>();
+        boolean watchdog = leaseTime <= 0;
+        long leaseMillis = watchdog ? redissonClient.getConfig().getLockWatchdogTimeout() : timeUnit.toMillis(leaseTime);
+        long deadline = System.currentTimeMillis() + timeUnit.toMillis(waitTime);
 
         try {
-            // 逐个获取锁，确保所有锁都必须成功
-            for (String key : sortedKeys) {
-                RLock lock = redissonClient.getLock(key);
-                boolean lockAcquired = lock.tryLock(waitTime, leaseTime, timeUnit);
-
-                if (lockAcquired) {
-                    acquiredLocks.add(lock);
-                    log.info("成功获取锁: {}, 锁是否被当前线程持有: {}", key, lock.isHeldByCurrentThread());
-                } else {
-                    // 任何一个锁获取失败，释放已获取的所有锁
-                    log.warn("获取锁失败: {}，释放已获取的{}个锁", key, acquiredLocks.size());
-                    unlockMultiple(acquiredLocks);
-                    return null;
+            while (true) {
+                List<String> conflicts = evalBatchLock(sortedKeys, token, leaseMillis);
+                if (conflicts.isEmpty()) {
+                    log.debug("成功获取所有锁，共{}个，锁持有时间: {}ms，看门狗: {}，锁键: {}",
+                            sortedKeys.size(), leaseMillis, watchdog, sortedKeys);
+                    BatchLock batchLock = new BatchLock(sortedKeys, token, List.of());
+                    if (watchdog) {
+                        scheduleRenewal(batchLock, leaseMillis);
+                    }
+                    return batchLock;
                 }
-            }
-
-            log.info("成功获取所有锁，共{}个，等待时间: {} {}，锁持有时间: {} {}，锁键: {}",
-                    acquiredLocks.size(), waitTime, timeUnit, leaseTime, timeUnit, sortedKeys);
-            return acquiredLocks;
 
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    log.warn("获取锁失败，共{}个锁，冲突锁键: {}", sortedKeys.size(), conflicts);
+                    return new BatchLock(sortedKeys, token, conflicts);
+                }
+                Thread.sleep(Math.min(RETRY_INTERVAL_MILLIS, remaining));
+            }
         } catch (InterruptedException e) {
             log.error("获取锁被中断", e);
             Thread.currentThread().interrupt();
-            unlockMultiple(acquiredLocks);
-            return null;
+            return new BatchLock(sortedKeys, token, sortedKeys);
         } catch (Exception e) {
             log.error("获取锁异常", e);
-            unlockMultiple(acquiredLocks);
-            return null;
+            return new BatchLock(sortedKeys, token, sortedKeys);
         }
     }
 
     /**
-     * 释放多个锁
+     * 释放批量锁（单个 Lua 脚本，只释放仍由该句柄持有的锁键）
      *
-     * @param locks 锁列表
+     * @param batchLock 批量锁句柄
      */
-    public void unlockMultiple(List<RLock> locks) {
-        if (locks == null || locks.isEmpty()) {
-            log.warn("尝试释放null或空锁列表");
+    public void unlockBatch(BatchLock batchLock) {
+        if (batchLock == null || !batchLock.isLocked()) {
             return;
         }
+        batchLock.cancelRenewTask();
 
-        String threadName = Thread.currentThread().getName();
-        long threadId = Thread.currentThread().getId();
-
-        log.info("准备释放{}个锁 - 线程: {}, 线程ID: {}", locks.size(), threadName, threadId);
-
-        int successCount = 0;
-        int skipCount = 0;
+        try {
+            Long released = redissonClient.getScript(StringCodec.INSTANCE).eval(
+                    RScript.Mode.READ_WRITE,
+                    BATCH_UNLOCK_SCRIPT,
+                    RScript.ReturnType.INTEGER,
+                    new ArrayList<>(batchLock.getLockKeys()),
+                    batchLock.getToken());
+            if (released == null || released < batchLock.getLockKeys().size()) {
+                // 持有时间已过期，锁键可能已被其他请求占用
+                log.warn("部分锁已过期未释放 - 释放: {}, 总数: {}, 锁键: {}",
+                        released, batchLock.getLockKeys().size(), batchLock.getLockKeys());
+            }
+        } catch (Exception e) {
+            log.error("释放锁异常 - 锁键: {}", batchLock.getLockKeys(), e);
+        }
+    }
 
-        for (RLock lock : locks) {
+    /**
+     * 启动看门狗：每隔持有时间的 1/3 续期一次，锁键已不再由该令牌持有时停止续期
+     */
+    private void scheduleRenewal(BatchLock batchLock, long leaseMillis) {
+        long intervalMillis = Math.max(1L, leaseMillis / 3);
+        batchLock.setRenewTask(watchdogExecutor.scheduleWithFixedDelay(() -> {
             try {
-                if (lock == null) {
-                    continue;
-                }
-
-                // 检查当前线程是否持有该锁
-                if (!lock.isHeldByCurrentThread()) {
-                    log.debug("当前线程不持有该锁，跳过释放");
-                    skipCount++;
-                    continue;
+                Long renewed = redissonClient.getScript(StringCodec.INSTANCE).eval(
+                        RScript.Mode.READ_WRITE,
+                        BATCH_RENEW_SCRIPT,
+                        RScript.ReturnType.INTEGER,
+                        new ArrayList<>(batchLock.getLockKeys()),
+                        batchLock.getToken(),
+                        String.valueOf(leaseMillis));
+                if (renewed == null || renewed < batchLock.getLockKeys().size()) {
+                    log.warn("锁已丢失，停止续期 - 续期: {}, 总数: {}, 锁键: {}",
+                            renewed, batchLock.getLockKeys().size(), batchLock.getLockKeys());
+                    batchLock.cancelRenewTask();
                 }
-
-                lock.unlock();
-                successCount++;
-                log.debug("成功释放锁");
-
             } catch (Exception e) {
-                log.error("释放锁异常 - 线程: {}, 异常: {}", threadName, e.getMessage(), e);
+                log.error("锁续期异常，下次重试 - 锁键: {}", batchLock.getLockKeys(), e);
             }
-        }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS));
+    }
 
-        log.info("锁释放完成 - 线程: {}, 线程ID: {}, 成功: {}, 跳过: {}, 总数: {}",
-                threadName, threadId, successCount, skipCount, locks.size());
+    private List<String> evalBatchLock(List<String> keys, String token, long leaseMillis) {
+        List<Object> conflicts = redissonClient.getScript(StringCodec.INSTANCE).eval(
+                RScript.Mode.READ_WRITE,
+                BATCH_LOCK_SCRIPT,
+                RScript.ReturnType.MULTI,
+                new ArrayList<>(keys),
+                token,
+                String.valueOf(leaseMillis));
+        if (conflicts == null || conflicts.isEmpty()) {
+            return List.of();
+        }
+        return conflicts.stream().map(String::valueOf).toList();
     }
 
 }
@@ -9,18 +9,16 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
-import org.springframework.core.DefaultParameterNameDiscoverer;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.expression.Expression;
-import org.springframework.expression.ExpressionParser;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
@@ -31,6 +29,8 @@ public class RedisLockAspect {
 
     private final RedissonClient redissonClient;
 
+    private final Map<Method, Expression> lockKeyExpressions = new ConcurrentHashMap<>();
+
     public RedisLockAspect(RedissonClient redissonClient) {
         this.redissonClient = redissonClient;
     }
@@ -124,9 +124,10 @@ public class RedisLockAspect {
     }
 
     private String buildLockKey(RedisLock cfg, Method method, Object[] args) {
-        String spel = cfg.value();
+        // 每个方法的 key 表达式只解析一次
+        Expression expression = lockKeyExpressions.computeIfAbsent(method, m -> SpelMethodArgsUtils.parse(cfg.value()));
 
-        String dynamic = SpelMethodArgsUtils.eval(spel, method, args);
+        String dynamic = SpelMethodArgsUtils.eval(expression, method, args);
 
         String prefix = cfg.prefix();
         if (prefix != null && !prefix.isBlank()) {
@@ -0,0 +1,229 @@
+package com.unlimited.sports.globox.common.lock;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * RedisDistributedLock 批量锁测试
+ * Redis 用内存实现代替：按脚本文本分派到等价的 Java 实现，脚本之间互斥执行，与 Redis 单线程执行 Lua 一致；
+ * 每次脚本调用前休眠固定时间，模拟一次网络往返
+ */
+class RedisDistributedLockTest {
+
+    private static final String BATCH_LOCK_SCRIPT = script("BATCH_LOCK_SCRIPT");
+
+    private static final String BATCH_UNLOCK_SCRIPT = script("BATCH_UNLOCK_SCRIPT");
+
+    private static final String BATCH_RENEW_SCRIPT = script("BATCH_RENEW_SCRIPT");
+
+    /**
+     * 压测：一次预订锁定的槽位数
+     */
+    private static final int SLOTS = 8;
+
+    /**
+     * 压测：预订次数
+     */
+    private static final int BOOKINGS = 100;
+
+    /**
+     * 压测：模拟的单次 Redis 往返耗时
+     */
+    private static final long ROUND_TRIP_MILLIS = 1;
+
+    private FakeRedis redis;
+
+    private RedisDistributedLock distributedLock;
+
+    @BeforeEach
+    void setUp() {
+        redis = new FakeRedis();
+        RedissonClient redissonClient = mock(RedissonClient.class);
+        RScript script = mock(RScript.class, invocation -> {
+            Object[] args = invocation.getArguments();
+            return redis.eval((String) args[1], castKeys(args[3]), args);
+        });
+        when(redissonClient.getScript(StringCodec.INSTANCE)).thenReturn(script);
+        distributedLock = new RedisDistributedLock();
+        ReflectionTestUtils.setField(distributedLock, "redissonClient", redissonClient);
+    }
+
+    @Test
+    void conflictingBatchClaimsNoKeys() {
+        BatchLock holder = distributedLock.tryLockBatch(List.of("slot:2"), 0, 30, TimeUnit.SECONDS);
+        assertTrue(holder.isLocked());
+
+        BatchLock batchLock = distributedLock.tryLockBatch(List.of("slot:3", "slot:1", "slot:2"), 0, 30, TimeUnit.SECONDS);
+
+        assertFalse(batchLock.isLocked());
+        assertEquals(List.of("slot:2"), batchLock.getConflictKeys());
+        assertFalse(redis.exists("slot:1"));
+        assertFalse(redis.exists("slot:3"));
+    }
+
+    @Test
+    void unlockReleasesOnlyKeysStillHeldByToken() {
+        BatchLock batchLock = distributedLock.tryLockBatch(List.of("slot:1", "slot:2"), 0, 30, TimeUnit.SECONDS);
+        // 模拟 slot:2 持有时间已过期并被其他请求占用
+        redis.set("slot:2", "other");
+
+        distributedLock.unlockBatch(batchLock);
+
+        assertFalse(redis.exists("slot:1"));
+        assertEquals("other", redis.get("slot:2"));
+    }
+
+    /**
+     * 一次预订锁定多个槽位的耗时对比
+     * 改造前：每个槽位一个 RLock，逐个 tryLock、逐个 unlock，每个槽位加锁、释放各一次往返
+     * （未计入释放前 isHeldByCurrentThread 的查询），用逐键 SET NX / DEL 的脚本模拟；
+     * 改造后：加锁、释放各一个 Lua 脚本，与槽位数无关
+     */
+    @Test
+    @Tag("benchmark")
+    void bookingLockLatencyAgainstPerSlotLocks() {
+        long before = bookingNanos(slots -> {
+            for (String slot : slots) {
+                assertTrue(redis.roundTrip(() -> redis.setIfAbsent(slot, Thread.currentThread().getName())));
+            }
+            for (String slot : slots) {
+                assertTrue(redis.roundTrip(() -> redis.delete(slot)));
+            }
+        });
+
+        long after = bookingNanos(slots -> {
+            BatchLock batchLock = distributedLock.tryLockBatch(slots, 0, 30, TimeUnit.SECONDS);
+            assertTrue(batchLock.isLocked());
+            distributedLock.unlockBatch(batchLock);
+        });
+
+        System.out.printf("预订锁定 %d 个槽位（%d 次，单次往返 %dms）：逐槽位加锁 %.2fms/次，批量脚本 %.2fms/次%n",
+                SLOTS, BOOKINGS, ROUND_TRIP_MILLIS, before / 1e6 / BOOKINGS, after / 1e6 / BOOKINGS);
+        assertEquals(0, redis.size());
+        assertTrue(after * 3 < before, () -> "before=" + before + "ns, after=" + after + "ns");
+    }
+
+    private long bookingNanos(Booking booking) {
+        long start = System.nanoTime();
+        for (int i = 0; i < BOOKINGS; i++) {
+            List<String> slots = new ArrayList<>();
+            for (int s = 0; s < SLOTS; s++) {
+                slots.add("slot:" + i + ":" + s);
+            }
+            booking.lockAndUnlock(slots);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static String script(String name) {
+        return (String) ReflectionTestUtils.getField(RedisDistributedLock.class, name);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> castKeys(Object keys) {
+        return (List<String>) keys;
+    }
+
+    @FunctionalInterface
+    private interface Booking {
+        void lockAndUnlock(List<String> slots);
+    }
+
+    /**
+     * 只实现批量锁用到的三个脚本和逐键加锁的对照操作，不模拟过期
+     */
+    private static class FakeRedis {
+
+        private final Map<String, String> strings = new HashMap<>();
+
+        synchronized String get(String key) {
+            return strings.get(key);
+        }
+
+        synchronized void set(String key, String value) {
+            strings.put(key, value);
+        }
+
+        synchronized boolean setIfAbsent(String key, String value) {
+            return strings.putIfAbsent(key, value) == null;
+        }
+
+        synchronized boolean delete(String key) {
+            return strings.remove(key) != null;
+        }
+
+        synchronized boolean exists(String key) {
+            return strings.containsKey(key);
+        }
+
+        synchronized int size() {
+            return strings.size();
+        }
+
+        <T> T roundTrip(Supplier<T> command) {
+            sleepRoundTrip();
+            return command.get();
+        }
+
+        /**
+         * args 为 eval 的完整参数：mode, script, returnType, keys, values...
+         */
+        Object eval(String script, List<String> keys, Object[] args) {
+            sleepRoundTrip();
+            synchronized (this) {
+                String token = (String) args[4];
+                if (BATCH_LOCK_SCRIPT.equals(script)) {
+                    List<Object> conflicts = new ArrayList<>();
+                    for (String key : keys) {
+                        if (strings.containsKey(key)) {
+                            conflicts.add(key);
+                        }
+                    }
+                    if (conflicts.isEmpty()) {
+                        keys.forEach(key -> strings.put(key, token));
+                    }
+                    return conflicts;
+                }
+                if (BATCH_UNLOCK_SCRIPT.equals(script) || BATCH_RENEW_SCRIPT.equals(script)) {
+                    long matched = 0;
+                    for (String key : keys) {
+                        if (token.equals(strings.get(key))) {
+                            if (BATCH_UNLOCK_SCRIPT.equals(script)) {
+                                strings.remove(key);
+                            }
+                            matched++;
+                        }
+                    }
+                    return matched;
+                }
+                throw new UnsupportedOperationException("未模拟的脚本");
+            }
+        }
+
+        private static void sleepRoundTrip() {
+            try {
+                TimeUnit.MILLISECONDS.sleep(ROUND_TRIP_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
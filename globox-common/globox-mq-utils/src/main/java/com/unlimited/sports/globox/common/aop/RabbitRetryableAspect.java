@@ -12,8 +12,10 @@ import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.amqp.core.Message;
 import org.springframework.aop.support.AopUtils;
+import org.springframework.context.expression.MethodClassKey;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.expression.Expression;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
@@ -23,6 +25,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Aspect
@@ -33,17 +36,19 @@ public class RabbitRetryableAspect {
 
     private final MQService mqService;
 
+    private final Map<MethodClassKey, RetryableMetadata> metadataCache = new ConcurrentHashMap<>();
+
     @Around("@annotation(com.unlimited.sports.globox.common.aop.RabbitRetryable)")
     public Object around(ProceedingJoinPoint pjp) throws Throwable {
 
         MethodSignature ms = (MethodSignature) pjp.getSignature();
         Method method = ms.getMethod();
-        Method specific = AopUtils.getMostSpecificMethod(method, pjp.getTarget().getClass());
-
-        RabbitRetryable cfg = specific.getAnnotation(RabbitRetryable.class);
+        Class<?> targetClass = pjp.getTarget().getClass();
 
-        // 运行期必填校验
-        validateAnnotation(cfg, specific);
+        // 注解、表达式、generator 每个方法只解析一次
+        RetryableMetadata metadata = metadataCache.computeIfAbsent(new MethodClassKey(method, targetClass),
+                key -> RetryableMetadata.resolve(method, targetClass));
+        RabbitRetryable cfg = metadata.cfg();
 
         Object[] allArgs = pjp.getArgs();
 
@@ -70,7 +75,7 @@ public class RabbitRetryableAspect {
 
             if (attempt > cfg.maxRetryCount()) {
                 // 超限：投 Final-DLX（带业务标识 headers） + ACK 原消息
-                Map<String, Object> headers = buildFinalHeaders(cfg, specific, allArgs, payload, amqpMessage, ex);
+                Map<String, Object> headers = buildFinalHeaders(metadata, allArgs, payload, amqpMessage, ex);
 
                 mqService.send(cfg.finalExchange(), cfg.finalRoutingKey(), payload, headers);
 
@@ -90,7 +95,7 @@ public class RabbitRetryableAspect {
         }
     }
 
-    private void validateAnnotation(RabbitRetryable cfg, Method method) {
+    private static void validateAnnotation(RabbitRetryable cfg, Method method) {
         if (cfg == null) {
             throw new IllegalArgumentException("@RabbitRetryable not found: " + method);
         }
@@ -105,8 +110,7 @@ public class RabbitRetryableAspect {
         }
     }
 
-    private Map<String, Object> buildFinalHeaders(RabbitRetryable cfg,
-            Method specificMethod,
+    private Map<String, Object> buildFinalHeaders(RetryableMetadata metadata,
             Object[] allArgs,
             Object payload,
             Message amqpMessage,
@@ -115,11 +119,11 @@ public class RabbitRetryableAspect {
         Map<String, Object> headers = new HashMap<>();
 
         // 业务类型：建议存 code
-        MQBizTypeEnum bizType = cfg.bizType();
+        MQBizTypeEnum bizType = metadata.cfg().bizType();
         headers.put("x-biz-type", bizType.getCode());
 
         // 业务 key：SpEL -> generator -> fallback
-        String bizKey = resolveBizKey(cfg, specificMethod, allArgs, payload, amqpMessage);
+        String bizKey = resolveBizKey(metadata, allArgs, payload, amqpMessage);
         headers.put("x-biz-key", bizKey);
 
         // 原始路由
@@ -133,32 +137,29 @@ public class RabbitRetryableAspect {
         return headers;
     }
 
-    private String resolveBizKey(RabbitRetryable cfg,
-            Method method,
+    private String resolveBizKey(RetryableMetadata metadata,
             Object[] args,
             Object payload,
             Message amqpMessage) {
 
         // 1) bizKey：按 SpEL 解析（解析失败则走 generator）
-        if (StringUtils.hasText(cfg.bizKey())) {
-            String expr = cfg.bizKey().trim();
+        if (metadata.bizKeyExpression() != null) {
             try {
-                String v = SpelMethodArgsUtils.eval(expr, method, args);
+                String v = SpelMethodArgsUtils.eval(metadata.bizKeyExpression(), metadata.method(), args);
                 if (StringUtils.hasText(v)) return v.trim();
             } catch (Exception e) {
-                log.warn("[MQ] SpEL 解析失败，回退到 BizKeyGenerator. expr={}", expr, e);
+                log.warn("[MQ] SpEL 解析失败，回退到 BizKeyGenerator. expr={}",
+                        metadata.bizKeyExpression().getExpressionString(), e);
             }
         }
 
         // 2) generator
         try {
-            Class<? extends BizKeyGenerator> genClz = cfg.bizKeyGenerator();
-            BizKeyGenerator generator = instantiate(genClz);
-            String key = generator.generate(payload, amqpMessage);
+            String key = metadata.bizKeyGenerator().generate(payload, amqpMessage);
             if (StringUtils.hasText(key)) return key.trim();
         } catch (Exception e) {
             log.warn("[MQ] BizKeyGenerator 执行失败，将回退到 fallback, generator={}",
-                    cfg.bizKeyGenerator().getName(), e);
+                    metadata.cfg().bizKeyGenerator().getName(), e);
         }
 
         // 3) fallback
@@ -168,10 +169,15 @@ public class RabbitRetryableAspect {
         return "payloadHash:" + Objects.hashCode(payload);
     }
 
-    private BizKeyGenerator instantiate(Class<? extends BizKeyGenerator> clazz) throws Exception {
-        Constructor<? extends BizKeyGenerator> c = clazz.getDeclaredConstructor();
-        c.setAccessible(true);
-        return c.newInstance();
+    private static BizKeyGenerator instantiate(Class<? extends BizKeyGenerator> clazz) {
+        try {
+            Constructor<? extends BizKeyGenerator> c = clazz.getDeclaredConstructor();
+            c.setAccessible(true);
+            return c.newInstance();
+        } catch (ReflectiveOperationException e) {
+            log.warn("[MQ] BizKeyGenerator 实例化失败，使用默认生成器, generator={}", clazz.getName(), e);
+            return new DefaultBizKeyGenerator();
+        }
     }
 
     private String safeMsg(String s, int max) {
@@ -179,6 +185,34 @@ public class RabbitRetryableAspect {
         return s.length() <= max ? s : s.substring(0, max);
     }
 
+    /**
+     * 每个监听方法的解析结果：注解、最具体方法、bizKey 表达式、generator 单例
+     */
+    private record RetryableMetadata(RabbitRetryable cfg,
+            Method method,
+            Expression bizKeyExpression,
+            BizKeyGenerator bizKeyGenerator) {
+
+        static RetryableMetadata resolve(Method method, Class<?> targetClass) {
+            Method specific = AopUtils.getMostSpecificMethod(method, targetClass);
+            RabbitRetryable cfg = specific.getAnnotation(RabbitRetryable.class);
+
+            // 运行期必填校验
+            validateAnnotation(cfg, specific);
+
+            Expression bizKeyExpression = null;
+            if (StringUtils.hasText(cfg.bizKey())) {
+                try {
+                    bizKeyExpression = SpelMethodArgsUtils.parse(cfg.bizKey().trim());
+                } catch (Exception e) {
+                    log.warn("[MQ] bizKey 表达式解析失败，将使用 BizKeyGenerator. expr={}, method={}",
+                            cfg.bizKey(), specific, e);
+                }
+            }
+            return new RetryableMetadata(cfg, specific, bizKeyExpression, instantiate(cfg.bizKeyGenerator()));
+        }
+    }
+
     /**
      * 从参数中提取 payload / channel / amqpMessage
      * 强约束：listener 方法必须带 (payload, Channel, Message)（顺序不限）
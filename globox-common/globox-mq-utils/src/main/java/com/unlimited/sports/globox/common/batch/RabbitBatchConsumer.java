@@ -0,0 +1,233 @@
+package com.unlimited.sports.globox.common.batch;
+
+import com.rabbitmq.client.Channel;
+import com.unlimited.sports.globox.common.aop.BizKeyGenerator;
+import com.unlimited.sports.globox.common.service.MQService;
+import com.unlimited.sports.globox.common.utils.MQUtils;
+import com.unlimited.sports.globox.common.utils.SpelMethodArgsUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 批量消费模板：转换消息体、调用批量处理逻辑、按条处理失败消息并统一 ACK
+ *
+ * 用法（监听容器使用 {@link com.unlimited.sports.globox.common.config.RabbitBatchListenerConfig#BATCH_LISTENER_FACTORY}）：
+ * <pre>
+ * &#64;RabbitListener(queues = QUEUE, containerFactory = RabbitBatchListenerConfig.BATCH_LISTENER_FACTORY)
+ * public void onMessages(List&lt;Message&gt; messages, Channel channel) throws IOException {
+ *     rabbitBatchConsumer.consume(messages, channel, XxxMessage.class, this::handleBatch, RETRY_POLICY);
+ * }
+ * </pre>
+ *
+ * 整批处理失败时逐条重新处理，只有单独处理仍失败的消息按 {@link RabbitBatchRetryPolicy} 进入重试链路或最终死信，其余消息正常 ACK
+ */
+@Slf4j
+@Component
+public class RabbitBatchConsumer {
+
+    private final Map<Class<? extends BizKeyGenerator>, BizKeyGenerator> bizKeyGenerators = new ConcurrentHashMap<>();
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private MQService mqService;
+
+    /**
+     * 消费一批消息，方法返回时这批消息均已 ACK 或 reject
+     *
+     * @param messages     容器投递的原始消息
+     * @param channel      消费信道
+     * @param payloadClass 消息体类型
+     * @param handler      批量处理逻辑
+     * @param policy       失败消息处理策略
+     */
+    public <T> void consume(List<Message> messages,
+            Channel channel,
+            Class<T> payloadClass,
+            RabbitBatchHandler<T> handler,
+            RabbitBatchRetryPolicy policy) throws IOException {
+        if (messages == null || messages.isEmpty()) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+
+        List<Message> converted = new ArrayList<>(messages.size());
+        List<T> payloads = new ArrayList<>(messages.size());
+        Set<Long> settledTags = new HashSet<>();
+        for (Message message : messages) {
+            T payload;
+            try {
+                payload = convert(message, payloadClass);
+            } catch (Exception e) {
+                // 消息体无法解析，重试没有意义，直接按超限处理
+                log.error("[MQ批量消费] 消息体解析失败 - msgId: {}, queue: {}",
+                        message.getMessageProperties().getMessageId(),
+                        message.getMessageProperties().getConsumerQueue(), e);
+                sendToFinal(policy, new String(message.getBody(), StandardCharsets.UTF_8), message, e, channel);
+                settledTags.add(message.getMessageProperties().getDeliveryTag());
+                continue;
+            }
+            converted.add(message);
+            payloads.add(payload);
+        }
+
+        if (!payloads.isEmpty()) {
+            try {
+                handler.handle(payloads);
+            } catch (Exception batchEx) {
+                log.warn("[MQ批量消费] 整批处理失败，改为逐条处理 - size: {}, error: {}", payloads.size(), batchEx.toString());
+                for (int i = 0; i < payloads.size(); i++) {
+                    try {
+                        handler.handle(List.of(payloads.get(i)));
+                    } catch (Exception itemEx) {
+                        onItemFailed(policy, payloads.get(i), converted.get(i), itemEx, channel);
+                        settledTags.add(converted.get(i).getMessageProperties().getDeliveryTag());
+                    }
+                }
+            }
+        }
+
+        // 失败消息已单独 ACK/reject，其余按最大 deliveryTag 一次性确认（重复确认同一 tag 会导致信道关闭）
+        long maxTag = -1L;
+        for (Message message : messages) {
+            long tag = message.getMessageProperties().getDeliveryTag();
+            if (!settledTags.contains(tag)) {
+                maxTag = Math.max(maxTag, tag);
+            }
+        }
+        if (maxTag >= 0) {
+            channel.basicAck(maxTag, true);
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("[MQ批量消费] 处理完成 - size: {}, failed: {}, cost: {}ms",
+                    messages.size(), settledTags.size(), (System.nanoTime() - startNanos) / 1_000_000);
+        }
+    }
+
+    /**
+     * 单条消息处理失败：未超限进入重试链路，超限投递 Final-DLX
+     */
+    private void onItemFailed(RabbitBatchRetryPolicy policy, Object payload, Message message, Exception ex,
+            Channel channel) throws IOException {
+        long deathCount = MQUtils.getXDeathCount(message);
+        long attempt = deathCount + 1;
+
+        log.error("[MQ批量消费] 消费失败, xDeathCount={}, attempt={}, max={}",
+                deathCount, attempt, policy.getMaxRetryCount(), ex);
+
+        if (!StringUtils.hasText(policy.getFinalExchange()) || attempt > policy.getMaxRetryCount()) {
+            sendToFinal(policy, payload, message, ex, channel);
+            return;
+        }
+
+        // 未超限：Reject(false) 进入 Retry-DLX -> retry.queue(TTL) -> 回主队列
+        channel.basicReject(message.getMessageProperties().getDeliveryTag(), false);
+        log.warn("[MQ批量消费] reject 进入重试链路 attempt={}, max={}", attempt, policy.getMaxRetryCount());
+    }
+
+    /**
+     * 投递 Final-DLX（带业务标识 headers）并 ACK 原消息；未配置 Final-DLX 时只记录日志
+     */
+    private void sendToFinal(RabbitBatchRetryPolicy policy, Object payload, Message message, Exception ex,
+            Channel channel) throws IOException {
+        Map<String, Object> headers = buildFinalHeaders(policy, payload, message, ex);
+        if (StringUtils.hasText(policy.getFinalExchange())) {
+            mqService.send(policy.getFinalExchange(), policy.getFinalRoutingKey(), payload, headers);
+            log.error("[MQ批量消费] 已投递最终DLQ bizType={}, bizKey={}", policy.getBizType(), headers.get("x-biz-key"));
+        } else {
+            log.error("[MQ批量消费] 未配置重试链路，丢弃失败消息 bizType={}, bizKey={}",
+                    policy.getBizType(), headers.get("x-biz-key"));
+        }
+        channel.basicAck(message.getMessageProperties().getDeliveryTag(), false);
+    }
+
+    private <T> T convert(Message message, Class<T> payloadClass) {
+        message.getMessageProperties().setInferredArgumentType(payloadClass);
+        Object payload = rabbitTemplate.getMessageConverter().fromMessage(message);
+        return payloadClass.cast(payload);
+    }
+
+    private Map<String, Object> buildFinalHeaders(RabbitBatchRetryPolicy policy, Object payload, Message message,
+            Exception ex) {
+        Map<String, Object> headers = new HashMap<>();
+
+        headers.put("x-biz-type", policy.getBizType().getCode());
+        headers.put("x-biz-key", resolveBizKey(policy, payload, message));
+
+        // 原始路由
+        headers.put("x-orig-exchange", message.getMessageProperties().getReceivedExchange());
+        headers.put("x-orig-routing-key", message.getMessageProperties().getReceivedRoutingKey());
+
+        // 异常摘要
+        headers.put("x-exception", ex.getClass().getName());
+        headers.put("x-exception-msg", safeMsg(ex.getMessage(), 256));
+
+        return headers;
+    }
+
+    /**
+     * 业务 key：SpEL -> generator -> fallback
+     */
+    private String resolveBizKey(RabbitBatchRetryPolicy policy, Object payload, Message message) {
+        if (StringUtils.hasText(policy.getBizKey())) {
+            String expr = policy.getBizKey().trim();
+            try {
+                StandardEvaluationContext ctx = new StandardEvaluationContext();
+                ctx.setVariable("payload", payload);
+                ctx.setVariable("message", message);
+                String v = SpelMethodArgsUtils.parse(expr).getValue(ctx, String.class);
+                if (StringUtils.hasText(v)) return v.trim();
+            } catch (Exception e) {
+                log.warn("[MQ批量消费] SpEL 解析失败，回退到 BizKeyGenerator. expr={}", expr, e);
+            }
+        }
+
+        try {
+            String key = bizKeyGenerators.computeIfAbsent(policy.getBizKeyGenerator(), this::instantiate)
+                    .generate(payload, message);
+            if (StringUtils.hasText(key)) return key.trim();
+        } catch (Exception e) {
+            log.warn("[MQ批量消费] BizKeyGenerator 执行失败，将回退到 fallback, generator={}",
+                    policy.getBizKeyGenerator().getName(), e);
+        }
+
+        String msgId = message.getMessageProperties().getMessageId();
+        if (StringUtils.hasText(msgId)) return "msgId:" + msgId;
+
+        return "payloadHash:" + Objects.hashCode(payload);
+    }
+
+    private BizKeyGenerator instantiate(Class<? extends BizKeyGenerator> clazz) {
+        try {
+            Constructor<? extends BizKeyGenerator> c = clazz.getDeclaredConstructor();
+            c.setAccessible(true);
+            return c.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("BizKeyGenerator 实例化失败: " + clazz.getName(), e);
+        }
+    }
+
+    private String safeMsg(String s, int max) {
+        if (s == null) return null;
+        return s.length() <= max ? s : s.substring(0, max);
+    }
+}
@@ -0,0 +1,21 @@
+package com.unlimited.sports.globox.common.batch;
+
+import java.util.List;
+
+/**
+ * 批量消息处理逻辑
+ *
+ * @param <T> 消息体类型
+ * @see RabbitBatchConsumer
+ */
+@FunctionalInterface
+public interface RabbitBatchHandler<T> {
+
+    /**
+     * 处理一批消息，抛出异常表示整批失败，之后会逐条重新处理以找出失败的消息
+     * 因此处理逻辑需要幂等
+     *
+     * @param payloads 消息体列表，顺序与投递顺序一致
+     */
+    void handle(List<T> payloads) throws Exception;
+}
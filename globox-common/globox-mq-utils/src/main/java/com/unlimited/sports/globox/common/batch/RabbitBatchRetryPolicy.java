@@ -0,0 +1,52 @@
+package com.unlimited.sports.globox.common.batch;
+
+import com.unlimited.sports.globox.common.aop.BizKeyGenerator;
+import com.unlimited.sports.globox.common.aop.DefaultBizKeyGenerator;
+import com.unlimited.sports.globox.common.enums.governance.MQBizTypeEnum;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * 批量消费失败消息的处理策略，语义与 {@link com.unlimited.sports.globox.common.aop.RabbitRetryable} 一致
+ * 建议定义为消费者的静态常量
+ *
+ * - finalExchange 为空：队列没有重试链路，失败消息记录日志后 ACK（不丢到死信）
+ * - finalExchange 不为空：队列需配置 Retry-DLX，attempt 未超限时 reject 进入重试链路，超限后投递 Final-DLX 并 ACK
+ */
+@Getter
+@Builder
+public class RabbitBatchRetryPolicy {
+
+    /**
+     * 最大重试次数（attempt），attempt = xDeathCount + 1
+     */
+    @Builder.Default
+    private final int maxRetryCount = 5;
+
+    /**
+     * 超限后投递到 Final-DLX 的 exchange
+     */
+    private final String finalExchange;
+
+    /**
+     * 超限后投递到 Final-DLX 的 routingKey
+     */
+    private final String finalRoutingKey;
+
+    /**
+     * 业务类型
+     */
+    @Builder.Default
+    private final MQBizTypeEnum bizType = MQBizTypeEnum.UNKNOW;
+
+    /**
+     * 业务 key，SpEL 表达式，可用变量：#payload（消息体）、#message（原始 AMQP Message）
+     */
+    private final String bizKey;
+
+    /**
+     * 业务 key 生成器，bizKey 为空或解析失败时使用
+     */
+    @Builder.Default
+    private final Class<? extends BizKeyGenerator> bizKeyGenerator = DefaultBizKeyGenerator.class;
+}
@@ -4,23 +4,23 @@ import com.unlimited.sports.globox.common.constants.OrderMQConstants;
 import com.unlimited.sports.globox.common.constants.VenueMQConstants;
 import com.unlimited.sports.globox.common.model.MQRetryCorrelationData;
 import com.unlimited.sports.globox.common.utils.JsonUtils;
-import com.unlimited.sports.globox.service.RedisService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.ReturnedMessage;
 import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
-import org.springframework.util.ObjectUtils;
 
 import javax.annotation.PostConstruct;
 import java.util.Objects;
-import java.util.concurrent.TimeUnit;
 
 /**
  * 用于绑定 生产者->交换机 与 交换机 -> 队列 失败后的回调方法到 rabbitTemplate
+ *
+ * 重试所需的信息就在发送时传入的 {@link MQRetryCorrelationData} 中（内存），不再额外写 Redis：
+ * 未路由的消息在 confirm 之前回调，RabbitTemplate 会把它记录到对应 CorrelationData 的 returned 上，
+ * 因此 nack 和未路由统一在 confirm 回调里重试
  */
 @Component
 @Slf4j
@@ -34,9 +34,6 @@ public class MQProducerAckConfig implements RabbitTemplate.ConfirmCallback, Rabb
     @Autowired
     private RabbitTemplate rabbitTemplate;
 
-    @Autowired
-    private RedisService redisService;
-
     @Autowired
     private JsonUtils jsonUtils;
 
@@ -50,50 +47,69 @@ public class MQProducerAckConfig implements RabbitTemplate.ConfirmCallback, Rabb
         rabbitTemplate.setReturnsCallback(this);
     }
 
+    /**
+     * 延迟交换机投递时总会返回未路由，属于正常情况，不需要重试
+     *
+     * @param exchange 交换机
+     */
+    public static boolean isReturnExpected(String exchange) {
+        return OrderMQConstants.EXCHANGE_TOPIC_ORDER_AUTO_CANCEL.equals(exchange)
+                || OrderMQConstants.EXCHANGE_TOPIC_ORDER_AUTO_COMPLETE.equals(exchange)
+                // 场馆延迟消息交换机不需要重试
+                || VenueMQConstants.EXCHANGE_TOPIC_ACTIVITY_BOOKING_REMINDER.equals(exchange)
+                || VenueMQConstants.EXCHANGE_TOPIC_VENUE_BOOKING_REMINDER.equals(exchange);
+    }
+
     /**
      * 从生产者发送到交换机时触发
      *
-     * @param correlationData 数据，必须在发送消息时传递一个 correlationData 对象，并且消息发送失败，才会有值
+     * @param correlationData 数据，必须在发送消息时传递一个 correlationData 对象
      * @param ack             是否发送成功
      * @param cause           发送失败原因
      */
     @Override
     public void confirm(CorrelationData correlationData, boolean ack, String cause) {
+        if (!(correlationData instanceof MQRetryCorrelationData mqRetryCorrelationData)) {
+            return;
+        }
+        // 发件箱投递的消息由发件箱根据确认结果重试
+        if (mqRetryCorrelationData.isOutbox()) {
+            return;
+        }
         if (!ack) {
             log.warn("msgId：{} 发送失败 cause:{}， 数据：{}",
                     correlationData.getId(),
                     cause,
                     jsonUtils.objectToJson(correlationData));
-            this.retryMessage(correlationData);
+            this.retryMessage(mqRetryCorrelationData);
+            return;
+        }
+
+        ReturnedMessage returned = correlationData.getReturned();
+        if (returned != null && !isReturnExpected(returned.getExchange())) {
+            this.retryMessage(mqRetryCorrelationData);
         }
     }
 
 
     /**
      * 从交换机发送消息到队列 失败时触发（发送成功不触发）
+     * 这里只记录日志，重试在随后的 confirm 回调中进行
      *
      * @param returned 返回的消息及其元数据
      */
     @Override
     public void returnedMessage(ReturnedMessage returned) {
         String exchange = returned.getExchange();
+        if (isReturnExpected(exchange)) {
+            return;
+        }
 
         Message message = returned.getMessage();
         String id = (String) message.getMessageProperties()
                 .getHeaders()
                 .get("spring_returned_message_correlation");
 
-        if (exchange.equals(OrderMQConstants.EXCHANGE_TOPIC_ORDER_AUTO_CANCEL)
-                || exchange.equals(OrderMQConstants.EXCHANGE_TOPIC_ORDER_AUTO_COMPLETE)) {
-            return;
-        }
-
-        // 场馆延迟消息交换机不需要重试
-        if (exchange.equals(VenueMQConstants.EXCHANGE_TOPIC_ACTIVITY_BOOKING_REMINDER)
-                || exchange.equals(VenueMQConstants.EXCHANGE_TOPIC_VENUE_BOOKING_REMINDER)) {
-            return;
-        }
-
         log.warn("msgId:{} 未送达队列 消息主体:{} 应答码:{} 描述:{} exchange:{} routing:{}",
                 id,
                 new String(message.getBody()),
@@ -101,19 +117,6 @@ public class MQProducerAckConfig implements RabbitTemplate.ConfirmCallback, Rabb
                 returned.getReplyText(),
                 exchange,
                 returned.getRoutingKey());
-
-
-        String strJson = redisService.getCacheObject(id, String.class);
-        if (ObjectUtils.isEmpty(strJson)) {
-            log.error("msgId:{} 在 Redis 中不存在，无法重试", id);
-            // TODO 写 DB / 告警
-            return;
-        }
-
-        MQRetryCorrelationData correlationData =
-                jsonUtils.jsonToPojo(strJson, MQRetryCorrelationData.class);
-
-        retryMessage(correlationData);
     }
 
 
@@ -122,27 +125,28 @@ public class MQProducerAckConfig implements RabbitTemplate.ConfirmCallback, Rabb
      *
      * @param correlationData 自己封装的实体类，记录了交换机、路由key等，用于消息重试发送
      */
-    private void retryMessage(CorrelationData correlationData) {
-        MQRetryCorrelationData mqRetryCorrelationData = (MQRetryCorrelationData) correlationData;
-
+    private void retryMessage(MQRetryCorrelationData correlationData) {
         // 判断是否到达重试次数
-        int retryCount = mqRetryCorrelationData.getRetryCount();
+        int retryCount = correlationData.getRetryCount();
         if (retryCount >= MAX_RETRY) {
             log.error("消息已重试达到最大次数，msgId:{}", correlationData.getId());
             // TODO 入库，短信、邮箱通知（待定）
             return;
         }
 
+        // 每次发送使用新的 CorrelationData，避免上一次的确认结果和 returned 残留
+        MQRetryCorrelationData mqRetryCorrelationData = new MQRetryCorrelationData();
+        mqRetryCorrelationData.setId(correlationData.getId());
+        mqRetryCorrelationData.setMessage(correlationData.getMessage());
+        mqRetryCorrelationData.setExchange(correlationData.getExchange());
+        mqRetryCorrelationData.setRoutingKey(correlationData.getRoutingKey());
+        mqRetryCorrelationData.setRetryCount(retryCount);
+        mqRetryCorrelationData.setDelay(correlationData.isDelay());
+        mqRetryCorrelationData.setDelayTime(correlationData.getDelayTime());
+
         // 重试次数 + 1
         mqRetryCorrelationData.increaseRetryCount();
 
-        // 更新redis中的缓存
-        redisService.setCacheObject(
-                mqRetryCorrelationData.getId(),
-                mqRetryCorrelationData,
-                10L,
-                TimeUnit.MINUTES);
-
         // 重试发送消息
         if (mqRetryCorrelationData.isDelay()) {
             // 如果是延迟队列
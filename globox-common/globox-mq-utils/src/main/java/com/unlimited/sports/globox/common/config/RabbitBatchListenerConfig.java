@@ -0,0 +1,57 @@
+package com.unlimited.sports.globox.common.config;
+
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * rabbit mq 批量消费者配置
+ * 监听方法使用 containerFactory = {@link #BATCH_LISTENER_FACTORY}，参数为 (List&lt;Message&gt;, Channel)，
+ * 一次最多收到 batch-size 条消息；不足一批时最多再等待 linger-ms 毫秒
+ *
+ * @see com.unlimited.sports.globox.common.batch.RabbitBatchConsumer
+ */
+@Configuration
+public class RabbitBatchListenerConfig {
+
+    public static final String BATCH_LISTENER_FACTORY = "batchRabbitListenerContainerFactory";
+
+    /**
+     * 每批最大消息数
+     */
+    @Value("${mq.consumer.batch.size:100}")
+    private int batchSize;
+
+    /**
+     * 凑批等待时间（毫秒）
+     */
+    @Value("${mq.consumer.batch.linger-ms:200}")
+    private long lingerMs;
+
+    @Value("${mq.consumer.batch.concurrent-consumers:1}")
+    private int concurrentConsumers;
+
+    @Value("${mq.consumer.batch.max-concurrent-consumers:2}")
+    private int maxConcurrentConsumers;
+
+    @Bean(BATCH_LISTENER_FACTORY)
+    public SimpleRabbitListenerContainerFactory batchRabbitListenerContainerFactory(ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(lingerMs);
+        // 预取数不小于批大小，否则凑不满一批
+        factory.setPrefetchCount(batchSize);
+        factory.setConcurrentConsumers(concurrentConsumers);
+        factory.setMaxConcurrentConsumers(maxConcurrentConsumers);
+
+        return factory;
+    }
+}
@@ -0,0 +1,51 @@
+package com.unlimited.sports.globox.common.model;
+
+import lombok.Data;
+
+/**
+ * 发件箱消息（表 mq_outbox）
+ * 保存的是已经序列化好的 AMQP 消息，投递时原样发送，消息体和消息头与直接发送时一致
+ */
+@Data
+public class MQOutboxMessage {
+
+    /**
+     * 待投递
+     */
+    public static final int STATUS_PENDING = 0;
+
+    /**
+     * 超过最大投递次数，等待人工处理
+     */
+    public static final int STATUS_DEAD = 2;
+
+    private Long id;
+
+    /**
+     * 消息ID（同时写入 messageId 和 x-msg-id）
+     */
+    private String messageId;
+
+    private String exchange;
+
+    private String routingKey;
+
+    /**
+     * 序列化后的消息体
+     */
+    private byte[] body;
+
+    private String contentType;
+
+    private String contentEncoding;
+
+    /**
+     * 消息头 JSON（包含 __TypeId__、x-delay、业务 header 等）
+     */
+    private String headers;
+
+    /**
+     * 已投递失败次数
+     */
+    private Integer attempts;
+}
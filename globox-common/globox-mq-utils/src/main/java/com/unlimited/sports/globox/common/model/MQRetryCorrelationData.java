@@ -38,6 +38,10 @@ public class MQRetryCorrelationData extends CorrelationData implements Serializa
      * 延迟时间
      */
     private int delayTime = 10;
+    /**
+     * 是否由发件箱投递（确认结果由发件箱处理，不走回调重试）
+     */
+    private boolean outbox = false;
 
 
     public void increaseRetryCount() {
@@ -0,0 +1,249 @@
+package com.unlimited.sports.globox.common.outbox;
+
+import com.unlimited.sports.globox.common.config.MQProducerAckConfig;
+import com.unlimited.sports.globox.common.model.MQOutboxMessage;
+import com.unlimited.sports.globox.common.model.MQRetryCorrelationData;
+import com.unlimited.sports.globox.common.utils.JsonUtils;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 发件箱投递
+ *
+ * 事务内发送的消息先写入 mq_outbox（与业务数据同一事务），事务提交后立即唤醒投递线程；
+ * 投递线程按批认领消息，整批发出后统一等待 publisher confirm，确认成功的批量删除，
+ * 失败（nack、未路由、超时）的按次数退避重试，超过最大次数标记为死信。
+ * 每行只由认领它的实例投递，实例宕机后锁定期限过后由其他实例接手，因此消息至少投递一次，消费端按 x-msg-id 幂等。
+ * 开启方式：mq.outbox.enabled=true，并在服务库中建表 mq_outbox
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "mq.outbox", name = "enabled", havingValue = "true")
+public class MQOutboxRelay {
+
+    /**
+     * 最大投递次数
+     */
+    private static final int MAX_ATTEMPTS = 10;
+
+    /**
+     * 认领后的锁定时间（秒），需大于一批消息的投递和确认时间
+     */
+    private static final int LOCK_SECONDS = 60;
+
+    /**
+     * 等待一批消息 confirm 的最长时间（毫秒）
+     */
+    private static final long CONFIRM_TIMEOUT_MS = 10_000;
+
+    @Autowired
+    private MQOutboxRepository outboxRepository;
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private JsonUtils jsonUtils;
+
+    @Value("${mq.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${mq.outbox.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    private final String instanceId = UUID.randomUUID().toString().replace("-", "");
+
+    private final AtomicLong claimSequence = new AtomicLong();
+
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "mq-outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::drain, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("[MQ发件箱] 投递线程已启动 - batchSize: {}, pollIntervalMs: {}", batchSize, pollIntervalMs);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * 把已序列化的消息写入发件箱，必须在事务内调用
+     *
+     * @param exchange   交换机
+     * @param routingKey 路由键
+     * @param message    已序列化并设置好消息头的 AMQP 消息
+     */
+    public void enqueue(String exchange, String routingKey, Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        MQOutboxMessage outboxMessage = new MQOutboxMessage();
+        outboxMessage.setMessageId(properties.getMessageId());
+        outboxMessage.setExchange(exchange);
+        outboxMessage.setRoutingKey(routingKey);
+        outboxMessage.setBody(message.getBody());
+        outboxMessage.setContentType(properties.getContentType());
+        outboxMessage.setContentEncoding(properties.getContentEncoding());
+        outboxMessage.setHeaders(jsonUtils.objectToJson(properties.getHeaders()));
+        outboxRepository.insert(outboxMessage);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                wakeUp();
+            }
+        });
+    }
+
+    /**
+     * 唤醒投递线程（多次唤醒合并为一次）
+     */
+    private void wakeUp() {
+        if (executor == null || !wakeUpPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                wakeUpPending.set(false);
+                drain();
+            });
+        } catch (Exception e) {
+            wakeUpPending.set(false);
+            log.warn("[MQ发件箱] 唤醒投递线程失败，等待定时投递: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 连续投递直到没有积压
+     */
+    private void drain() {
+        try {
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed >= batchSize);
+        } catch (Exception e) {
+            log.error("[MQ发件箱] 投递异常", e);
+        }
+    }
+
+    /**
+     * 认领并投递一批消息
+     *
+     * @return 本批消息条数
+     */
+    private int relayBatch() {
+        String claimToken = instanceId + ":" + claimSequence.incrementAndGet();
+        List<MQOutboxMessage> batch = outboxRepository.claim(claimToken, batchSize, LOCK_SECONDS);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        long startNanos = System.nanoTime();
+
+        List<MQOutboxMessage> sent = new ArrayList<>(batch.size());
+        List<CorrelationData> correlations = new ArrayList<>(batch.size());
+        List<Long> failedIds = new ArrayList<>();
+        for (MQOutboxMessage outboxMessage : batch) {
+            MQRetryCorrelationData correlationData = new MQRetryCorrelationData();
+            correlationData.setId(outboxMessage.getMessageId());
+            correlationData.setExchange(outboxMessage.getExchange());
+            correlationData.setRoutingKey(outboxMessage.getRoutingKey());
+            correlationData.setOutbox(true);
+            try {
+                rabbitTemplate.send(outboxMessage.getExchange(), outboxMessage.getRoutingKey(),
+                        toAmqpMessage(outboxMessage), correlationData);
+                sent.add(outboxMessage);
+                correlations.add(correlationData);
+            } catch (Exception e) {
+                log.warn("[MQ发件箱] 发送失败 - msgId: {}, error: {}", outboxMessage.getMessageId(), e.getMessage());
+                onFailed(outboxMessage, failedIds);
+            }
+        }
+
+        List<Long> deliveredIds = new ArrayList<>(sent.size());
+        long deadline = System.currentTimeMillis() + CONFIRM_TIMEOUT_MS;
+        for (int i = 0; i < sent.size(); i++) {
+            MQOutboxMessage outboxMessage = sent.get(i);
+            CorrelationData correlationData = correlations.get(i);
+            try {
+                CorrelationData.Confirm confirm = correlationData.getFuture()
+                        .get(Math.max(0L, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                boolean routed = correlationData.getReturned() == null
+                        || MQProducerAckConfig.isReturnExpected(outboxMessage.getExchange());
+                if (confirm.isAck() && routed) {
+                    deliveredIds.add(outboxMessage.getId());
+                } else {
+                    log.warn("[MQ发件箱] 投递未确认 - msgId: {}, ack: {}, cause: {}, routed: {}",
+                            outboxMessage.getMessageId(), confirm.isAck(), confirm.getReason(), routed);
+                    onFailed(outboxMessage, failedIds);
+                }
+            } catch (TimeoutException | ExecutionException e) {
+                log.warn("[MQ发件箱] 等待确认失败 - msgId: {}, error: {}", outboxMessage.getMessageId(), e.toString());
+                onFailed(outboxMessage, failedIds);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                onFailed(outboxMessage, failedIds);
+            }
+        }
+
+        outboxRepository.deleteByIds(deliveredIds);
+        outboxRepository.markFailed(failedIds, MAX_ATTEMPTS);
+
+        long costMillis = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        log.debug("[MQ发件箱] 批量投递完成 - 总数: {}, 成功: {}, 失败: {}, 耗时: {}ms, 速率: {} msg/s",
+                batch.size(), deliveredIds.size(), failedIds.size(), costMillis, deliveredIds.size() * 1000L / costMillis);
+        return batch.size();
+    }
+
+    private void onFailed(MQOutboxMessage outboxMessage, List<Long> failedIds) {
+        failedIds.add(outboxMessage.getId());
+        if (outboxMessage.getAttempts() + 1 >= MAX_ATTEMPTS) {
+            log.error("[MQ发件箱] 消息已达到最大投递次数，标记为死信 - msgId: {}, exchange: {}, routingKey: {}",
+                    outboxMessage.getMessageId(), outboxMessage.getExchange(), outboxMessage.getRoutingKey());
+        }
+    }
+
+    private Message toAmqpMessage(MQOutboxMessage outboxMessage) {
+        MessageProperties properties = new MessageProperties();
+        properties.setMessageId(outboxMessage.getMessageId());
+        properties.setContentType(outboxMessage.getContentType());
+        properties.setContentEncoding(outboxMessage.getContentEncoding());
+        Map<String, Object> headers = jsonUtils.jsonToMap(outboxMessage.getHeaders());
+        if (headers != null) {
+            headers.forEach(properties::setHeader);
+        }
+        return new Message(outboxMessage.getBody(), properties);
+    }
+}
@@ -0,0 +1,117 @@
+package com.unlimited.sports.globox.common.outbox;
+
+import com.unlimited.sports.globox.common.model.MQOutboxMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 发件箱表读写
+ * 使用 JdbcTemplate，写入时自动加入调用方当前的 Spring 事务
+ */
+@Repository
+@ConditionalOnProperty(prefix = "mq.outbox", name = "enabled", havingValue = "true")
+public class MQOutboxRepository {
+
+    private static final String COLUMNS =
+            "id, message_id, exchange, routing_key, body, content_type, content_encoding, headers, attempts";
+
+    private static final RowMapper<MQOutboxMessage> ROW_MAPPER = (rs, rowNum) -> {
+        MQOutboxMessage message = new MQOutboxMessage();
+        message.setId(rs.getLong("id"));
+        message.setMessageId(rs.getString("message_id"));
+        message.setExchange(rs.getString("exchange"));
+        message.setRoutingKey(rs.getString("routing_key"));
+        message.setBody(rs.getBytes("body"));
+        message.setContentType(rs.getString("content_type"));
+        message.setContentEncoding(rs.getString("content_encoding"));
+        message.setHeaders(rs.getString("headers"));
+        message.setAttempts(rs.getInt("attempts"));
+        return message;
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 写入一条待投递消息（在调用方事务内执行）
+     */
+    public void insert(MQOutboxMessage message) {
+        jdbcTemplate.update(
+                "INSERT INTO mq_outbox (message_id, exchange, routing_key, body, content_type, content_encoding, headers, "
+                        + "status, attempts, next_retry_at, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, NOW(3), NOW(3))",
+                message.getMessageId(),
+                message.getExchange(),
+                message.getRoutingKey(),
+                message.getBody(),
+                message.getContentType(),
+                message.getContentEncoding(),
+                message.getHeaders(),
+                MQOutboxMessage.STATUS_PENDING);
+    }
+
+    /**
+     * 认领一批到期的待投递消息：先用一条 UPDATE 打上认领标记和锁定期限，再按标记读回
+     * 多实例同时认领时每行只会被一个实例拿到；实例宕机后锁定期限过后由其他实例重新认领
+     *
+     * @param claimToken  本次认领的唯一标记
+     * @param limit       最大条数
+     * @param lockSeconds 锁定秒数
+     */
+    public List<MQOutboxMessage> claim(String claimToken, int limit, int lockSeconds) {
+        int claimed = jdbcTemplate.update(
+                "UPDATE mq_outbox SET locked_by = ?, locked_until = DATE_ADD(NOW(3), INTERVAL ? SECOND) "
+                        + "WHERE status = ? AND next_retry_at <= NOW(3) "
+                        + "AND (locked_until IS NULL OR locked_until < NOW(3)) "
+                        + "ORDER BY id LIMIT ?",
+                claimToken, lockSeconds, MQOutboxMessage.STATUS_PENDING, limit);
+        if (claimed == 0) {
+            return Collections.emptyList();
+        }
+        return jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM mq_outbox WHERE locked_by = ? ORDER BY id",
+                ROW_MAPPER, claimToken);
+    }
+
+    /**
+     * 删除已确认投递的消息
+     */
+    public void deleteByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update("DELETE FROM mq_outbox WHERE id IN (" + placeholders(ids.size()) + ")", ids.toArray());
+    }
+
+    /**
+     * 记录投递失败：释放认领并按失败次数指数退避（最长 64 秒），达到最大次数后标记为死信
+     */
+    public void markFailed(List<Long> ids, int maxAttempts) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        // MySQL 按书写顺序依次赋值，status / next_retry_at 需要在 attempts 自增前计算
+        Object[] args = new Object[ids.size() + 3];
+        args[0] = maxAttempts;
+        args[1] = MQOutboxMessage.STATUS_DEAD;
+        args[2] = MQOutboxMessage.STATUS_PENDING;
+        for (int i = 0; i < ids.size(); i++) {
+            args[i + 3] = ids.get(i);
+        }
+        jdbcTemplate.update(
+                "UPDATE mq_outbox SET status = IF(attempts + 1 >= ?, ?, ?), "
+                        + "next_retry_at = DATE_ADD(NOW(3), INTERVAL POW(2, LEAST(attempts, 6)) SECOND), "
+                        + "attempts = attempts + 1, locked_by = NULL, locked_until = NULL "
+                        + "WHERE id IN (" + placeholders(ids.size()) + ")",
+                args);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+}
@@ -1,24 +1,28 @@
 package com.unlimited.sports.globox.common.service.impl;
 
 import com.unlimited.sports.globox.common.model.MQRetryCorrelationData;
+import com.unlimited.sports.globox.common.outbox.MQOutboxRelay;
 import com.unlimited.sports.globox.common.service.MQService;
-import com.unlimited.sports.globox.common.utils.JsonUtils;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
 
 /**
  * 消息发送服务
+ *
+ * 开启发件箱（mq.outbox.enabled=true）后，在事务内发送的消息写入发件箱表，随业务事务一起提交或回滚，
+ * 由 {@link MQOutboxRelay} 在提交后投递；没有事务或未开启发件箱时直接发送
  */
 @Slf4j
 @Service
@@ -28,10 +32,7 @@ public class MQServiceImpl implements MQService {
     private RabbitTemplate rabbitTemplate;
 
     @Autowired
-    private StringRedisTemplate redisTemplate;
-
-    @Autowired
-    private JsonUtils jsonUtils;
+    private ObjectProvider<MQOutboxRelay> outboxRelayProvider;
 
 
     /**
@@ -47,22 +48,13 @@ public class MQServiceImpl implements MQService {
         // 发送消息前，构建实体类
         MQRetryCorrelationData mqRetryCorrelationData = this.buildMQRetryCorrelationData(exchange, routingKey, message, false, null);
 
-        // 存储到redis
-        redisTemplate.opsForValue().set(
-                Objects.requireNonNull(mqRetryCorrelationData.getId()),
-                jsonUtils.objectToJson(mqRetryCorrelationData),
-                10,
-                TimeUnit.MINUTES
-        );
-
         // 发送消息时将 CorrelationData 对象传入
-        rabbitTemplate.convertAndSend(exchange, routingKey, message, msg -> {
+        return this.publish(mqRetryCorrelationData, msg -> {
             String id = Objects.requireNonNull(mqRetryCorrelationData.getId());
             msg.getMessageProperties().setMessageId(id);
             msg.getMessageProperties().setHeader("x-msg-id", id);
             return msg;
-        }, mqRetryCorrelationData);
-        return true;
+        });
     }
 
 
@@ -79,15 +71,7 @@ public class MQServiceImpl implements MQService {
     public boolean send(String exchange, String routingKey, Object message, Map<String, Object> headers) {
         MQRetryCorrelationData mqRetryCorrelationData = this.buildMQRetryCorrelationData(exchange, routingKey, message, false, null);
 
-        // 存储到 redis（你原有逻辑）
-        redisTemplate.opsForValue().set(
-                Objects.requireNonNull(mqRetryCorrelationData.getId()),
-                jsonUtils.objectToJson(mqRetryCorrelationData),
-                10,
-                TimeUnit.MINUTES
-        );
-
-        rabbitTemplate.convertAndSend(exchange, routingKey, message, msg -> {
+        return this.publish(mqRetryCorrelationData, msg -> {
             var mp = msg.getMessageProperties();
 
             // 1) messageId：只在原本为空时设置，避免覆盖已有 messageId
@@ -111,9 +95,7 @@ public class MQServiceImpl implements MQService {
             }
 
             return msg;
-        }, mqRetryCorrelationData);
-
-        return true;
+        });
     }
 
 
@@ -130,21 +112,33 @@ public class MQServiceImpl implements MQService {
         // 发送消息前，构建实体类
         MQRetryCorrelationData mqRetryCorrelationData = this.buildMQRetryCorrelationData(exchange, routingKey, message, true, delay);
 
-        // 存储到redis
-        redisTemplate.opsForValue().set(
-                Objects.requireNonNull(mqRetryCorrelationData.getId()),
-                jsonUtils.objectToJson(mqRetryCorrelationData),
-                10,
-                TimeUnit.MINUTES);
-
         // 发送消息时将 延迟时间 与 CorrelationData 对象传入
-        rabbitTemplate.convertAndSend(exchange, routingKey, message, msg -> {
+        return this.publish(mqRetryCorrelationData, msg -> {
             String id = Objects.requireNonNull(mqRetryCorrelationData.getId());
             msg.getMessageProperties().setDelay(delay * 1000);
             msg.getMessageProperties().setMessageId(id);
             msg.getMessageProperties().setHeader("x-msg-id", id);
             return msg;
-        }, mqRetryCorrelationData);
+        });
+    }
+
+
+    /**
+     * 发送消息：事务内且开启了发件箱时写入发件箱，否则直接发送
+     */
+    private boolean publish(MQRetryCorrelationData mqRetryCorrelationData, MessagePostProcessor postProcessor) {
+        String exchange = mqRetryCorrelationData.getExchange();
+        String routingKey = mqRetryCorrelationData.getRoutingKey();
+
+        MQOutboxRelay outboxRelay = outboxRelayProvider.getIfAvailable();
+        if (outboxRelay != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+            Message amqpMessage = rabbitTemplate.getMessageConverter()
+                    .toMessage(mqRetryCorrelationData.getMessage(), new MessageProperties());
+            outboxRelay.enqueue(exchange, routingKey, postProcessor.postProcessMessage(amqpMessage));
+            return true;
+        }
+
+        rabbitTemplate.convertAndSend(exchange, routingKey, mqRetryCorrelationData.getMessage(), postProcessor, mqRetryCorrelationData);
         return true;
     }
 
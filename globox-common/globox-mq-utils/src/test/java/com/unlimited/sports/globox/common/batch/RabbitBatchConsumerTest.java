@@ -0,0 +1,196 @@
+package com.unlimited.sports.globox.common.batch;
+
+import com.rabbitmq.client.Channel;
+import com.unlimited.sports.globox.common.service.MQService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * RabbitBatchConsumer 的 ACK/reject 路由测试
+ * 消息体为字符串，内容为 "bad" 的消息无法解析；处理逻辑遇到 "fail" 抛出异常
+ */
+class RabbitBatchConsumerTest {
+
+    private static final String FINAL_EXCHANGE = "final.exchange";
+
+    private static final String FINAL_ROUTING_KEY = "final.routing";
+
+    private static final RabbitBatchRetryPolicy RETRY_POLICY = RabbitBatchRetryPolicy.builder()
+            .maxRetryCount(3)
+            .finalExchange(FINAL_EXCHANGE)
+            .finalRoutingKey(FINAL_ROUTING_KEY)
+            .bizKey("#payload")
+            .build();
+
+    private static final RabbitBatchRetryPolicy NO_RETRY_POLICY = RabbitBatchRetryPolicy.builder().build();
+
+    private RabbitBatchConsumer consumer;
+
+    private MQService mqService;
+
+    private Channel channel;
+
+    private List<List<String>> handledBatches;
+
+    @BeforeEach
+    void setUp() {
+        RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+        when(rabbitTemplate.getMessageConverter()).thenReturn(new StringConverter());
+        mqService = mock(MQService.class);
+        channel = mock(Channel.class);
+        handledBatches = new ArrayList<>();
+
+        consumer = new RabbitBatchConsumer();
+        ReflectionTestUtils.setField(consumer, "rabbitTemplate", rabbitTemplate);
+        ReflectionTestUtils.setField(consumer, "mqService", mqService);
+    }
+
+    @Test
+    void successfulBatchIsAckedOnceUpToHighestTag() throws Exception {
+        consume(RETRY_POLICY, message(1, "a"), message(2, "b"), message(3, "c"));
+
+        assertEquals(List.of(List.of("a", "b", "c")), handledBatches);
+        verify(channel).basicAck(3L, true);
+        verifyNoMoreInteractions(channel);
+    }
+
+    @Test
+    void failedItemWithinRetryLimitIsRejectedAndOthersAcked() throws Exception {
+        consume(RETRY_POLICY, message(1, "a"), message(2, "fail"), message(3, "c"));
+
+        // 整批一次，之后逐条各一次
+        assertEquals(List.of(List.of("a", "fail", "c"), List.of("a"), List.of("fail"), List.of("c")), handledBatches);
+        InOrder order = inOrder(channel);
+        order.verify(channel).basicReject(2L, false);
+        order.verify(channel).basicAck(3L, true);
+        verifyNoMoreInteractions(channel);
+        verify(mqService, never()).send(anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    void failedItemOverRetryLimitGoesToFinalExchangeAndIsAckedAlone() throws Exception {
+        Message exhausted = message(2, "fail");
+        exhausted.getMessageProperties().getHeaders().put("x-death", List.of(Map.of("count", 3L)));
+
+        consume(RETRY_POLICY, message(1, "a"), exhausted, message(3, "c"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> headers = ArgumentCaptor.forClass(Map.class);
+        verify(mqService).send(eq(FINAL_EXCHANGE), eq(FINAL_ROUTING_KEY), eq("fail"), headers.capture());
+        assertEquals("fail", headers.getValue().get("x-biz-key"));
+        assertEquals(IllegalStateException.class.getName(), headers.getValue().get("x-exception"));
+        InOrder order = inOrder(channel);
+        order.verify(channel).basicAck(2L, false);
+        order.verify(channel).basicAck(3L, true);
+        verifyNoMoreInteractions(channel);
+    }
+
+    @Test
+    void failedItemWithoutRetryChainIsAckedAndDropped() throws Exception {
+        consume(NO_RETRY_POLICY, message(1, "fail"), message(2, "b"));
+
+        verify(mqService, never()).send(anyString(), anyString(), any(), any());
+        InOrder order = inOrder(channel);
+        order.verify(channel).basicAck(1L, false);
+        order.verify(channel).basicAck(2L, true);
+        verifyNoMoreInteractions(channel);
+    }
+
+    @Test
+    void highestTagFailingDoesNotAckItAgain() throws Exception {
+        consume(RETRY_POLICY, message(1, "a"), message(2, "b"), message(3, "fail"));
+
+        InOrder order = inOrder(channel);
+        order.verify(channel).basicReject(3L, false);
+        order.verify(channel).basicAck(2L, true);
+        verifyNoMoreInteractions(channel);
+    }
+
+    @Test
+    void allItemsFailingSkipsBatchAck() throws Exception {
+        consume(RETRY_POLICY, message(1, "fail"), message(2, "fail"));
+
+        verify(channel).basicReject(1L, false);
+        verify(channel).basicReject(2L, false);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void unparseableMessageGoesToFinalExchangeAndIsNotHandled() throws Exception {
+        consume(RETRY_POLICY, message(1, "a"), message(2, "bad"), message(3, "c"));
+
+        assertEquals(List.of(List.of("a", "c")), handledBatches);
+        verify(mqService).send(eq(FINAL_EXCHANGE), eq(FINAL_ROUTING_KEY), eq("bad"), any());
+        InOrder order = inOrder(channel);
+        order.verify(channel).basicAck(2L, false);
+        order.verify(channel).basicAck(3L, true);
+        verifyNoMoreInteractions(channel);
+    }
+
+    @Test
+    void emptyBatchTouchesNothing() throws Exception {
+        consumer.consume(List.of(), channel, String.class, payloads -> handledBatches.add(payloads), RETRY_POLICY);
+
+        assertEquals(List.of(), handledBatches);
+        verifyNoMoreInteractions(channel);
+    }
+
+    private void consume(RabbitBatchRetryPolicy policy, Message... messages) throws Exception {
+        consumer.consume(List.of(messages), channel, String.class, payloads -> {
+            handledBatches.add(List.copyOf(payloads));
+            if (payloads.contains("fail")) {
+                throw new IllegalStateException("处理失败");
+            }
+        }, policy);
+    }
+
+    private static Message message(long deliveryTag, String body) {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(deliveryTag);
+        properties.setMessageId("msg-" + deliveryTag);
+        return new Message(body.getBytes(StandardCharsets.UTF_8), properties);
+    }
+
+    private static final class StringConverter implements MessageConverter {
+
+        @Override
+        public Message toMessage(Object object, MessageProperties messageProperties) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object fromMessage(Message message) {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            if ("bad".equals(body)) {
+                throw new MessageConversionException("无法解析的消息体");
+            }
+            return body;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.unlimited.sports.globox.common.outbox;
+
+import com.unlimited.sports.globox.common.model.MQOutboxMessage;
+import com.unlimited.sports.globox.common.utils.JsonUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * MQOutboxRelay 测试
+ * 发件箱表用内存实现代替；RabbitMQ 用本地替身代替：send 后由另一个线程在固定延迟后回调 publisher confirm，
+ * 消息体为 "nack" 的消息被拒绝，为 "unroutable" 的消息先退回再确认
+ */
+class MQOutboxRelayTest {
+
+    private static final String EXCHANGE = "globox.test.exchange";
+
+    private static final String ROUTING_KEY = "globox.test.routing";
+
+    private static final int BATCH_SIZE = 200;
+
+    /**
+     * 压测：消息数
+     */
+    private static final int MESSAGES = 2000;
+
+    /**
+     * 替身 broker 从收到消息到回调 confirm 的延迟
+     */
+    private static final long CONFIRM_LATENCY_MILLIS = 1;
+
+    private FakeOutboxRepository repository;
+
+    private RabbitTemplate rabbitTemplate;
+
+    private ScheduledExecutorService broker;
+
+    private List<Message> published;
+
+    private MQOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        repository = new FakeOutboxRepository();
+        broker = Executors.newSingleThreadScheduledExecutor();
+        published = Collections.synchronizedList(new ArrayList<>());
+        rabbitTemplate = mock(RabbitTemplate.class);
+        doAnswer(invocation -> {
+            Message message = invocation.getArgument(2);
+            CorrelationData correlationData = invocation.getArgument(3);
+            published.add(message);
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            broker.schedule(() -> {
+                if ("unroutable".equals(body)) {
+                    correlationData.setReturned(new ReturnedMessage(message, 312, "NO_ROUTE",
+                            invocation.getArgument(0), invocation.getArgument(1)));
+                }
+                correlationData.getFuture().set(new CorrelationData.Confirm(!"nack".equals(body), null));
+            }, CONFIRM_LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+        relay = new MQOutboxRelay();
+        ReflectionTestUtils.setField(relay, "outboxRepository", repository);
+        ReflectionTestUtils.setField(relay, "rabbitTemplate", rabbitTemplate);
+        ReflectionTestUtils.setField(relay, "jsonUtils", new JsonUtils());
+        ReflectionTestUtils.setField(relay, "batchSize", BATCH_SIZE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        broker.shutdownNow();
+    }
+
+    @Test
+    void enqueuedMessageIsRelayedWithOriginalHeaders() {
+        MessageProperties properties = new MessageProperties();
+        properties.setMessageId("m1");
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setHeader("x-msg-id", "m1");
+        properties.setHeader("__TypeId__", "com.example.OrderEvent");
+        properties.setHeader("x-delay", 5000);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            relay.enqueue(EXCHANGE, ROUTING_KEY, new Message("{}".getBytes(StandardCharsets.UTF_8), properties));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        relayBatch();
+
+        assertEquals(1, published.size());
+        MessageProperties sent = published.get(0).getMessageProperties();
+        assertEquals("m1", sent.getMessageId());
+        assertEquals(MessageProperties.CONTENT_TYPE_JSON, sent.getContentType());
+        assertEquals("m1", sent.getHeader("x-msg-id"));
+        assertEquals("com.example.OrderEvent", sent.getHeader("__TypeId__"));
+        assertEquals(5000, (Integer) sent.getHeader("x-delay"));
+        assertEquals(0, repository.size());
+    }
+
+    @Test
+    void onlyConfirmedAndRoutedMessagesAreDeleted() {
+        repository.insert(row("ok"));
+        repository.insert(row("nack"));
+        repository.insert(row("unroutable"));
+
+        assertEquals(3, relayBatch());
+
+        assertEquals(List.of("nack", "unroutable"), repository.pendingBodies());
+        assertTrue(repository.rows.values().stream().allMatch(row -> row.getAttempts() == 1));
+    }
+
+    /**
+     * 发件箱投递吞吐（消息/秒）
+     * 对照：逐条发送并等待 confirm 后再发下一条（每条消息一个 confirm 延迟）；
+     * 发件箱：整批发出后统一等待 confirm，确认成功的批量删除
+     */
+    @Test
+    @Tag("benchmark")
+    void relayThroughputAgainstPerMessageConfirm() throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < MESSAGES; i++) {
+            CorrelationData correlationData = new CorrelationData("m" + i);
+            rabbitTemplate.send(EXCHANGE, ROUTING_KEY, new Message(("m" + i).getBytes(StandardCharsets.UTF_8)),
+                    correlationData);
+            assertTrue(correlationData.getFuture().get(10, TimeUnit.SECONDS).isAck());
+        }
+        double before = MESSAGES * (double) TimeUnit.SECONDS.toNanos(1) / (System.nanoTime() - start);
+
+        for (int i = 0; i < MESSAGES; i++) {
+            repository.insert(row("m" + i));
+        }
+        start = System.nanoTime();
+        ReflectionTestUtils.invokeMethod(relay, "drain");
+        double after = MESSAGES * (double) TimeUnit.SECONDS.toNanos(1) / (System.nanoTime() - start);
+
+        System.out.printf("发件箱投递（%d 条，confirm 延迟 %dms，批大小 %d）：逐条确认 %.0f 条/秒，发件箱 %.0f 条/秒%n",
+                MESSAGES, CONFIRM_LATENCY_MILLIS, BATCH_SIZE, before, after);
+        assertEquals(0, repository.size());
+        assertTrue(after > before * 5, () -> "before=" + before + ", after=" + after);
+    }
+
+    private int relayBatch() {
+        return ReflectionTestUtils.invokeMethod(relay, "relayBatch");
+    }
+
+    private static MQOutboxMessage row(String body) {
+        MQOutboxMessage message = new MQOutboxMessage();
+        message.setMessageId(body);
+        message.setExchange(EXCHANGE);
+        message.setRoutingKey(ROUTING_KEY);
+        message.setBody(body.getBytes(StandardCharsets.UTF_8));
+        message.setContentType(MessageProperties.CONTENT_TYPE_TEXT_PLAIN);
+        message.setHeaders("{\"x-msg-id\":\"" + body + "\"}");
+        return message;
+    }
+
+    /**
+     * 只实现投递用到的认领、删除和失败计数；失败过的行不再被认领（代替 next_retry_at 退避），不模拟锁定期限
+     */
+    private static class FakeOutboxRepository extends MQOutboxRepository {
+
+        private final Map<Long, MQOutboxMessage> rows = new LinkedHashMap<>();
+
+        private final Map<Long, String> claims = new LinkedHashMap<>();
+
+        private long nextId = 1;
+
+        @Override
+        public synchronized void insert(MQOutboxMessage message) {
+            message.setId(nextId++);
+            message.setAttempts(0);
+            rows.put(message.getId(), message);
+        }
+
+        @Override
+        public synchronized List<MQOutboxMessage> claim(String claimToken, int limit, int lockSeconds) {
+            List<MQOutboxMessage> claimed = new ArrayList<>();
+            for (MQOutboxMessage row : rows.values()) {
+                if (claimed.size() >= limit) {
+                    break;
+                }
+                if (row.getAttempts() == 0 && !claims.containsKey(row.getId())) {
+                    claims.put(row.getId(), claimToken);
+                    claimed.add(row);
+                }
+            }
+            return claimed;
+        }
+
+        @Override
+        public synchronized void deleteByIds(List<Long> ids) {
+            ids.forEach(id -> {
+                rows.remove(id);
+                claims.remove(id);
+            });
+        }
+
+        @Override
+        public synchronized void markFailed(List<Long> ids, int maxAttempts) {
+            ids.forEach(id -> {
+                MQOutboxMessage row = rows.get(id);
+                row.setAttempts(row.getAttempts() + 1);
+                claims.remove(id);
+            });
+        }
+
+        synchronized int size() {
+            return rows.size();
+        }
+
+        synchronized List<String> pendingBodies() {
+            return rows.values().stream()
+                    .map(row -> new String(row.getBody(), StandardCharsets.UTF_8))
+                    .toList();
+        }
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
 @Slf4j
 @Service
@@ -241,6 +242,26 @@ public class RedisService {
         return resultMap;
     }
 
+    /**
+     * 批量存储数据（Pipeline 一次往返），值存储JSON数据，统一设置过期时间
+     *
+     * @param dataMap  键 -> 值
+     * @param timeout  过期时间
+     * @param timeUnit 过期时间单位
+     */
+    public <T> void setCacheObjects(final Map<String, T> dataMap, final long timeout, final TimeUnit timeUnit) {
+        if (dataMap == null || dataMap.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public Object execute(RedisOperations operations) {
+                dataMap.forEach((key, value) -> operations.opsForValue().set(key, value, timeout, timeUnit));
+                return null;
+            }
+        });
+    }
+
     /**
      * 对缓存中的数值进行自增操作
      *
@@ -797,6 +818,20 @@ public class RedisService {
         return redisTemplate.opsForHash().delete(key, hKey);
     }
 
+    /**
+     * 删除 Hash 中的多个字段（一次 HDEL）
+     *
+     * @param key   键
+     * @param hKeys Hash键集合
+     * @return 删除的字段数
+     */
+    public Long deleteHashFields(final String key, final Collection<String> hKeys) {
+        if (hKeys == null || hKeys.isEmpty()) {
+            return 0L;
+        }
+        return redisTemplate.opsForHash().delete(key, hKeys.toArray());
+    }
+
     /**
      * 往Hash中插入单个数据
      * 
@@ -873,6 +908,62 @@ public class RedisService {
         return RedisJsonUtil.string2Obj(RedisJsonUtil.obj2String(data), typeReference);
     }
 
+    /**
+     * 一次 Pipeline 对多个 Hash 分别执行 HMGET
+     *
+     * @param fieldsByKey key -> 要获取的字段
+     * @param clazz       值类型
+     * @return key -> 与字段顺序一致的值列表（不存在的字段为 null）
+     * @param <T> 对象类型
+     */
+    public <T> Map<String, List<T>> getMultiCacheMapValues(final Map<String, ? extends List<String>> fieldsByKey,
+            Class<T> clazz) {
+        if (fieldsByKey == null || fieldsByKey.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<String> keys = new ArrayList<>(fieldsByKey.keySet());
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public Object execute(RedisOperations operations) {
+                for (String key : keys) {
+                    operations.opsForHash().multiGet(key, new ArrayList<Object>(fieldsByKey.get(key)));
+                }
+                return null;
+            }
+        });
+        Map<String, List<T>> data = new HashMap<>(keys.size());
+        for (int i = 0; i < keys.size() && i < results.size(); i++) {
+            List<?> values = (List<?>) results.get(i);
+            List<T> converted = new ArrayList<>(values.size());
+            for (Object value : values) {
+                converted.add(value == null ? null : RedisJsonUtil.string2Obj(RedisJsonUtil.obj2String(value), clazz));
+            }
+            data.put(keys.get(i), converted);
+        }
+        return data;
+    }
+
+    /**
+     * 用 HSCAN 分批遍历 Hash，不会像 HGETALL 那样对大 Hash 一次性阻塞 Redis
+     *
+     * @param key      Redis键
+     * @param count    每次 HSCAN 的 COUNT 提示值
+     * @param clazz    值类型
+     * @param consumer 逐条处理 (field, value)，抛出异常会中止遍历
+     * @param <T> 对象类型
+     */
+    public <T> void scanHash(final String key, final long count, Class<T> clazz, BiConsumer<String, T> consumer) {
+        ScanOptions options = ScanOptions.scanOptions().count(count).build();
+        try (Cursor<Map.Entry<Object, Object>> cursor = redisTemplate.opsForHash().scan(key, options)) {
+            while (cursor.hasNext()) {
+                Map.Entry<Object, Object> entry = cursor.next();
+                Object value = entry.getValue();
+                consumer.accept(String.valueOf(entry.getKey()),
+                        value == null ? null : RedisJsonUtil.string2Obj(RedisJsonUtil.obj2String(value), clazz));
+            }
+        }
+    }
+
     /**
      * 执行Pipeline操作（高性能批量操作）
      * 
@@ -0,0 +1,241 @@
+package com.unlimited.sports.globox.service;
+
+import com.unlimited.sports.globox.common.constants.RedisKeyConstants;
+import com.unlimited.sports.globox.common.utils.WorkerIdLeaseService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 基于 Redis 的雪花算法 workerId 租约
+ *
+ * 每个 workerId 对应一个带 TTL 的 key，实例启动时从随机位置开始 SET NX 抢占一个空闲的 workerId，
+ * 之后定时续约并记录已发号的最大时间戳；续约时发现租约已被其他实例占用则重新抢占并通知发号器切换。
+ * 新持有者从记录的时间戳之后开始发号，即使两个实例的时钟有偏差也不会生成重复 ID。
+ * 每次抢占/续约成功都把租约期限（以发出请求前的本地时间起算，不晚于 Redis 中的实际过期时间）通知发号器，
+ * 续约失败时发号器在期限前停止发号；发现被占用时立即通知发号器停止发号。
+ * 开启方式：id-generator.lease.enabled=true
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(
+        prefix = "id-generator.lease",
+        name = "enabled",
+        havingValue = "true"
+)
+public class RedisWorkerIdLeaseService implements WorkerIdLeaseService {
+
+    /**
+     * 租约时长（秒）
+     */
+    private static final long LEASE_SECONDS = 30;
+
+    /**
+     * 续约间隔（秒）
+     */
+    private static final long HEARTBEAT_SECONDS = 10;
+
+    /**
+     * 从 ARGV[3] 开始依次尝试 ARGV[4] 个 workerId，抢占第一个空闲的
+     * KEYS[1]=租约前缀 KEYS[2]=时间戳 Hash ARGV[1]=持有者 ARGV[2]=租约秒数
+     * 返回 {workerId, 上一个持有者记录的时间戳}，没有空闲时返回空
+     */
+    private static final DefaultRedisScript<List> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "local count = tonumber(ARGV[4]) " +
+            "for i = 0, count - 1 do " +
+            "  local id = tostring((tonumber(ARGV[3]) + i) % count) " +
+            "  if redis.call('SET', KEYS[1] .. id, ARGV[1], 'NX', 'EX', ARGV[2]) then " +
+            "    return {id, redis.call('HGET', KEYS[2], id) or '0'} " +
+            "  end " +
+            "end " +
+            "return {}",
+            List.class);
+
+    /**
+     * 续约并记录时间戳
+     * KEYS[1]=租约 KEYS[2]=时间戳 Hash ARGV[1]=持有者 ARGV[2]=租约秒数 ARGV[3]=workerId ARGV[4]=已发号的最大时间戳
+     * 返回 {'1'} 续约成功；{'2', 时间戳} 租约已过期但未被占用，重新持有（期间可能有其他实例用过）；{'0'} 已被其他实例占用
+     */
+    private static final DefaultRedisScript<List> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "local holder = redis.call('GET', KEYS[1]) " +
+            "local result = {'1'} " +
+            "if not holder then " +
+            "  redis.call('SET', KEYS[1], ARGV[1], 'EX', ARGV[2]) " +
+            "  result = {'2', redis.call('HGET', KEYS[2], ARGV[3]) or '0'} " +
+            "elseif holder == ARGV[1] then " +
+            "  redis.call('EXPIRE', KEYS[1], ARGV[2]) " +
+            "else " +
+            "  return {'0'} " +
+            "end " +
+            "local last = tonumber(redis.call('HGET', KEYS[2], ARGV[3]) or '0') " +
+            "if tonumber(ARGV[4]) > last then redis.call('HSET', KEYS[2], ARGV[3], ARGV[4]) end " +
+            "return result",
+            List.class);
+
+    /**
+     * 释放租约（仅持有者可释放）
+     * KEYS[1]=租约 KEYS[2]=时间戳 Hash ARGV[1]=持有者 ARGV[2]=workerId ARGV[3]=已发号的最大时间戳
+     */
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) ~= ARGV[1] then return 0 end " +
+            "local last = tonumber(redis.call('HGET', KEYS[2], ARGV[2]) or '0') " +
+            "if tonumber(ARGV[3]) > last then redis.call('HSET', KEYS[2], ARGV[2], ARGV[3]) end " +
+            "redis.call('DEL', KEYS[1]) " +
+            "return 1",
+            Long.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    private final String holder = buildHolder();
+
+    private ScheduledExecutorService heartbeatExecutor;
+
+    private int workerIdCount;
+
+    private LongSupplier lastTimestamp;
+
+    private Listener listener;
+
+    private volatile int workerId = -1;
+
+    @Override
+    public synchronized void start(int workerIdCount, LongSupplier lastTimestamp, Listener listener) {
+        if (heartbeatExecutor != null) {
+            throw new IllegalStateException("workerId lease already started");
+        }
+        this.workerIdCount = workerIdCount;
+        this.lastTimestamp = lastTimestamp;
+        this.listener = listener;
+        if (!acquire()) {
+            throw new IllegalStateException("No free snowflake workerId, count=" + workerIdCount);
+        }
+
+        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "worker-id-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeatExecutor.scheduleWithFixedDelay(this::renew, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (heartbeatExecutor == null) {
+            return;
+        }
+        heartbeatExecutor.shutdownNow();
+        int current = workerId;
+        if (current < 0) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT,
+                    List.of(RedisKeyConstants.ID_GENERATOR_WORKER_PREFIX + current,
+                            RedisKeyConstants.ID_GENERATOR_WORKER_LAST_TIMESTAMP),
+                    holder, String.valueOf(current), String.valueOf(lastTimestamp.getAsLong()));
+            log.info("[workerId租约] 已释放 - workerId: {}", current);
+        } catch (Exception e) {
+            log.warn("[workerId租约] 释放失败，等待租约过期 - workerId: {}, error: {}", current, e.getMessage());
+        }
+    }
+
+    /**
+     * 抢占一个空闲的 workerId 并通知发号器
+     */
+    private boolean acquire() {
+        long leaseDeadline = leaseDeadline();
+        List<?> result = stringRedisTemplate.execute(ACQUIRE_SCRIPT,
+                List.of(RedisKeyConstants.ID_GENERATOR_WORKER_PREFIX, RedisKeyConstants.ID_GENERATOR_WORKER_LAST_TIMESTAMP),
+                holder,
+                String.valueOf(LEASE_SECONDS),
+                String.valueOf(ThreadLocalRandom.current().nextInt(workerIdCount)),
+                String.valueOf(workerIdCount));
+        if (result == null || result.size() < 2) {
+            return false;
+        }
+        int acquired = Integer.parseInt(String.valueOf(result.get(0)));
+        long minTimestamp = Long.parseLong(String.valueOf(result.get(1)));
+        listener.onAssigned(acquired, minTimestamp, leaseDeadline);
+        workerId = acquired;
+        log.info("[workerId租约] 已分配 - workerId: {}, holder: {}, 上一持有者时间戳: {}", acquired, holder, minTimestamp);
+        return true;
+    }
+
+    private void renew() {
+        int current = workerId;
+        if (current < 0) {
+            // 上次被占用后没能重新分配，继续尝试抢占，成功前发号器保持停止发号
+            try {
+                if (!acquire()) {
+                    log.error("[workerId租约] 没有空闲的 workerId，下次续约时重试");
+                }
+            } catch (Exception e) {
+                log.warn("[workerId租约] 重新分配失败 - error: {}", e.getMessage());
+            }
+            return;
+        }
+        long leaseDeadline = leaseDeadline();
+        try {
+            List<?> result = stringRedisTemplate.execute(RENEW_SCRIPT,
+                    List.of(RedisKeyConstants.ID_GENERATOR_WORKER_PREFIX + current,
+                            RedisKeyConstants.ID_GENERATOR_WORKER_LAST_TIMESTAMP),
+                    holder,
+                    String.valueOf(LEASE_SECONDS),
+                    String.valueOf(current),
+                    String.valueOf(lastTimestamp.getAsLong()));
+            String status = result == null || result.isEmpty() ? "0" : String.valueOf(result.get(0));
+            switch (status) {
+                case "1" -> listener.onRenewed(leaseDeadline);
+                case "2" -> {
+                    // 租约曾过期，期间其他实例可能用过该 workerId，推进到其记录的时间戳之后
+                    long minTimestamp = Long.parseLong(String.valueOf(result.get(1)));
+                    listener.onAssigned(current, minTimestamp, leaseDeadline);
+                    log.warn("[workerId租约] 租约曾过期，已重新持有 - workerId: {}", current);
+                }
+                default -> {
+                    log.error("[workerId租约] 租约已被其他实例占用，停止发号并重新分配 - workerId: {}", current);
+                    listener.onLost();
+                    workerId = -1;
+                    if (!acquire()) {
+                        log.error("[workerId租约] 没有空闲的 workerId，下次续约时重试");
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.warn("[workerId租约] 续约失败 - workerId: {}, error: {}", current, e.getMessage());
+        }
+    }
+
+    /**
+     * 请求发出前的本地时间 + 租约时长：Redis 中的租约从收到请求时起算，实际过期时间不会早于它
+     */
+    private static long leaseDeadline() {
+        return System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(LEASE_SECONDS);
+    }
+
+    private static String buildHolder() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + ":" + ManagementFactory.getRuntimeMXBean().getName() + ":"
+                + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
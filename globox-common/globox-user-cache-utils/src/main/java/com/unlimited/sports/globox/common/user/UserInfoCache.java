@@ -0,0 +1,279 @@
+package com.unlimited.sports.globox.common.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.unlimited.sports.globox.common.constants.RedisKeyConstants;
+import com.unlimited.sports.globox.common.result.RpcResult;
+import com.unlimited.sports.globox.dubbo.user.UserDubboService;
+import com.unlimited.sports.globox.dubbo.user.dto.BatchUserInfoRequest;
+import com.unlimited.sports.globox.dubbo.user.dto.BatchUserInfoResponse;
+import com.unlimited.sports.globox.model.auth.vo.UserInfoVo;
+import com.unlimited.sports.globox.service.RedisService;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.dubbo.config.annotation.DubboReference;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户基础信息（UserInfoVo）共享缓存，替代各服务直接逐个调用 {@link UserDubboService}
+ *
+ * - L1：本地 Caffeine，容量有限、TTL 短
+ * - L2：Redis（user:info:{userId}），各服务共用，一次 MGET 批量读取
+ * - 回源：L1/L2 都未命中的用户合并为 batchGetUserInfo 调用（单次最多50个）
+ * - 合并：并发请求同一用户时只有一个线程回源，其余线程等待同一结果
+ * - 失效：user-service 更新资料提交后删除 L2 并通过 Redis 频道广播 userId，各服务收到后失效 L1；
+ *   通知丢失时最迟在 L1 过期后生效
+ * - 并发：回源在资料提交前读到旧值、在删除之后才回写 L2 时，旧值会留在 L2。user-service 在提交后
+ *   延迟（globox.user-info-cache.evict-delay-millis）再删除并广播一次；回源耗时超过该延迟的极端情况下，
+ *   旧值最多保留到 L2 过期（redis-ttl-seconds）
+ *
+ * 不存在的用户不出现在返回结果中；回源失败只记录日志，调用方按缺失处理。
+ * 返回的 UserInfoVo 为缓存中的共享实例，调用方不要修改
+ */
+@Slf4j
+@Component
+public class UserInfoCache {
+
+    /**
+     * batchGetUserInfo 单次最多查询的用户数（与 user-service 的限制一致）
+     */
+    private static final int RPC_BATCH_SIZE = 50;
+
+    /**
+     * 等待其他线程回源结果的最长时间（秒）
+     */
+    private static final long LOAD_WAIT_SECONDS = 5;
+
+    @DubboReference(group = "rpc")
+    private UserDubboService userDubboService;
+
+    @Autowired
+    private RedisService redisService;
+
+    @Autowired
+    private RedisConnectionFactory redisConnectionFactory;
+
+    @Value("${globox.user-info-cache.local-max-size:10000}")
+    private long localMaxSize;
+
+    @Value("${globox.user-info-cache.local-ttl-seconds:30}")
+    private long localTtlSeconds;
+
+    @Value("${globox.user-info-cache.redis-ttl-seconds:600}")
+    private long redisTtlSeconds;
+
+    /**
+     * 正在回源的用户，value 为回源结果（用户不存在或回源失败时为 null）
+     */
+    private final Map<Long, CompletableFuture<UserInfoVo>> inFlight = new ConcurrentHashMap<>();
+
+    private Cache<Long, UserInfoVo> localCache;
+
+    private RedisMessageListenerContainer listenerContainer;
+
+    @PostConstruct
+    public void init() {
+        localCache = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(Math.max(0L, localTtlSeconds)))
+                .build();
+
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(redisConnectionFactory);
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            try {
+                localCache.invalidate(Long.valueOf(body.trim()));
+            } catch (NumberFormatException e) {
+                log.warn("[用户信息缓存] 忽略无法解析的变更通知：{}", body);
+            }
+        }, new ChannelTopic(RedisKeyConstants.USER_INFO_CHANGED_CHANNEL));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+        log.info("[用户信息缓存] 已启用，本地缓存 {} 秒，Redis 缓存 {} 秒", localTtlSeconds, redisTtlSeconds);
+    }
+
+    @PreDestroy
+    public void destroy() throws Exception {
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+
+    /**
+     * 查询单个用户信息
+     *
+     * @param userId 用户ID
+     * @return 用户信息，不存在或查询失败时返回 null
+     */
+    public UserInfoVo get(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        return getAll(List.of(userId)).get(userId);
+    }
+
+    /**
+     * 批量查询用户信息
+     *
+     * @param userIds 用户ID（可重复、可含 null）
+     * @return userId -> 用户信息，不存在或查询失败的用户不包含在内
+     */
+    public Map<Long, UserInfoVo> getAll(Collection<Long> userIds) {
+        if (CollectionUtils.isEmpty(userIds)) {
+            return Collections.emptyMap();
+        }
+        Map<Long, UserInfoVo> result = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long userId : new LinkedHashSet<>(userIds)) {
+            if (userId == null) {
+                continue;
+            }
+            UserInfoVo cached = localCache.getIfPresent(userId);
+            if (cached != null) {
+                result.put(userId, cached);
+            } else {
+                misses.add(userId);
+            }
+        }
+        if (misses.isEmpty()) {
+            return result;
+        }
+
+        // 登记回源：已有其他线程在回源的用户直接等待其结果
+        Map<Long, CompletableFuture<UserInfoVo>> waiting = new HashMap<>(misses.size());
+        List<Long> owned = new ArrayList<>();
+        for (Long userId : misses) {
+            CompletableFuture<UserInfoVo> future = new CompletableFuture<>();
+            CompletableFuture<UserInfoVo> existing = inFlight.putIfAbsent(userId, future);
+            if (existing == null) {
+                owned.add(userId);
+                waiting.put(userId, future);
+            } else {
+                waiting.put(userId, existing);
+            }
+        }
+        if (!owned.isEmpty()) {
+            load(owned);
+        }
+
+        waiting.forEach((userId, future) -> {
+            try {
+                UserInfoVo userInfo = future.get(LOAD_WAIT_SECONDS, TimeUnit.SECONDS);
+                if (userInfo != null) {
+                    result.put(userId, userInfo);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.warn("[用户信息缓存] 等待回源结果失败：userId={}, error={}", userId, e.getMessage());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 失效本地缓存（仅当前实例）
+     */
+    public void invalidateLocal(Long userId) {
+        if (userId != null) {
+            localCache.invalidate(userId);
+        }
+    }
+
+    /**
+     * 回源：先批量读 L2，仍未命中的再调用 RPC 并回写 L2；结束时完成并移除登记的回源任务
+     */
+    private void load(List<Long> userIds) {
+        Map<Long, UserInfoVo> loaded = new HashMap<>(userIds.size());
+        try {
+            loaded.putAll(loadFromRedis(userIds));
+
+            List<Long> rpcIds = userIds.stream().filter(id -> !loaded.containsKey(id)).toList();
+            if (!rpcIds.isEmpty()) {
+                Map<Long, UserInfoVo> fromRpc = loadFromRpc(rpcIds);
+                loaded.putAll(fromRpc);
+                writeRedis(fromRpc);
+            }
+            localCache.putAll(loaded);
+        } catch (Exception e) {
+            log.error("[用户信息缓存] 回源失败：userIds={}", userIds, e);
+        } finally {
+            for (Long userId : userIds) {
+                CompletableFuture<UserInfoVo> future = inFlight.remove(userId);
+                if (future != null) {
+                    future.complete(loaded.get(userId));
+                }
+            }
+        }
+    }
+
+    private Map<Long, UserInfoVo> loadFromRedis(List<Long> userIds) {
+        Map<Long, UserInfoVo> found = new HashMap<>();
+        try {
+            List<String> keys = userIds.stream().map(UserInfoCache::cacheKey).toList();
+            Map<String, UserInfoVo> cached = redisService.getCacheObjects(keys, UserInfoVo.class);
+            for (int i = 0; i < keys.size(); i++) {
+                UserInfoVo userInfo = cached.get(keys.get(i));
+                if (userInfo != null) {
+                    found.put(userIds.get(i), userInfo);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("[用户信息缓存] 读取Redis失败，直接回源RPC：error={}", e.getMessage());
+        }
+        return found;
+    }
+
+    private Map<Long, UserInfoVo> loadFromRpc(List<Long> userIds) {
+        Map<Long, UserInfoVo> found = new HashMap<>(userIds.size());
+        for (int from = 0; from < userIds.size(); from += RPC_BATCH_SIZE) {
+            List<Long> batch = userIds.subList(from, Math.min(from + RPC_BATCH_SIZE, userIds.size()));
+            BatchUserInfoRequest request = new BatchUserInfoRequest();
+            request.setUserIds(new ArrayList<>(batch));
+            RpcResult<BatchUserInfoResponse> rpcResult = userDubboService.batchGetUserInfo(request);
+            if (rpcResult == null || !rpcResult.isSuccess() || rpcResult.getData() == null
+                    || rpcResult.getData().getUsers() == null) {
+                log.warn("[用户信息缓存] 批量查询用户信息失败：userIds={}", batch);
+                continue;
+            }
+            for (UserInfoVo userInfo : rpcResult.getData().getUsers()) {
+                if (userInfo != null && userInfo.getUserId() != null) {
+                    found.put(userInfo.getUserId(), userInfo);
+                }
+            }
+        }
+        return found;
+    }
+
+    private void writeRedis(Map<Long, UserInfoVo> userInfos) {
+        if (userInfos.isEmpty()) {
+            return;
+        }
+        try {
+            Map<String, UserInfoVo> data = new HashMap<>(userInfos.size());
+            userInfos.forEach((userId, userInfo) -> data.put(cacheKey(userId), userInfo));
+            redisService.setCacheObjects(data, redisTtlSeconds, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("[用户信息缓存] 写入Redis失败：error={}", e.getMessage());
+        }
+    }
+
+    private static String cacheKey(Long userId) {
+        return RedisKeyConstants.USER_INFO_CACHE_PREFIX + userId;
+    }
+}
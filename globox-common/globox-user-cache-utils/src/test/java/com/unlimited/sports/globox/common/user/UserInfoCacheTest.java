@@ -0,0 +1,230 @@
+package com.unlimited.sports.globox.common.user;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.unlimited.sports.globox.common.constants.RedisKeyConstants;
+import com.unlimited.sports.globox.common.result.RpcResult;
+import com.unlimited.sports.globox.dubbo.user.UserDubboService;
+import com.unlimited.sports.globox.dubbo.user.dto.BatchUserInfoRequest;
+import com.unlimited.sports.globox.dubbo.user.dto.BatchUserInfoResponse;
+import com.unlimited.sports.globox.model.auth.vo.UserInfoVo;
+import com.unlimited.sports.globox.service.RedisService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * UserInfoCache 的合并回源与分批测试
+ * Redis 与 RPC 均为 mock，RPC 按请求的 userId 返回用户（userId 大于 1000 的视为不存在）
+ */
+class UserInfoCacheTest {
+
+    private static final long REDIS_TTL_SECONDS = 600;
+
+    private UserInfoCache cache;
+
+    private RedisService redisService;
+
+    private UserDubboService userDubboService;
+
+    /**
+     * 每次 batchGetUserInfo 请求的 userId
+     */
+    private List<List<Long>> rpcCalls;
+
+    @BeforeEach
+    void setUp() {
+        redisService = mock(RedisService.class);
+        userDubboService = mock(UserDubboService.class);
+        rpcCalls = new CopyOnWriteArrayList<>();
+        when(redisService.getCacheObjects(anyCollection(), eq(UserInfoVo.class))).thenReturn(Map.of());
+        when(userDubboService.batchGetUserInfo(any())).thenAnswer(invocation -> {
+            BatchUserInfoRequest request = invocation.getArgument(0);
+            rpcCalls.add(List.copyOf(request.getUserIds()));
+            BatchUserInfoResponse response = new BatchUserInfoResponse();
+            response.setUsers(request.getUserIds().stream().filter(id -> id <= 1000).map(UserInfoCacheTest::user).toList());
+            return RpcResult.ok(response);
+        });
+
+        // 不调用 init()，避免启动 Redis 变更通知的监听容器
+        cache = new UserInfoCache();
+        ReflectionTestUtils.setField(cache, "redisService", redisService);
+        ReflectionTestUtils.setField(cache, "userDubboService", userDubboService);
+        ReflectionTestUtils.setField(cache, "redisTtlSeconds", REDIS_TTL_SECONDS);
+        ReflectionTestUtils.setField(cache, "localCache", Caffeine.newBuilder().maximumSize(1000).build());
+    }
+
+    @Test
+    void concurrentRequestsForSameUserShareOneLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger redisReads = new AtomicInteger();
+        when(redisService.getCacheObjects(anyCollection(), eq(UserInfoVo.class))).thenAnswer(invocation -> {
+            // 第一次回源阻塞，保证其余线程在回源进行中发起请求
+            if (redisReads.getAndIncrement() == 0) {
+                loading.countDown();
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            }
+            return Map.of();
+        });
+
+        CompletableFuture<Map<Long, UserInfoVo>> owner = CompletableFuture.supplyAsync(() -> cache.getAll(List.of(1L)));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        List<Thread> waiters = new ArrayList<>();
+        List<Map<Long, UserInfoVo>> waiterResults = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread waiter = new Thread(() -> waiterResults.add(cache.getAll(List.of(1L))));
+            waiter.start();
+            waiters.add(waiter);
+        }
+        // 等待线程进入 future.get 后再放行回源
+        for (Thread waiter : waiters) {
+            awaitTimedWaiting(waiter);
+        }
+        release.countDown();
+
+        UserInfoVo loaded = owner.get(5, TimeUnit.SECONDS).get(1L);
+        for (Thread waiter : waiters) {
+            waiter.join(5000);
+        }
+        assertEquals(1L, loaded.getUserId());
+        assertEquals(4, waiterResults.size());
+        for (Map<Long, UserInfoVo> result : waiterResults) {
+            assertSame(loaded, result.get(1L));
+        }
+        assertEquals(List.of(List.of(1L)), rpcCalls);
+        assertEquals(1, redisReads.get());
+    }
+
+    @Test
+    void overlappingRequestLoadsOnlyUsersNotInFlight() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger redisReads = new AtomicInteger();
+        when(redisService.getCacheObjects(anyCollection(), eq(UserInfoVo.class))).thenAnswer(invocation -> {
+            if (redisReads.getAndIncrement() == 0) {
+                loading.countDown();
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            }
+            return Map.of();
+        });
+
+        CompletableFuture<Map<Long, UserInfoVo>> first = CompletableFuture.supplyAsync(() -> cache.getAll(List.of(1L, 2L)));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        // 1、2 正在回源，只需自行回源 3，随后等待 1、2 的结果
+        CompletableFuture<Map<Long, UserInfoVo>> second = CompletableFuture.supplyAsync(() -> cache.getAll(List.of(2L, 3L, 1L)));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (rpcCalls.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        assertEquals(Set.of(1L, 2L), first.get(5, TimeUnit.SECONDS).keySet());
+        assertEquals(Set.of(1L, 2L, 3L), second.get(5, TimeUnit.SECONDS).keySet());
+        assertEquals(List.of(List.of(3L), List.of(1L, 2L)), rpcCalls);
+    }
+
+    @Test
+    void localHitsSkipRedisAndRpc() {
+        Map<Long, UserInfoVo> first = cache.getAll(List.of(1L, 2L));
+        Map<Long, UserInfoVo> second = cache.getAll(List.of(2L, 1L));
+
+        assertSame(first.get(1L), second.get(1L));
+        assertSame(first.get(2L), second.get(2L));
+        assertEquals(List.of(List.of(1L, 2L)), rpcCalls);
+        verify(redisService).getCacheObjects(anyCollection(), eq(UserInfoVo.class));
+    }
+
+    @Test
+    void redisHitsSkipRpcAndOnlyRpcResultsAreWrittenBack() {
+        UserInfoVo fromRedis = user(1L);
+        when(redisService.getCacheObjects(anyCollection(), eq(UserInfoVo.class)))
+                .thenReturn(Map.of(RedisKeyConstants.USER_INFO_CACHE_PREFIX + 1L, fromRedis));
+
+        Map<Long, UserInfoVo> result = cache.getAll(List.of(1L, 2L));
+
+        assertSame(fromRedis, result.get(1L));
+        assertEquals(2L, result.get(2L).getUserId());
+        assertEquals(List.of(List.of(2L)), rpcCalls);
+        verify(redisService).setCacheObjects(Map.of(RedisKeyConstants.USER_INFO_CACHE_PREFIX + 2L, result.get(2L)),
+                REDIS_TTL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void rpcIsSplitIntoBatchesOfFifty() {
+        List<Long> userIds = LongStream.rangeClosed(1, 120).boxed().toList();
+
+        Map<Long, UserInfoVo> result = cache.getAll(userIds);
+
+        assertEquals(120, result.size());
+        assertEquals(List.of(50, 50, 20), rpcCalls.stream().map(List::size).toList());
+        assertEquals(userIds, rpcCalls.stream().flatMap(List::stream).toList());
+    }
+
+    @Test
+    void duplicatesNullsAndMissingUsersAreLeftOut() {
+        List<Long> userIds = new ArrayList<>(List.of(1L, 1L, 2001L));
+        userIds.add(null);
+
+        Map<Long, UserInfoVo> result = cache.getAll(userIds);
+
+        assertEquals(Set.of(1L), result.keySet());
+        assertEquals(List.of(List.of(1L, 2001L)), rpcCalls);
+        assertNull(cache.get(null));
+    }
+
+    @Test
+    void failedLoadCompletesWithoutResultAndIsRetriedNextTime() {
+        doThrow(new IllegalStateException("rpc timeout")).when(userDubboService).batchGetUserInfo(any());
+
+        assertEquals(Map.of(), cache.getAll(List.of(1L)));
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(cache, "inFlight")).isEmpty());
+        verify(redisService, never()).setCacheObjects(any(), anyLong(), any());
+
+        doReturn(RpcResult.ok(response(user(1L)))).when(userDubboService).batchGetUserInfo(any());
+        assertEquals(1L, cache.get(1L).getUserId());
+    }
+
+    private static void awaitTimedWaiting(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.TIMED_WAITING) {
+            if (System.nanoTime() > deadline) {
+                fail("线程未进入等待：" + thread.getState());
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private static BatchUserInfoResponse response(UserInfoVo... users) {
+        BatchUserInfoResponse response = new BatchUserInfoResponse();
+        response.setUsers(List.of(users));
+        return response;
+    }
+
+    private static UserInfoVo user(Long userId) {
+        return UserInfoVo.builder().userId(userId).nickName("user" + userId).build();
+    }
+}
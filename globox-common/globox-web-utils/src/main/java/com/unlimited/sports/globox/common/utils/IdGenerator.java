@@ -1,12 +1,26 @@
 package com.unlimited.sports.globox.common.utils;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * 雪花算法
+ *
+ * 位布局保持不变：41 位时间戳 | 5 位数据中心ID | 5 位机器ID | 12 位序列号。
+ * 逻辑时间戳和序列号合并在一个 AtomicLong 中用 CAS 推进，发号不再串行在同一把锁上：
+ * 同一毫秒内序列号用尽或时钟回拨时，直接在上次的逻辑时间上继续递增（向后借用时间），不等待也不失败，
+ * 只有逻辑时间领先系统时钟超过 max-borrow-ms 时才拒绝发号。
+ *
+ * 机器ID来源：
+ * 1. 存在 {@link WorkerIdLeaseService}（id-generator.lease.enabled=true）时，由租约动态分配 10 位机器ID（数据中心ID + 机器ID）；
+ *    只在最近一次确认的租约期限（减去 lease.safety-margin-ms）内发号，续约长时间失败时拒绝发号，避免租约过期被接手后重复
+ * 2. 否则使用静态配置 id-generator.worker-id / id-generator.datacenter-id
  */
 @Slf4j
 @Component
@@ -23,11 +37,6 @@ public class IdGenerator {
      */
     private static final long START_TIMESTAMP = 1735660800000L;
 
-    /**
-     * 最大允许的时钟回拨（毫秒）
-     */
-    private static final long MAX_CLOCK_BACKWARD_MS = 10L;
-
     private static final long WORKER_ID_BITS = 5L;
     private static final long DATACENTER_ID_BITS = 5L;
     private static final long SEQUENCE_BITS = 12L;
@@ -35,88 +44,161 @@ public class IdGenerator {
     private static final long MAX_WORKER_ID = ~(-1L << WORKER_ID_BITS);
     private static final long MAX_DATACENTER_ID = ~(-1L << DATACENTER_ID_BITS);
 
+    /**
+     * 租约模式下可分配的机器ID数量（数据中心ID + 机器ID 共 10 位）
+     */
+    private static final int NODE_COUNT = 1 << (WORKER_ID_BITS + DATACENTER_ID_BITS);
+
     private static final long WORKER_ID_SHIFT = SEQUENCE_BITS;
     private static final long DATACENTER_ID_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS;
     private static final long TIMESTAMP_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS + DATACENTER_ID_BITS;
 
     private static final long SEQUENCE_MASK = ~(-1L << SEQUENCE_BITS);
 
-    private final long workerId;
-    private final long datacenterId;
+    /**
+     * 最大允许的时间借用（毫秒）：逻辑时间领先系统时钟超过该值时拒绝发号
+     */
+    private final long maxBorrowMs;
+
+    /**
+     * 租约安全余量（毫秒）：距租约期限不足该值时停止发号，覆盖实例间的时钟偏差
+     */
+    private final long leaseSafetyMarginMs;
+
+    private final ObjectProvider<WorkerIdLeaseService> leaseServiceProvider;
 
     /**
-     * 上一次发号使用的逻辑时间
+     * 已移位的 数据中心ID | 机器ID，未分配时为 -1
      */
-    private long lastTimestamp = -1L;
-    private long sequence = 0L;
+    private volatile long nodeBits = -1L;
+
+    /**
+     * 可以发号的截止时间（毫秒，本地时钟）；静态配置时不限制，租约模式下为最近确认的租约期限减去安全余量
+     */
+    private volatile long issueDeadline = Long.MAX_VALUE;
+
+    /**
+     * 逻辑时间戳（相对 epoch）<< SEQUENCE_BITS | 序列号
+     */
+    private final AtomicLong state = new AtomicLong();
 
     /**
      * 配置机器ID和数据中心ID
      *
-     * @param workerId     机器ID
-     * @param datacenterId 数据中心ID
+     * @param workerId     机器ID（租约模式下忽略）
+     * @param datacenterId 数据中心ID（租约模式下忽略）
+     * @param maxBorrowMs  最大允许的时间借用（毫秒）
      */
     public IdGenerator(
-            @Value("${id-generator.worker-id}") long workerId,
-            @Value("${id-generator.datacenter-id}") long datacenterId
+            @Value("${id-generator.worker-id:-1}") long workerId,
+            @Value("${id-generator.datacenter-id:-1}") long datacenterId,
+            @Value("${id-generator.max-borrow-ms:2000}") long maxBorrowMs,
+            @Value("${id-generator.lease.safety-margin-ms:2000}") long leaseSafetyMarginMs,
+            ObjectProvider<WorkerIdLeaseService> leaseServiceProvider
     ) {
+        this.maxBorrowMs = maxBorrowMs;
+        this.leaseSafetyMarginMs = leaseSafetyMarginMs;
+        this.leaseServiceProvider = leaseServiceProvider;
+        if (leaseServiceProvider.getIfAvailable() != null) {
+            return;
+        }
         if (workerId > MAX_WORKER_ID || workerId < 0) {
             throw new IllegalArgumentException("workerId out of range");
         }
         if (datacenterId > MAX_DATACENTER_ID || datacenterId < 0) {
             throw new IllegalArgumentException("datacenterId out of range");
         }
-        this.workerId = workerId;
-        this.datacenterId = datacenterId;
+        this.nodeBits = (datacenterId << DATACENTER_ID_SHIFT) | (workerId << WORKER_ID_SHIFT);
+    }
+
+    @PostConstruct
+    public void init() {
+        WorkerIdLeaseService leaseService = leaseServiceProvider.getIfAvailable();
+        if (leaseService != null) {
+            leaseService.start(NODE_COUNT, this::lastTimestamp, new WorkerIdLeaseService.Listener() {
+                @Override
+                public void onAssigned(int workerId, long minTimestamp, long leaseDeadline) {
+                    assignNode(workerId, minTimestamp, leaseDeadline);
+                }
+
+                @Override
+                public void onRenewed(long leaseDeadline) {
+                    issueDeadline = leaseDeadline - leaseSafetyMarginMs;
+                }
+
+                @Override
+                public void onLost() {
+                    issueDeadline = Long.MIN_VALUE;
+                    log.error("Snowflake workerId lease lost, stop issuing, node={}", nodeBits >>> WORKER_ID_SHIFT);
+                }
+            });
+        }
     }
 
     /**
-     * 生成下一个 ID（线程安全）
+     * 生成下一个 ID（线程安全，无锁）
      */
-    public synchronized long nextId() {
-        long currentTimestamp = currentTimeMillis();
-
-        // === 时钟回拨处理 ===
-        if (currentTimestamp < lastTimestamp) {
-            long offset = lastTimestamp - currentTimestamp;
-
-            if (offset <= MAX_CLOCK_BACKWARD_MS) {
-                // 小回拨：使用 lastTimestamp 继续发号
-                currentTimestamp = lastTimestamp;
+    public long nextId() {
+        long node = nodeBits;
+        if (node < 0) {
+            throw new IllegalStateException("Snowflake workerId not assigned");
+        }
+        long now = currentTimeMillis();
+        if (now >= issueDeadline) {
+            // 租约未能按时续约：继续发号的话租约过期后被其他实例接手会生成重复 ID
+            log.error("Snowflake workerId lease not confirmed, refuse to issue, node={}", node >>> WORKER_ID_SHIFT);
+            throw new IllegalStateException("Snowflake workerId lease expired or lost");
+        }
+        for (;;) {
+            long last = state.get();
+            long lastTimestamp = last >>> SEQUENCE_BITS;
+            long currentTimestamp = currentTimeMillis() - START_TIMESTAMP;
+
+            long next;
+            if (currentTimestamp > lastTimestamp) {
+                next = currentTimestamp << SEQUENCE_BITS;
             } else {
-                // 大回拨：拒绝发号（必须报警）
-                log.error("Snowflake clock rollback, offset={}ms, workerId={}, dcId={}", offset, workerId, datacenterId);
-                throw new RuntimeException("Clock moved backwards too much: " + offset + "ms");
+                // 同一毫秒或时钟回拨：序列号 +1，用尽时自然进位到下一毫秒（向后借用时间）
+                long offset = lastTimestamp - currentTimestamp;
+                if (offset > maxBorrowMs) {
+                    // 大回拨：拒绝发号（必须报警）
+                    log.error("Snowflake clock rollback, offset={}ms, node={}", offset, node >>> WORKER_ID_SHIFT);
+                    throw new IllegalStateException("Clock moved backwards too much: " + offset + "ms");
+                }
+                next = last + 1;
             }
-        }
 
-        // 同一毫秒内
-        if (currentTimestamp == lastTimestamp) {
-            sequence = (sequence + 1) & SEQUENCE_MASK;
-            if (sequence == 0) {
-                currentTimestamp = waitNextMillis(currentTimestamp);
+            if (state.compareAndSet(last, next)) {
+                return ((next >>> SEQUENCE_BITS) << TIMESTAMP_SHIFT)
+                        | node
+                        | (next & SEQUENCE_MASK);
             }
-        } else {
-            sequence = 0L;
         }
+    }
 
-        lastTimestamp = currentTimestamp;
-
-        return ((currentTimestamp - START_TIMESTAMP) << TIMESTAMP_SHIFT)
-                | (datacenterId << DATACENTER_ID_SHIFT)
-                | (workerId << WORKER_ID_SHIFT)
-                | sequence;
+    /**
+     * 租约分配回调：先把逻辑时间推进到上一个持有者之后，再切换机器ID，最后放开发号期限
+     */
+    private void assignNode(int node, long minTimestamp, long leaseDeadline) {
+        if (node < 0 || node >= NODE_COUNT) {
+            throw new IllegalArgumentException("workerId out of range: " + node);
+        }
+        long floor = ((minTimestamp - START_TIMESTAMP + 1) << SEQUENCE_BITS) - 1;
+        state.accumulateAndGet(floor, Math::max);
+        nodeBits = (long) node << WORKER_ID_SHIFT;
+        issueDeadline = leaseDeadline - leaseSafetyMarginMs;
+        log.info("Snowflake workerId assigned, datacenterId={}, workerId={}",
+                node >>> WORKER_ID_BITS, node & MAX_WORKER_ID);
     }
 
-    private long waitNextMillis(long lastTimestamp) {
-        long ts;
-        do {
-            ts = currentTimeMillis();
-        } while (ts <= lastTimestamp);
-        return ts;
+    /**
+     * 已发号的最大时间戳（毫秒）
+     */
+    private long lastTimestamp() {
+        return (state.get() >>> SEQUENCE_BITS) + START_TIMESTAMP;
     }
 
     private long currentTimeMillis() {
         return System.currentTimeMillis();
     }
-}
\ No newline at end of file
+}
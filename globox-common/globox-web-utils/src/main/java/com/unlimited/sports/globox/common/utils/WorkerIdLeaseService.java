@@ -0,0 +1,47 @@
+package com.unlimited.sports.globox.common.utils;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 雪花算法 workerId 租约服务
+ * 由具体实现（如 Redis）为每个实例动态分配互不重复的 workerId，并负责心跳续约和租约丢失后的重新分配，
+ * 避免容器扩缩容时多个实例使用相同的静态配置
+ */
+public interface WorkerIdLeaseService {
+
+    /**
+     * 申请 workerId 并开始续约
+     * 返回前必须已通过 listener 回调一次分配结果；没有可用的 workerId 时抛出异常。
+     * 发号器只能在最近一次确认的租约期限内发号，续约失败超过期限后必须停止发号（fencing），
+     * 否则租约过期后被其他实例接手会生成重复 ID
+     *
+     * @param workerIdCount     可分配的 workerId 数量，分配结果在 [0, workerIdCount) 内
+     * @param lastTimestamp     当前实例已发号的最大时间戳（毫秒），续约时记录，供下一个持有者避免时间重叠
+     * @param listener          分配结果回调，租约丢失后重新分配时再次回调
+     */
+    void start(int workerIdCount, LongSupplier lastTimestamp, Listener listener);
+
+    interface Listener {
+
+        /**
+         * 分配到（或重新持有）workerId
+         *
+         * @param workerId      分配到的 workerId
+         * @param minTimestamp  该 workerId 上一个持有者记录的最大时间戳（毫秒），新持有者发号时间不得早于它
+         * @param leaseDeadline 本地时钟下租约最早可能过期的时间（毫秒）
+         */
+        void onAssigned(int workerId, long minTimestamp, long leaseDeadline);
+
+        /**
+         * 续约成功，租约有效期延长
+         *
+         * @param leaseDeadline 本地时钟下租约最早可能过期的时间（毫秒）
+         */
+        void onRenewed(long leaseDeadline);
+
+        /**
+         * 租约已被其他实例占用，必须立即停止使用当前 workerId 发号
+         */
+        void onLost();
+    }
+}
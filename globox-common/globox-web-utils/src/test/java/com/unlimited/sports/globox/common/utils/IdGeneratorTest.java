@@ -0,0 +1,218 @@
+package com.unlimited.sports.globox.common.utils;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * IdGenerator 测试：并发发号唯一且单线程内递增、租约期限外拒绝发号
+ */
+class IdGeneratorTest {
+
+    /**
+     * 与 IdGenerator 相同的 epoch 和位布局
+     */
+    private static final long START_TIMESTAMP = 1735660800000L;
+
+    private static final long SEQUENCE_BITS = 12L;
+
+    private static final long WORKER_ID_BITS = 5L;
+
+    /**
+     * 并发发号的线程数
+     */
+    private static final int THREADS = 8;
+
+    /**
+     * 唯一性校验：每个线程的发号数
+     */
+    private static final int IDS_PER_THREAD = 50_000;
+
+    /**
+     * 压测：每个线程的发号数
+     */
+    private static final int BENCHMARK_IDS_PER_THREAD = 250_000;
+
+    @Test
+    void concurrentIdsAreUniqueAndIncreasingPerThread() throws Exception {
+        IdGenerator generator = staticGenerator(3, 1);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+        issueConcurrently(() -> {
+            long previous = Long.MIN_VALUE;
+            for (int i = 0; i < IDS_PER_THREAD; i++) {
+                long id = generator.nextId();
+                assertTrue(id > previous, () -> "id went backwards: " + id);
+                previous = id;
+                ids.add(id);
+            }
+        });
+
+        assertEquals(THREADS * IDS_PER_THREAD, ids.size());
+        long node = ids.iterator().next() >>> SEQUENCE_BITS & ((1L << (WORKER_ID_BITS * 2)) - 1);
+        assertEquals((1L << WORKER_ID_BITS) | 3L, node);
+    }
+
+    @Test
+    void staticWorkerIdOutOfRangeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> staticGenerator(32, 0));
+        assertThrows(IllegalArgumentException.class, () -> staticGenerator(0, -1));
+    }
+
+    @Test
+    void leasedGeneratorIssuesOnlyWithinConfirmedLease() {
+        FakeLeaseService leaseService = new FakeLeaseService(5);
+        IdGenerator generator = leasedGenerator(leaseService);
+
+        generator.init();
+        long id = generator.nextId();
+        assertEquals(5L, id >>> SEQUENCE_BITS & ((1L << (WORKER_ID_BITS * 2)) - 1));
+        // 上一个持有者的最大时间戳在未来 1 秒：新持有者发号时间不得早于它
+        assertTrue(timestampOf(id) > leaseService.minTimestamp, () -> "id=" + id);
+
+        // 续约失败超过期限：拒绝发号
+        leaseService.listener.onRenewed(System.currentTimeMillis());
+        assertThrows(IllegalStateException.class, generator::nextId);
+
+        leaseService.listener.onRenewed(System.currentTimeMillis() + 30_000);
+        generator.nextId();
+
+        leaseService.listener.onLost();
+        assertThrows(IllegalStateException.class, generator::nextId);
+    }
+
+    /**
+     * 多线程发号吞吐对比
+     * 改造前：nextId 为 synchronized，所有线程串行在同一把锁上，同一毫秒序列号用尽时持锁自旋等待下一毫秒；
+     * 改造后：CAS 推进逻辑时间和序列号，序列号用尽时向后借用时间
+     */
+    @Test
+    @Tag("benchmark")
+    void throughputAgainstSynchronizedGenerator() throws Exception {
+        SynchronizedSnowflake synchronizedGenerator = new SynchronizedSnowflake();
+        IdGenerator generator = staticGenerator(3, 1);
+
+        double before = idsPerSecond(synchronizedGenerator::nextId);
+        double after = idsPerSecond(generator::nextId);
+
+        System.out.printf("雪花发号吞吐（%d 线程，共 %d 个）：synchronized %.0f 万个/秒，CAS %.0f 万个/秒%n",
+                THREADS, THREADS * BENCHMARK_IDS_PER_THREAD, before / 1e4, after / 1e4);
+        assertTrue(after > before, () -> "before=" + before + ", after=" + after);
+    }
+
+    private static double idsPerSecond(LongSupplier nextId) throws Exception {
+        long start = System.nanoTime();
+        issueConcurrently(() -> {
+            for (int i = 0; i < BENCHMARK_IDS_PER_THREAD; i++) {
+                nextId.getAsLong();
+            }
+        });
+        return THREADS * BENCHMARK_IDS_PER_THREAD * (double) TimeUnit.SECONDS.toNanos(1) / (System.nanoTime() - start);
+    }
+
+    private static void issueConcurrently(Runnable task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            tasks.add(pool.submit(() -> {
+                start.await();
+                task.run();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : tasks) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+    }
+
+    private static long timestampOf(long id) {
+        return (id >>> (SEQUENCE_BITS + WORKER_ID_BITS * 2)) + START_TIMESTAMP;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static IdGenerator staticGenerator(long workerId, long datacenterId) {
+        return new IdGenerator(workerId, datacenterId, 2000, 2000, mock(ObjectProvider.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static IdGenerator leasedGenerator(WorkerIdLeaseService leaseService) {
+        ObjectProvider<WorkerIdLeaseService> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(leaseService);
+        return new IdGenerator(-1, -1, 2000, 2000, provider);
+    }
+
+    /**
+     * 同步回调一次分配结果，之后由测试直接驱动 listener
+     */
+    private static class FakeLeaseService implements WorkerIdLeaseService {
+
+        private final int workerId;
+
+        private final long minTimestamp = System.currentTimeMillis() + 1000;
+
+        private Listener listener;
+
+        FakeLeaseService(int workerId) {
+            this.workerId = workerId;
+        }
+
+        @Override
+        public void start(int workerIdCount, LongSupplier lastTimestamp, Listener listener) {
+            this.listener = listener;
+            listener.onAssigned(workerId, minTimestamp, System.currentTimeMillis() + 30_000);
+        }
+    }
+
+    /**
+     * 改造前的 synchronized 实现（位布局相同），仅作压测对照
+     */
+    private static class SynchronizedSnowflake {
+
+        private static final long SEQUENCE_MASK = ~(-1L << SEQUENCE_BITS);
+
+        private static final long NODE_BITS = ((1L << WORKER_ID_BITS) | 3L) << SEQUENCE_BITS;
+
+        private long lastTimestamp = -1L;
+
+        private long sequence;
+
+        synchronized long nextId() {
+            long currentTimestamp = System.currentTimeMillis();
+            if (currentTimestamp < lastTimestamp) {
+                currentTimestamp = lastTimestamp;
+            }
+            if (currentTimestamp == lastTimestamp) {
+                sequence = (sequence + 1) & SEQUENCE_MASK;
+                if (sequence == 0) {
+                    while (currentTimestamp <= lastTimestamp) {
+                        currentTimestamp = System.currentTimeMillis();
+                    }
+                }
+            } else {
+                sequence = 0L;
+            }
+            lastTimestamp = currentTimestamp;
+            return ((currentTimestamp - START_TIMESTAMP) << (SEQUENCE_BITS + WORKER_ID_BITS * 2)) | NODE_BITS | sequence;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.validation.annotation.Validated;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import java.util.List;
 
 /**
  * 订单服务对商家服务提供订单相关 rpc 接口
@@ -35,6 +36,17 @@ public interface OrderForMerchantDubboService {
             @Valid @NotNull(message = "请求参数不能为空") MerchantGetOrderDetailsRequestDto dto);
 
 
+    /**
+     * 批量获取订单详情
+     * 不存在或不属于该场馆的订单不出现在结果中
+     *
+     * @param dto 商家批量查询订单详情请求参数
+     * @return 订单详情 Dto 列表
+     */
+    RpcResult<List<MerchantGetOrderResultDto>> getOrderDetailsBatch(
+            @Valid @NotNull(message = "请求参数不能为空") MerchantGetOrderDetailsBatchRequestDto dto);
+
+
     /**
      * 商家取消未支付订单。
      *
@@ -0,0 +1,26 @@
+package com.unlimited.sports.globox.dubbo.order.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 商家批量查询订单详情请求的数据传输对象。
+ * 用于一次性查询同一场馆下的多个订单详情，避免按订单逐个调用。
+ */
+@Data
+@Builder
+public class MerchantGetOrderDetailsBatchRequestDto implements Serializable {
+    @NotEmpty(message = "订单号列表不能为空")
+    private List<Long> orderNos;
+
+    @NotNull(message = "商家号不能为空")
+    private Long merchantId;
+
+    @NotNull(message = "场馆号不能为空")
+    private Long venueId;
+}
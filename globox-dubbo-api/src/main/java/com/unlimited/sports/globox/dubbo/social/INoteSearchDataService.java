@@ -1,9 +1,10 @@
 package com.unlimited.sports.globox.dubbo.social;
 
 import com.unlimited.sports.globox.common.result.RpcResult;
+import com.unlimited.sports.globox.model.search.dto.SearchSyncCursor;
+import com.unlimited.sports.globox.model.search.dto.SearchSyncPage;
 import com.unlimited.sports.globox.model.social.vo.NoteSyncVo;
 
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Set;
 
@@ -14,12 +15,13 @@ import java.util.Set;
 public interface INoteSearchDataService {
 
     /**
-     * 增量同步笔记数据
-     * 业务逻辑：
-     * @param updatedTime 上一次同步的时间戳，为null表示全量同步，不为null表示增量同步
-     * @return 笔记同步数据列表（NoteSyncVO格式）
+     * 按 (updatedAt, noteId) 游标分页增量同步笔记数据
+     *
+     * @param cursor 上一页游标，为null表示从头全量同步
+     * @param pageSize 每页条数，最大 {@link SearchSyncPage#MAX_PAGE_SIZE}
+     * @return 一页笔记数据（NoteSyncVO格式）及下一页游标
      */
-    RpcResult<List<NoteSyncVo>> syncNoteData(LocalDateTime updatedTime);
+    RpcResult<SearchSyncPage<NoteSyncVo>> syncNoteData(SearchSyncCursor cursor, int pageSize);
 
     /**
      * 批量查询用户对笔记的点赞状态
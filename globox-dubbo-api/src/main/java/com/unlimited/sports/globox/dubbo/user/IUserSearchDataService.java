@@ -2,9 +2,8 @@ package com.unlimited.sports.globox.dubbo.user;
 
 import com.unlimited.sports.globox.common.result.RpcResult;
 import com.unlimited.sports.globox.model.auth.vo.UserSyncVo;
-
-import java.time.LocalDateTime;
-import java.util.List;
+import com.unlimited.sports.globox.model.search.dto.SearchSyncCursor;
+import com.unlimited.sports.globox.model.search.dto.SearchSyncPage;
 
 /**
  * 用户搜索数据RPC服务接口
@@ -13,10 +12,11 @@ import java.util.List;
 public interface IUserSearchDataService {
 
     /**
-     * 增量同步用户数据
+     * 按 (updatedAt, userId) 游标分页增量同步用户数据
      *
-     * @param updatedTime 上一次同步的时间戳，为空表示同步全部数据，不为空表示同步该时间之后的数据
-     * @return 同步的用户数据列表（UserSyncVo格式）
+     * @param cursor 上一页游标，为空表示从头同步全部数据
+     * @param pageSize 每页条数，最大 {@link SearchSyncPage#MAX_PAGE_SIZE}
+     * @return 一页用户数据（UserSyncVo格式）及下一页游标
      */
-    RpcResult<List<UserSyncVo>> syncUserData(LocalDateTime updatedTime);
+    RpcResult<SearchSyncPage<UserSyncVo>> syncUserData(SearchSyncCursor cursor, int pageSize);
 }
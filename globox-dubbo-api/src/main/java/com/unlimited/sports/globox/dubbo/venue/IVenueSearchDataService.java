@@ -1,10 +1,11 @@
 package com.unlimited.sports.globox.dubbo.venue;
 
 import com.unlimited.sports.globox.common.result.RpcResult;
+import com.unlimited.sports.globox.model.search.dto.SearchSyncCursor;
+import com.unlimited.sports.globox.model.search.dto.SearchSyncPage;
 import com.unlimited.sports.globox.model.venue.vo.VenueSyncVO;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
 
@@ -30,10 +31,11 @@ public interface IVenueSearchDataService {
     RpcResult<List<Long>> getUnavailableVenueIds(LocalDate bookingDate, LocalTime startTime, LocalTime endTime);
 
     /**
-     * 增量同步场馆数据
+     * 按 (updatedAt, venueId) 游标分页增量同步场馆数据
      *
-     * @param updatedTime 上一次同步的时间戳，为空表示同步全部数据，不为空表示同步该时间之后的数据
-     * @return 同步的场馆数据列表（VenueSyncVO格式）
+     * @param cursor 上一页游标，为空表示从头同步全部数据
+     * @param pageSize 每页条数，最大 {@link SearchSyncPage#MAX_PAGE_SIZE}
+     * @return 一页场馆数据（VenueSyncVO格式）及下一页游标
      */
-    RpcResult<List<VenueSyncVO>> syncVenueData(LocalDateTime updatedTime);
+    RpcResult<SearchSyncPage<VenueSyncVO>> syncVenueData(SearchSyncCursor cursor, int pageSize);
 }
@@ -0,0 +1,167 @@
+package com.unlimited.sports.globox.gateway.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JWT 验签器
+ *
+ * 每个 token 只做一次签名校验并解析为 {@link VerifiedJwtClaims}；验签结果按 token 摘要缓存在本地，
+ * 缓存项在 token 的 exp 到期时失效，同一客户端的后续请求不再做任何加解密运算。
+ * 每个 secret 的 {@link JwtParser} 只构建一次，缓存 key 带上 secret 编号，同一 token 换 secret 会重新验签。
+ * 只缓存验签成功的结果，无效 token 不占用缓存。
+ */
+@Slf4j
+@Component
+public class JwtClaimsVerifier {
+
+    /**
+     * 本地缓存的最大 token 数
+     */
+    private static final long MAX_CACHE_SIZE = 100_000;
+
+    /**
+     * token 没有 exp 时的缓存时间（秒）
+     */
+    private static final long DEFAULT_CACHE_SECONDS = 300;
+
+    private final Map<String, ParserHolder> parsers = new ConcurrentHashMap<>();
+
+    private final AtomicInteger parserSequence = new AtomicInteger();
+
+    private final Cache<String, VerifiedJwtClaims> cache = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHE_SIZE)
+            .expireAfter(new Expiry<String, VerifiedJwtClaims>() {
+                @Override
+                public long expireAfterCreate(String key, VerifiedJwtClaims claims, long currentTime) {
+                    if (claims.getExpiresAtMillis() == null) {
+                        return TimeUnit.SECONDS.toNanos(DEFAULT_CACHE_SECONDS);
+                    }
+                    long remainingMillis = claims.getExpiresAtMillis() - System.currentTimeMillis();
+                    return TimeUnit.MILLISECONDS.toNanos(Math.max(0L, remainingMillis));
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, VerifiedJwtClaims claims, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+
+                @Override
+                public long expireAfterRead(String key, VerifiedJwtClaims claims, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+
+    /**
+     * 验签并解析 token
+     *
+     * @param token  JWT Token字符串
+     * @param secret 密钥
+     * @return 验签通过的 claims；签名错误、已过期或格式错误时返回 null
+     */
+    public VerifiedJwtClaims verify(String token, String secret) {
+        ParserHolder holder = parsers.computeIfAbsent(secret, this::buildParser);
+        String cacheKey = holder.id + ":" + digest(token);
+
+        VerifiedJwtClaims cached = cache.getIfPresent(cacheKey);
+        if (cached != null && !isExpired(cached)) {
+            return cached;
+        }
+
+        VerifiedJwtClaims claims;
+        try {
+            claims = toVerifiedClaims(holder.parser.parseSignedClaims(token).getPayload());
+        } catch (Exception e) {
+            return null;
+        }
+        cache.put(cacheKey, claims);
+        return claims;
+    }
+
+    private boolean isExpired(VerifiedJwtClaims claims) {
+        return claims.getExpiresAtMillis() != null && claims.getExpiresAtMillis() <= System.currentTimeMillis();
+    }
+
+    private ParserHolder buildParser(String secret) {
+        JwtParser parser = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                .build();
+        return new ParserHolder(parserSequence.incrementAndGet(), parser);
+    }
+
+    private VerifiedJwtClaims toVerifiedClaims(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return new VerifiedJwtClaims(
+                claims.getSubject(),
+                getStringClaim(claims, "role"),
+                getStringClaim(claims, "openid"),
+                getStringClaim(claims, "clientType"),
+                getStringClaim(claims, "jti"),
+                getLongClaim(claims, "employee_id"),
+                getLongClaim(claims, "merchant_id"),
+                expiration != null ? expiration.getTime() : null);
+    }
+
+    private String getStringClaim(Claims claims, String key) {
+        Object value = claims.get(key);
+        return value != null ? value.toString() : null;
+    }
+
+    private Long getLongClaim(Claims claims, String key) {
+        Object value = claims.get(key);
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof String) {
+            try {
+                return Long.parseLong((String) value);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * token 的 SHA-256 摘要，缓存中不保存 token 原文
+     */
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class ParserHolder {
+        final int id;
+        final JwtParser parser;
+
+        private ParserHolder(int id, JwtParser parser) {
+            this.id = id;
+            this.parser = parser;
+        }
+    }
+}
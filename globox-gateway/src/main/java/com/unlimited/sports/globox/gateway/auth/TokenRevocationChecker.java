@@ -0,0 +1,106 @@
+package com.unlimited.sports.globox.gateway.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.unlimited.sports.globox.common.constants.RedisKeyConstants;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * Access Token 撤销校验器
+ *
+ * 通过响应式 Redis 读取当前有效的 JTI，不阻塞 Netty 事件循环线程。
+ * 校验通过的 JTI 在本地缓存 auth.revocation.cache-seconds 秒，
+ * user-service 登录/登出写入或删除 JTI 后通过 Redis 频道通知，网关收到后立即失效对应缓存；
+ * 通知丢失时撤销最迟在缓存过期后生效。
+ * 本地缓存只用于放行：token 的 JTI 与缓存不一致时总是重新读取 Redis，避免新登录被旧缓存误拒。
+ */
+@Slf4j
+@Component
+public class TokenRevocationChecker {
+
+    /**
+     * 本地缓存的最大 key 数
+     */
+    private static final long MAX_CACHE_SIZE = 100_000;
+
+    @Autowired
+    private ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+
+    /**
+     * 撤销生效的最大延迟（秒），即本地缓存时间；为 0 时不缓存，每次都读取 Redis
+     */
+    @Value("${auth.revocation.cache-seconds:5}")
+    private long cacheSeconds;
+
+    private Cache<String, String> cache;
+
+    private Disposable subscription;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(MAX_CACHE_SIZE)
+                .expireAfterWrite(Duration.ofSeconds(Math.max(0L, cacheSeconds)))
+                .build();
+
+        // 订阅断开期间的通知会丢失，重新订阅前清空本地缓存
+        subscription = reactiveStringRedisTemplate.listenToChannel(RedisKeyConstants.ACCESS_TOKEN_JTI_CHANNEL)
+                .map(ReactiveSubscription.Message::getMessage)
+                .doOnNext(cache::invalidate)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> {
+                            cache.invalidateAll();
+                            log.warn("JTI变更通知订阅断开，重新订阅：{}", signal.failure().getMessage());
+                        }))
+                .subscribe();
+        log.info("JTI撤销校验已启用，本地缓存 {} 秒", cacheSeconds);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * 校验 token 的 JTI 是否仍是该用户当前有效的 JTI
+     *
+     * @param clientType 客户端类型值
+     * @param subject    用户ID
+     * @param jti        token 中的 JTI
+     * @return 有效返回 true；已被撤销、被新登录顶替或 Redis 异常时返回 false
+     */
+    public Mono<Boolean> isActive(String clientType, String subject, String jti) {
+        String key = RedisKeyConstants.ACCESS_TOKEN_JTI_PREFIX + clientType + ":" + subject;
+        if (jti.equals(cache.getIfPresent(key))) {
+            return Mono.just(true);
+        }
+        return reactiveStringRedisTemplate.opsForValue().get(key)
+                .map(cachedJti -> {
+                    if (!jti.equals(cachedJti)) {
+                        return false;
+                    }
+                    cache.put(key, cachedJti);
+                    return true;
+                })
+                .defaultIfEmpty(false)
+                .onErrorResume(e -> {
+                    log.warn("读取JTI失败：key={}, error={}", key, e.getMessage());
+                    return Mono.just(false);
+                });
+    }
+}
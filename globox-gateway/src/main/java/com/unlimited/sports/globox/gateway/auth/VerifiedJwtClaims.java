@@ -0,0 +1,30 @@
+package com.unlimited.sports.globox.gateway.auth;
+
+import lombok.Value;
+
+/**
+ * 已验签的 Token Claims（不可变）
+ * 一次验签后提取网关需要的全部声明，之后的判断和请求头注入都只读取此对象
+ */
+@Value
+public class VerifiedJwtClaims {
+
+    String subject;
+
+    String role;
+
+    String openid;
+
+    String tokenClientType;
+
+    String jti;
+
+    Long staffId;
+
+    Long merchantId;
+
+    /**
+     * 过期时间（毫秒时间戳），token 无过期时间时为 null
+     */
+    Long expiresAtMillis;
+}
@@ -0,0 +1,238 @@
+package com.unlimited.sports.globox.gateway.auth;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 预编译的白名单路径匹配器
+ *
+ * 把所有 Ant 风格的白名单规则按路径段编译成一棵前缀树：普通段走 HashMap 精确查找，
+ * 含 * ? {} 的段挂在通配边上，** 段是可以重复消费任意段的节点。
+ * 匹配时按路径逐段推进，耗时与路径深度相关，与规则数量基本无关。
+ * 结果与 {@link AntPathMatcher} 默认配置（分隔符 /、区分大小写、不裁剪空白）逐条匹配一致：
+ * 段内通配直接复用 AntPathMatcher 的段匹配器，空段忽略、末尾斜杠（含 ** 的规则不区分）和 "/a/*" 匹配 "/a/" 的规则也保持相同。
+ */
+public final class WhitelistPathMatcher {
+
+    private static final String SEPARATOR = "/";
+
+    private static final String DOUBLE_WILDCARD = "**";
+
+    private static final String SINGLE_WILDCARD = "*";
+
+    private static final SegmentPatternCompiler SEGMENT_COMPILER = new SegmentPatternCompiler();
+
+    /**
+     * 编译时使用的规则列表（用于判断配置是否刷新）
+     */
+    private final List<String> source;
+
+    /**
+     * 以 / 开头的规则
+     */
+    private final Node absoluteRoot = new Node(false, false);
+
+    /**
+     * 不以 / 开头的规则
+     */
+    private final Node relativeRoot = new Node(false, false);
+
+    private WhitelistPathMatcher(List<String> source) {
+        this.source = source;
+    }
+
+    /**
+     * 编译白名单规则
+     *
+     * @param patterns Ant 风格规则列表，可以为 null
+     * @return 匹配器
+     */
+    public static WhitelistPathMatcher compile(List<String> patterns) {
+        WhitelistPathMatcher matcher = new WhitelistPathMatcher(patterns);
+        if (patterns != null) {
+            for (String pattern : patterns) {
+                if (pattern != null) {
+                    matcher.add(pattern);
+                }
+            }
+        }
+        return matcher;
+    }
+
+    /**
+     * 是否由指定的规则列表编译而来（配置刷新后属性类会绑定新的列表实例）
+     */
+    public boolean isCompiledFrom(List<String> patterns) {
+        return source == patterns;
+    }
+
+    /**
+     * 路径是否命中任意一条规则
+     */
+    public boolean matches(String path) {
+        if (path == null) {
+            return false;
+        }
+        Node root = path.startsWith(SEPARATOR) ? absoluteRoot : relativeRoot;
+        boolean trailingSeparator = path.endsWith(SEPARATOR);
+
+        List<Node> active = new ArrayList<>(4);
+        addWithClosure(active, root);
+        for (String segment : tokenize(path)) {
+            List<Node> next = new ArrayList<>(4);
+            for (Node node : active) {
+                if (node.doubleWildcard) {
+                    addWithClosure(next, node);
+                }
+                Node literal = node.literals.get(segment);
+                if (literal != null) {
+                    addWithClosure(next, literal);
+                }
+                for (WildcardEdge edge : node.wildcards) {
+                    if (edge.matcher.test(segment)) {
+                        addWithClosure(next, edge.target);
+                    }
+                }
+            }
+            if (next.isEmpty()) {
+                return false;
+            }
+            active = next;
+        }
+
+        for (Node node : active) {
+            if (trailingSeparator ? node.terminalWithSeparator : node.terminalWithoutSeparator) {
+                return true;
+            }
+            // AntPathMatcher：路径已耗尽、规则只剩一个 * 且路径以 / 结尾时视为匹配（"/a/*" 匹配 "/a/"），仅在未经过 ** 时生效
+            if (trailingSeparator && !node.underDoubleWildcard && node.singleWildcardChild != null
+                    && node.singleWildcardChild.isTerminal()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void add(String pattern) {
+        Node node = pattern.startsWith(SEPARATOR) ? absoluteRoot : relativeRoot;
+        for (String segment : tokenize(pattern)) {
+            node = node.child(segment);
+        }
+        if (node.underDoubleWildcard) {
+            // 含 ** 的规则不区分末尾斜杠（AntPathMatcher 只在不经过 ** 的前缀匹配阶段比较末尾斜杠）
+            node.terminalWithSeparator = true;
+            node.terminalWithoutSeparator = true;
+        } else if (pattern.endsWith(SEPARATOR)) {
+            node.terminalWithSeparator = true;
+        } else {
+            node.terminalWithoutSeparator = true;
+        }
+    }
+
+    /**
+     * 加入节点及其 ** 子节点（** 可以匹配零个段）
+     */
+    private static void addWithClosure(List<Node> nodes, Node node) {
+        while (node != null && !nodes.contains(node)) {
+            nodes.add(node);
+            node = node.doubleWildcardChild;
+        }
+    }
+
+    private static String[] tokenize(String path) {
+        return StringUtils.tokenizeToStringArray(path, SEPARATOR, false, true);
+    }
+
+    private static boolean isLiteral(String segment) {
+        return segment.indexOf('*') < 0 && segment.indexOf('?') < 0 && segment.indexOf('{') < 0;
+    }
+
+    private static final class Node {
+
+        final Map<String, Node> literals = new HashMap<>();
+
+        final List<WildcardEdge> wildcards = new ArrayList<>();
+
+        /**
+         * 本节点是否为 ** 段
+         */
+        final boolean doubleWildcard;
+
+        /**
+         * 本节点或其祖先是否为 ** 段
+         */
+        final boolean underDoubleWildcard;
+
+        Node doubleWildcardChild;
+
+        Node singleWildcardChild;
+
+        boolean terminalWithSeparator;
+
+        boolean terminalWithoutSeparator;
+
+        Node(boolean doubleWildcard, boolean underDoubleWildcard) {
+            this.doubleWildcard = doubleWildcard;
+            this.underDoubleWildcard = underDoubleWildcard;
+        }
+
+        boolean isTerminal() {
+            return terminalWithSeparator || terminalWithoutSeparator;
+        }
+
+        Node child(String segment) {
+            if (DOUBLE_WILDCARD.equals(segment)) {
+                if (doubleWildcardChild == null) {
+                    doubleWildcardChild = new Node(true, true);
+                }
+                return doubleWildcardChild;
+            }
+            if (isLiteral(segment)) {
+                return literals.computeIfAbsent(segment, s -> new Node(false, underDoubleWildcard));
+            }
+            for (WildcardEdge edge : wildcards) {
+                if (edge.pattern.equals(segment)) {
+                    return edge.target;
+                }
+            }
+            Node target = new Node(false, underDoubleWildcard);
+            wildcards.add(new WildcardEdge(segment, SEGMENT_COMPILER.compile(segment), target));
+            if (SINGLE_WILDCARD.equals(segment)) {
+                singleWildcardChild = target;
+            }
+            return target;
+        }
+    }
+
+    private static final class WildcardEdge {
+
+        final String pattern;
+
+        final Predicate<String> matcher;
+
+        final Node target;
+
+        WildcardEdge(String pattern, Predicate<String> matcher, Node target) {
+            this.pattern = pattern;
+            this.matcher = matcher;
+            this.target = target;
+        }
+    }
+
+    /**
+     * 复用 AntPathMatcher 的段匹配器，保证段内 * ? {var} 语义一致
+     */
+    private static final class SegmentPatternCompiler extends AntPathMatcher {
+
+        Predicate<String> compile(String segmentPattern) {
+            AntPathStringMatcher matcher = getStringMatcher(segmentPattern);
+            return segment -> matcher.matchStrings(segment, null);
+        }
+    }
+}
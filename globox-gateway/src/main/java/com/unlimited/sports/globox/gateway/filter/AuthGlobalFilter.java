@@ -1,9 +1,12 @@
 package com.unlimited.sports.globox.gateway.filter;
 
 import com.unlimited.sports.globox.common.constants.RequestHeaderConstants;
-import com.unlimited.sports.globox.common.constants.RedisKeyConstants;
 import com.unlimited.sports.globox.common.enums.ClientType;
 import com.unlimited.sports.globox.common.utils.JwtUtil;
+import com.unlimited.sports.globox.gateway.auth.JwtClaimsVerifier;
+import com.unlimited.sports.globox.gateway.auth.TokenRevocationChecker;
+import com.unlimited.sports.globox.gateway.auth.VerifiedJwtClaims;
+import com.unlimited.sports.globox.gateway.auth.WhitelistPathMatcher;
 import com.unlimited.sports.globox.gateway.prop.AuthWhitelistProperties;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,18 +14,16 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.annotation.Order;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher;
 import org.springframework.util.StringUtils;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
 import java.nio.charset.StandardCharsets;
-import java.util.Optional;
+import java.util.List;
 
 /**
  * 全局鉴权 - 过滤器
@@ -36,9 +37,9 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class AuthGlobalFilter implements GlobalFilter {
 
-    private final AntPathMatcher matcher = new AntPathMatcher();
     private final AuthWhitelistProperties authWhitelistProperties;
-    private final StringRedisTemplate stringRedisTemplate;
+    private final JwtClaimsVerifier jwtClaimsVerifier;
+    private final TokenRevocationChecker tokenRevocationChecker;
 
     @Value("${auth.enabled:true}")
     private boolean authEnabled;
@@ -52,6 +53,11 @@ public class AuthGlobalFilter implements GlobalFilter {
     @Value("${third-party.jwt.secret}")
     private String thirdPartyJwtSecret;
 
+    /**
+     * 白名单编译结果，白名单配置刷新后重新编译
+     */
+    private volatile WhitelistPathMatcher whitelistMatcher;
+
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         ServerHttpRequest request = exchange.getRequest();
@@ -91,41 +97,32 @@ public class AuthGlobalFilter implements GlobalFilter {
             return unauthorized(exchange, "Missing token");
         }
 
-        if (!JwtUtil.validateToken(token, secret)) {
-            return unauthorized(exchange, "Invalid or expired token");
-        }
-
-        // 4) 解析 token
-        JwtClaims claims;
-        try {
-            claims = parseClaims(token, secret);
-        } catch (Exception e) {
+        // 4) 验签并解析 token（一次验签，结果按 token 缓存到过期）
+        VerifiedJwtClaims claims = jwtClaimsVerifier.verify(token, secret);
+        if (claims == null) {
             return unauthorized(exchange, "Invalid or expired token");
         }
 
         // 必要字段校验
-        if (!StringUtils.hasText(claims.subject) || !StringUtils.hasText(claims.role)) {
+        if (!StringUtils.hasText(claims.getSubject()) || !StringUtils.hasText(claims.getRole())) {
             return unauthorized(exchange, "Token missing subject or role");
         }
 
         // 商户端必须包含员工信息
-        if (ClientType.MERCHANT.equals(clientType) && claims.staffId == null) {
+        if (ClientType.MERCHANT.equals(clientType) && claims.getStaffId() == null) {
             return unauthorized(exchange, "Token missing merchant info");
         }
 
         // token clientType 校验（若 token 内有 clientType）
-        if (StringUtils.hasText(claims.tokenClientType) && !claims.tokenClientType.equalsIgnoreCase(clientTypeValue)) {
+        if (StringUtils.hasText(claims.getTokenClientType()) && !claims.getTokenClientType().equalsIgnoreCase(clientTypeValue)) {
             return unauthorized(exchange, "Token clientType mismatch");
         }
 
-        // APP jti 强校验（被踢下线/撤销）
-        if (!validateAppJtiIfPresent(clientType, clientType.getValue(), claims.subject, claims.jti)) {
-            return unauthorized(exchange, "Token revoked");
-        }
-
-        // 5) 注入 headers 并放行
-        ServerWebExchange mutatedExchange = mutateExchangeWithHeaders(exchange, clientType, claims);
-        return chain.filter(mutatedExchange);
+        // APP jti 强校验（被踢下线/撤销），通过后 5) 注入 headers 并放行
+        return validateAppJtiIfPresent(clientType, clientType.getValue(), claims.getSubject(), claims.getJti())
+                .flatMap(valid -> valid
+                        ? chain.filter(mutateExchangeWithHeaders(exchange, clientType, claims))
+                        : unauthorized(exchange, "Token revoked"));
     }
 
     /**
@@ -176,120 +173,71 @@ public class AuthGlobalFilter implements GlobalFilter {
         }
 
         try {
-            if (!JwtUtil.validateToken(token, secret)) {
+            VerifiedJwtClaims claims = jwtClaimsVerifier.verify(token, secret);
+            if (claims == null) {
                 return Mono.empty();
             }
 
-            JwtClaims claims = parseClaims(token, secret);
-
             // 白名单：关键信息缺失 => 不注入
-            if (!StringUtils.hasText(claims.subject) || !StringUtils.hasText(claims.role)) {
+            if (!StringUtils.hasText(claims.getSubject()) || !StringUtils.hasText(claims.getRole())) {
                 return Mono.empty();
             }
 
             // 白名单：如果 token 内有 clientType，则需与 header clientType 一致，否则不注入
-            if (StringUtils.hasText(claims.tokenClientType)
-                    && !claims.tokenClientType.equalsIgnoreCase(clientType.getValue())) {
+            if (StringUtils.hasText(claims.getTokenClientType())
+                    && !claims.getTokenClientType().equalsIgnoreCase(clientType.getValue())) {
                 return Mono.empty();
             }
 
             // 白名单：商户端缺 staffId 则不注入
-            if (ClientType.MERCHANT.equals(clientType) && claims.staffId == null) {
+            if (ClientType.MERCHANT.equals(clientType) && claims.getStaffId() == null) {
                 return Mono.empty();
             }
 
             // 白名单：APP jti 可选校验（不通过则不注入，但不拦截）
-            if (!validateAppJtiIfPresent(clientType, clientType.getValue(), claims.subject, claims.jti)) {
-                return Mono.empty();
-            }
-
-            return Mono.just(mutateExchangeWithHeaders(exchange, clientType, claims));
+            return validateAppJtiIfPresent(clientType, clientType.getValue(), claims.getSubject(), claims.getJti())
+                    .filter(Boolean::booleanValue)
+                    .map(valid -> mutateExchangeWithHeaders(exchange, clientType, claims));
         } catch (Exception e) {
             return Mono.empty();
         }
     }
 
-    /**
-     * 统一解析 claim，集中管理 key 名，避免重复代码
-     */
-    private JwtClaims parseClaims(String token, String secret) {
-        String subject = JwtUtil.getSubject(token, secret);
-        String role = Optional.ofNullable(JwtUtil.getClaim(token, secret, "role", Object.class))
-                .map(Object::toString)
-                .orElse(null);
-
-        String tokenClientType = Optional.ofNullable(JwtUtil.getClaim(token, secret, "clientType", Object.class))
-                .map(Object::toString)
-                .orElse(null);
-
-        String openid = Optional.ofNullable(JwtUtil.getClaim(token, secret, "openid", Object.class))
-                .map(Object::toString)
-                .orElse(null);
-
-        String jti = Optional.ofNullable(JwtUtil.getClaim(token, secret, "jti", Object.class))
-                .map(Object::toString)
-                .orElse(null);
-
-        Long staffId = getLongClaim(token, secret, "employee_id");
-        Long merchantId = getLongClaim(token, secret, "merchant_id");
-
-        return new JwtClaims(subject, role, openid, tokenClientType, jti, staffId, merchantId);
-    }
-
     /**
      * APP 端：jti 可选校验
      * - 非 APP：直接通过
      * - jti 为空：直接通过
-     * - 有 jti：必须与 Redis 中缓存一致才通过
+     * - 有 jti：必须与 Redis 中缓存一致才通过（响应式读取，不阻塞事件循环）
      */
-    private boolean validateAppJtiIfPresent(ClientType clientType, String clientTypeValueForKey, String subject, String jti) {
+    private Mono<Boolean> validateAppJtiIfPresent(ClientType clientType, String clientTypeValueForKey, String subject, String jti) {
         if (!ClientType.APP.equals(clientType)) {
-            return true;
+            return Mono.just(true);
         }
         if (!StringUtils.hasText(jti)) {
-            return true;
-        }
-
-        String key = RedisKeyConstants.ACCESS_TOKEN_JTI_PREFIX + clientTypeValueForKey + ":" + subject;
-        try {
-            String cachedJti = stringRedisTemplate.opsForValue().get(key);
-            return StringUtils.hasText(cachedJti) && jti.equals(cachedJti);
-        } catch (Exception ignore) {
-            return false;
+            return Mono.just(true);
         }
+        return tokenRevocationChecker.isActive(clientTypeValueForKey, subject, jti);
     }
 
     /**
      * 根据 clientType + claims 注入 headers，返回新的 exchange
      */
-    private ServerWebExchange mutateExchangeWithHeaders(ServerWebExchange exchange, ClientType clientType, JwtClaims claims) {
+    private ServerWebExchange mutateExchangeWithHeaders(ServerWebExchange exchange, ClientType clientType, VerifiedJwtClaims claims) {
         ServerHttpRequest mutatedRequest = exchange.getRequest().mutate()
-                .headers(headers -> injectHeaders(headers, clientType, claims.subject, claims.role, claims.openid, claims.staffId, claims.merchantId))
+                .headers(headers -> injectHeaders(headers, clientType, claims.getSubject(), claims.getRole(), claims.getOpenid(), claims.getStaffId(), claims.getMerchantId()))
                 .build();
         return exchange.mutate().request(mutatedRequest).build();
     }
 
     private boolean isWhite(String path) {
-        return authWhitelistProperties.getUrls().stream()
-                .anyMatch(pattern -> matcher.match(pattern, path));
-    }
-
-    private Long getLongClaim(String token, String secret, String key) {
-        Object value = JwtUtil.getClaim(token, secret, key, Object.class);
-        if (value == null) {
-            return null;
-        }
-        if (value instanceof Number) {
-            return ((Number) value).longValue();
+        List<String> urls = authWhitelistProperties.getUrls();
+        WhitelistPathMatcher current = whitelistMatcher;
+        if (current == null || !current.isCompiledFrom(urls)) {
+            current = WhitelistPathMatcher.compile(urls);
+            whitelistMatcher = current;
+            log.info("鉴权白名单已编译，规则数：{}", urls != null ? urls.size() : 0);
         }
-        if (value instanceof String) {
-            try {
-                return Long.parseLong((String) value);
-            } catch (NumberFormatException e) {
-                return null;
-            }
-        }
-        return null;
+        return current.matches(path);
     }
 
     /**
@@ -350,27 +298,4 @@ public class AuthGlobalFilter implements GlobalFilter {
         var buffer = response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8));
         return response.writeWith(Mono.just(buffer));
     }
-
-    /**
-     * Token Claims 容器
-     */
-    private static final class JwtClaims {
-        final String subject;
-        final String role;
-        final String openid;
-        final String tokenClientType;
-        final String jti;
-        final Long staffId;
-        final Long merchantId;
-
-        private JwtClaims(String subject, String role, String openid, String tokenClientType, String jti, Long staffId, Long merchantId) {
-            this.subject = subject;
-            this.role = role;
-            this.openid = openid;
-            this.tokenClientType = tokenClientType;
-            this.jti = jti;
-            this.staffId = staffId;
-            this.merchantId = merchantId;
-        }
-    }
 }
@@ -0,0 +1,222 @@
+package com.unlimited.sports.globox.gateway.auth;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * WhitelistPathMatcher 与 AntPathMatcher 逐条匹配的等价性测试
+ * 固定用例覆盖边界情况，随机用例按固定种子生成规则和路径，失败时输出种子、规则和路径便于复现
+ */
+class WhitelistPathMatcherTest {
+
+    private static final AntPathMatcher ANT = new AntPathMatcher();
+
+    /**
+     * 与线上配置同形态的白名单规则
+     */
+    private static final List<String> CONFIGURED_WHITELIST = List.of(
+            "/auth/**",
+            "/auth/merchant/login",
+            "/callback/notify/**",
+            "/notification/callback/**",
+            "/share/**",
+            "/search/*",
+            "/venue/venues/{venueId}",
+            "/venue/venues/*/courts",
+            "/social/notes/list/*",
+            "/social/notes/{noteId}/comments",
+            "/coach/coaches/**/detail",
+            "/user/profile/*.json",
+            "/admin/venue/init/",
+            "/actuator/health"
+    );
+
+    private static final String[] PATTERN_SEGMENTS = {
+            "a", "b", "ab", "*", "**", "?", "a*", "*b", "{id}", "{id:\\d+}", "*.json"
+    };
+
+    private static final String[] PATH_SEGMENTS = {
+            "a", "b", "ab", "abc", "ba", "1", "23", "x.json", "", "**"
+    };
+
+    private static final long SEED = 20260118L;
+
+    private static final int RANDOM_RULE_SETS = 300;
+
+    private static final int PATHS_PER_RULE_SET = 200;
+
+    /**
+     * 压测：白名单规则数
+     */
+    private static final int[] BENCHMARK_RULE_COUNTS = {50, 500, 5000};
+
+    /**
+     * 压测：每种规则数下的匹配次数
+     */
+    private static final int BENCHMARK_LOOKUPS = 1000;
+
+    @Test
+    void configuredWhitelistMatchesAntPathMatcher() {
+        WhitelistPathMatcher matcher = WhitelistPathMatcher.compile(CONFIGURED_WHITELIST);
+        List<String> paths = new ArrayList<>(List.of(
+                "/auth", "/auth/", "/auth/login", "/auth/merchant/login", "/auth/merchant/login/",
+                "/callback/notify", "/callback/notify/wechat/pay", "/share", "/share/", "/share/rally/1",
+                "/search", "/search/", "/search/venues", "/search/venues/", "/search/venues/1",
+                "/venue/venues/12", "/venue/venues/12/", "/venue/venues/12/courts", "/venue/venues//courts",
+                "/social/notes/list/", "/social/notes/list/pool", "/social/notes/9/comments",
+                "/coach/coaches/detail", "/coach/coaches/1/detail", "/coach/coaches/1/2/detail",
+                "/coach/coaches/1/detail/", "/user/profile/me.json", "/user/profile/.json",
+                "/admin/venue/init", "/admin/venue/init/", "/actuator/health", "/actuator/health/",
+                "//auth/login", "/auth//login", "auth/login", "/", "", "/unknown"
+        ));
+        Random random = new Random(SEED);
+        for (int i = 0; i < 2000; i++) {
+            paths.add(randomPath(random));
+        }
+        for (String path : paths) {
+            assertSame(CONFIGURED_WHITELIST, matcher, path, SEED);
+        }
+    }
+
+    @Test
+    void edgeCasesMatchAntPathMatcher() {
+        List<List<String>> ruleSets = List.of(
+                List.of("/a/*"),
+                List.of("/a/*/"),
+                List.of("/a/**"),
+                List.of("/a/**/b"),
+                List.of("/a/**/b/"),
+                List.of("/**/b"),
+                List.of("/a/**/*"),
+                List.of("/a/{var}"),
+                List.of("/a/{var}/b"),
+                List.of("/a/b/", "/a/c"),
+                List.of("a/*", "/a/b"),
+                List.of("/**"),
+                List.of("/")
+        );
+        List<String> paths = List.of(
+                "/a", "/a/", "/a/b", "/a/b/", "/a//b", "//a/b", "/a/b//", "/a/x/b", "/a/x/y/b",
+                "/a/x/b/", "/b", "/b/", "a/b", "a/", "/", "", "/a/c", "/a/c/", "/a/b/c"
+        );
+        for (List<String> rules : ruleSets) {
+            WhitelistPathMatcher matcher = WhitelistPathMatcher.compile(rules);
+            for (String path : paths) {
+                assertSame(rules, matcher, path, SEED);
+            }
+        }
+    }
+
+    @Test
+    void randomRulesMatchAntPathMatcher() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < RANDOM_RULE_SETS; i++) {
+            List<String> rules = new ArrayList<>();
+            int ruleCount = 1 + random.nextInt(4);
+            for (int j = 0; j < ruleCount; j++) {
+                rules.add(randomPattern(random));
+            }
+            WhitelistPathMatcher matcher = WhitelistPathMatcher.compile(rules);
+            for (int j = 0; j < PATHS_PER_RULE_SET; j++) {
+                assertSame(rules, matcher, randomPath(random), SEED);
+            }
+        }
+    }
+
+    /**
+     * 单次白名单判断的耗时对比
+     * 改造前：isWhite 对每条规则调用 AntPathMatcher.match，耗时随规则数线性增长；
+     * 改造后：按路径段遍历预编译的前缀树，耗时只与路径深度有关
+     */
+    @Test
+    @Tag("benchmark")
+    void lookupLatencyAgainstAntPathMatcher() {
+        Random random = new Random(SEED);
+        for (int ruleCount : BENCHMARK_RULE_COUNTS) {
+            List<String> rules = new ArrayList<>();
+            for (int i = 0; i < ruleCount; i++) {
+                switch (i % 4) {
+                    case 0 -> rules.add("/service" + i + "/api/open");
+                    case 1 -> rules.add("/service" + i + "/api/*/detail");
+                    case 2 -> rules.add("/service" + i + "/{id}/public/**");
+                    default -> rules.add("/service" + i + "/files/*.json");
+                }
+            }
+            List<String> paths = new ArrayList<>();
+            for (int i = 0; i < BENCHMARK_LOOKUPS; i++) {
+                // 只有配置了 /api/*/detail 的服务命中，其余为未配置的服务或资源
+                int service = random.nextInt(ruleCount * 2);
+                paths.add("/service" + service + "/api/" + random.nextInt(100) + "/detail");
+            }
+            WhitelistPathMatcher matcher = WhitelistPathMatcher.compile(rules);
+
+            long start = System.nanoTime();
+            int antMatches = 0;
+            for (String path : paths) {
+                if (rules.stream().anyMatch(rule -> ANT.match(rule, path))) {
+                    antMatches++;
+                }
+            }
+            long before = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int trieMatches = 0;
+            for (String path : paths) {
+                if (matcher.matches(path)) {
+                    trieMatches++;
+                }
+            }
+            long after = System.nanoTime() - start;
+
+            System.out.printf("白名单 %d 条规则（%d 次匹配）：AntPathMatcher %.2fus/次，前缀树 %.2fus/次%n",
+                    ruleCount, BENCHMARK_LOOKUPS, before / 1e3 / BENCHMARK_LOOKUPS, after / 1e3 / BENCHMARK_LOOKUPS);
+            assertEquals(antMatches, trieMatches);
+            if (ruleCount >= 500) {
+                assertTrue(after * 10 < before, () -> "rules=" + ruleCount + ", before=" + before + "ns, after=" + after + "ns");
+            }
+        }
+    }
+
+    private static void assertSame(List<String> rules, WhitelistPathMatcher matcher, String path, long seed) {
+        boolean expected = rules.stream().anyMatch(rule -> ANT.match(rule, path));
+        assertEquals(expected, matcher.matches(path),
+                () -> "seed=" + seed + ", rules=" + rules + ", path=\"" + path + "\"");
+    }
+
+    private static String randomPattern(Random random) {
+        return join(random, PATTERN_SEGMENTS, 4);
+    }
+
+    private static String randomPath(Random random) {
+        return join(random, PATH_SEGMENTS, 5);
+    }
+
+    /**
+     * 随机拼接 0~maxSegments 个段，随机决定是否以 / 开头、是否以 / 结尾（段可以为空，产生 "//"）
+     */
+    private static String join(Random random, String[] segments, int maxSegments) {
+        StringBuilder builder = new StringBuilder();
+        if (random.nextInt(8) != 0) {
+            builder.append('/');
+        }
+        int count = random.nextInt(maxSegments + 1);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append('/');
+            }
+            builder.append(segments[random.nextInt(segments.length)]);
+        }
+        if (count > 0 && random.nextInt(4) == 0) {
+            builder.append('/');
+        }
+        return builder.toString();
+    }
+}
@@ -51,6 +51,23 @@ public class GetCoachListDto {
      */
     private BigDecimal maxDistance;
 
+    /**
+     * 距离游标 - 上一页最后一条的距离（公里）
+     * 仅在按距离排序时生效，传入后忽略 page，直接返回该位置之后的数据
+     */
+    private BigDecimal cursorDistance;
+
+    /**
+     * 距离游标 - 上一页最后一条的教练评分（距离相同时的次级排序键，按评分降序）
+     * 上一页最后一条没有评分时不传
+     */
+    private BigDecimal cursorRatingScore;
+
+    /**
+     * 距离游标 - 上一页最后一条的教练用户ID（距离、评分都相同时的最终排序键）
+     */
+    private Long cursorCoachUserId;
+
     /**
      * 关键词搜索（教练名称、服务区域）
      */
@@ -136,6 +136,19 @@ public class Venue implements Serializable {
     @TableField("template_id")
     private Long templateId;
 
+    /**
+     * 价格摘要：场馆默认模板启用时段（工作日/周末/节假日价）中的最低价
+     * 由价格模板变更时刷新，用于搜索的价格排序和列表最低价
+     */
+    @TableField("min_price")
+    private BigDecimal minPrice;
+
+    /**
+     * 价格摘要：场馆默认模板启用时段中的最高价
+     */
+    @TableField("max_price")
+    private BigDecimal maxPrice;
+
     /**
      * 绑定的普通退款规则ID
      */
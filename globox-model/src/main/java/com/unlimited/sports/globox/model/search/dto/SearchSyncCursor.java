@@ -0,0 +1,34 @@
+package com.unlimited.sports.globox.model.search.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 搜索数据同步游标
+ * 数据按 (updated_at, id) 升序分页，下一页取 (updated_at, id) > (updatedAt, lastId) 的数据
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchSyncCursor implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 上一页最后一条数据的更新时间
+     */
+    private LocalDateTime updatedAt;
+
+    /**
+     * 上一页最后一条数据的ID，为空时包含 updatedAt 当时刻的所有数据
+     */
+    private Long lastId;
+}
@@ -0,0 +1,52 @@
+package com.unlimited.sports.globox.model.search.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 搜索数据同步分页结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchSyncPage<T> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 单页最大条数，防止超出RPC载荷限制
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * 本页数据
+     */
+    private List<T> records;
+
+    /**
+     * 下一页游标（本页最后一条数据），本页为空时为 null
+     */
+    private SearchSyncCursor nextCursor;
+
+    /**
+     * 是否可能还有下一页
+     */
+    private boolean hasMore;
+
+    public static <T> SearchSyncPage<T> empty() {
+        return new SearchSyncPage<>(Collections.emptyList(), null, false);
+    }
+
+    public static int clampPageSize(int pageSize) {
+        return Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+    }
+}
@@ -12,8 +12,8 @@ import java.time.LocalDateTime;
 
 /**
  * 搜索数据同步记录表
- * 每次定时同步任务执行后写入一条记录，用于追踪同步进度和排查问题。
- * 下次同步时查询最近一条成功记录的 syncTime 作为增量起点。
+ * 每次定时同步任务开始时写入一条记录，每同步完一页更新一次游标检查点，结束时更新状态。
+ * 下次同步时：最近一条记录未成功则从其游标继续；否则从其游标回退一小段时间作为增量起点。
  */
 @Data
 @Builder
@@ -37,13 +37,23 @@ public class SearchSyncRecord {
      */
     private LocalDateTime syncTime;
 
+    /**
+     * 检查点：已同步的最后一条数据的更新时间
+     */
+    private LocalDateTime cursorUpdatedAt;
+
+    /**
+     * 检查点：已同步的最后一条数据的ID
+     */
+    private Long cursorId;
+
     /**
      * 本次同步条数
      */
     private Integer syncCount;
 
     /**
-     * 同步状态: 0=成功, 1=失败
+     * 同步状态: 0=成功, 1=失败, 2=进行中（进程崩溃时保留此状态）
      */
     private Integer syncStatus;
 
@@ -57,4 +67,5 @@ public class SearchSyncRecord {
     /** 同步状态常量 */
     public static final int STATUS_SUCCESS = 0;
     public static final int STATUS_FAILED = 1;
+    public static final int STATUS_RUNNING = 2;
 }
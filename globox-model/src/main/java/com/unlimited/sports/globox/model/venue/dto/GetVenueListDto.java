@@ -99,6 +99,17 @@ public class GetVenueListDto {
     @DecimalMax(value = "100", message = "距离筛选最多为100公里")
     private Double maxDistance;
 
+    /**
+     * 距离游标 - 上一页最后一条的距离（公里）
+     * 仅在按距离升序（sortOrder=1）时生效，传入后忽略 page，直接返回该位置之后的数据
+     */
+    private Double cursorDistance;
+
+    /**
+     * 距离游标 - 上一页最后一条的场馆ID（距离相同时的次级排序键）
+     */
+    private Long cursorVenueId;
+
     /**
      * 预订日期（用于时间段可用性过滤）
      */
@@ -46,6 +46,11 @@ public class CourtSlotVo {
     @NonNull
     private List<BookingSlotVo> slots;
 
+    /**
+     * 数据时效（秒），仅Away球场有值，表示第三方槽位数据距上次拉取的时长
+     */
+    private Long dataAgeSeconds;
+
     /**
      * 构建场地槽位VO
      */
@@ -3,6 +3,7 @@ package com.unlimited.sports.globox.coach.dubbo;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.unlimited.sports.globox.coach.mapper.*;
 import com.unlimited.sports.globox.coach.service.ICoachSlotService;
+import com.unlimited.sports.globox.common.lock.BatchLock;
 import com.unlimited.sports.globox.common.lock.RedisDistributedLock;
 import com.unlimited.sports.globox.common.result.RpcResult;
 import com.unlimited.sports.globox.common.utils.Assert;
@@ -19,7 +20,6 @@ import com.unlimited.sports.globox.model.coach.enums.CoachSlotRecordStatusEnum;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.dubbo.config.annotation.DubboReference;
 import org.apache.dubbo.config.annotation.DubboService;
-import org.redisson.api.RLock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Isolation;
@@ -136,14 +136,14 @@ public class CoachDubboServiceImpl implements CoachDubboService {
                 .map(slotId -> buildLockKey(slotId, dto.getBookingDate()))
                 .collect(Collectors.toList());
 
-        List<RLock> locks = null;
+        BatchLock batchLock = null;
 
         try {
             // 批量获取所有时段的锁
-            locks = redisDistributedLock.tryLockMultiple(lockKeys, 1, -1L, TimeUnit.SECONDS);
-            if (locks == null) {
-                log.warn("获取分布式锁失败 - userId: {}, slotIds: {}",
-                        dto.getUserId(), dto.getSlotIds());
+            batchLock = redisDistributedLock.tryLockBatch(lockKeys, 1, -1L, TimeUnit.SECONDS);
+            if (!batchLock.isLocked()) {
+                log.warn("获取分布式锁失败 - userId: {}, slotIds: {}, 冲突锁键: {}",
+                        dto.getUserId(), dto.getSlotIds(), batchLock.getConflictKeys());
                 return RpcResult.error(LOCK_ACQUIRE_FAILED);
             }
             log.info("【锁包事务】成功获取分布式锁 - userId: {}, 时段数: {}",
@@ -157,8 +157,8 @@ public class CoachDubboServiceImpl implements CoachDubboService {
 
         } finally {
             // 释放锁（无论事务成功还是失败）
-            if (locks != null) {
-                redisDistributedLock.unlockMultiple(locks);
+            if (batchLock != null) {
+                redisDistributedLock.unlockBatch(batchLock);
                 log.info("【锁包事务】释放分布式锁 - userId: {}", dto.getUserId());
             }
         }
@@ -33,6 +33,13 @@ public interface CoachProfileMapper extends BaseMapper<CoachProfile> {
      * @param latitude 用户纬度
      * @param longitude 用户经度
      * @param maxDistance 最大距离（公里）
+     * @param minLat 边界框最小纬度（距离预筛选）
+     * @param maxLat 边界框最大纬度
+     * @param minLng 边界框最小经度
+     * @param maxLng 边界框最大经度
+     * @param cursorDistance 距离游标：上一页最后一条的距离
+     * @param cursorRatingScore 距离游标：上一页最后一条的教练评分（没有评分时为 null）
+     * @param cursorCoachUserId 距离游标：上一页最后一条的教练用户ID
      * @param sortBy 排序方式：rating-评分，distance-距离
      * @param offset 分页偏移量
      * @param pageSize 每页大小
@@ -51,6 +58,13 @@ public interface CoachProfileMapper extends BaseMapper<CoachProfile> {
             @Param("latitude") BigDecimal latitude,
             @Param("longitude") BigDecimal longitude,
             @Param("maxDistance") BigDecimal maxDistance,
+            @Param("minLat") Double minLat,
+            @Param("maxLat") Double maxLat,
+            @Param("minLng") Double minLng,
+            @Param("maxLng") Double maxLng,
+            @Param("cursorDistance") BigDecimal cursorDistance,
+            @Param("cursorRatingScore") BigDecimal cursorRatingScore,
+            @Param("cursorCoachUserId") Long cursorCoachUserId,
             @Param("sortBy") String sortBy,
             @Param("offset") int offset,
             @Param("pageSize") int pageSize
@@ -71,7 +85,11 @@ public interface CoachProfileMapper extends BaseMapper<CoachProfile> {
             @Param("serviceTypes") List<Integer> serviceTypes,
             @Param("latitude") BigDecimal latitude,
             @Param("longitude") BigDecimal longitude,
-            @Param("maxDistance") BigDecimal maxDistance
+            @Param("maxDistance") BigDecimal maxDistance,
+            @Param("minLat") Double minLat,
+            @Param("maxLat") Double maxLat,
+            @Param("minLng") Double minLng,
+            @Param("maxLng") Double maxLng
     );
 
     /**
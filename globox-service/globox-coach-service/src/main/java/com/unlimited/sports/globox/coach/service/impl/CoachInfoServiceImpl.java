@@ -74,8 +74,29 @@ public class CoachInfoServiceImpl implements ICoachInfoService {
         }
 
 
+        // 距离预筛选：按最大距离计算经纬度边界框
+        double[] boundingBox = null;
+        if (dto.getLatitude() != null && dto.getLongitude() != null && dto.getMaxDistance() != null) {
+            boundingBox = DistanceUtils.calculateBoundingBoxApprox(
+                    dto.getLatitude().doubleValue(),
+                    dto.getLongitude().doubleValue(),
+                    dto.getMaxDistance().doubleValue());
+        }
+        Double minLat = boundingBox != null ? boundingBox[0] : null;
+        Double maxLat = boundingBox != null ? boundingBox[1] : null;
+        Double minLng = boundingBox != null ? boundingBox[2] : null;
+        Double maxLng = boundingBox != null ? boundingBox[3] : null;
+
+        // 距离游标：仅按距离排序时生效，游标模式下不再使用 offset
+        boolean useDistanceCursor = "distance".equals(dto.getSortBy())
+                && dto.getLatitude() != null && dto.getLongitude() != null
+                && dto.getCursorDistance() != null && dto.getCursorCoachUserId() != null;
+        BigDecimal cursorDistance = useDistanceCursor ? dto.getCursorDistance() : null;
+        BigDecimal cursorRatingScore = useDistanceCursor ? dto.getCursorRatingScore() : null;
+        Long cursorCoachUserId = useDistanceCursor ? dto.getCursorCoachUserId() : null;
+
         // 计算分页偏移量
-        int offset = (dto.getPage() - 1) * dto.getPageSize();
+        int offset = useDistanceCursor ? 0 : (dto.getPage() - 1) * dto.getPageSize();
 
         // 调用 Mapper 进行搜索
         List<Map<String, Object>> searchResults = coachProfileMapper.searchCoaches(
@@ -91,6 +112,13 @@ public class CoachInfoServiceImpl implements ICoachInfoService {
                 dto.getLatitude(),
                 dto.getLongitude(),
                 dto.getMaxDistance(),
+                minLat,
+                maxLat,
+                minLng,
+                maxLng,
+                cursorDistance,
+                cursorRatingScore,
+                cursorCoachUserId,
                 dto.getSortBy(),
                 offset,
                 dto.getPageSize()
@@ -109,7 +137,11 @@ public class CoachInfoServiceImpl implements ICoachInfoService {
                 dto.getServiceTypes(),
                 dto.getLatitude(),
                 dto.getLongitude(),
-                dto.getMaxDistance()
+                dto.getMaxDistance(),
+                minLat,
+                maxLat,
+                minLng,
+                maxLng
         );
 
         log.info("搜索结果总数：{}", total);
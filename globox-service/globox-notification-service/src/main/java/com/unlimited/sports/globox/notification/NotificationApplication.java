@@ -4,12 +4,14 @@ package com.unlimited.sports.globox.notification;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * 推送服务模块 - 启动类
  */
 
 @EnableDiscoveryClient
+@EnableScheduling
 @SpringBootApplication(scanBasePackages = "com.unlimited.sports.globox")
 public class NotificationApplication {
     public static void main(String[] args) {
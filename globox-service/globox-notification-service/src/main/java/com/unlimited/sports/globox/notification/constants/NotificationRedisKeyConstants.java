@@ -0,0 +1,16 @@
+package com.unlimited.sports.globox.notification.constants;
+
+/**
+ * 通知模块 redis 常量
+ */
+public class NotificationRedisKeyConstants {
+
+    // 用户未读计数 Hash: key = 前缀 + userId, field = 消息类型代码(explore/rally/system), value = 未读数
+    public static final String UNREAD_COUNTER_PREFIX = "notification:unread:";
+
+    // 未读计数 Hash 的初始化标记字段，只有从数据库完整构建过的 Hash 才带此字段
+    public static final String UNREAD_COUNTER_INIT_FIELD = "_init";
+
+    // 未读计数过期时间（秒），过期后下次读取从数据库重建
+    public static final long UNREAD_COUNTER_TTL_SECONDS = 7 * 24 * 3600L;
+}
@@ -0,0 +1,34 @@
+package com.unlimited.sports.globox.notification.scheduled;
+
+import com.unlimited.sports.globox.notification.service.INotificationTemplateService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 通知模板缓存刷新定时任务
+ *
+ * 每个实例各自检查模板表版本，变更后最迟一个间隔内生效
+ */
+@Slf4j
+@Component
+public class NotificationTemplateRefreshHandler {
+
+    @Autowired
+    private INotificationTemplateService notificationTemplateService;
+
+    /**
+     * 每30秒检查一次，上一轮结束后再开始下一轮
+     */
+    @Scheduled(initialDelay = 30_000, fixedDelay = 30_000)
+    public void refresh() {
+        try {
+            if (notificationTemplateService.refreshIfChanged()) {
+                log.info("[定时任务] 通知模板缓存已刷新");
+            }
+        } catch (Exception e) {
+            log.error("[定时任务] 通知模板缓存刷新异常", e);
+        }
+    }
+}
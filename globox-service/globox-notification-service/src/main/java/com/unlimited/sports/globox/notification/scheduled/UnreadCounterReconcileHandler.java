@@ -0,0 +1,48 @@
+package com.unlimited.sports.globox.notification.scheduled;
+
+import com.unlimited.sports.globox.notification.service.IUnreadCounterService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 通知未读计数对账定时任务
+ *
+ * 重建最近一段时间内有新通知或已读操作的用户的计数，修正事务提交后 Redis 写失败、
+ * 并发已读与重建交错等原因造成的偏差；不活跃用户的计数由过期时间兜底
+ *
+ * 对账是幂等的重算，多实例同时执行不影响结果
+ */
+@Slf4j
+@Component
+public class UnreadCounterReconcileHandler {
+
+    /**
+     * 对账窗口，大于执行间隔以覆盖上一轮执行期间的变更
+     */
+    private static final Duration RECONCILE_WINDOW = Duration.ofMinutes(15);
+
+    /**
+     * 单次最多重建的用户数
+     */
+    private static final int MAX_USERS_PER_RUN = 2000;
+
+    @Autowired
+    private IUnreadCounterService unreadCounterService;
+
+    /**
+     * 每10分钟执行一次，上一轮结束后再开始下一轮
+     */
+    @Scheduled(initialDelay = 60_000, fixedDelay = 600_000)
+    public void reconcile() {
+        try {
+            int rebuilt = unreadCounterService.reconcileRecent(RECONCILE_WINDOW, MAX_USERS_PER_RUN);
+            log.info("[定时任务] 通知未读计数对账完成: rebuilt={}", rebuilt);
+        } catch (Exception e) {
+            log.error("[定时任务] 通知未读计数对账异常", e);
+        }
+    }
+}
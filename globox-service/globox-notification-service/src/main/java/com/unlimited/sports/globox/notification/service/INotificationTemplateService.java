@@ -0,0 +1,26 @@
+package com.unlimited.sports.globox.notification.service;
+
+import com.unlimited.sports.globox.model.notification.entity.NotificationTemplates;
+
+/**
+ * 通知模板服务
+ * 启用中的模板全部缓存在本地，按事件类型查找；定时检查模板表是否变更，变更时整体重新加载
+ * 返回的模板实体为缓存中的共享实例，调用方不要修改
+ */
+public interface INotificationTemplateService {
+
+    /**
+     * 获取事件类型对应的启用模板，本地缓存未命中时回查数据库（刷新间隔内新增的模板）
+     *
+     * @param eventType 事件类型，如："ORDER_CONFIRMED"
+     * @return 模板，不存在时返回 null
+     */
+    NotificationTemplates getActiveTemplate(String eventType);
+
+    /**
+     * 模板表有变更（条数或最近更新时间不同）时重新加载本地缓存
+     *
+     * @return 是否重新加载
+     */
+    boolean refreshIfChanged();
+}
@@ -11,7 +11,7 @@ import java.util.List;
 public interface IPushRecordsService extends IService<PushRecords> {
 
     /**
-     * 批量插入推送记录
+     * 批量插入推送记录，并在事务提交后增加接收者的未读计数
      *
      * @param records 推送记录列表
      * @return 是否插入成功
@@ -0,0 +1,74 @@
+package com.unlimited.sports.globox.notification.service;
+
+import com.unlimited.sports.globox.model.notification.entity.PushRecords;
+import com.unlimited.sports.globox.notification.enums.MessageTypeEnum;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 通知未读计数服务
+ * 每个用户一个 Redis Hash，按消息类型（探索/球局/系统）记录未读数
+ * 计数只是 push_records 的派生数据，丢失或偏差时从数据库重建
+ */
+public interface IUnreadCounterService {
+
+    /**
+     * 获取用户各消息类型的未读数，计数不存在时从数据库重建
+     *
+     * @param userId 用户ID
+     * @return 消息类型 -> 未读数（包含所有消息类型）
+     */
+    Map<MessageTypeEnum, Integer> getUnreadCounts(Long userId);
+
+    /**
+     * 新推送记录入库后增加接收者的未读数（有事务时在提交后执行）
+     *
+     * @param records 新插入的推送记录
+     */
+    void incrementForRecords(List<PushRecords> records);
+
+    /**
+     * 标记已读后减少未读数（有事务时在提交后执行）
+     *
+     * @param userId 用户ID
+     * @param deltas 消息类型 -> 本次标记已读的数量
+     */
+    void decrement(Long userId, Map<MessageTypeEnum, Integer> deltas);
+
+    /**
+     * 全部已读后将指定消息类型的未读数置0（有事务时在提交后执行）
+     *
+     * @param userId 用户ID
+     * @param types  消息类型
+     */
+    void reset(Long userId, Collection<MessageTypeEnum> types);
+
+    /**
+     * 从数据库统计用户未读数并覆盖写入计数
+     *
+     * @param userId 用户ID
+     * @return 消息类型 -> 未读数
+     */
+    Map<MessageTypeEnum, Integer> rebuild(Long userId);
+
+    /**
+     * 按数据库未读记录分组统计（不读写缓存）
+     *
+     * @param userId 用户ID
+     * @param notificationIds 只统计这些通知，为空时统计全部
+     * @return 消息类型 -> 未读数
+     */
+    Map<MessageTypeEnum, Integer> countUnreadFromDb(Long userId, Collection<String> notificationIds);
+
+    /**
+     * 对账：重建最近有新通知或已读操作的用户的计数
+     *
+     * @param window   时间窗口
+     * @param maxUsers 单次最多处理的用户数
+     * @return 重建的用户数
+     */
+    int reconcileRecent(Duration window, int maxUsers);
+}
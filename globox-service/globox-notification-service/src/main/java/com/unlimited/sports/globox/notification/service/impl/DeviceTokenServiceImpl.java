@@ -15,8 +15,8 @@ import com.unlimited.sports.globox.notification.client.TencentCloudImClient;
 import com.unlimited.sports.globox.notification.dto.request.BatchPushRequest;
 import com.unlimited.sports.globox.notification.dto.request.OfflinePushInfo;
 import com.unlimited.sports.globox.notification.mapper.DevicePushTokenMapper;
-import com.unlimited.sports.globox.notification.mapper.NotificationTemplatesMapper;
 import com.unlimited.sports.globox.notification.service.IDeviceTokenService;
+import com.unlimited.sports.globox.notification.service.INotificationTemplateService;
 import com.unlimited.sports.globox.notification.service.IPushRecordsService;
 import com.unlimited.sports.globox.notification.util.TemplateRenderer;
 import lombok.extern.slf4j.Slf4j;
@@ -40,7 +40,7 @@ public class DeviceTokenServiceImpl implements IDeviceTokenService {
     private DevicePushTokenMapper devicePushTokenMapper;
 
     @Autowired
-    private NotificationTemplatesMapper templateMapper;
+    private INotificationTemplateService notificationTemplateService;
 
     @Autowired
     private TencentCloudImClient tencentCloudImClient;
@@ -302,12 +302,8 @@ public class DeviceTokenServiceImpl implements IDeviceTokenService {
      * 获取"账号在别处登录"模板
      */
     private NotificationTemplates getLoginElsewhereTemplate() {
-        LambdaQueryWrapper<NotificationTemplates> wrapper = Wrappers.lambdaQuery(NotificationTemplates.class)
-                .eq(NotificationTemplates::getEventType, NotificationEventEnum.SYSTEM_ACCOUNT_LOGIN_ELSEWHERE.getEventCode())
-                .eq(NotificationTemplates::getIsActive, true)
-                .last("LIMIT 1");
-
-        return templateMapper.selectOne(wrapper);
+        return notificationTemplateService.getActiveTemplate(
+                NotificationEventEnum.SYSTEM_ACCOUNT_LOGIN_ELSEWHERE.getEventCode());
     }
 
     /**
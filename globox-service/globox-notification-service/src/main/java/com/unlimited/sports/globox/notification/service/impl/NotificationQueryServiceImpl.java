@@ -15,6 +15,7 @@ import com.unlimited.sports.globox.notification.dto.vo.UnreadCountVO;
 import com.unlimited.sports.globox.notification.enums.MessageTypeEnum;
 import com.unlimited.sports.globox.notification.service.INotificationQueryService;
 import com.unlimited.sports.globox.notification.service.IPushRecordsService;
+import com.unlimited.sports.globox.notification.service.IUnreadCounterService;
 import com.unlimited.sports.globox.notification.dto.vo.MessageUserInfo;
 import com.unlimited.sports.globox.common.enums.notification.NotificationEntityTypeEnum;
 import com.unlimited.sports.globox.common.result.RpcResult;
@@ -43,36 +44,23 @@ public class NotificationQueryServiceImpl implements INotificationQueryService {
     @Resource
     private IPushRecordsService pushRecordsService;
 
+    @Resource
+    private IUnreadCounterService unreadCounterService;
+
     @DubboReference(group = "rpc")
     private UserDubboService userDubboService;
 
     @Override
     public UnreadCountVO getUnreadCount(Long userId) {
-        // 查询所有未读消息，按 notification_module 分组统计
-        LambdaQueryWrapper<PushRecords> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(PushRecords::getUserId, userId)
-                .eq(PushRecords::getIsRead, 0)
-                .notIn(PushRecords::getEventType, MessageTypeEnum.EXCLUDED_EVENT_TYPES);
-
-        List<PushRecords> unreadRecords = pushRecordsService.list(wrapper);
-
-        // 按模块代码分组统计
-        Map<Integer, Long> countByModule = unreadRecords.stream()
-                .collect(Collectors.groupingBy(
-                        PushRecords::getNotificationModule,
-                        Collectors.counting()
-                ));
+        // 未读计数由 Redis 维护，一次 HGETALL 获取各消息类型的未读数
+        Map<MessageTypeEnum, Integer> counts = unreadCounterService.getUnreadCounts(userId);
 
         // 构建各消息类型的未读数量项
         List<UnreadCountItemVO> items = new ArrayList<>();
         int totalCount = 0;
 
         for (MessageTypeEnum messageType : MessageTypeEnum.values()) {
-            // 遍历消息类型对应的所有模块代码，累加数量
-            int count = messageType.getModuleCodes().stream()
-                    .mapToInt(moduleCode -> countByModule.getOrDefault(moduleCode, 0L).intValue())
-                    .sum();
-
+            int count = counts.getOrDefault(messageType, 0);
             items.add(UnreadCountItemVO.builder()
                     .type(messageType.getCode())
                     .unReadCount(count)
@@ -89,6 +77,9 @@ public class NotificationQueryServiceImpl implements INotificationQueryService {
     @Override
     @Transactional
     public void markBatchAsRead(MarkReadBatchRequest request, Long userId) {
+        // 先按消息类型统计本次将被标记的未读数，用于扣减计数
+        Map<MessageTypeEnum, Integer> marked = unreadCounterService.countUnreadFromDb(userId, request.getNotificationIds());
+
         LambdaUpdateWrapper<PushRecords> wrapper = new LambdaUpdateWrapper<>();
         wrapper.eq(PushRecords::getUserId, userId)
                 .eq(PushRecords::getIsRead, 0)
@@ -96,7 +87,9 @@ public class NotificationQueryServiceImpl implements INotificationQueryService {
                 .set(PushRecords::getIsRead, 1)
                 .set(PushRecords::getReadAt, LocalDateTime.now());
 
-        pushRecordsService.update(wrapper);
+        if (pushRecordsService.update(wrapper)) {
+            unreadCounterService.decrement(userId, marked);
+        }
     }
 
     @Override
@@ -110,14 +103,17 @@ public class NotificationQueryServiceImpl implements INotificationQueryService {
                 .set(PushRecords::getReadAt, LocalDateTime.now());
 
         // 如果指定了消息类型，则只标记该类型的消息
+        List<MessageTypeEnum> clearedTypes = Arrays.asList(MessageTypeEnum.values());
         if (request.getMessageType() != null && !request.getMessageType().isEmpty()) {
             MessageTypeEnum messageType = MessageTypeEnum.fromCode(request.getMessageType());
             if (messageType != null) {
                 wrapper.in(PushRecords::getNotificationModule, messageType.getModuleCodes());
+                clearedTypes = List.of(messageType);
             }
         }
 
         pushRecordsService.update(wrapper);
+        unreadCounterService.reset(userId, clearedTypes);
     }
 
     @Override
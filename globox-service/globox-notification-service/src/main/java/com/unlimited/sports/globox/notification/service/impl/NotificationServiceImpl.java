@@ -12,9 +12,9 @@ import com.unlimited.sports.globox.common.enums.notification.PushStatusEnum;
 import com.unlimited.sports.globox.notification.client.TencentCloudImClient;
 import com.unlimited.sports.globox.notification.dto.request.BatchPushRequest;
 import com.unlimited.sports.globox.notification.dto.request.OfflinePushInfo;
-import com.unlimited.sports.globox.notification.mapper.NotificationTemplatesMapper;
 import com.unlimited.sports.globox.notification.service.IDeviceTokenService;
 import com.unlimited.sports.globox.notification.service.INotificationService;
+import com.unlimited.sports.globox.notification.service.INotificationTemplateService;
 import com.unlimited.sports.globox.notification.service.IPushRecordsService;
 import com.unlimited.sports.globox.notification.util.TemplateRenderer;
 import com.unlimited.sports.globox.notification.util.NotificationTypeConverter;
@@ -37,7 +37,7 @@ import java.util.stream.Collectors;
 public class NotificationServiceImpl implements INotificationService {
 
     @Autowired
-    private NotificationTemplatesMapper templateMapper;
+    private INotificationTemplateService notificationTemplateService;
 
     @Autowired
     private IPushRecordsService pushRecordsService;
@@ -281,16 +281,11 @@ public class NotificationServiceImpl implements INotificationService {
 
 
     /**
-     * 获取消息模板（根据事件类型 eventType 查询）
+     * 获取消息模板（根据事件类型 eventType 从本地模板缓存获取）
      * messageType 直接就是 eventType，如："ORDER_CONFIRMED"
      */
     private NotificationTemplates getTemplate(String messageType) {
-        LambdaQueryWrapper<NotificationTemplates> wrapper = Wrappers.lambdaQuery(NotificationTemplates.class)
-                .eq(NotificationTemplates::getEventType, messageType)
-                .eq(NotificationTemplates::getIsActive, true)
-                .last("LIMIT 1");
-
-        NotificationTemplates template = templateMapper.selectOne(wrapper);
+        NotificationTemplates template = notificationTemplateService.getActiveTemplate(messageType);
         if (template == null) {
             log.error("[模板查询] 未找到模板: eventType={}", messageType);
         }
@@ -0,0 +1,87 @@
+package com.unlimited.sports.globox.notification.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.unlimited.sports.globox.model.notification.entity.NotificationTemplates;
+import com.unlimited.sports.globox.notification.mapper.NotificationTemplatesMapper;
+import com.unlimited.sports.globox.notification.service.INotificationTemplateService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 通知模板服务实现
+ *
+ * - 本地缓存：事件类型 -> 启用模板，同一事件类型有多个启用模板时取 template_id 最小的
+ * - 变更检测：比较模板表的 COUNT(*) 与 MAX(updated_at)，一次聚合查询，不变时不重新加载
+ */
+@Slf4j
+@Service
+public class NotificationTemplateServiceImpl implements INotificationTemplateService {
+
+    @Autowired
+    private NotificationTemplatesMapper templateMapper;
+
+    private volatile Map<String, NotificationTemplates> templatesByEventType = Collections.emptyMap();
+
+    /**
+     * 当前缓存对应的模板表版本，null 表示尚未加载
+     */
+    private volatile String loadedVersion;
+
+    @Override
+    public NotificationTemplates getActiveTemplate(String eventType) {
+        if (loadedVersion == null) {
+            refreshIfChanged();
+        }
+        NotificationTemplates template = templatesByEventType.get(eventType);
+        if (template != null) {
+            return template;
+        }
+        return templateMapper.selectOne(Wrappers.lambdaQuery(NotificationTemplates.class)
+                .eq(NotificationTemplates::getEventType, eventType)
+                .eq(NotificationTemplates::getIsActive, true)
+                .orderByAsc(NotificationTemplates::getTemplateId)
+                .last("LIMIT 1"));
+    }
+
+    @Override
+    public synchronized boolean refreshIfChanged() {
+        String version = queryTableVersion();
+        if (version.equals(loadedVersion)) {
+            return false;
+        }
+
+        List<NotificationTemplates> templates = templateMapper.selectList(Wrappers.lambdaQuery(NotificationTemplates.class)
+                .eq(NotificationTemplates::getIsActive, true)
+                .orderByAsc(NotificationTemplates::getTemplateId));
+        Map<String, NotificationTemplates> byEventType = new HashMap<>();
+        for (NotificationTemplates template : templates) {
+            if (template.getEventType() != null) {
+                byEventType.putIfAbsent(template.getEventType(), template);
+            }
+        }
+        templatesByEventType = Collections.unmodifiableMap(byEventType);
+        loadedVersion = version;
+        log.info("[模板缓存] 已加载模板: count={}, version={}", byEventType.size(), version);
+        return true;
+    }
+
+    /**
+     * 模板表版本：条数 + 最近更新时间，新增、删除、修改（含启停用）都会改变版本
+     */
+    private String queryTableVersion() {
+        List<Map<String, Object>> rows = templateMapper.selectMaps(new QueryWrapper<NotificationTemplates>()
+                .select("COUNT(*) AS cnt", "MAX(updated_at) AS max_updated_at"));
+        if (rows.isEmpty() || rows.get(0) == null) {
+            return "0|";
+        }
+        Map<String, Object> row = rows.get(0);
+        return row.get("cnt") + "|" + row.get("max_updated_at");
+    }
+}
@@ -4,7 +4,9 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.unlimited.sports.globox.model.notification.entity.PushRecords;
 import com.unlimited.sports.globox.notification.mapper.PushRecordsMapper;
 import com.unlimited.sports.globox.notification.service.IPushRecordsService;
+import com.unlimited.sports.globox.notification.service.IUnreadCounterService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,9 +19,16 @@ import java.util.List;
 @Service
 public class PushRecordsServiceImpl extends ServiceImpl<PushRecordsMapper, PushRecords> implements IPushRecordsService {
 
+    @Autowired
+    private IUnreadCounterService unreadCounterService;
+
     @Override
     @Transactional
     public boolean saveBatchRecords(List<PushRecords> records) {
-        return saveBatch(records);
+        boolean saved = saveBatch(records);
+        if (saved) {
+            unreadCounterService.incrementForRecords(records);
+        }
+        return saved;
     }
 }
@@ -0,0 +1,230 @@
+package com.unlimited.sports.globox.notification.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.unlimited.sports.globox.model.notification.entity.PushRecords;
+import com.unlimited.sports.globox.notification.enums.MessageTypeEnum;
+import com.unlimited.sports.globox.notification.mapper.PushRecordsMapper;
+import com.unlimited.sports.globox.notification.service.IUnreadCounterService;
+import com.unlimited.sports.globox.service.RedisService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.CollectionUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static com.unlimited.sports.globox.notification.constants.NotificationRedisKeyConstants.*;
+
+/**
+ * 通知未读计数服务实现
+ *
+ * - 读：一次 HGETALL，Hash 不带初始化标记（不存在、已过期、或只被增量写出了部分字段）时从数据库重建
+ * - 写：HINCRBY / HSET 在事务提交后用 Pipeline 执行，失败只记录日志，由对账任务修正
+ */
+@Slf4j
+@Service
+public class UnreadCounterServiceImpl implements IUnreadCounterService {
+
+    @Autowired
+    private RedisService redisService;
+
+    @Autowired
+    private PushRecordsMapper pushRecordsMapper;
+
+    @Override
+    public Map<MessageTypeEnum, Integer> getUnreadCounts(Long userId) {
+        try {
+            Map<String, Long> cached = redisService.getCacheMap(counterKey(userId),
+                    new TypeReference<Map<String, Long>>() {});
+            if (cached != null && cached.containsKey(UNREAD_COUNTER_INIT_FIELD)) {
+                Map<MessageTypeEnum, Integer> counts = new EnumMap<>(MessageTypeEnum.class);
+                for (MessageTypeEnum type : MessageTypeEnum.values()) {
+                    // 并发的已读与重建可能让计数短暂为负，展示时按0处理
+                    counts.put(type, (int) Math.max(0L, cached.getOrDefault(type.getCode(), 0L)));
+                }
+                return counts;
+            }
+        } catch (Exception e) {
+            log.warn("[未读计数] 读取缓存失败，回退数据库统计: userId={}", userId, e);
+            return countUnreadFromDb(userId, null);
+        }
+        return rebuild(userId);
+    }
+
+    @Override
+    public void incrementForRecords(List<PushRecords> records) {
+        if (CollectionUtils.isEmpty(records)) {
+            return;
+        }
+        Map<Long, Map<MessageTypeEnum, Integer>> deltas = new HashMap<>();
+        for (PushRecords record : records) {
+            if (record.getUserId() == null || MessageTypeEnum.EXCLUDED_EVENT_TYPES.contains(record.getEventType())) {
+                continue;
+            }
+            MessageTypeEnum type = MessageTypeEnum.fromModuleCode(record.getNotificationModule());
+            if (type == null) {
+                continue;
+            }
+            deltas.computeIfAbsent(record.getUserId(), k -> new EnumMap<>(MessageTypeEnum.class))
+                    .merge(type, 1, Integer::sum);
+        }
+        if (!deltas.isEmpty()) {
+            afterCommit(() -> applyDeltas(deltas));
+        }
+    }
+
+    @Override
+    public void decrement(Long userId, Map<MessageTypeEnum, Integer> deltas) {
+        if (CollectionUtils.isEmpty(deltas)) {
+            return;
+        }
+        Map<MessageTypeEnum, Integer> negated = new EnumMap<>(MessageTypeEnum.class);
+        deltas.forEach((type, delta) -> {
+            if (delta != null && delta > 0) {
+                negated.put(type, -delta);
+            }
+        });
+        if (!negated.isEmpty()) {
+            afterCommit(() -> applyDeltas(Map.of(userId, negated)));
+        }
+    }
+
+    @Override
+    public void reset(Long userId, Collection<MessageTypeEnum> types) {
+        if (CollectionUtils.isEmpty(types)) {
+            return;
+        }
+        afterCommit(() -> {
+            try {
+                byte[] key = bytes(counterKey(userId));
+                redisService.executePipelined((RedisCallback<Object>) connection -> {
+                    for (MessageTypeEnum type : types) {
+                        connection.hashCommands().hSet(key, bytes(type.getCode()), bytes("0"));
+                    }
+                    connection.keyCommands().expire(key, UNREAD_COUNTER_TTL_SECONDS);
+                    return null;
+                });
+            } catch (Exception e) {
+                log.error("[未读计数] 置0失败: userId={}, types={}", userId, types, e);
+            }
+        });
+    }
+
+    @Override
+    public Map<MessageTypeEnum, Integer> rebuild(Long userId) {
+        Map<MessageTypeEnum, Integer> counts = countUnreadFromDb(userId, null);
+        try {
+            Map<String, Integer> hash = new HashMap<>();
+            counts.forEach((type, count) -> hash.put(type.getCode(), count));
+            hash.put(UNREAD_COUNTER_INIT_FIELD, 1);
+            String key = counterKey(userId);
+            redisService.setHashAll(key, hash);
+            redisService.expire(key, UNREAD_COUNTER_TTL_SECONDS);
+        } catch (Exception e) {
+            log.warn("[未读计数] 写入缓存失败: userId={}", userId, e);
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<MessageTypeEnum, Integer> countUnreadFromDb(Long userId, Collection<String> notificationIds) {
+        QueryWrapper<PushRecords> wrapper = new QueryWrapper<PushRecords>()
+                .select("notification_module", "COUNT(*) AS cnt")
+                .eq("user_id", userId)
+                .eq("is_read", 0)
+                .notIn("event_type", MessageTypeEnum.EXCLUDED_EVENT_TYPES)
+                .in(!CollectionUtils.isEmpty(notificationIds), "notification_id", notificationIds)
+                .groupBy("notification_module");
+
+        Map<MessageTypeEnum, Integer> counts = new EnumMap<>(MessageTypeEnum.class);
+        for (MessageTypeEnum type : MessageTypeEnum.values()) {
+            counts.put(type, 0);
+        }
+        for (Map<String, Object> row : pushRecordsMapper.selectMaps(wrapper)) {
+            Object module = row.get("notification_module");
+            Object cnt = row.get("cnt");
+            if (module == null || cnt == null) {
+                continue;
+            }
+            MessageTypeEnum type = MessageTypeEnum.fromModuleCode(((Number) module).intValue());
+            if (type != null) {
+                counts.merge(type, ((Number) cnt).intValue(), Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public int reconcileRecent(Duration window, int maxUsers) {
+        LocalDateTime since = LocalDateTime.now().minus(window);
+        QueryWrapper<PushRecords> wrapper = new QueryWrapper<PushRecords>()
+                .select("DISTINCT user_id")
+                .and(w -> w.ge("created_at", since).or().ge("read_at", since))
+                .last("LIMIT " + maxUsers);
+
+        int rebuilt = 0;
+        for (Object userId : pushRecordsMapper.selectObjs(wrapper)) {
+            if (userId == null) {
+                continue;
+            }
+            try {
+                rebuild(((Number) userId).longValue());
+                rebuilt++;
+            } catch (Exception e) {
+                log.error("[未读计数] 对账失败: userId={}", userId, e);
+            }
+        }
+        return rebuilt;
+    }
+
+    /**
+     * 一次 Pipeline 对多个用户执行 HINCRBY，并刷新过期时间
+     * Hash 不存在时 HINCRBY 只会写出部分字段（没有初始化标记），下次读取仍会从数据库重建
+     */
+    private void applyDeltas(Map<Long, Map<MessageTypeEnum, Integer>> deltas) {
+        try {
+            redisService.executePipelined((RedisCallback<Object>) connection -> {
+                deltas.forEach((userId, byType) -> {
+                    byte[] key = bytes(counterKey(userId));
+                    byType.forEach((type, delta) ->
+                            connection.hashCommands().hIncrBy(key, bytes(type.getCode()), delta));
+                    connection.keyCommands().expire(key, UNREAD_COUNTER_TTL_SECONDS);
+                });
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("[未读计数] 更新计数失败: users={}", deltas.keySet(), e);
+        }
+    }
+
+    /**
+     * 当前有事务时在提交后执行，避免回滚后计数已变更
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static String counterKey(Long userId) {
+        return UNREAD_COUNTER_PREFIX + userId;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
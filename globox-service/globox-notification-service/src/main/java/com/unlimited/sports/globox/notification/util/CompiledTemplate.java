@@ -0,0 +1,146 @@
+package com.unlimited.sports.globox.notification.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预编译模板
+ * 模板文本只解析一次，拆成字面量片段和变量片段，渲染时按顺序拼接，不再重复扫描模板
+ *
+ * 语法与原 StringSubstitutor 配置一致：
+ * - {变量} 替换为变量值，缺失的变量替换为空字符串
+ * - \{ 转义为字面量 {（后面没有 } 时保留 \ 原样输出）
+ * - {变量:-默认值} 只取变量名（缺失变量总是替换为空字符串，默认值不生效）
+ * - 未闭合的 { 按字面量处理
+ *
+ * 与 StringSubstitutor 的差异：变量值不会再次被当作模板解析，变量值末尾的 \ 也不会转义其后的 {
+ */
+@Slf4j
+public final class CompiledTemplate {
+
+    private static final char PREFIX = '{';
+    private static final char SUFFIX = '}';
+    private static final char ESCAPE = '\\';
+    private static final String DEFAULT_VALUE_DELIMITER = ":-";
+
+    /**
+     * 预估的单个变量值长度，用于预分配 StringBuilder 容量
+     */
+    private static final int ESTIMATED_VALUE_LENGTH = 16;
+
+    /**
+     * 原始模板文本
+     */
+    private final String source;
+
+    /**
+     * 字面量片段，比变量片段多一个：literals[0] names[0] literals[1] ... names[n-1] literals[n]
+     */
+    private final String[] literals;
+
+    /**
+     * 变量名片段
+     */
+    private final String[] names;
+
+    /**
+     * 渲染结果的预估长度
+     */
+    private final int estimatedLength;
+
+    private CompiledTemplate(String source, String[] literals, String[] names) {
+        this.source = source;
+        this.literals = literals;
+        this.names = names;
+        int literalLength = 0;
+        for (String literal : literals) {
+            literalLength += literal.length();
+        }
+        this.estimatedLength = literalLength + names.length * ESTIMATED_VALUE_LENGTH;
+    }
+
+    /**
+     * 编译模板
+     *
+     * @param template 模板字符串，如"订单{orderId}已确认"
+     * @return 预编译模板
+     */
+    public static CompiledTemplate compile(String template) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int length = template.length();
+        int i = 0;
+        while (i < length) {
+            char c = template.charAt(i);
+            if (c == PREFIX) {
+                int end = template.indexOf(SUFFIX, i + 1);
+                if (end < 0) {
+                    literal.append(template, i, length);
+                    break;
+                }
+                int last = literal.length() - 1;
+                if (last >= 0 && literal.charAt(last) == ESCAPE) {
+                    // 与 StringSubstitutor 一致：后面有 } 时才去掉转义符，且紧跟 { 的一个字符不再作为变量开头
+                    literal.setCharAt(last, PREFIX);
+                    if (i + 1 < length) {
+                        literal.append(template.charAt(i + 1));
+                    }
+                    i += 2;
+                    continue;
+                }
+                String name = template.substring(i + 1, end);
+                int delimiter = name.indexOf(DEFAULT_VALUE_DELIMITER);
+                int nested = name.indexOf(PREFIX);
+                if (delimiter >= 0 && (nested < 0 || delimiter < nested)) {
+                    name = name.substring(0, delimiter);
+                }
+                literals.add(literal.toString());
+                literal.setLength(0);
+                names.add(name);
+                i = end + 1;
+                continue;
+            }
+            literal.append(c);
+            i++;
+        }
+        literals.add(literal.toString());
+        return new CompiledTemplate(template, literals.toArray(new String[0]), names.toArray(new String[0]));
+    }
+
+    /**
+     * 渲染模板
+     *
+     * @param variables 变量映射，如{"orderId": "123456"}
+     * @return 渲染后的字符串；变量为空时返回原始模板
+     */
+    public String render(Map<String, Object> variables) {
+        if (variables == null || variables.isEmpty()) {
+            log.warn("模板变量为空，直接返回模板: {}", source);
+            return source;
+        }
+        if (names.length == 0) {
+            return literals[0];
+        }
+
+        StringBuilder result = new StringBuilder(estimatedLength);
+        for (int i = 0; i < names.length; i++) {
+            result.append(literals[i]);
+            Object value = variables.get(names[i]);
+            if (value == null) {
+                log.warn("模板变量 {} 未找到，将替换为空字符串", names[i]);
+            } else {
+                result.append(value);
+            }
+        }
+        result.append(literals[names.length]);
+        return result.toString();
+    }
+
+    public String getSource() {
+        return source;
+    }
+}
@@ -0,0 +1,222 @@
+package com.unlimited.sports.globox.notification.service.impl;
+
+import com.unlimited.sports.globox.common.enums.notification.NotificationEventEnum;
+import com.unlimited.sports.globox.common.enums.notification.NotificationModuleEnum;
+import com.unlimited.sports.globox.model.notification.entity.PushRecords;
+import com.unlimited.sports.globox.notification.enums.MessageTypeEnum;
+import com.unlimited.sports.globox.notification.mapper.PushRecordsMapper;
+import com.unlimited.sports.globox.service.RedisService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisHashCommands;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.unlimited.sports.globox.notification.constants.NotificationRedisKeyConstants.*;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * UnreadCounterServiceImpl 的计数增减测试
+ * Pipeline 中的 HINCRBY 累加到内存 Map，按 key -> field -> 值 断言
+ */
+class UnreadCounterServiceImplTest {
+
+    private static final String CHAT_EVENT = NotificationEventEnum.SOCIAL_CHAT_MESSAGE_RECEIVED.getEventCode();
+
+    private UnreadCounterServiceImpl service;
+
+    private RedisService redisService;
+
+    private PushRecordsMapper pushRecordsMapper;
+
+    /**
+     * key -> field -> HINCRBY 累加值
+     */
+    private Map<String, Map<String, Long>> increments;
+
+    private List<String> expiredKeys;
+
+    @BeforeEach
+    void setUp() {
+        redisService = mock(RedisService.class);
+        pushRecordsMapper = mock(PushRecordsMapper.class);
+        increments = new HashMap<>();
+        expiredKeys = new ArrayList<>();
+
+        RedisHashCommands hashCommands = mock(RedisHashCommands.class);
+        doAnswer(invocation -> {
+            increments.computeIfAbsent(string(invocation.getArgument(0)), k -> new HashMap<>())
+                    .merge(string(invocation.getArgument(1)), invocation.getArgument(2), Long::sum);
+            return null;
+        }).when(hashCommands).hIncrBy(any(byte[].class), any(byte[].class), anyLong());
+        RedisKeyCommands keyCommands = mock(RedisKeyCommands.class);
+        doAnswer(invocation -> expiredKeys.add(string(invocation.getArgument(0))))
+                .when(keyCommands).expire(any(byte[].class), eq(UNREAD_COUNTER_TTL_SECONDS));
+        RedisConnection connection = mock(RedisConnection.class);
+        when(connection.hashCommands()).thenReturn(hashCommands);
+        when(connection.keyCommands()).thenReturn(keyCommands);
+        when(redisService.executePipelined(any())).thenAnswer(invocation -> {
+            RedisCallback<?> callback = invocation.getArgument(0);
+            callback.doInRedis(connection);
+            return List.of();
+        });
+
+        service = new UnreadCounterServiceImpl();
+        ReflectionTestUtils.setField(service, "redisService", redisService);
+        ReflectionTestUtils.setField(service, "pushRecordsMapper", pushRecordsMapper);
+    }
+
+    @Test
+    void incrementForRecordsSumsPerUserAndMessageType() {
+        service.incrementForRecords(List.of(
+                record(1L, NotificationModuleEnum.SOCIAL, "SOCIAL_NOTE_LIKED"),
+                record(1L, NotificationModuleEnum.SOCIAL, "SOCIAL_NOTE_COMMENTED"),
+                record(1L, NotificationModuleEnum.VENUE_BOOKING, "VENUE_BOOKING_SUCCESS"),
+                record(1L, NotificationModuleEnum.COACH_BOOKING, "COACH_BOOKING_SUCCESS"),
+                record(2L, NotificationModuleEnum.PLAY_MATCHING, "RALLY_FULL"),
+                // 不计数：聊天消息事件、缺少用户、未知模块
+                record(1L, NotificationModuleEnum.SOCIAL, CHAT_EVENT),
+                record(null, NotificationModuleEnum.SOCIAL, "SOCIAL_NOTE_LIKED"),
+                PushRecords.builder().userId(1L).notificationModule(99).eventType("UNKNOWN").build()
+        ));
+
+        assertEquals(Map.of(
+                key(1L), Map.of("explore", 2L, "system", 2L),
+                key(2L), Map.of("rally", 1L)
+        ), increments);
+        assertEquals(2, expiredKeys.size());
+        verify(redisService).executePipelined(any());
+    }
+
+    @Test
+    void incrementForRecordsWithNothingCountableSkipsRedis() {
+        service.incrementForRecords(List.of());
+        service.incrementForRecords(List.of(record(1L, NotificationModuleEnum.SOCIAL, CHAT_EVENT)));
+
+        verify(redisService, never()).executePipelined(any());
+    }
+
+    @Test
+    void decrementNegatesOnlyPositiveDeltas() {
+        Map<MessageTypeEnum, Integer> marked = new HashMap<>();
+        marked.put(MessageTypeEnum.EXPLORE, 3);
+        marked.put(MessageTypeEnum.RALLY, 0);
+        marked.put(MessageTypeEnum.SYSTEM, null);
+
+        service.decrement(1L, marked);
+
+        assertEquals(Map.of(key(1L), Map.of("explore", -3L)), increments);
+    }
+
+    @Test
+    void decrementWithoutPositiveDeltaSkipsRedis() {
+        service.decrement(1L, Map.of());
+        service.decrement(1L, Map.of(MessageTypeEnum.EXPLORE, 0, MessageTypeEnum.RALLY, -2));
+
+        verify(redisService, never()).executePipelined(any());
+    }
+
+    @Test
+    void deltasAreAppliedOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.incrementForRecords(List.of(record(1L, NotificationModuleEnum.SOCIAL, "SOCIAL_NOTE_LIKED")));
+            service.decrement(1L, Map.of(MessageTypeEnum.EXPLORE, 1, MessageTypeEnum.SYSTEM, 2));
+            verify(redisService, never()).executePipelined(any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(Map.of(key(1L), Map.of("explore", 0L, "system", -2L)), increments);
+    }
+
+    @Test
+    void pipelineFailureIsSwallowed() {
+        doThrow(new IllegalStateException("redis down")).when(redisService).executePipelined(any());
+
+        assertDoesNotThrow(() -> service.decrement(1L, Map.of(MessageTypeEnum.EXPLORE, 1)));
+    }
+
+    @Test
+    void getUnreadCountsClampsNegativeCountsToZero() {
+        when(redisService.<Long>getCacheMap(anyString(), any()))
+                .thenReturn(Map.of(UNREAD_COUNTER_INIT_FIELD, 1L, "explore", -2L, "rally", 5L));
+
+        Map<MessageTypeEnum, Integer> counts = service.getUnreadCounts(1L);
+
+        assertEquals(Map.of(MessageTypeEnum.EXPLORE, 0, MessageTypeEnum.RALLY, 5, MessageTypeEnum.SYSTEM, 0), counts);
+        verify(pushRecordsMapper, never()).selectMaps(any());
+    }
+
+    @Test
+    void getUnreadCountsRebuildsWhenInitMarkerMissing() {
+        // HINCRBY 在 Hash 过期后只写出部分字段，不能当作完整计数
+        when(redisService.<Long>getCacheMap(anyString(), any())).thenReturn(Map.of("explore", -1L));
+        when(pushRecordsMapper.selectMaps(any())).thenReturn(List.of(
+                row(NotificationModuleEnum.SOCIAL, 3L),
+                row(NotificationModuleEnum.VENUE_BOOKING, 2L),
+                row(NotificationModuleEnum.SYSTEM, 1L)
+        ));
+
+        Map<MessageTypeEnum, Integer> counts = service.getUnreadCounts(1L);
+
+        assertEquals(Map.of(MessageTypeEnum.EXPLORE, 3, MessageTypeEnum.RALLY, 0, MessageTypeEnum.SYSTEM, 3), counts);
+        verify(redisService).setHashAll(key(1L),
+                Map.of("explore", 3, "rally", 0, "system", 3, UNREAD_COUNTER_INIT_FIELD, 1));
+        verify(redisService).expire(key(1L), UNREAD_COUNTER_TTL_SECONDS);
+    }
+
+    @Test
+    void getUnreadCountsFallsBackToDbWithoutWritingWhenRedisFails() {
+        when(redisService.<Long>getCacheMap(anyString(), any())).thenThrow(new IllegalStateException("redis down"));
+        when(pushRecordsMapper.selectMaps(any())).thenReturn(List.of(row(NotificationModuleEnum.PLAY_MATCHING, 4L)));
+
+        Map<MessageTypeEnum, Integer> counts = service.getUnreadCounts(1L);
+
+        assertEquals(Map.of(MessageTypeEnum.EXPLORE, 0, MessageTypeEnum.RALLY, 4, MessageTypeEnum.SYSTEM, 0), counts);
+        verify(redisService, never()).setHashAll(anyString(), any());
+    }
+
+    private static PushRecords record(Long userId, NotificationModuleEnum module, String eventType) {
+        return PushRecords.builder()
+                .userId(userId)
+                .notificationModule(module.getCode())
+                .eventType(eventType)
+                .build();
+    }
+
+    private static Map<String, Object> row(NotificationModuleEnum module, long count) {
+        return Map.of("notification_module", module.getCode(), "cnt", count);
+    }
+
+    private static String key(Long userId) {
+        return UNREAD_COUNTER_PREFIX + userId;
+    }
+
+    private static String string(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,196 @@
+package com.unlimited.sports.globox.notification.util;
+
+import org.apache.commons.text.StringSubstitutor;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CompiledTemplate 与原 StringSubstitutor 渲染结果的等价性测试
+ * 参照实现与改造前的 TemplateRenderer 配置相同：前缀 {、后缀 }、转义符 \，缺失变量替换为空字符串
+ * 随机用例按固定种子生成模板，失败时输出种子、模板和变量便于复现
+ */
+class CompiledTemplateTest {
+
+    private static final Map<String, Object> VARIABLES = Map.of(
+            "a", "A",
+            "b", 2,
+            "orderId", "NO123",
+            "a:-b", "never"
+    );
+
+    private static final String[] TEMPLATE_PIECES = {
+            "{", "}", "\\", "\\{", "a", "b", "x", "orderId", ":-", ":", "-", " ", "订单"
+    };
+
+    private static final long SEED = 20260118L;
+
+    private static final int RANDOM_TEMPLATES = 20000;
+
+    private static final int BENCHMARK_WARMUP_ROUNDS = 50000;
+
+    private static final int BENCHMARK_ROUNDS = 200000;
+
+    @Test
+    void fixedTemplatesMatchStringSubstitutor() {
+        List<String> templates = List.of(
+                "订单{orderId}已确认",
+                "{a}{b}",
+                "{a}-{b}-{a}",
+                "no variables",
+                "{missing}",
+                "前{missing}后",
+                "\\{a}",
+                "\\{a} and {a}",
+                "\\\\{a}",
+                "\\a{a}",
+                "\\{",
+                "\\{a",
+                "\\{{a}",
+                "\\{{a}}",
+                "\\{\\{a}",
+                "a\\{b}c{",
+                "{a}\\{",
+                "{a:-b}",
+                "{missing:-default}",
+                "{a:-}",
+                "{:-b}",
+                "{a:b}",
+                "{a{b:-c}",
+                "{a:-b{c}",
+                "{a{b}c}",
+                "{}",
+                "{",
+                "}",
+                "{a",
+                "x{a}{",
+                "{a}}",
+                "{ a }",
+                "\\",
+                "{a}\\"
+        );
+        for (String template : templates) {
+            assertParity(template, VARIABLES, SEED);
+        }
+    }
+
+    @Test
+    void randomTemplatesMatchStringSubstitutor() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < RANDOM_TEMPLATES; i++) {
+            StringBuilder template = new StringBuilder();
+            int pieces = random.nextInt(8);
+            for (int j = 0; j < pieces; j++) {
+                template.append(TEMPLATE_PIECES[random.nextInt(TEMPLATE_PIECES.length)]);
+            }
+            assertParity(template.toString(), VARIABLES, SEED);
+        }
+    }
+
+    @Test
+    void emptyVariablesReturnSourceUnchanged() {
+        String template = "订单{orderId}已确认";
+
+        assertSame(template, CompiledTemplate.compile(template).render(Map.of()));
+        assertSame(template, CompiledTemplate.compile(template).render(null));
+    }
+
+    @Test
+    void nullValueIsTreatedAsMissing() {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("a", null);
+        variables.put("b", "B");
+
+        assertParity("[{a}][{b}]", variables, SEED);
+        assertEquals("[][B]", CompiledTemplate.compile("[{a}][{b}]").render(variables));
+    }
+
+    @Test
+    void variableValuesAreNotParsedAsTemplate() {
+        // 与 StringSubstitutor 的差异：变量值中的 {xxx} 原样输出，值末尾的 \ 也不转义后面的 {
+        Map<String, Object> variables = Map.of("a", "{b}", "b", "B", "slash", "\\");
+
+        assertEquals("{b}", CompiledTemplate.compile("{a}").render(variables));
+        assertNotEquals(substitute("{a}", variables), CompiledTemplate.compile("{a}").render(variables));
+        assertEquals("\\B", CompiledTemplate.compile("{slash}{b}").render(variables));
+        assertNotEquals(substitute("{slash}{b}", variables), CompiledTemplate.compile("{slash}{b}").render(variables));
+    }
+
+    /**
+     * 渲染耗时对比（默认不执行，mvn test -Pbenchmark 运行）
+     * 改造前：每次渲染新建 StringSubstitutor 并重新扫描模板
+     * 改造后：TemplateRenderer 按模板文本缓存 CompiledTemplate，只做片段拼接
+     */
+    @Test
+    @Tag("benchmark")
+    void renderThroughputAgainstStringSubstitutor() {
+        List<String> templates = List.of(
+                "您的订单{orderId}已确认，请于{date} {time}到达{venueName}",
+                "{nickName}邀请您参加{activityName}，报名截止{deadline}",
+                "退款{amount}元已原路退回，订单号{orderId}"
+        );
+        Map<String, Object> variables = Map.of(
+                "orderId", "NO20260118001",
+                "date", "2026-01-18",
+                "time", "19:00",
+                "venueName", "星河网球中心",
+                "nickName", "球友",
+                "activityName", "周末双打",
+                "deadline", "01-17 20:00",
+                "amount", 128
+        );
+        for (String template : templates) {
+            assertEquals(substitute(template, variables), TemplateRenderer.render(template, variables));
+        }
+
+        renderNanos(BENCHMARK_WARMUP_ROUNDS, templates, template -> substitute(template, variables));
+        renderNanos(BENCHMARK_WARMUP_ROUNDS, templates, template -> TemplateRenderer.render(template, variables));
+        long before = renderNanos(BENCHMARK_ROUNDS, templates, template -> substitute(template, variables));
+        long after = renderNanos(BENCHMARK_ROUNDS, templates, template -> TemplateRenderer.render(template, variables));
+
+        System.out.printf("模板渲染（%d 次）：StringSubstitutor %.1fms，CompiledTemplate %.1fms%n",
+                BENCHMARK_ROUNDS, before / 1e6, after / 1e6);
+        assertTrue(after < before, () -> "before=" + before + "ns, after=" + after + "ns");
+    }
+
+    private static long renderNanos(int rounds, List<String> templates, Function<String, String> renderer) {
+        int length = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            length += renderer.apply(templates.get(i % templates.size())).length();
+        }
+        long elapsed = System.nanoTime() - start;
+        assertTrue(length > 0);
+        return elapsed;
+    }
+
+    private static void assertParity(String template, Map<String, Object> variables, long seed) {
+        assertEquals(substitute(template, variables), CompiledTemplate.compile(template).render(variables),
+                () -> "seed=" + seed + ", template=\"" + template + "\", variables=" + variables);
+    }
+
+    /**
+     * 改造前 TemplateRenderer 的渲染方式
+     */
+    private static String substitute(String template, Map<String, Object> variables) {
+        Map<String, String> stringVariables = new HashMap<>();
+        variables.forEach((key, value) -> {
+            if (value != null) {
+                stringVariables.put(key, value.toString());
+            }
+        });
+        StringSubstitutor substitutor = new StringSubstitutor(
+                key -> stringVariables.getOrDefault(key, ""), "{", "}", '\\');
+        return substitutor.replace(template);
+    }
+}
@@ -180,7 +180,82 @@ public class OrderForMerchantDubboServiceImpl implements OrderForMerchantDubboSe
             return RpcResult.error(OrderCode.ORDER_ITEM_NOT_EXIST);
         }
 
-        // 3. 构建 recordDtos
+        OrderActivities orderActivities = orderActivitiesMapper.selectOne(
+                Wrappers.<OrderActivities>lambdaQuery()
+                        .eq(OrderActivities::getOrderNo, order.getOrderNo()));
+
+        return RpcResult.ok(buildOrderDetails(order, items, orderActivities));
+    }
+
+    /**
+     * 批量获取订单详情
+     * 订单、订单项、活动信息各一次 IN 查询，不存在、不属于该场馆或没有订单项的订单不出现在结果中
+     *
+     * @param dto 商家批量查询订单详情请求参数
+     * @return 订单详情 Dto 列表
+     */
+    @Override
+    public RpcResult<List<MerchantGetOrderResultDto>> getOrderDetailsBatch(MerchantGetOrderDetailsBatchRequestDto dto) {
+        List<Long> orderNos = dto.getOrderNos().stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (orderNos.isEmpty()) {
+            return RpcResult.ok(Collections.emptyList());
+        }
+
+        // 1. 批量查询订单主表
+        List<Orders> orders = ordersMapper.selectList(
+                Wrappers.<Orders>lambdaQuery()
+                        .in(Orders::getOrderNo, orderNos)
+                        .eq(Orders::getSellerId, dto.getVenueId()));
+        if (orders.isEmpty()) {
+            return RpcResult.ok(Collections.emptyList());
+        }
+        List<Long> existingOrderNos = orders.stream().map(Orders::getOrderNo).toList();
+
+        // 2. 批量查询订单项
+        Map<Long, List<OrderItems>> itemMap = orderItemsMapper.selectList(
+                        Wrappers.<OrderItems>lambdaQuery()
+                                .in(OrderItems::getOrderNo, existingOrderNos)
+                                .orderByAsc(OrderItems::getStartTime))
+                .stream()
+                .collect(Collectors.groupingBy(OrderItems::getOrderNo));
+
+        // 3. 批量查询活动信息
+        Map<Long, OrderActivities> activityMap = orderActivitiesMapper.selectList(
+                        Wrappers.<OrderActivities>lambdaQuery()
+                                .in(OrderActivities::getOrderNo, existingOrderNos))
+                .stream()
+                .collect(Collectors.toMap(OrderActivities::getOrderNo, activity -> activity, (a, b) -> a));
+
+        // 4. 组装返回 DTO
+        List<MerchantGetOrderResultDto> resultDtos = orders.stream()
+                .filter(order -> {
+                    if (ObjectUtils.isEmpty(itemMap.get(order.getOrderNo()))) {
+                        log.warn("[商家批量查询订单详情] 订单项不存在 orderNo:{}", order.getOrderNo());
+                        return false;
+                    }
+                    return true;
+                })
+                .map(order -> buildOrderDetails(order, itemMap.get(order.getOrderNo()),
+                        activityMap.get(order.getOrderNo())))
+                .toList();
+
+        return RpcResult.ok(resultDtos);
+    }
+
+    /**
+     * 构建订单详情 DTO
+     *
+     * @param order           订单
+     * @param items           订单项（按开始时间升序）
+     * @param orderActivities 订单活动信息，非活动订单为 null
+     * @return 订单详情 Dto
+     */
+    private MerchantGetOrderResultDto buildOrderDetails(Orders order, List<OrderItems> items,
+            OrderActivities orderActivities) {
+        // 1. 构建 recordDtos
         List<RecordDto> recordDtos = items.stream()
                 .map(item -> {
                     boolean cancelable = switch (order.getOrderStatus()) {
@@ -208,7 +283,7 @@ public class OrderForMerchantDubboServiceImpl implements OrderForMerchantDubboSe
                 })
                 .toList();
 
-        // 4. 构建返回 DTO
+        // 2. 构建返回 DTO
         MerchantGetOrderResultDto resultDto = MerchantGetOrderResultDto.builder()
                 .orderNo(order.getOrderNo())
                 .userId(order.getBuyerId())
@@ -229,11 +304,6 @@ public class OrderForMerchantDubboServiceImpl implements OrderForMerchantDubboSe
                 .records(recordDtos)
                 .build();
 
-
-        OrderActivities orderActivities = orderActivitiesMapper.selectOne(
-                Wrappers.<OrderActivities>lambdaQuery()
-                        .eq(OrderActivities::getOrderNo, order.getOrderNo()));
-
         if (!ObjectUtils.isEmpty(orderActivities)) {
             resultDto.setActivity(true);
             resultDto.setActivityTypeName(orderActivities.getActivityTypeName());
@@ -241,7 +311,7 @@ public class OrderForMerchantDubboServiceImpl implements OrderForMerchantDubboSe
             resultDto.setActivity(false);
         }
 
-        return RpcResult.ok(resultDto);
+        return resultDto;
     }
 
 
@@ -1,6 +1,9 @@
 package com.unlimited.sports.globox.search.consumer;
 
 import com.rabbitmq.client.Channel;
+import com.unlimited.sports.globox.common.batch.RabbitBatchConsumer;
+import com.unlimited.sports.globox.common.batch.RabbitBatchRetryPolicy;
+import com.unlimited.sports.globox.common.config.RabbitBatchListenerConfig;
 import com.unlimited.sports.globox.common.constants.SearchMQConstants;
 import com.unlimited.sports.globox.model.search.dto.NoteEngagementSyncMessage;
 import com.unlimited.sports.globox.model.search.dto.NoteEngagementSyncMessage.NoteEngagementItem;
@@ -8,7 +11,6 @@ import com.unlimited.sports.globox.model.search.enums.SearchDocTypeEnum;
 import com.unlimited.sports.globox.search.document.NoteSearchDocument;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.core.Message;
-import org.springframework.amqp.rabbit.annotation.RabbitHandler;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
@@ -19,18 +21,22 @@ import org.springframework.stereotype.Component;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * 笔记互动数据增量同步MQ消费者
- * 接收社交服务发送的增量数据，通过 ES script 增量更新 likes/comments 并重算 hotScore
+ * 接收社交服务发送的增量数据，按批合并后通过 ES script 增量更新 likes/comments 并重算 hotScore
  */
 @Slf4j
 @Component
-@RabbitListener(queues = SearchMQConstants.QUEUE_NOTE_ENGAGEMENT_SYNC)
 public class NoteEngagementSyncConsumer {
 
+    private static final RabbitBatchRetryPolicy RETRY_POLICY = RabbitBatchRetryPolicy.builder()
+            .bizKey("'noteEngagementSync:' + #message.messageProperties.messageId")
+            .build();
+
     /**
      * ES Painless 脚本：增量更新 likes/comments，防止负数
      */
@@ -41,47 +47,66 @@ public class NoteEngagementSyncConsumer {
     @Autowired
     private ElasticsearchOperations elasticsearchOperations;
 
-    @RabbitHandler
-    public void handleEngagementSyncMessage(NoteEngagementSyncMessage message, Channel channel, Message amqpMessage) throws IOException {
-        try {
-            if (message == null || message.getItems() == null || message.getItems().isEmpty()) {
-                log.warn("[互动同步消费] 消息为空");
-                return;
-            }
+    @Autowired
+    private RabbitBatchConsumer rabbitBatchConsumer;
 
-            List<NoteEngagementItem> items = message.getItems();
-            List<UpdateQuery> updateQueries = new ArrayList<>(items.size());
+    @RabbitListener(queues = SearchMQConstants.QUEUE_NOTE_ENGAGEMENT_SYNC,
+            containerFactory = RabbitBatchListenerConfig.BATCH_LISTENER_FACTORY)
+    public void onMessages(List<Message> messages, Channel channel) throws IOException {
+        rabbitBatchConsumer.consume(messages, channel, NoteEngagementSyncMessage.class, this::handleEngagementSyncMessages, RETRY_POLICY);
+    }
 
-            for (NoteEngagementItem item : items) {
-                if (item.getNoteId() == null) {
+    /**
+     * 按笔记合并一批消息的增量，每篇笔记只发一个 UpdateQuery
+     * 增量更新不是幂等的，ES 部分失败时不抛出（避免逐条重放导致重复累加），与原先一样记录日志后丢弃
+     */
+    private void handleEngagementSyncMessages(List<NoteEngagementSyncMessage> messages) {
+        Map<Long, int[]> deltas = new LinkedHashMap<>();
+        for (NoteEngagementSyncMessage message : messages) {
+            if (message == null || message.getItems() == null) {
+                continue;
+            }
+            for (NoteEngagementItem item : message.getItems()) {
+                if (item == null || item.getNoteId() == null) {
                     continue;
                 }
-
-                String docId = SearchDocTypeEnum.buildSearchDocId(SearchDocTypeEnum.NOTE, item.getNoteId());
-
-                Map<String, Object> params = new HashMap<>();
-                params.put("likeDelta", item.getLikeDelta() != null ? item.getLikeDelta() : 0);
-                params.put("commentDelta", item.getCommentDelta() != null ? item.getCommentDelta() : 0);
-
-                updateQueries.add(UpdateQuery.builder(docId)
-                        .withScript(DELTA_SCRIPT)
-                        .withParams(params)
-                        .build());
+                int[] delta = deltas.computeIfAbsent(item.getNoteId(), k -> new int[2]);
+                delta[0] += item.getLikeDelta() != null ? item.getLikeDelta() : 0;
+                delta[1] += item.getCommentDelta() != null ? item.getCommentDelta() : 0;
             }
+        }
+        if (deltas.isEmpty()) {
+            log.warn("[互动同步消费] 消息为空 - messages={}", messages.size());
+            return;
+        }
 
-            if (!updateQueries.isEmpty()) {
-                IndexCoordinates indexCoordinates = elasticsearchOperations
-                        .getIndexCoordinatesFor(NoteSearchDocument.class);
-                elasticsearchOperations.bulkUpdate(updateQueries, indexCoordinates);
-                log.info("[互动同步消费] 增量更新ES成功: count={}", updateQueries.size());
+        List<UpdateQuery> updateQueries = new ArrayList<>(deltas.size());
+        deltas.forEach((noteId, delta) -> {
+            if (delta[0] == 0 && delta[1] == 0) {
+                return;
             }
+            String docId = SearchDocTypeEnum.buildSearchDocId(SearchDocTypeEnum.NOTE, noteId);
 
+            Map<String, Object> params = new HashMap<>();
+            params.put("likeDelta", delta[0]);
+            params.put("commentDelta", delta[1]);
+
+            updateQueries.add(UpdateQuery.builder(docId)
+                    .withScript(DELTA_SCRIPT)
+                    .withParams(params)
+                    .build());
+        });
+        if (updateQueries.isEmpty()) {
+            return;
+        }
+
+        try {
+            IndexCoordinates indexCoordinates = elasticsearchOperations
+                    .getIndexCoordinatesFor(NoteSearchDocument.class);
+            elasticsearchOperations.bulkUpdate(updateQueries, indexCoordinates);
+            log.info("[互动同步消费] 增量更新ES成功: messages={}, notes={}", messages.size(), updateQueries.size());
         } catch (Exception e) {
-            log.error("[互动同步消费] 处理失败: count={}",
-                    message != null && message.getItems() != null ? message.getItems().size() : 0, e);
-        } finally {
-            long deliveryTag = amqpMessage.getMessageProperties().getDeliveryTag();
-            channel.basicAck(deliveryTag, false);
+            log.error("[互动同步消费] 处理失败: messages={}, notes={}", messages.size(), updateQueries.size(), e);
         }
     }
 }
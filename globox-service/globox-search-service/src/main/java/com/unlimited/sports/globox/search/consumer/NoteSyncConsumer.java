@@ -1,6 +1,9 @@
 package com.unlimited.sports.globox.search.consumer;
 
 import com.rabbitmq.client.Channel;
+import com.unlimited.sports.globox.common.batch.RabbitBatchConsumer;
+import com.unlimited.sports.globox.common.batch.RabbitBatchRetryPolicy;
+import com.unlimited.sports.globox.common.config.RabbitBatchListenerConfig;
 import com.unlimited.sports.globox.common.constants.SearchMQConstants;
 import com.unlimited.sports.globox.model.search.enums.SearchDocTypeEnum;
 import com.unlimited.sports.globox.model.social.entity.SocialNote;
@@ -13,7 +16,6 @@ import com.unlimited.sports.globox.search.service.IUnifiedSearchService;
 import lombok.extern.slf4j.Slf4j;
 import org.elasticsearch.index.query.IdsQueryBuilder;
 import org.springframework.amqp.core.Message;
-import org.springframework.amqp.rabbit.annotation.RabbitHandler;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
@@ -23,8 +25,9 @@ import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -32,9 +35,18 @@ import java.util.Objects;
  */
 @Slf4j
 @Component
-@RabbitListener(queues = SearchMQConstants.QUEUE_NOTE_SYNC)
 public class NoteSyncConsumer {
 
+    /**
+     * 搜索同步队列没有重试链路，处理失败的消息记录日志后 ACK
+     */
+    private static final RabbitBatchRetryPolicy RETRY_POLICY = RabbitBatchRetryPolicy.builder()
+            .bizKey("'noteSync:' + #message.messageProperties.messageId")
+            .build();
+
+    @Autowired
+    private RabbitBatchConsumer rabbitBatchConsumer;
+
     @Autowired
     private ElasticsearchOperations elasticsearchOperations;
 
@@ -44,48 +56,52 @@ public class NoteSyncConsumer {
     @Autowired
     private IUnifiedSearchService unifiedSearchService;
 
-    @RabbitHandler
-    public void handleNoteSyncMessage(NoteSyncBatchMessage message, Channel channel, Message amqpMessage) throws IOException {
-        List<NoteSyncVo> syncVos = message != null ? message.getNotes() : Collections.emptyList();
-        try {
-                if (syncVos == null || syncVos.isEmpty()) {
-                    log.warn("[笔记同步消费] 消息为空");
-                    return;
-                }
-
-                List<NoteSyncVo> validVos = syncVos.stream()
-                        .filter(Objects::nonNull)
-                        .filter(vo -> vo.getNoteId() != null)
-                        .toList();
-                if (validVos.isEmpty()) {
-                    log.warn("[笔记同步消费] noteId为空");
-                    return;
-                }
+    @RabbitListener(queues = SearchMQConstants.QUEUE_NOTE_SYNC,
+            containerFactory = RabbitBatchListenerConfig.BATCH_LISTENER_FACTORY)
+    public void onMessages(List<Message> messages, Channel channel) throws IOException {
+        rabbitBatchConsumer.consume(messages, channel, NoteSyncBatchMessage.class, this::handleNoteSyncMessages, RETRY_POLICY);
+    }
 
-                List<NoteSyncVo> toSave = new ArrayList<>();
-                List<Long> toDelete = new ArrayList<>();
-                for (NoteSyncVo vo : validVos) {
-                    if (SocialNote.Status.PUBLISHED.equals(vo.getStatus())) {
-                        toSave.add(vo);
-                    } else {
-                        toDelete.add(vo.getNoteId());
-                    }
+    /**
+     * 合并一批同步消息：同一笔记只保留最后一次变更，再分别批量写入/删除ES
+     */
+    private void handleNoteSyncMessages(List<NoteSyncBatchMessage> messages) {
+        Map<Long, NoteSyncVo> latest = new LinkedHashMap<>();
+        for (NoteSyncBatchMessage message : messages) {
+            if (message == null || message.getNotes() == null) {
+                continue;
+            }
+            for (NoteSyncVo vo : message.getNotes()) {
+                if (vo == null || vo.getNoteId() == null) {
+                    continue;
                 }
+                // 先移除再放入，保证顺序按最后一次变更
+                latest.remove(vo.getNoteId());
+                latest.put(vo.getNoteId(), vo);
+            }
+        }
+        if (latest.isEmpty()) {
+            log.warn("[笔记同步消费] 消息为空 - messages={}", messages.size());
+            return;
+        }
 
-                if (!toSave.isEmpty()) {
-                    saveNotesToEs(toSave);
-                }
-                if (!toDelete.isEmpty()) {
-                    deleteNotesFromEs(toDelete);
-                }
-                log.info("[笔记同步消费] 处理成功 - save={}, delete={}", toSave.size(), toDelete.size());
-        } catch (Exception e) {
-            log.error("[笔记同步消费] 处理失败 - count={}", syncVos != null ? syncVos.size() : 0, e);
-        } finally {
-            long deliveryTag = amqpMessage.getMessageProperties().getDeliveryTag();
-            channel.basicAck(deliveryTag, false);
+        List<NoteSyncVo> toSave = new ArrayList<>();
+        List<Long> toDelete = new ArrayList<>();
+        for (NoteSyncVo vo : latest.values()) {
+            if (SocialNote.Status.PUBLISHED.equals(vo.getStatus())) {
+                toSave.add(vo);
+            } else {
+                toDelete.add(vo.getNoteId());
+            }
         }
 
+        if (!toSave.isEmpty()) {
+            saveNotesToEs(toSave);
+        }
+        if (!toDelete.isEmpty()) {
+            deleteNotesFromEs(toDelete);
+        }
+        log.info("[笔记同步消费] 处理成功 - messages={}, save={}, delete={}", messages.size(), toSave.size(), toDelete.size());
     }
 
     /**
@@ -1,6 +1,9 @@
 package com.unlimited.sports.globox.search.consumer;
 
 import com.rabbitmq.client.Channel;
+import com.unlimited.sports.globox.common.batch.RabbitBatchConsumer;
+import com.unlimited.sports.globox.common.batch.RabbitBatchRetryPolicy;
+import com.unlimited.sports.globox.common.config.RabbitBatchListenerConfig;
 import com.unlimited.sports.globox.common.constants.SearchMQConstants;
 import com.unlimited.sports.globox.model.auth.vo.UserSyncBatchMessage;
 import com.unlimited.sports.globox.model.auth.vo.UserSyncVo;
@@ -11,7 +14,6 @@ import com.unlimited.sports.globox.search.service.IUnifiedSearchService;
 import lombok.extern.slf4j.Slf4j;
 import org.elasticsearch.index.query.IdsQueryBuilder;
 import org.springframework.amqp.core.Message;
-import org.springframework.amqp.rabbit.annotation.RabbitHandler;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
@@ -28,52 +30,66 @@ import java.util.stream.Collectors;
  */
 @Slf4j
 @Component
-@RabbitListener(queues = SearchMQConstants.QUEUE_USER_SYNC)
 public class UserSyncConsumer {
 
+    /**
+     * 搜索同步队列没有重试链路，处理失败的消息记录日志后 ACK
+     */
+    private static final RabbitBatchRetryPolicy RETRY_POLICY = RabbitBatchRetryPolicy.builder()
+            .bizKey("'userSync:' + #message.messageProperties.messageId")
+            .build();
+
+    @Autowired
+    private RabbitBatchConsumer rabbitBatchConsumer;
+
     @Autowired
     private ElasticsearchOperations elasticsearchOperations;
 
     @Autowired
     private IUnifiedSearchService unifiedSearchService;
 
-    @RabbitHandler
-    public void handleUserSyncMessage(UserSyncBatchMessage message, Channel channel, Message amqpMessage) throws IOException {
-        List<UserSyncVo> syncVos = message != null ? message.getUsers() : Collections.emptyList();
-        try {
-            if (syncVos == null || syncVos.isEmpty()) {
-                log.warn("[用户同步消费] 消息为空");
-                return;
-            }
-            List<UserSyncVo> validVos = syncVos.stream()
-                    .filter(Objects::nonNull)
-                    .filter(vo -> vo.getUserId() != null)
-                    .toList();
-            if (validVos.isEmpty()) {
-                log.warn("[用户同步消费] userId为空");
-                return;
-            }
-            Map<Boolean, List<UserSyncVo>> partitionedUser = validVos.stream()
-                    .collect(Collectors.partitioningBy(
-                            vo -> Boolean.TRUE.equals(vo.getCancelled())
-                    ));
-            List<UserSyncVo> toSave = partitionedUser.get(false);
-            List<Long> toDelete = partitionedUser.get(true).stream()
-                    .map(UserSyncVo::getUserId)
-                    .collect(Collectors.toList());
-            if (!toSave.isEmpty()) {
-                saveUsersToEs(toSave);
+    @RabbitListener(queues = SearchMQConstants.QUEUE_USER_SYNC,
+            containerFactory = RabbitBatchListenerConfig.BATCH_LISTENER_FACTORY)
+    public void onMessages(List<Message> messages, Channel channel) throws IOException {
+        rabbitBatchConsumer.consume(messages, channel, UserSyncBatchMessage.class, this::handleUserSyncMessages, RETRY_POLICY);
+    }
+
+    /**
+     * 合并一批同步消息：同一用户只保留最后一次变更，再分别批量写入/删除ES
+     */
+    private void handleUserSyncMessages(List<UserSyncBatchMessage> messages) {
+        Map<Long, UserSyncVo> latest = new LinkedHashMap<>();
+        for (UserSyncBatchMessage message : messages) {
+            if (message == null || message.getUsers() == null) {
+                continue;
             }
-            if (!toDelete.isEmpty()) {
-                deleteUsersFromEs(toDelete);
+            for (UserSyncVo vo : message.getUsers()) {
+                if (vo == null || vo.getUserId() == null) {
+                    continue;
+                }
+                latest.remove(vo.getUserId());
+                latest.put(vo.getUserId(), vo);
             }
-            log.info("[用户同步消费] 处理成功 - save={}, delete={}", toSave.size(), toDelete.size());
-        } catch (Exception e) {
-            log.error("[用户同步消费] 处理失败 - count={}", syncVos != null ? syncVos.size() : 0, e);
-        } finally {
-            long deliveryTag = amqpMessage.getMessageProperties().getDeliveryTag();
-            channel.basicAck(deliveryTag, false);
         }
+        if (latest.isEmpty()) {
+            log.warn("[用户同步消费] 消息为空 - messages={}", messages.size());
+            return;
+        }
+        Map<Boolean, List<UserSyncVo>> partitionedUser = latest.values().stream()
+                .collect(Collectors.partitioningBy(
+                        vo -> Boolean.TRUE.equals(vo.getCancelled())
+                ));
+        List<UserSyncVo> toSave = partitionedUser.get(false);
+        List<Long> toDelete = partitionedUser.get(true).stream()
+                .map(UserSyncVo::getUserId)
+                .collect(Collectors.toList());
+        if (!toSave.isEmpty()) {
+            saveUsersToEs(toSave);
+        }
+        if (!toDelete.isEmpty()) {
+            deleteUsersFromEs(toDelete);
+        }
+        log.info("[用户同步消费] 处理成功 - messages={}, save={}, delete={}", messages.size(), toSave.size(), toDelete.size());
     }
 
     /**
@@ -1,6 +1,8 @@
 package com.unlimited.sports.globox.search.scheduled;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.unlimited.sports.globox.model.search.dto.SearchSyncCursor;
+import com.unlimited.sports.globox.model.search.dto.SearchSyncPage;
 import com.unlimited.sports.globox.model.search.entity.SearchSyncRecord;
 import com.unlimited.sports.globox.search.config.XxlJobProperties;
 import com.unlimited.sports.globox.search.mapper.SearchSyncRecordMapper;
@@ -14,12 +16,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 搜索数据同步定时任务
  *
- * 每次执行时从 search_sync_record 表查询上次成功同步的时间作为增量起点。
- * 同步完成后写入新的记录，供下次任务使用。
+ * 按 (updatedAt, id) 游标分页拉取数据，每页写入ES后立即在 search_sync_record 中更新检查点，
+ * 内存中始终只有一页数据，上一页写入ES完成后才拉取下一页（天然背压）。
+ * 起点：最近一条记录未成功（失败或进程崩溃遗留的进行中记录）时从其检查点继续；
+ * 否则从上次成功的检查点回退 {@link #INCREMENTAL_OVERLAP_SECONDS} 秒，覆盖检查点之后才提交的旧时间戳数据。
  * 支持通过任务参数传入 "full" 触发全量同步。
  */
 @Slf4j
@@ -30,6 +35,16 @@ public class SearchDataSyncHandler {
     private static final String DATA_TYPE_USER = "USER";
     private static final String DATA_TYPE_VENUE = "VENUE";
 
+    /**
+     * 每页条数（同时也是单次ES批量写入的上限）
+     */
+    private static final int PAGE_SIZE = 500;
+
+    /**
+     * 增量同步起点相对上次检查点的回退时间（秒），重复同步的数据在ES中幂等覆盖
+     */
+    private static final long INCREMENTAL_OVERLAP_SECONDS = 60;
+
     @Autowired
     private INoteSearchService noteSearchService;
 
@@ -50,7 +65,7 @@ public class SearchDataSyncHandler {
      */
     @XxlJob("noteDataSyncJobHandler")
     public void syncNoteData() {
-        doSync(DATA_TYPE_NOTE, (updatedTime) -> noteSearchService.syncNoteData(updatedTime));
+        doSync(DATA_TYPE_NOTE, (cursor, pageSize) -> noteSearchService.syncNoteData(cursor, pageSize));
     }
 
     /**
@@ -58,7 +73,7 @@ public class SearchDataSyncHandler {
      */
     @XxlJob("userDataSyncJobHandler")
     public void syncUserData() {
-        doSync(DATA_TYPE_USER, (updatedTime) -> userSearchService.syncUserData(updatedTime));
+        doSync(DATA_TYPE_USER, (cursor, pageSize) -> userSearchService.syncUserData(cursor, pageSize));
     }
 
     /**
@@ -66,47 +81,63 @@ public class SearchDataSyncHandler {
      */
     @XxlJob("venueDataSyncJobHandler")
     public void syncVenueData() {
-        doSync(DATA_TYPE_VENUE, (updatedTime) -> venueSearchService.syncVenueData(updatedTime));
+        doSync(DATA_TYPE_VENUE, (cursor, pageSize) -> venueSearchService.syncVenueData(cursor, pageSize));
     }
 
     /**
-     * 统一同步流程：查上次时间 → 执行同步 → 写入记录
+     * 统一同步流程：解析起点 → 写入进行中记录 → 逐页同步并更新检查点 → 更新最终状态
      */
-    private void doSync(String dataType, SyncAction action) {
-        LocalDateTime syncStartTime = LocalDateTime.now();
-        LocalDateTime updatedTime = resolveUpdatedTime(dataType);
-        log.info("[XXL-JOB] 开始同步{}: updatedTime={}", dataType, updatedTime);
-
+    private void doSync(String dataType, SyncPageAction action) {
+        SearchSyncCursor cursor = resolveStartCursor(dataType);
+        SearchSyncRecord record = startSyncRecord(dataType, cursor);
+        log.info("[XXL-JOB] 开始同步{}: cursor={}", dataType, cursor);
+
+        long startNanos = System.nanoTime();
+        int count = 0;
+        int pages = 0;
         try {
-            int count = action.execute(updatedTime);
-
-            // 写入成功记录
-            saveSyncRecord(dataType, syncStartTime, count,
-                    SearchSyncRecord.STATUS_SUCCESS,
-                    String.format("同步完成: %d 条", count));
+            while (true) {
+                SearchSyncPage<?> page = action.execute(cursor, PAGE_SIZE);
+                int size = page.getRecords() != null ? page.getRecords().size() : 0;
+                if (page.getNextCursor() != null) {
+                    cursor = page.getNextCursor();
+                }
+                count += size;
+                pages++;
+                saveCheckpoint(record, cursor, count);
+                // 本页数据可能全部被过滤掉，只要还有下一页就继续，仅以 hasMore 判断结束
+                if (!page.isHasMore()) {
+                    break;
+                }
+                if (page.getNextCursor() == null) {
+                    throw new IllegalStateException("还有下一页但游标未前进，停止同步以免死循环");
+                }
+            }
 
-            String msg = String.format("%s 同步完成: 同步数=%d", dataType, count);
+            String msg = String.format("%s 同步完成: 同步数=%d, 页数=%d, %s",
+                    dataType, count, pages, formatThroughput(count, startNanos));
+            finishSyncRecord(record, cursor, count, SearchSyncRecord.STATUS_SUCCESS, msg);
             log.info("[XXL-JOB] {}", msg);
             XxlJobHelper.handleSuccess(msg);
         } catch (Exception e) {
-            // 写入失败记录
+            // 写入失败记录，保留最后一个检查点，下次从此处继续
             String errorMsg = e.getMessage();
-            if (errorMsg != null && errorMsg.length() > 450) {
-                errorMsg = errorMsg.substring(0, 450);
+            if (errorMsg != null && errorMsg.length() > 400) {
+                errorMsg = errorMsg.substring(0, 400);
             }
-            saveSyncRecord(dataType, syncStartTime, 0,
-                    SearchSyncRecord.STATUS_FAILED, errorMsg);
+            finishSyncRecord(record, cursor, count, SearchSyncRecord.STATUS_FAILED,
+                    String.format("已同步 %d 条后失败: %s", count, errorMsg));
 
-            log.error("[XXL-JOB] {} 同步失败", dataType, e);
+            log.error("[XXL-JOB] {} 同步失败: 已同步数={}, cursor={}", dataType, count, cursor, e);
             XxlJobHelper.handleFail(dataType + " 同步失败: " + e.getMessage());
         }
     }
 
     /**
-     * 解析增量起点时间
-     * 优先使用任务参数 "full" 触发全量，否则从 DB 查询上次成功同步时间
+     * 解析同步起点
+     * 任务参数 "full" 触发全量；最近一条记录未成功则从其检查点继续；否则从上次成功的检查点回退一段时间
      */
-    private LocalDateTime resolveUpdatedTime(String dataType) {
+    private SearchSyncCursor resolveStartCursor(String dataType) {
         String jobParam = XxlJobHelper.getJobParam();
         if (jobParam != null && !jobParam.isBlank()) {
             if ("full".equalsIgnoreCase(jobParam.trim())) {
@@ -114,45 +145,93 @@ public class SearchDataSyncHandler {
                 return null;
             }
         }
-        return getLastSyncTime(dataType);
-    }
 
-    /**
-     * 查询指定类型最近一次成功同步的时间
-     */
-    private LocalDateTime getLastSyncTime(String dataType) {
-        SearchSyncRecord record = searchSyncRecordMapper.selectOne(
+        SearchSyncRecord latest = searchSyncRecordMapper.selectOne(
+                new LambdaQueryWrapper<SearchSyncRecord>()
+                        .eq(SearchSyncRecord::getDataType, dataType)
+                        .orderByDesc(SearchSyncRecord::getSyncId)
+                        .last("LIMIT 1")
+        );
+        if (latest != null && !Integer.valueOf(SearchSyncRecord.STATUS_SUCCESS).equals(latest.getSyncStatus())
+                && latest.getCursorUpdatedAt() != null) {
+            log.info("[XXL-JOB] 上次同步未完成，从检查点继续: syncId={}, status={}",
+                    latest.getSyncId(), latest.getSyncStatus());
+            return new SearchSyncCursor(latest.getCursorUpdatedAt(), latest.getCursorId());
+        }
+
+        SearchSyncRecord lastSuccess = searchSyncRecordMapper.selectOne(
                 new LambdaQueryWrapper<SearchSyncRecord>()
                         .eq(SearchSyncRecord::getDataType, dataType)
                         .eq(SearchSyncRecord::getSyncStatus, SearchSyncRecord.STATUS_SUCCESS)
                         .orderByDesc(SearchSyncRecord::getSyncId)
                         .last("LIMIT 1")
         );
-        return record != null ? record.getSyncTime() : null;
+        if (lastSuccess == null) {
+            return null;
+        }
+        if (lastSuccess.getCursorUpdatedAt() != null) {
+            return new SearchSyncCursor(
+                    lastSuccess.getCursorUpdatedAt().minusSeconds(INCREMENTAL_OVERLAP_SECONDS), null);
+        }
+        // 旧记录没有检查点，以同步开始时间作为起点
+        return lastSuccess.getSyncTime() != null ? new SearchSyncCursor(lastSuccess.getSyncTime(), null) : null;
     }
 
     /**
-     * 写入同步记录
+     * 写入进行中的同步记录，检查点初始化为起点
      */
-    private void saveSyncRecord(String dataType, LocalDateTime syncTime,
-                                int syncCount, int syncStatus, String syncMessage) {
+    private SearchSyncRecord startSyncRecord(String dataType, SearchSyncCursor cursor) {
+        SearchSyncRecord record = SearchSyncRecord.builder()
+                .dataType(dataType)
+                .syncTime(LocalDateTime.now())
+                .cursorUpdatedAt(cursor != null ? cursor.getUpdatedAt() : null)
+                .cursorId(cursor != null ? cursor.getLastId() : null)
+                .syncCount(0)
+                .syncStatus(SearchSyncRecord.STATUS_RUNNING)
+                .createdAt(LocalDateTime.now())
+                .build();
+        searchSyncRecordMapper.insert(record);
+        return record;
+    }
+
+    /**
+     * 每页同步完成后更新检查点
+     */
+    private void saveCheckpoint(SearchSyncRecord record, SearchSyncCursor cursor, int syncCount) {
+        searchSyncRecordMapper.updateById(SearchSyncRecord.builder()
+                .syncId(record.getSyncId())
+                .cursorUpdatedAt(cursor != null ? cursor.getUpdatedAt() : null)
+                .cursorId(cursor != null ? cursor.getLastId() : null)
+                .syncCount(syncCount)
+                .build());
+    }
+
+    /**
+     * 更新同步记录的最终状态
+     */
+    private void finishSyncRecord(SearchSyncRecord record, SearchSyncCursor cursor,
+                                  int syncCount, int syncStatus, String syncMessage) {
         try {
-            SearchSyncRecord record = SearchSyncRecord.builder()
-                    .dataType(dataType)
-                    .syncTime(syncTime)
+            searchSyncRecordMapper.updateById(SearchSyncRecord.builder()
+                    .syncId(record.getSyncId())
+                    .cursorUpdatedAt(cursor != null ? cursor.getUpdatedAt() : null)
+                    .cursorId(cursor != null ? cursor.getLastId() : null)
                     .syncCount(syncCount)
                     .syncStatus(syncStatus)
                     .syncMessage(syncMessage)
-                    .createdAt(LocalDateTime.now())
-                    .build();
-            searchSyncRecordMapper.insert(record);
+                    .build());
         } catch (Exception e) {
-            log.error("[XXL-JOB] 写入同步记录失败: dataType={}", dataType, e);
+            log.error("[XXL-JOB] 更新同步记录失败: syncId={}", record.getSyncId(), e);
         }
     }
 
+    private String formatThroughput(int count, long startNanos) {
+        long elapsedMillis = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        return String.format("耗时=%dms, 吞吐=%.1f docs/s", elapsedMillis, count * 1000.0 / elapsedMillis);
+    }
+
     @FunctionalInterface
-    private interface SyncAction {
-        int execute(LocalDateTime updatedTime);
+    private interface SyncPageAction {
+        SearchSyncPage<?> execute(SearchSyncCursor cursor, int pageSize);
     }
 }
@@ -1,8 +1,11 @@
 package com.unlimited.sports.globox.search.service;
 
 import com.unlimited.sports.globox.common.result.PaginationResult;
+import com.unlimited.sports.globox.model.search.dto.SearchSyncCursor;
+import com.unlimited.sports.globox.model.search.dto.SearchSyncPage;
 import com.unlimited.sports.globox.model.social.dto.NoteStatisticsDto;
 import com.unlimited.sports.globox.model.social.vo.NoteItemVo;
+import com.unlimited.sports.globox.model.social.vo.NoteSyncVo;
 import com.unlimited.sports.globox.search.document.NoteSearchDocument;
 import com.unlimited.sports.globox.search.document.UserSearchDocument;
 import org.elasticsearch.index.query.BoolQueryBuilder;
@@ -88,12 +91,13 @@ public interface INoteSearchService {
     List<SortBuilder<?>> buildSelectedSorts();
 
     /**
-     * 同步笔记数据到Elasticsearch
+     * 同步一页笔记数据到Elasticsearch
      *
-     * @param updatedTime 上次同步时间，为null则全量同步
-     * @return 同步的数据条数
+     * @param cursor 上一页游标，为null则从头全量同步
+     * @param pageSize 每页条数
+     * @return 本页数据及下一页游标，同步失败时抛出异常
      */
-    int syncNoteData(LocalDateTime updatedTime);
+    SearchSyncPage<NoteSyncVo> syncNoteData(SearchSyncCursor cursor, int pageSize);
 
     /**
      * 计算热度分数
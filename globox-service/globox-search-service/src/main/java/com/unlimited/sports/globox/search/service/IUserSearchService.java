@@ -2,9 +2,11 @@ package com.unlimited.sports.globox.search.service;
 
 import com.unlimited.sports.globox.common.result.PaginationResult;
 import com.unlimited.sports.globox.model.auth.vo.UserListItemVo;
+import com.unlimited.sports.globox.model.auth.vo.UserSyncVo;
+import com.unlimited.sports.globox.model.search.dto.SearchSyncCursor;
+import com.unlimited.sports.globox.model.search.dto.SearchSyncPage;
 import com.unlimited.sports.globox.search.document.UserSearchDocument;
 
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -24,11 +26,12 @@ public interface IUserSearchService {
     PaginationResult<UserListItemVo> searchUsers(String keyword, Integer page, Integer pageSize);
 
     /**
-     * 同步用户数据到ES
-     * @param updatedTime 增量同步的时间点（为null则全量同步）
-     * @return 同步的记录数
+     * 同步一页用户数据到ES
+     * @param cursor 上一页游标（为null则从头全量同步）
+     * @param pageSize 每页条数
+     * @return 本页数据及下一页游标，同步失败时抛出异常
      */
-    int syncUserData(LocalDateTime updatedTime);
+    SearchSyncPage<UserSyncVo> syncUserData(SearchSyncCursor cursor, int pageSize);
 
     /**
      * 批量获取用户详情（从ES获取）
@@ -1,6 +1,9 @@
 package com.unlimited.sports.globox.search.service;
 
+import com.unlimited.sports.globox.model.search.dto.SearchSyncCursor;
+import com.unlimited.sports.globox.model.search.dto.SearchSyncPage;
 import com.unlimited.sports.globox.model.venue.dto.GetVenueListDto;
+import com.unlimited.sports.globox.model.venue.vo.VenueSyncVO;
 import com.unlimited.sports.globox.model.venue.vo.VenueListResponse;
 import com.unlimited.sports.globox.search.service.impl.VenueSearchServiceImpl;
 import org.elasticsearch.index.query.BoolQueryBuilder;
@@ -8,7 +11,6 @@ import org.elasticsearch.search.sort.SortBuilder;
 import org.elasticsearch.search.sort.SortOrder;
 import org.elasticsearch.common.geo.GeoPoint;
 
-import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -109,12 +111,13 @@ public interface IVenueSearchService {
     List<SortBuilder<?>> buildCourtCountSorts(SortOrder order, GeoPoint userLocation);
 
     /**
-     * 同步场馆数据到Elasticsearch
+     * 同步一页场馆数据到Elasticsearch
      *
-     * @param updatedTime 上次同步时间，为null则全量同步
-     * @return 同步的数据条数
+     * @param cursor 上一页游标，为null则从头全量同步
+     * @param pageSize 每页条数
+     * @return 本页数据及下一页游标，同步失败时抛出异常
      */
-    int syncVenueData(LocalDateTime updatedTime);
+    SearchSyncPage<VenueSyncVO> syncVenueData(SearchSyncCursor cursor, int pageSize);
 
     /**
      * 将VenueSearchDocument转换为VenueItemVo
@@ -2,6 +2,8 @@ package com.unlimited.sports.globox.search.service.impl;
 
 import com.unlimited.sports.globox.common.result.PaginationResult;
 import com.unlimited.sports.globox.common.result.RpcResult;
+import com.unlimited.sports.globox.model.search.dto.SearchSyncCursor;
+import com.unlimited.sports.globox.model.search.dto.SearchSyncPage;
 import com.unlimited.sports.globox.common.utils.Assert;
 import com.unlimited.sports.globox.model.search.constants.NoteSearchConstants;
 import com.unlimited.sports.globox.model.search.enums.NoteSortTypeEnum;
@@ -296,15 +298,19 @@ public class NoteSearchServiceImpl implements INoteSearchService {
      * 3. 对于状态不为PUBLISHED的笔记，从ES删除（处理删除、草稿等状态）
      */
     @Override
-    public int syncNoteData(LocalDateTime updatedTime) {
+    public SearchSyncPage<NoteSyncVo> syncNoteData(SearchSyncCursor cursor, int pageSize) {
         try {
-            log.info("开始同步笔记数据: updatedTime={}", updatedTime);
-
-            // 调用RPC获取笔记数据（不过滤状态）
-            RpcResult<List<NoteSyncVo>> result = noteSearchDataService.syncNoteData(updatedTime);
-            Assert.rpcResultOk(result);
-            List<NoteSyncVo> noteSyncVos = result.getData();
-            log.info("获取到笔记数据: 数量={}", noteSyncVos.size());
+            log.debug("开始同步笔记数据: cursor={}", cursor);
+
+            // 调用RPC获取一页笔记数据（不过滤状态）
+            RpcResult<SearchSyncPage<NoteSyncVo>> result = noteSearchDataService.syncNoteData(cursor, pageSize);
+            SearchSyncPage<NoteSyncVo> page = Assert.rpcResultOk(result);
+            if (page == null || page.getRecords() == null || page.getRecords().isEmpty()) {
+                log.info("没有需要同步的笔记数据");
+                return page != null ? page : SearchSyncPage.empty();
+            }
+            List<NoteSyncVo> noteSyncVos = page.getRecords();
+            log.debug("获取到笔记数据: 数量={}", noteSyncVos.size());
 
             // 2. 按状态分类：可发布的和不可发布的
             List<NoteSyncVo> publishedNotes = noteSyncVos.stream()
@@ -374,11 +380,11 @@ public class NoteSearchServiceImpl implements INoteSearchService {
             }
 
             log.info("笔记数据同步完成: 保存数={}, 删除数={}", syncCount, unpublishedNotes.size());
-            return syncCount;
+            return page;
 
         } catch (Exception e) {
-            log.error("同步笔记数据异常: updatedTime={}", updatedTime, e);
-            return 0;
+            log.error("同步笔记数据异常: cursor={}", cursor, e);
+            throw e;
         }
     }
 
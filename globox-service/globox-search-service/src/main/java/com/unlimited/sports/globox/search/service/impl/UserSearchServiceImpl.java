@@ -2,6 +2,8 @@ package com.unlimited.sports.globox.search.service.impl;
 
 import com.unlimited.sports.globox.common.result.PaginationResult;
 import com.unlimited.sports.globox.common.result.RpcResult;
+import com.unlimited.sports.globox.model.search.dto.SearchSyncCursor;
+import com.unlimited.sports.globox.model.search.dto.SearchSyncPage;
 import com.unlimited.sports.globox.common.utils.Assert;
 import com.unlimited.sports.globox.dubbo.user.IUserSearchDataService;
 import com.unlimited.sports.globox.dubbo.social.ISocialFollowDataService;
@@ -30,7 +32,6 @@ import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
 import org.springframework.data.elasticsearch.core.query.NativeSearchQueryBuilder;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -123,18 +124,18 @@ public class UserSearchServiceImpl implements IUserSearchService {
     }
 
     @Override
-    public int syncUserData(LocalDateTime updatedTime) {
+    public SearchSyncPage<UserSyncVo> syncUserData(SearchSyncCursor cursor, int pageSize) {
         try {
-            log.info("开始同步用户数据: updatedTime={}", updatedTime);
-
-            // 通过RPC获取用户数据
-            RpcResult<List<UserSyncVo>> result = userSearchDataService.syncUserData(updatedTime);
-            Assert.rpcResultOk(result);
-            List<UserSyncVo> userSyncVos = result.getData();
-            log.info("获取到用户数据: 数量={}", userSyncVos.size());
-            if (userSyncVos.isEmpty()) {
-                return 0;
+            log.debug("开始同步用户数据: cursor={}", cursor);
+
+            // 通过RPC获取一页用户数据
+            RpcResult<SearchSyncPage<UserSyncVo>> result = userSearchDataService.syncUserData(cursor, pageSize);
+            SearchSyncPage<UserSyncVo> page = Assert.rpcResultOk(result);
+            if (page == null || page.getRecords() == null || page.getRecords().isEmpty()) {
+                return page != null ? page : SearchSyncPage.empty();
             }
+            List<UserSyncVo> userSyncVos = page.getRecords();
+            log.debug("获取到用户数据: 数量={}", userSyncVos.size());
             // 转换为UserSearchDocument并保存到ES
             List<UserSearchDocument> documents = userSyncVos.stream()
                     .map(this::convertUserSyncVOToDocument)
@@ -142,7 +143,7 @@ public class UserSearchServiceImpl implements IUserSearchService {
                     .toList();
             if (documents.isEmpty()) {
                 log.info("转换后没有有效的文档");
-                return 0;
+                return page;
             }
             elasticsearchOperations.save(documents);
             log.info("用户数据同步完成: 成功条数={}", documents.size());
@@ -166,11 +167,11 @@ public class UserSearchServiceImpl implements IUserSearchService {
                     .collect(Collectors.toList());
             unifiedSearchService.saveOrUpdateToUnified(unifiedDocs);
 
-            return documents.size();
+            return page;
 
         } catch (Exception e) {
-            log.error("同步用户数据异常: updatedTime={}", updatedTime, e);
-            return 0;
+            log.error("同步用户数据异常: cursor={}", cursor, e);
+            throw e;
         }
     }
 
@@ -2,6 +2,9 @@ package com.unlimited.sports.globox.search.service.impl;
 
 import com.unlimited.sports.globox.common.result.PaginationResult;
 import com.unlimited.sports.globox.common.result.RpcResult;
+import com.unlimited.sports.globox.common.utils.Assert;
+import com.unlimited.sports.globox.model.search.dto.SearchSyncCursor;
+import com.unlimited.sports.globox.model.search.dto.SearchSyncPage;
 import com.unlimited.sports.globox.model.search.enums.SearchDocTypeEnum;
 import com.unlimited.sports.globox.model.search.enums.SortOrderEnum;
 import com.unlimited.sports.globox.model.venue.dto.GetVenueListDto;
@@ -51,7 +54,6 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -501,29 +503,25 @@ public class VenueSearchServiceImpl implements IVenueSearchService {
      * 2. 对于状态为NORMAL的场馆：保存或更新到ES和统一索引
      * 3. 对于状态不是NORMAL的场馆：从ES中删除
      *
-     * @param updatedTime 上次同步时间，为null则全量同步
-     * @return 同步的数据条数
+     * @param cursor 上一页游标，为null则从头全量同步
+     * @param pageSize 每页条数
+     * @return 本页数据及下一页游标
      */
     @Override
-    public int syncVenueData(LocalDateTime updatedTime) {
+    public SearchSyncPage<VenueSyncVO> syncVenueData(SearchSyncCursor cursor, int pageSize) {
         try {
-            log.info("开始同步场馆数据: updatedTime={}", updatedTime);
+            log.debug("开始同步场馆数据: cursor={}", cursor);
 
-            // 调用RPC获取场馆数据（包含所有状态）
-            RpcResult<List<VenueSyncVO>> result = venueSearchDataService.syncVenueData(updatedTime);
-            if (result == null || !result.isSuccess() || result.getData() == null || result.getData().isEmpty()) {
+            // 调用RPC获取一页场馆数据（包含所有状态）
+            RpcResult<SearchSyncPage<VenueSyncVO>> result = venueSearchDataService.syncVenueData(cursor, pageSize);
+            SearchSyncPage<VenueSyncVO> page = Assert.rpcResultOk(result);
+            if (page == null || page.getRecords() == null || page.getRecords().isEmpty()) {
                 log.info("没有需要同步的场馆数据");
-                return 0;
+                return page != null ? page : SearchSyncPage.empty();
             }
 
-            List<VenueSyncVO> venueSyncVOs = result.getData();
-            log.info("获取到场馆数据: 数量={}", venueSyncVOs.size());
-
-            if (!venueSyncVOs.isEmpty()) {
-                VenueSyncVO firstVo = venueSyncVOs.get(0);
-                log.info("第一条数据: id={}, createdAt={}, updatedAt={}",
-                    firstVo.getVenueId(), firstVo.getCreatedAt(), firstVo.getUpdatedAt());
-            }
+            List<VenueSyncVO> venueSyncVOs = page.getRecords();
+            log.debug("获取到场馆数据: 数量={}", venueSyncVOs.size());
 
             // 将场馆按状态分类
             Map<Boolean, List<VenueSyncVO>> venusByStatus = venueSyncVOs.stream()
@@ -584,15 +582,16 @@ public class VenueSearchServiceImpl implements IVenueSearchService {
 
             }
 
-            log.info("场馆数据同步完成: 正常场馆数={}, 非正常场馆数={}",
+            log.info("场馆数据同步完成: 保存数={}, 正常场馆数={}, 非正常场馆数={}",
+                    syncCount,
                     normalVenues != null ? normalVenues.size() : 0,
                     abnormalVenues != null ? abnormalVenues.size() : 0);
 
-            return syncCount;
+            return page;
 
         } catch (Exception e) {
-            log.error("同步场馆数据异常: updatedTime={}", updatedTime, e);
-            return 0;
+            log.error("同步场馆数据异常: cursor={}", cursor, e);
+            throw e;
         }
     }
 
@@ -6,12 +6,19 @@ package com.unlimited.sports.globox.social.consts;
 public class SocialRedisKeyConstants {
     public static final String REDIS_IM_USER_SIG = "silence:test_im_user_sig:";
 
-    // 点赞事件 Hash - 待同步
+    // 点赞事件 Hash - 待同步（旧版单 key，仅用于排空升级前残留的数据）
     public static final String LIKE_EVENTS_PENDING = "note:like:pending";
 
-    // 点赞事件 Hash - 同步中 (RENAME 快照)
+    // 点赞事件 Hash - 同步中 (RENAME 快照，旧版单 key)
     public static final String LIKE_EVENTS_PROCESSING = "note:like:processing";
 
+    // 点赞事件 Hash 分片：key = 前缀 + floorMod(noteId.hashCode(), 分片数)
+    public static final String LIKE_EVENTS_PENDING_SHARD_PREFIX = "note:like:pending:";
+    public static final String LIKE_EVENTS_PROCESSING_SHARD_PREFIX = "note:like:processing:";
+
+    // 点赞事件分片数（修改会改变路由，需先排空所有分片）
+    public static final int LIKE_EVENTS_SHARD_COUNT = 16;
+
     // 点赞增量 Hash: field=noteId, value=delta
     public static final String NOTE_LIKE_DELTA = "note:engagement:like:delta";
     public static final String NOTE_LIKE_DELTA_PROCESSING = "note:engagement:like:delta:processing";
@@ -20,6 +27,17 @@ public class SocialRedisKeyConstants {
     public static final String NOTE_COMMENT_DELTA = "note:engagement:comment:delta";
     public static final String NOTE_COMMENT_DELTA_PROCESSING = "note:engagement:comment:delta:processing";
 
+    // 首页推荐流快照 List: key = 前缀 + seed, 元素为按 seed 打散后的笔记ID
+    public static final String NOTE_POOL_SNAPSHOT_PREFIX = "note:pool:snapshot:";
+
+    // 用户聊天未读计数 Hash: key = 前缀 + userId, field total = 所有会话未读数之和
+    public static final String CHAT_UNREAD_PREFIX = "social:chat:unread:";
+    public static final String CHAT_UNREAD_TOTAL_FIELD = "total";
+    // 初始化标记字段，只有从数据库完整构建过的 Hash 才带此字段
+    public static final String CHAT_UNREAD_INIT_FIELD = "_init";
+    // 聊天未读计数过期时间（秒），过期后下次读取从会话表重建
+    public static final long CHAT_UNREAD_TTL_SECONDS = 24 * 3600L;
+
     // 帖子点赞通知去重（1天内同一点赞人对同一帖子只通知一次）
     public static final String NOTE_LIKE_NOTIFY_DEDUP_PREFIX = "social:notify:note_like:dedup:";
 }
@@ -12,11 +12,11 @@ import com.unlimited.sports.globox.model.social.dto.MessageDto;
 import com.unlimited.sports.globox.model.social.entity.*;
 import com.unlimited.sports.globox.model.social.vo.ConversationVo;
 import com.unlimited.sports.globox.model.social.vo.MessageListVo;
-import com.unlimited.sports.globox.social.mapper.ConversationMapper;
 import com.unlimited.sports.globox.social.prop.IMProperties;
 import com.unlimited.sports.globox.social.service.ConversationService;
 import com.unlimited.sports.globox.social.service.MessageService;
 import com.unlimited.sports.globox.social.service.TencentCloudImService;
+import com.unlimited.sports.globox.social.util.ChatUnreadCounter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -44,9 +44,6 @@ import static com.unlimited.sports.globox.common.result.UserAuthCode.TOKEN_EXPIR
 @SecurityRequirement(name = "bearerAuth")
 public class ChatController {
 
-    @Autowired
-    private ConversationMapper conversationMapper;
-
     @Autowired
     private TencentCloudImService tencentCloudImService;
 
@@ -59,6 +56,9 @@ public class ChatController {
     @Autowired
     private IMProperties imProperties;
 
+    @Autowired
+    private ChatUnreadCounter chatUnreadCounter;
+
     @DubboReference(group = "rpc")
     private SensitiveWordsDubboService sensitiveWordsDubboService;
 
@@ -551,7 +551,7 @@ public class ChatController {
                 return R.<MessageListVo>error().message("无权访问此会话");
             }
             // 标记会话已读
-            int cleared = conversationMapper.clearUnreadCount(conversation.getConversationId(), userId);
+            int cleared = conversationService.clearConversationUnreadCount(conversation.getConversationId(), userId);
             log.info("用户：{}标记会话已读条数：{}",userId,cleared );
             MessageListVo messageListByConversation = messageService.getMessageListByConversation(conversationId,
                     page,
@@ -584,7 +584,6 @@ public class ChatController {
 
             List<Conversation> conversations = conversationResult.getList();
             List<Map<String, Object>> conversationUnreadList = new ArrayList<>();
-            Long totalUnread = 0L;
 
             if (conversations != null) {
                 for (Conversation conv : conversations) {
@@ -596,11 +595,11 @@ public class ChatController {
 
                     convInfo.put("unreadCount", unreadCount);
                     conversationUnreadList.add(convInfo);
-                    totalUnread += unreadCount;
                 }
             }
 
-            result.put("totalUnread", totalUnread);
+            // 总未读数读计数器，不受会话列表条数限制
+            result.put("totalUnread", chatUnreadCounter.getTotal(userId));
             result.put("conversations", conversationUnreadList);
 
             return R.ok(result);
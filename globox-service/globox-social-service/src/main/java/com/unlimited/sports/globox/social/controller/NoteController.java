@@ -58,7 +58,7 @@ public class NoteController {
     public R<CursorPaginationResult<NoteItemVo>> getNoteFeed(
             @Parameter(description = "排序方式：pool-推荐，latest-最新，hot-最热", example = "pool", required = true)
             @RequestParam(value = "sort") String sort,
-            @Parameter(description = "游标（带前缀，例如：pool|123456|2025-12-28T10:00:00|123）")
+            @Parameter(description = "游标（带前缀，例如：pool|123456|2025-12-28T10:00:00|123|10）")
             @RequestParam(value = "cursor", required = false) String cursor,
             @Parameter(description = "每页数量（默认10，最大50）", example = "10")
             @RequestParam(value = "size", required = false) Integer size,
@@ -76,7 +76,7 @@ public class NoteController {
             @ApiResponse(responseCode = "2021", description = "无效的Token")
     })
     public R<CursorPaginationResult<NoteItemVo>> getHomeNotes(
-            @Parameter(description = "游标（带前缀，格式：pool|{seed}|{createdAt}|{noteId}，例如：pool|123456|2025-12-28T10:00:00|123）")
+            @Parameter(description = "游标（带前缀，格式：pool|{seed}|{createdAt}|{noteId}|{offset}，例如：pool|123456|2025-12-28T10:00:00|123|10）")
             @RequestParam(value = "cursor", required = false) String cursor,
             @Parameter(description = "每页数量（默认10，最大50）", example = "10")
             @RequestParam(value = "size", required = false) Integer size,
@@ -5,6 +5,8 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.unlimited.sports.globox.common.result.RpcResult;
 import com.unlimited.sports.globox.common.result.SocialCode;
 import com.unlimited.sports.globox.dubbo.social.INoteSearchDataService;
+import com.unlimited.sports.globox.model.search.dto.SearchSyncCursor;
+import com.unlimited.sports.globox.model.search.dto.SearchSyncPage;
 import com.unlimited.sports.globox.model.social.entity.SocialNote;
 import com.unlimited.sports.globox.model.social.entity.SocialNoteLike;
 import com.unlimited.sports.globox.model.social.vo.NoteSyncVo;
@@ -17,7 +19,6 @@ import org.apache.dubbo.config.annotation.DubboService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -43,27 +44,33 @@ public class NoteSearchDataServiceImpl implements INoteSearchDataService {
     private NoteService noteService;
 
     /**
-     * 增量同步笔记数据
+     * 按 (updatedAt, noteId) 游标分页增量同步笔记数据
      *
-     * @param updatedTime 上一次同步的时间戳，为null表示全量同步，不为null表示增量同步
-     * @return 笔记同步数据列表（NoteSyncVO格式）
+     * @param cursor 上一页游标，为null表示从头全量同步
+     * @param pageSize 每页条数
+     * @return 一页笔记数据（NoteSyncVO格式）及下一页游标
      */
     @Override
-    public RpcResult<List<NoteSyncVo>> syncNoteData(LocalDateTime updatedTime) {
+    public RpcResult<SearchSyncPage<NoteSyncVo>> syncNoteData(SearchSyncCursor cursor, int pageSize) {
         try {
-            log.info("开始同步笔记数据: updatedTime={}", updatedTime);
+            int limit = SearchSyncPage.clampPageSize(pageSize);
+            log.info("开始同步笔记数据: cursor={}, pageSize={}", cursor, limit);
 
             // 不过滤状态
             LambdaQueryWrapper<SocialNote> wrapper = new LambdaQueryWrapper<>();
-            if (updatedTime != null) {
-                // 增量同步：查询 updated_at > updatedTime 的数据
-                wrapper.gt(SocialNote::getUpdatedAt, updatedTime);
+            if (cursor != null && cursor.getUpdatedAt() != null) {
+                // 增量同步：查询 (updated_at, note_id) > 游标 的数据
+                long lastId = cursor.getLastId() != null ? cursor.getLastId() : 0L;
+                wrapper.and(w -> w.gt(SocialNote::getUpdatedAt, cursor.getUpdatedAt())
+                        .or(o -> o.eq(SocialNote::getUpdatedAt, cursor.getUpdatedAt()).gt(SocialNote::getNoteId, lastId)));
             }
+            wrapper.orderByAsc(SocialNote::getUpdatedAt, SocialNote::getNoteId)
+                    .last("LIMIT " + limit);
             List<SocialNote> notes = noteMapper.selectList(wrapper);
 
             if (notes == null || notes.isEmpty()) {
                 log.info("没有需要同步的笔记数据");
-                return RpcResult.ok(List.of());
+                return RpcResult.ok(SearchSyncPage.empty());
             }
 
             log.info("查询到笔记数据: 数量={}", notes.size());
@@ -79,10 +86,15 @@ public class NoteSearchDataServiceImpl implements INoteSearchDataService {
                     .filter(Objects::nonNull)
                     .collect(Collectors.toList());
 
-            return RpcResult.ok(syncVOs);
+            SocialNote last = notes.get(notes.size() - 1);
+            return RpcResult.ok(SearchSyncPage.<NoteSyncVo>builder()
+                    .records(syncVOs)
+                    .nextCursor(new SearchSyncCursor(last.getUpdatedAt(), last.getNoteId()))
+                    .hasMore(notes.size() == limit)
+                    .build());
 
         } catch (Exception e) {
-            log.error("同步笔记数据异常: updatedTime={}", updatedTime, e);
+            log.error("同步笔记数据异常: cursor={}", cursor, e);
             return RpcResult.error(SocialCode.NOTE_SYNC_FAILED);
         }
     }
@@ -37,6 +37,21 @@ public interface ConversationMapper extends BaseMapper<Conversation> {
      */
     int clearUnreadCount(@Param("conversationId") Long conversationId, @Param("userId") Long userId);
 
+    /**
+     * 一条 UPDATE 清除用户所有未删除会话的未读计数
+     */
+    int clearAllUnreadCount(@Param("userId") Long userId);
+
+    /**
+     * 统计用户所有未删除会话的未读数之和
+     */
+    Long sumUnreadCount(@Param("userId") Long userId);
+
+    /**
+     * 加行锁读取用户在会话中计入未读总数的未读数，须在事务内调用
+     */
+    Long selectUnreadCountForUpdate(@Param("conversationId") Long conversationId, @Param("userId") Long userId);
+
     /**
      * 标记会话已读
      */
@@ -2,6 +2,7 @@ package com.unlimited.sports.globox.social.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.unlimited.sports.globox.model.social.entity.MessageEntity;
+import com.unlimited.sports.globox.model.social.entity.MessageStatusEnum;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
@@ -72,4 +73,20 @@ public interface MessageMapper extends BaseMapper<MessageEntity> {
      * @return 消息总条数
      */
     Long selectCountByConversationId(@Param("conversationId") Long conversationId);
+
+    /**
+     * 批量插入消息（多行 INSERT IGNORE）
+     * 依赖唯一键 uk_from_to_random (from_user_id, to_user_id, random)，已存在的消息被跳过
+     * @param messages 消息列表
+     * @return 实际插入行数
+     */
+    int batchInsertIgnore(@Param("messages") List<MessageEntity> messages);
+
+    /**
+     * 一条 UPDATE 将发给指定用户的所有未读消息标记为已读
+     * @param toUserId 接收方用户ID
+     * @param status 已读状态
+     * @return 更新条数
+     */
+    int markAllReadByReceiver(@Param("toUserId") Long toUserId, @Param("status") MessageStatusEnum status);
 }
@@ -3,6 +3,7 @@ package com.unlimited.sports.globox.social.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.unlimited.sports.globox.model.social.entity.SocialNote;
 import com.unlimited.sports.globox.model.social.entity.SocialNoteLike;
+import com.unlimited.sports.globox.model.social.event.NoteLikeEvent;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
@@ -47,5 +48,21 @@ public interface SocialNoteLikeMapper extends BaseMapper<SocialNoteLike> {
      * @param noteId 笔记ID
      */
     void upsertLike(@Param("userId") Long userId, @Param("noteId") Long noteId);
+
+    /**
+     * 批量点赞 upsert：多行 INSERT ... ON DUPLICATE KEY UPDATE
+     *
+     * @param events 点赞事件
+     * @return 影响行数
+     */
+    int batchUpsertLikes(@Param("events") List<NoteLikeEvent> events);
+
+    /**
+     * 批量取消点赞（软删除）：WHERE (user_id, note_id) IN (...)
+     *
+     * @param events 取消点赞事件
+     * @return 影响行数
+     */
+    int batchSoftDeleteLikes(@Param("events") List<NoteLikeEvent> events);
 }
 
@@ -1,10 +1,12 @@
 package com.unlimited.sports.globox.social.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.unlimited.sports.globox.model.search.dto.NoteEngagementSyncMessage.NoteEngagementItem;
 import com.unlimited.sports.globox.model.social.entity.SocialNote;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -52,5 +54,21 @@ public interface SocialNoteMapper extends BaseMapper<SocialNote> {
      * @param countChanges key=noteId, value=增量（正数加，负数减）
      */
     void batchUpdateLikeCounts(@Param("countChanges") Map<Long, Integer> countChanges);
+
+    /**
+     * 批量应用点赞/评论增量（CASE WHEN 参数化，单条语句）
+     *
+     * @param items 每篇笔记的点赞、评论增量
+     * @return 更新的行数
+     */
+    int batchApplyEngagementDeltas(@Param("items") List<NoteEngagementItem> items);
+
+    /**
+     * 按点赞表、评论表重算一批笔记的 like_count / comment_count
+     *
+     * @param noteIds 笔记ID列表
+     * @return 修正的行数
+     */
+    int reconcileCounters(@Param("noteIds") List<Long> noteIds);
 }
 
@@ -3,11 +3,21 @@ package com.unlimited.sports.globox.social.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.unlimited.sports.globox.model.social.entity.SocialNotePool;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 /**
  * 笔记池子Mapper接口
  */
 @Mapper
 public interface SocialNotePoolMapper extends BaseMapper<SocialNotePool> {
-}
 
+    /**
+     * 查询推荐流快照的笔记ID（按 seed 打散后的顺序，包含池子中全部已发布笔记）
+     *
+     * @param seed 随机种子
+     * @return 有序的笔记ID列表
+     */
+    List<Long> selectSnapshotNoteIds(@Param("seed") long seed);
+}
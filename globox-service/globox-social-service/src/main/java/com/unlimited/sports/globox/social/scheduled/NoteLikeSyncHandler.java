@@ -2,6 +2,7 @@ package com.unlimited.sports.globox.social.scheduled;
 
 import com.unlimited.sports.globox.social.config.XxlJobProperties;
 import com.unlimited.sports.globox.social.service.NoteLikeSyncService;
+import com.xxl.job.core.context.XxlJobHelper;
 import com.xxl.job.core.handler.annotation.XxlJob;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,7 +13,8 @@ import org.springframework.stereotype.Component;
  * 
  * 负责：
  * 1. 将 Redis Hash 中的点赞事件刷到 DB
- * 2. 将脏 noteId 的互动数据（likeCount、commentCount、collectCount）同步到搜索服务
+ * 2. 将点赞/评论增量写入 social_note 计数列，并同步到搜索服务
+ * 3. 定期按明细表校准计数列
  */
 @Slf4j
 @Component
@@ -27,17 +29,36 @@ public class NoteLikeSyncHandler {
     /**
      * XXL-JOB 定时任务（5分钟）：
      * 1. 将 Redis Hash 中的点赞事件刷到 DB
-     * 2. 将脏 noteId 的互动数据（likeCount、commentCount、collectCount）同步到搜索服务
+     * 2. 将点赞/评论增量写入 social_note 计数列，并同步到搜索服务
      */
     @XxlJob("noteLikeSyncJobHandler")
     public void syncJob() {
         log.debug("[定时任务] 开始执行笔记点赞同步任务");
         try {
-            noteLikeSyncService.executeSync();
+            String summary = noteLikeSyncService.executeSync();
             log.debug("[定时任务] 笔记点赞同步任务执行完成");
+            // 同步延迟、积压等指标写入任务结果，可在调度中心查看
+            XxlJobHelper.handleSuccess(summary);
         } catch (Exception e) {
             log.error("[定时任务] 笔记点赞同步任务执行失败", e);
             throw e;
         }
     }
+
+    /**
+     * XXL-JOB 定时任务（建议每天低峰期执行）：
+     * 先执行一次点赞同步，再按点赞表、评论表校准 social_note 的 like_count / comment_count
+     */
+    @XxlJob("noteCounterReconcileJobHandler")
+    public void reconcileJob() {
+        log.debug("[定时任务] 开始执行笔记计数校准任务");
+        try {
+            noteLikeSyncService.executeSync();
+            String summary = noteLikeSyncService.reconcileNoteCounters();
+            XxlJobHelper.handleSuccess(summary);
+        } catch (Exception e) {
+            log.error("[定时任务] 笔记计数校准任务执行失败", e);
+            throw e;
+        }
+    }
 }
@@ -70,6 +70,13 @@ public interface ConversationService extends IService<Conversation> {
      */
     Boolean clearUnreadCount(Long userId);
 
+    /**
+     * 清除用户在单个会话中的未读计数，并同步扣减用户的未读总数
+     * @param conversationId 会话ID
+     * @param userId 用户ID
+     * @return 影响的会话行数
+     */
+    int clearConversationUnreadCount(Long conversationId, Long userId);
 
     /**
      * 标记会话已读
@@ -1,42 +1,57 @@
 package com.unlimited.sports.globox.social.service;
 
-import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.unlimited.sports.globox.common.constants.SearchMQConstants;
 import com.unlimited.sports.globox.common.service.MQService;
 import com.unlimited.sports.globox.common.utils.JsonUtils;
 import com.unlimited.sports.globox.model.search.dto.NoteEngagementSyncMessage;
 import com.unlimited.sports.globox.model.search.dto.NoteEngagementSyncMessage.NoteEngagementItem;
-import com.unlimited.sports.globox.model.social.entity.SocialNoteLike;
+import com.unlimited.sports.globox.model.social.entity.SocialNote;
 import com.unlimited.sports.globox.model.social.event.NoteLikeEvent;
 import com.unlimited.sports.globox.social.mapper.SocialNoteLikeMapper;
+import com.unlimited.sports.globox.social.mapper.SocialNoteMapper;
 import com.unlimited.sports.globox.service.RedisService;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.unlimited.sports.globox.social.consts.SocialRedisKeyConstants.*;
 
 /**
  * 笔记点赞事件异步同步服务
  *
- * Redis Hash 结构：
- *   key:   note:like:pending
+ * Redis Hash 结构（按 noteId 分片，避免单个热 key）：
+ *   key:   note:like:pending:{shard}，shard = floorMod(noteId.hashCode(), LIKE_EVENTS_SHARD_COUNT)
  *   field: {userId}:{noteId}
  *   value: NoteLikeEvent JSON（包含 userId, noteId, likeStatus, likeTime）
  *
- * 同步策略：RENAME 快照
- *   1. RENAME pending → processing（原子操作，新写入自动创建新 pending）
- *   2. 从 processing 读取并批量同步到 DB
- *   3. 同步成功后 DEL processing
+ * 同步策略：每个分片一个任务并行执行，分片内 RENAME 快照
+ *   1. 上次失败残留的 processing 先处理
+ *   2. RENAME pending → processing（原子操作，新写入自动创建新 pending）
+ *   3. HSCAN 分批读取 processing，每批用多行 upsert / 批量软删除写入 DB
+ *   4. 全部写入成功后 DEL processing；失败则保留，下次重放（写入幂等）
  */
 @Service
 @Slf4j
 public class NoteLikeSyncService {
 
+    /**
+     * 升级前单 key 的残留数据，作为一个额外分片排空
+     */
+    private static final String LEGACY_SHARD = "legacy";
+
     @Autowired
     private RedisService redisService;
 
@@ -44,14 +59,50 @@ public class NoteLikeSyncService {
     private JsonUtils jsonUtils;
 
     @Autowired
-    private SocialNoteLikeService socialNoteLikeService;
+    private SocialNoteLikeMapper socialNoteLikeMapper;
 
     @Autowired
-    private SocialNoteLikeMapper socialNoteLikeMapper;
+    private SocialNoteMapper socialNoteMapper;
 
     @Autowired
     private MQService mqService;
 
+    /**
+     * 并行处理的分片数
+     */
+    @Value("${social.note-like-sync.parallelism:4}")
+    private int parallelism;
+
+    /**
+     * 每次 HSCAN 及每批写库的事件数
+     */
+    @Value("${social.note-like-sync.chunk-size:500}")
+    private int chunkSize;
+
+    private ExecutorService shardExecutor;
+
+    /**
+     * 最近一次成功刷库的时间，用于观察同步延迟
+     */
+    private volatile LocalDateTime lastFlushedAt;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        shardExecutor = Executors.newFixedThreadPool(Math.max(1, parallelism), r -> {
+            Thread thread = new Thread(r, "note-like-sync-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (shardExecutor != null) {
+            shardExecutor.shutdown();
+        }
+    }
+
     /**
      * 添加点赞事件到 Redis Hash
      */
@@ -63,7 +114,7 @@ public class NoteLikeSyncService {
                 .likeTime(LocalDateTime.now())
                 .build();
         String field = buildLikedMapField(userId, noteId);
-        redisService.setCacheMapValue(LIKE_EVENTS_PENDING, field, jsonUtils.objectToJson(event));
+        redisService.setCacheMapValue(pendingKey(noteId), field, jsonUtils.objectToJson(event));
     }
 
     /**
@@ -77,7 +128,7 @@ public class NoteLikeSyncService {
                 .likeTime(LocalDateTime.now())
                 .build();
         String field = buildLikedMapField(userId, noteId);
-        redisService.setCacheMapValue(LIKE_EVENTS_PENDING, field, jsonUtils.objectToJson(event));
+        redisService.setCacheMapValue(pendingKey(noteId), field, jsonUtils.objectToJson(event));
     }
 
     /**
@@ -88,7 +139,7 @@ public class NoteLikeSyncService {
     public Boolean getPendingLikeStatus(Long userId, Long noteId) {
         try {
             String field = buildLikedMapField(userId, noteId);
-            String json = redisService.getHashValue(LIKE_EVENTS_PENDING, field, String.class);
+            String json = redisService.getHashValue(pendingKey(noteId), field, String.class);
             if (json == null) {
                 return null;
             }
@@ -114,28 +165,32 @@ public class NoteLikeSyncService {
         }
 
         try {
-            // 一次 HMGET
-            List<String> hKeys = noteIds.stream()
-                    .map(noteId -> buildLikedMapField(userId, noteId))
-                    .toList();
-            List<String> values = redisService.getMultiCacheMapValue(LIKE_EVENTS_PENDING, hKeys, new TypeReference<>() {});
-            if (values == null) {
-                return Collections.emptyMap();
+            // 按分片分组，一次 Pipeline 对每个分片各发一次 HMGET
+            Map<String, List<String>> fieldsByKey = new LinkedHashMap<>();
+            Map<String, List<Long>> noteIdsByKey = new HashMap<>();
+            for (Long noteId : noteIds) {
+                String key = pendingKey(noteId);
+                fieldsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(buildLikedMapField(userId, noteId));
+                noteIdsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(noteId);
             }
+            Map<String, List<String>> valuesByKey = redisService.getMultiCacheMapValues(fieldsByKey, String.class);
             // 解析结果（单条解析异常不影响其他）
             Map<Long, Boolean> result = new HashMap<>();
-            for (int i = 0; i < noteIds.size() && i < values.size(); i++) {
-                String json = values.get(i);
-                if (json == null) {
-                    continue;
-                }
-                try {
-                    NoteLikeEvent event = jsonUtils.jsonToPojo(json, NoteLikeEvent.class);
-                    result.put(noteIds.get(i), event.isLike());
-                } catch (Exception e) {
-                    log.warn("解析pending点赞事件失败: noteId={}, json={}", noteIds.get(i), json, e);
+            valuesByKey.forEach((key, values) -> {
+                List<Long> shardNoteIds = noteIdsByKey.get(key);
+                for (int i = 0; i < shardNoteIds.size() && i < values.size(); i++) {
+                    String json = values.get(i);
+                    if (json == null) {
+                        continue;
+                    }
+                    try {
+                        NoteLikeEvent event = jsonUtils.jsonToPojo(json, NoteLikeEvent.class);
+                        result.put(shardNoteIds.get(i), event.isLike());
+                    } catch (Exception e) {
+                        log.warn("解析pending点赞事件失败: noteId={}, json={}", shardNoteIds.get(i), json, e);
+                    }
                 }
-            }
+            });
             return result;
         } catch (Exception e) {
             log.warn("批量获取pending点赞状态失败: userId={}", userId, e);
@@ -146,104 +201,226 @@ public class NoteLikeSyncService {
     /**
      * 执行同步任务（供定时任务调用）：
      * 1. 将 Redis Hash 中的点赞事件刷到 DB
-     * 2. 将脏 noteId 的互动数据（likeCount、commentCount、collectCount）同步到搜索服务
+     * 2. 将点赞/评论增量写入 social_note 计数列，并同步到搜索服务
+     *
+     * @return 本次同步摘要（含同步延迟指标），供定时任务记录
      */
-    public void executeSync() {
+    public String executeSync() {
         // 第一步：刷点赞事件到 DB
-        flushLikeEventsToDb();
-        // 第二步：同步互动数据到 ES
-        syncEngagementToEs();
+        String summary = flushLikeEventsToDb();
+        // 第二步：互动增量写入 social_note 计数列并同步到 ES
+        syncEngagement();
+        return summary;
     }
 
     /**
-     * 将 Redis Hash 中的点赞/取消点赞事件刷到数据库
+     * 各分片并行把点赞/取消点赞事件刷到数据库
+     *
+     * @return 同步摘要：事件数、失败分片数、最早事件的延迟、剩余积压
      */
-    private void flushLikeEventsToDb() {
+    private String flushLikeEventsToDb() {
+        long startNanos = System.nanoTime();
+        List<String> shards = new ArrayList<>(LIKE_EVENTS_SHARD_COUNT + 1);
+        for (int i = 0; i < LIKE_EVENTS_SHARD_COUNT; i++) {
+            shards.add(String.valueOf(i));
+        }
+        shards.add(LEGACY_SHARD);
+
+        List<CompletableFuture<ShardSyncResult>> futures = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> flushShard(shard), shardExecutor))
+                .toList();
+
+        int like = 0;
+        int unlike = 0;
+        int failedShards = 0;
+        LocalDateTime oldestEventTime = null;
+        for (CompletableFuture<ShardSyncResult> future : futures) {
+            ShardSyncResult result = future.join();
+            like += result.like();
+            unlike += result.unlike();
+            if (!result.success()) {
+                failedShards++;
+            }
+            if (result.oldestEventTime() != null
+                    && (oldestEventTime == null || result.oldestEventTime().isBefore(oldestEventTime))) {
+                oldestEventTime = result.oldestEventTime();
+            }
+        }
+        if (failedShards == 0) {
+            lastFlushedAt = LocalDateTime.now();
+        }
+
+        long lagSeconds = oldestEventTime != null
+                ? Math.max(0, Duration.between(oldestEventTime, LocalDateTime.now()).getSeconds()) : 0;
+        long backlog = countPendingEvents();
+        String summary = String.format("点赞刷DB: like=%d, unlike=%d, 失败分片=%d, 最大延迟=%ds, 剩余积压=%d, 上次成功=%s, 耗时=%dms",
+                like, unlike, failedShards, lagSeconds, backlog, lastFlushedAt,
+                (System.nanoTime() - startNanos) / 1_000_000);
+        if (like + unlike > 0 || failedShards > 0) {
+            log.info("[点赞刷DB] {}", summary);
+        } else {
+            log.debug("[点赞刷DB] 无待同步事件");
+        }
+        return summary;
+    }
+
+    /**
+     * 处理单个分片：先处理上次残留的 processing，再快照并处理 pending
+     */
+    private ShardSyncResult flushShard(String shard) {
+        String pendingKey = LEGACY_SHARD.equals(shard) ? LIKE_EVENTS_PENDING : LIKE_EVENTS_PENDING_SHARD_PREFIX + shard;
+        String processingKey = LEGACY_SHARD.equals(shard) ? LIKE_EVENTS_PROCESSING : LIKE_EVENTS_PROCESSING_SHARD_PREFIX + shard;
+        ShardSyncResult total = ShardSyncResult.EMPTY;
         try {
-            if (!Boolean.TRUE.equals(redisService.hasKey(LIKE_EVENTS_PENDING))) {
-                log.debug("[点赞刷DB] 无待同步事件，跳过");
-                return;
+            // 1. 上次失败残留的快照，先重放（不能直接 RENAME 覆盖，否则会丢事件）
+            if (Boolean.TRUE.equals(redisService.hasKey(processingKey))) {
+                total = total.merge(flushProcessing(processingKey));
+            }
+            // 2. 快照 pending
+            if (!Boolean.TRUE.equals(redisService.hasKey(pendingKey))) {
+                return total;
+            }
+            try {
+                redisService.renameKey(pendingKey, processingKey);
+            } catch (Exception e) {
+                log.warn("[点赞刷DB] RENAME 失败（pending 可能为空）: shard={}, {}", shard, e.getMessage());
+                return total;
             }
+            return total.merge(flushProcessing(processingKey));
+        } catch (Exception e) {
+            log.error("[点赞刷DB] 分片同步失败（processing 保留以供重试）: shard={}", shard, e);
+            return total.merge(ShardSyncResult.FAILED);
+        }
+    }
+
+    /**
+     * HSCAN 分批读取快照并写库，全部成功后删除快照
+     */
+    private ShardSyncResult flushProcessing(String processingKey) {
+        List<NoteLikeEvent> likeEvents = new ArrayList<>(chunkSize);
+        List<NoteLikeEvent> unlikeEvents = new ArrayList<>(chunkSize);
+        int[] counts = new int[2];
+        LocalDateTime[] oldest = new LocalDateTime[1];
+
+        redisService.scanHash(processingKey, chunkSize, String.class, (field, json) -> {
+            NoteLikeEvent event;
             try {
-                redisService.renameKey(LIKE_EVENTS_PENDING, LIKE_EVENTS_PROCESSING);
+                event = jsonUtils.jsonToPojo(json, NoteLikeEvent.class);
             } catch (Exception e) {
-                log.warn("[点赞刷DB] RENAME 失败（pending 可能为空）: {}", e.getMessage());
+                log.warn("[点赞刷DB] 解析事件失败: field={}, value={}", field, json, e);
                 return;
             }
-            Map<String, String> entries = redisService.getCacheMap(LIKE_EVENTS_PROCESSING, new TypeReference<>() {});
-            if (entries == null || entries.isEmpty()) {
-                redisService.deleteObject(LIKE_EVENTS_PROCESSING);
-                log.debug("[点赞刷DB] 无待同步事件，跳过");
+            if (event == null || event.getUserId() == null || event.getNoteId() == null) {
                 return;
             }
-            log.info("[点赞刷DB] 开始同步: count={}", entries.size());
-            List<NoteLikeEvent> likeEvents = new ArrayList<>();
-            List<NoteLikeEvent> unlikeEvents = new ArrayList<>();
-            for (Map.Entry<String, String> entry : entries.entrySet()) {
-                try {
-                    NoteLikeEvent event = jsonUtils.jsonToPojo(entry.getValue(), NoteLikeEvent.class);
-                    if (event.isLike()) {
-                        likeEvents.add(event);
-                    } else {
-                        unlikeEvents.add(event);
-                    }
-                } catch (Exception e) {
-                    log.warn("[点赞刷DB] 解析事件失败: field={}, value={}", entry.getKey(), entry.getValue(), e);
-                }
+            if (event.getLikeTime() != null && (oldest[0] == null || event.getLikeTime().isBefore(oldest[0]))) {
+                oldest[0] = event.getLikeTime();
             }
-            syncToDB(likeEvents, unlikeEvents);
-            redisService.deleteObject(LIKE_EVENTS_PROCESSING);
-            log.info("[点赞刷DB] 同步完成: like={}, unlike={}", likeEvents.size(), unlikeEvents.size());
+            (event.isLike() ? likeEvents : unlikeEvents).add(event);
+            if (likeEvents.size() + unlikeEvents.size() >= chunkSize) {
+                counts[0] += likeEvents.size();
+                counts[1] += unlikeEvents.size();
+                syncToDB(likeEvents, unlikeEvents);
+                likeEvents.clear();
+                unlikeEvents.clear();
+            }
+        });
+        counts[0] += likeEvents.size();
+        counts[1] += unlikeEvents.size();
+        syncToDB(likeEvents, unlikeEvents);
 
+        redisService.deleteObject(processingKey);
+        return new ShardSyncResult(counts[0], counts[1], oldest[0], true);
+    }
+
+    /**
+     * 所有分片 pending 中尚未同步的事件数
+     */
+    private long countPendingEvents() {
+        long total = 0;
+        try {
+            for (int i = 0; i < LIKE_EVENTS_SHARD_COUNT; i++) {
+                Long size = redisService.getHashSize(LIKE_EVENTS_PENDING_SHARD_PREFIX + i);
+                total += size != null ? size : 0;
+            }
         } catch (Exception e) {
-            log.error("[点赞刷DB] 同步失败（processing 保留以供重试）", e);
+            log.warn("[点赞刷DB] 统计积压失败: {}", e.getMessage());
+        }
+        return total;
+    }
+
+    /**
+     * 单个分片的同步结果
+     */
+    private record ShardSyncResult(int like, int unlike, LocalDateTime oldestEventTime, boolean success) {
+
+        static final ShardSyncResult EMPTY = new ShardSyncResult(0, 0, null, true);
+        static final ShardSyncResult FAILED = new ShardSyncResult(0, 0, null, false);
+
+        ShardSyncResult merge(ShardSyncResult other) {
+            LocalDateTime oldest = oldestEventTime == null ? other.oldestEventTime
+                    : other.oldestEventTime == null || oldestEventTime.isBefore(other.oldestEventTime)
+                    ? oldestEventTime : other.oldestEventTime;
+            return new ShardSyncResult(like + other.like, unlike + other.unlike, oldest, success && other.success);
         }
     }
 
     /**
-     * 将增量计数器同步到搜索服务（ES）
-     * RENAME 快照两个 delta Hash，合并后发送 MQ
+     * 将点赞/评论增量写入 social_note 计数列，并同步到搜索服务（ES）
+     * RENAME 快照两个 delta Hash，按批：一条 UPDATE 应用增量 → HDEL 已应用的字段 → 发送 MQ
+     * 失败时未应用的字段保留在 processing 中，下次继续；DB 计数为准，ES 漏掉的增量由全量同步修复
      */
-    private void syncEngagementToEs() {
+    private void syncEngagement() {
         try {
-            // 1. 快照点赞增量
+            // 1. 快照点赞增量、评论增量
             Map<String, String> likeDeltaMap = snapshotHash(NOTE_LIKE_DELTA, NOTE_LIKE_DELTA_PROCESSING);
-            // 2. 快照评论增量
             Map<String, String> commentDeltaMap = snapshotHash(NOTE_COMMENT_DELTA, NOTE_COMMENT_DELTA_PROCESSING);
             if (likeDeltaMap.isEmpty() && commentDeltaMap.isEmpty()) {
                 log.debug("[互动同步] 无增量数据，跳过");
                 return;
             }
-            // 3. 合并所有 noteId
-            Set<Long> allNoteIds = new HashSet<>();
-            likeDeltaMap.keySet().forEach(k -> allNoteIds.add(Long.parseLong(k)));
-            commentDeltaMap.keySet().forEach(k -> allNoteIds.add(Long.parseLong(k)));
-            // 4. 构建增量消息
-            List<NoteEngagementItem> items = new ArrayList<>(allNoteIds.size());
-            for (Long noteId : allNoteIds) {
-                int likeDelta = parseDelta(likeDeltaMap.get(noteId.toString()));
-                int commentDelta = parseDelta(commentDeltaMap.get(noteId.toString()));
-                if (likeDelta == 0 && commentDelta == 0) {
-                    continue;
+            // 2. 合并所有 noteId
+            Set<String> allFields = new LinkedHashSet<>(likeDeltaMap.keySet());
+            allFields.addAll(commentDeltaMap.keySet());
+            List<String> fields = new ArrayList<>(allFields);
+
+            // 3. 分批应用
+            int applied = 0;
+            for (int i = 0; i < fields.size(); i += chunkSize) {
+                List<String> chunk = fields.subList(i, Math.min(i + chunkSize, fields.size()));
+                List<NoteEngagementItem> items = new ArrayList<>(chunk.size());
+                for (String field : chunk) {
+                    int likeDelta = parseDelta(likeDeltaMap.get(field));
+                    int commentDelta = parseDelta(commentDeltaMap.get(field));
+                    if (likeDelta == 0 && commentDelta == 0) {
+                        continue;
+                    }
+                    items.add(NoteEngagementItem.builder()
+                            .noteId(Long.parseLong(field))
+                            .likeDelta(likeDelta)
+                            .commentDelta(commentDelta)
+                            .build());
+                }
+                if (!items.isEmpty()) {
+                    socialNoteMapper.batchApplyEngagementDeltas(items);
+                }
+                redisService.deleteHashFields(NOTE_LIKE_DELTA_PROCESSING, chunk);
+                redisService.deleteHashFields(NOTE_COMMENT_DELTA_PROCESSING, chunk);
+                applied += items.size();
+
+                if (!items.isEmpty()) {
+                    try {
+                        mqService.send(
+                                SearchMQConstants.EXCHANGE_TOPIC_SEARCH,
+                                SearchMQConstants.ROUTING_NOTE_ENGAGEMENT_SYNC,
+                                NoteEngagementSyncMessage.builder().items(items).build()
+                        );
+                    } catch (Exception e) {
+                        log.warn("[互动同步] 发送ES增量失败（DB 已更新）: noteCount={}", items.size(), e);
+                    }
                 }
-                items.add(NoteEngagementItem.builder()
-                        .noteId(noteId)
-                        .likeDelta(likeDelta)
-                        .commentDelta(commentDelta)
-                        .build());
-            }
-            if (items.isEmpty()) {
-                log.debug("[互动同步] 增量全为0，跳过");
-                cleanupProcessing();
-                return;
             }
-            mqService.send(
-                    SearchMQConstants.EXCHANGE_TOPIC_SEARCH,
-                    SearchMQConstants.ROUTING_NOTE_ENGAGEMENT_SYNC,
-                    NoteEngagementSyncMessage.builder().items(items).build()
-            );
-            cleanupProcessing();
-            log.info("[互动同步] 同步完成: noteCount={}", items.size());
+            log.info("[互动同步] 同步完成: noteCount={}", applied);
 
         } catch (Exception e) {
             log.error("[互动同步] 同步失败（processing 保留以供重试）", e);
@@ -251,25 +428,143 @@ public class NoteLikeSyncService {
     }
 
     /**
-     * RENAME 快照一个 Hash，返回其所有 field-value；如果 key 不存在则返回空 Map
+     * 批量获取尚未写入 social_note 的点赞/评论增量（pending + 同步中的快照），用于读到自己刚刚的写入
+     * 一次 Pipeline 完成
+     *
+     * @param noteIds 笔记ID列表
+     * @return key=noteId, value=[likeDelta, commentDelta]，无增量的 noteId 不包含在结果中
      */
-    private Map<String, String> snapshotHash(String sourceKey, String processingKey) {
-        if (!Boolean.TRUE.equals(redisService.hasKey(sourceKey))) {
+    public Map<Long, int[]> batchGetPendingEngagementDeltas(List<Long> noteIds) {
+        if (noteIds == null || noteIds.isEmpty()) {
             return Collections.emptyMap();
         }
         try {
-            redisService.renameKey(sourceKey, processingKey);
+            return loadPendingEngagementDeltas(noteIds);
         } catch (Exception e) {
-            log.warn("[互动同步] RENAME 失败 {}: {}", sourceKey, e.getMessage());
+            log.warn("批量获取pending互动增量失败: count={}", noteIds.size(), e);
             return Collections.emptyMap();
         }
-        Map<String, String> entries = redisService.getCacheMap(processingKey, new TypeReference<>() {});
-        return entries != null ? entries : Collections.emptyMap();
     }
 
-    private void cleanupProcessing() {
-        redisService.deleteObject(NOTE_LIKE_DELTA_PROCESSING);
-        redisService.deleteObject(NOTE_COMMENT_DELTA_PROCESSING);
+    /**
+     * 读取尚未写入 social_note 的点赞/评论增量，异常直接抛出
+     */
+    private Map<Long, int[]> loadPendingEngagementDeltas(List<Long> noteIds) {
+        List<String> fields = noteIds.stream().map(String::valueOf).toList();
+        Map<String, List<String>> fieldsByKey = new LinkedHashMap<>();
+        fieldsByKey.put(NOTE_LIKE_DELTA, fields);
+        fieldsByKey.put(NOTE_LIKE_DELTA_PROCESSING, fields);
+        fieldsByKey.put(NOTE_COMMENT_DELTA, fields);
+        fieldsByKey.put(NOTE_COMMENT_DELTA_PROCESSING, fields);
+        Map<String, List<String>> valuesByKey = redisService.getMultiCacheMapValues(fieldsByKey, String.class);
+
+        Map<Long, int[]> result = new HashMap<>();
+        valuesByKey.forEach((key, values) -> {
+            int column = key.startsWith(NOTE_LIKE_DELTA) ? 0 : 1;
+            for (int i = 0; i < noteIds.size() && i < values.size(); i++) {
+                int delta = parseDelta(values.get(i));
+                if (delta != 0) {
+                    result.computeIfAbsent(noteIds.get(i), k -> new int[2])[column] += delta;
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 按点赞表、评论表重算 social_note 的计数列，修复增量丢失或重复造成的偏差
+     * 应紧跟在 {@link #executeSync()} 之后执行，此时点赞事件与计数增量基本对齐
+     *
+     * 点赞事件刷库与计数增量写库不在同一时刻完成：事件已入点赞表而增量未应用（或反之）时重算，
+     * 之后增量再应用会重复计数（或永久少计）。因此跳过仍有未刷库点赞事件或未应用增量的笔记，留到下次校准
+     *
+     * @return 修正摘要
+     */
+    public String reconcileNoteCounters() {
+        long startNanos = System.nanoTime();
+        Set<Long> pendingEventNoteIds = collectPendingLikeEventNoteIds();
+        long lastNoteId = 0L;
+        int scanned = 0;
+        int skipped = 0;
+        int repaired = 0;
+        while (true) {
+            List<Long> noteIds = socialNoteMapper.selectList(new LambdaQueryWrapper<SocialNote>()
+                            .select(SocialNote::getNoteId)
+                            .gt(SocialNote::getNoteId, lastNoteId)
+                            .orderByAsc(SocialNote::getNoteId)
+                            .last("LIMIT " + chunkSize))
+                    .stream()
+                    .map(SocialNote::getNoteId)
+                    .toList();
+            if (noteIds.isEmpty()) {
+                break;
+            }
+            // 增量在重算前一刻再查一次，覆盖校准过程中并发同步产生的中间状态
+            List<Long> candidates = noteIds.stream().filter(id -> !pendingEventNoteIds.contains(id)).toList();
+            Set<Long> pendingDeltaNoteIds = candidates.isEmpty()
+                    ? Collections.emptySet() : loadPendingEngagementDeltas(candidates).keySet();
+            List<Long> settled = candidates.stream().filter(id -> !pendingDeltaNoteIds.contains(id)).toList();
+            if (!settled.isEmpty()) {
+                repaired += socialNoteMapper.reconcileCounters(settled);
+            }
+            scanned += noteIds.size();
+            skipped += noteIds.size() - settled.size();
+            lastNoteId = noteIds.get(noteIds.size() - 1);
+            if (noteIds.size() < chunkSize) {
+                break;
+            }
+        }
+        String summary = String.format("计数校准: 扫描=%d, 跳过(有未同步事件或增量)=%d, 修正=%d, 耗时=%dms",
+                scanned, skipped, repaired, (System.nanoTime() - startNanos) / 1_000_000);
+        log.info("[计数校准] {}", summary);
+        return summary;
+    }
+
+    /**
+     * 所有分片 pending / processing 中尚未刷库的点赞事件涉及的笔记ID
+     */
+    private Set<Long> collectPendingLikeEventNoteIds() {
+        List<String> keys = new ArrayList<>(LIKE_EVENTS_SHARD_COUNT * 2 + 2);
+        for (int i = 0; i < LIKE_EVENTS_SHARD_COUNT; i++) {
+            keys.add(LIKE_EVENTS_PENDING_SHARD_PREFIX + i);
+            keys.add(LIKE_EVENTS_PROCESSING_SHARD_PREFIX + i);
+        }
+        keys.add(LIKE_EVENTS_PENDING);
+        keys.add(LIKE_EVENTS_PROCESSING);
+
+        Set<Long> noteIds = new HashSet<>();
+        for (String key : keys) {
+            redisService.scanHash(key, chunkSize, String.class, (field, json) -> {
+                // field 格式为 {userId}:{noteId}
+                int separator = field.lastIndexOf(':');
+                try {
+                    noteIds.add(Long.parseLong(field.substring(separator + 1)));
+                } catch (NumberFormatException e) {
+                    log.warn("[计数校准] 无法解析点赞事件字段: key={}, field={}", key, field);
+                }
+            });
+        }
+        return noteIds;
+    }
+
+    /**
+     * RENAME 快照一个 Hash，返回其所有 field-value；如果 key 不存在则返回空 Map
+     * 上次未处理完的快照仍在时直接返回它，本轮不再 RENAME（否则会覆盖未应用的增量）
+     */
+    private Map<String, String> snapshotHash(String sourceKey, String processingKey) {
+        if (!Boolean.TRUE.equals(redisService.hasKey(processingKey))) {
+            if (!Boolean.TRUE.equals(redisService.hasKey(sourceKey))) {
+                return Collections.emptyMap();
+            }
+            try {
+                redisService.renameKey(sourceKey, processingKey);
+            } catch (Exception e) {
+                log.warn("[互动同步] RENAME 失败 {}: {}", sourceKey, e.getMessage());
+                return Collections.emptyMap();
+            }
+        }
+        Map<String, String> entries = redisService.getCacheMap(processingKey, new TypeReference<>() {});
+        return entries != null ? entries : Collections.emptyMap();
     }
 
     private int parseDelta(String value) {
@@ -284,35 +579,26 @@ public class NoteLikeSyncService {
     }
 
     /**
-     * 批量同步到数据库（只处理点赞记录，不维护 social_note 的计数字段）
-     * - 点赞: INSERT ... ON DUPLICATE KEY UPDATE deleted=false
-     * - 取消点赞: UPDATE SET deleted=true WHERE (userId, noteId)
+     * 批量同步到数据库（只处理点赞记录，不维护 social_note 的计数字段），失败时抛出由调用方保留快照
+     * - 点赞: 多行 INSERT ... ON DUPLICATE KEY UPDATE deleted=false
+     * - 取消点赞: UPDATE SET deleted=true WHERE (user_id, note_id) IN (...)
      */
     private void syncToDB(List<NoteLikeEvent> likeEvents, List<NoteLikeEvent> unlikeEvents) {
-        // 1. 处理点赞事件：upsert
         if (!likeEvents.isEmpty()) {
-            for (NoteLikeEvent event : likeEvents) {
-                try {
-                    socialNoteLikeMapper.upsertLike(event.getUserId(), event.getNoteId());
-                } catch (Exception e) {
-                    log.error("点赞 upsert 失败: userId={}, noteId={}", event.getUserId(), event.getNoteId(), e);
-                }
-            }
+            socialNoteLikeMapper.batchUpsertLikes(likeEvents);
         }
-
-        // 2. 处理取消点赞事件：软删除
         if (!unlikeEvents.isEmpty()) {
-            LambdaUpdateWrapper<SocialNoteLike> deleteWrapper = new LambdaUpdateWrapper<>();
-            unlikeEvents.forEach(event -> {
-                deleteWrapper.or(w -> w.eq(SocialNoteLike::getUserId, event.getUserId())
-                        .eq(SocialNoteLike::getNoteId, event.getNoteId())
-                        .eq(SocialNoteLike::getDeleted, false));
-            });
-            deleteWrapper.set(SocialNoteLike::getDeleted, true);
-            socialNoteLikeService.update(null, deleteWrapper);
+            socialNoteLikeMapper.batchSoftDeleteLikes(unlikeEvents);
         }
     }
 
+    /**
+     * 点赞事件所在的分片 key
+     */
+    private static String pendingKey(Long noteId) {
+        return LIKE_EVENTS_PENDING_SHARD_PREFIX + Math.floorMod(noteId.hashCode(), LIKE_EVENTS_SHARD_COUNT);
+    }
+
     private static String buildLikedMapField(Long userId, Long noteId) {
         return userId + ":" + noteId;
     }
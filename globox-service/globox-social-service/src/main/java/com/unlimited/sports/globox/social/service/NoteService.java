@@ -22,18 +22,18 @@ import java.util.Map;
 public interface NoteService {
 
     /**
-     * 批量查询实际点赞数（从 social_note_like 表 COUNT）
+     * 批量查询点赞数（读 social_note.like_count 计数列，不含尚未同步的 Redis 增量）
      *
      * @param noteIds 笔记ID列表
-     * @return key=noteId, value=实际点赞数
+     * @return key=noteId, value=点赞数
      */
     Map<Long, Integer> batchQueryLikeCounts(List<Long> noteIds);
 
     /**
-     * 批量查询实际评论数（从 social_note_comment 表 COUNT，只统计 PUBLISHED 状态）
+     * 批量查询评论数（读 social_note.comment_count 计数列，不含尚未同步的 Redis 增量）
      *
      * @param noteIds 笔记ID列表
-     * @return key=noteId, value=实际评论数
+     * @return key=noteId, value=评论数
      */
     Map<Long, Integer> batchQueryCommentCounts(List<Long> noteIds);
 
@@ -87,7 +87,7 @@ public interface NoteService {
     /**
      * 获取推荐池子流笔记列表
      *
-     * @param cursor 游标（可选，包含seed）
+     * @param cursor 游标（可选，包含seed和快照偏移量）
      * @param size   每页数量
      * @param userId 用户ID（可选，用于查询 liked 状态）
      * @return 游标分页结果
@@ -3,23 +3,24 @@ package com.unlimited.sports.globox.social.service.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.unlimited.sports.globox.common.result.PaginationResult;
-import com.unlimited.sports.globox.common.result.RpcResult;
+import com.unlimited.sports.globox.common.result.SocialCode;
+import com.unlimited.sports.globox.common.user.UserInfoCache;
 import com.unlimited.sports.globox.common.utils.Assert;
-import com.unlimited.sports.globox.dubbo.user.UserDubboService;
 import com.unlimited.sports.globox.model.auth.vo.UserInfoVo;
 import com.unlimited.sports.globox.model.social.entity.*;
 import com.unlimited.sports.globox.model.social.vo.ConversationVo;
 import com.unlimited.sports.globox.social.mapper.ConversationMapper;
 import com.unlimited.sports.globox.social.mapper.MessageMapper;
 import com.unlimited.sports.globox.social.service.ConversationService;
+import com.unlimited.sports.globox.social.util.ChatUnreadCounter;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.dubbo.config.annotation.DubboReference;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -39,8 +40,11 @@ public class ConversationServiceImpl extends ServiceImpl<ConversationMapper, Con
     @Autowired
     private  MessageMapper messageMapper;
 
-    @DubboReference(group="rpc")
-    UserDubboService userDubboService;
+    @Autowired
+    private ChatUnreadCounter chatUnreadCounter;
+
+    @Autowired
+    private UserInfoCache userInfoCache;
 
 
 
@@ -50,6 +54,12 @@ public class ConversationServiceImpl extends ServiceImpl<ConversationMapper, Con
         List<Conversation> pagedConversations =
                 conversationMapper.selectByUserIdWithPagination(userId, offset, pageSize);
 
+        // 本页所有会话对方的用户信息一次批量查询
+        Map<Long, UserInfoVo> peerUserInfoMap = userInfoCache.getAll(pagedConversations.stream()
+                .map(conversation -> conversation.getPeerUserId(userId))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+
         List<ConversationVo> conversationVoList = pagedConversations.stream()
                 .filter(conversation -> {
                     // 验证用户是否在会话中
@@ -61,9 +71,8 @@ public class ConversationServiceImpl extends ServiceImpl<ConversationMapper, Con
                         Long peerUserId = conversation.getPeerUserId(userId);
 
                         // 获取对方用户信息
-                        RpcResult<UserInfoVo> rpcResult = userDubboService.getUserInfo(peerUserId);
-                        Assert.rpcResultOk(rpcResult);
-                        UserInfoVo peerUserInfo = rpcResult.getData();
+                        UserInfoVo peerUserInfo = peerUserInfoMap.get(peerUserId);
+                        Assert.isNotEmpty(peerUserInfo, SocialCode.USER_NOT_FOUND);
 
                         // 获取当前用户的未读数
                         Long unreadCount = conversation.getUnreadCountForUser(userId);
@@ -137,13 +146,11 @@ public class ConversationServiceImpl extends ServiceImpl<ConversationMapper, Con
             }
 
             // 会话不存在，创建新会话
-            RpcResult<UserInfoVo> rpcResult = userDubboService.getUserInfo(friendId);
-            Assert.rpcResultOk(rpcResult);
-            UserInfoVo friendInfo = rpcResult.getData();
-
-            RpcResult<UserInfoVo> rpcResult2 = userDubboService.getUserInfo(userId);
-            Assert.rpcResultOk(rpcResult2);
-            UserInfoVo userInfo = rpcResult2.getData();
+            Map<Long, UserInfoVo> userInfoMap = userInfoCache.getAll(List.of(friendId, userId));
+            UserInfoVo friendInfo = userInfoMap.get(friendId);
+            Assert.isNotEmpty(friendInfo, SocialCode.USER_NOT_FOUND);
+            UserInfoVo userInfo = userInfoMap.get(userId);
+            Assert.isNotEmpty(userInfo, SocialCode.USER_NOT_FOUND);
 
             // 使用Builder模式创建新会话
             Conversation conversation = Conversation.builder()
@@ -280,60 +287,16 @@ public class ConversationServiceImpl extends ServiceImpl<ConversationMapper, Con
     @Transactional(rollbackFor = Exception.class)
     public Boolean clearUnreadCount(Long userId) {
         try {
-            // 获取用户的所有会话
-            List<Conversation> conversations = conversationMapper.selectByUserId(userId);
-
-            if (conversations == null || conversations.isEmpty()) {
-                return true;
-            }
-
-            long totalCleared = 0;
-            long totalMessagesMarked = 0;
-
-            for (Conversation conversation : conversations) {
-                try {
-                    // 获取对方用户ID
-                    Long peerUserId = conversation.getPeerUserId(userId);
-                    if (peerUserId == null) {
-                        log.warn("用户{}不在会话{}中，跳过", userId, conversation.getConversationId());
-                        continue;
-                    }
-
-                    // 查询对方发给我的未读消息
-                    List<MessageEntity> unreadMessages = messageMapper.selectUnreadMessages(
-                            peerUserId,  // 发送方：对方
-                            userId       // 接收方：我
-                    );
-
-                    // 标记消息为已读
-                    if (unreadMessages != null && !unreadMessages.isEmpty()) {
-                        for (MessageEntity message : unreadMessages) {
-                            if (!message.getIsRead()) {
-                                message.setIsRead(true);
-                                message.setStatus(MessageStatusEnum.READ);
-                                message.setReadTime(LocalDateTime.now());
-                                message.setUpdatedAt(LocalDateTime.now());
-                                messageMapper.updateById(message);
-                                totalMessagesMarked++;
-                            }
-                        }
-                        log.info("会话{}下的{}条未读消息已标记为已读",
-                                conversation.getConversationId(), unreadMessages.size());
-                    }
+            // 一条 UPDATE 标记所有发给我的未读消息为已读，不再逐会话、逐消息更新
+            int messagesMarked = messageMapper.markAllReadByReceiver(userId, MessageStatusEnum.READ);
 
-                    // 清除会话未读计数
-                    int cleared = conversationMapper.clearUnreadCount(conversation.getConversationId(), userId);
-                    if (cleared > 0) {
-                        totalCleared++;
-                    }
+            // 一条 UPDATE 清除所有未删除会话的未读计数
+            int totalCleared = conversationMapper.clearAllUnreadCount(userId);
 
-                } catch (Exception e) {
-                    log.error("清除会话{}的未读计数失败", conversation.getConversationId(), e);
-                }
-            }
+            chatUnreadCounter.reset(userId);
 
             log.info("用户{}清除所有会话未读计数完成，共清除{}个会话的计数，标记{}条消息为已读",
-                    userId, totalCleared, totalMessagesMarked);
+                    userId, totalCleared, messagesMarked);
 
             return true;
         } catch (Exception e) {
@@ -342,6 +305,18 @@ public class ConversationServiceImpl extends ServiceImpl<ConversationMapper, Con
         }
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public int clearConversationUnreadCount(Long conversationId, Long userId) {
+        // 加行锁读取后再清零：并发的新消息要等本事务提交后才能累加未读数，扣减的正好是被清掉的数量
+        Long unread = conversationMapper.selectUnreadCountForUpdate(conversationId, userId);
+        int cleared = conversationMapper.clearUnreadCount(conversationId, userId);
+        if (cleared > 0 && unread != null && unread > 0) {
+            chatUnreadCounter.add(userId, -unread);
+        }
+        return cleared;
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public Boolean markConversationRead(Long conversationId, Long userId) {
@@ -360,8 +335,13 @@ public class ConversationServiceImpl extends ServiceImpl<ConversationMapper, Con
                 return false;
             }
 
-            // 标记会话已读（清除未读计数）
+            // 标记会话已读（清除未读计数），加行锁读取被清除的未读数，避免与并发新消息交错导致少扣
+            boolean isReceiver = userId.equals(conversation.getReceiveUserId());
+            Long unread = isReceiver ? conversationMapper.selectUnreadCountForUpdate(conversationId, userId) : null;
             int result = conversationMapper.markConversationRead(conversationId, userId);
+            if (result > 0 && unread != null && unread > 0) {
+                chatUnreadCounter.add(userId, -unread);
+            }
 
             // 查询对方发给我的未读消息
             List<MessageEntity> unreadMessages = messageMapper.selectUnreadMessages(
@@ -467,11 +447,17 @@ public class ConversationServiceImpl extends ServiceImpl<ConversationMapper, Con
                 // 接收方是 sender 角色，增加 sender 的未读
                 int result = conversationMapper.incrementSenderUnread(conversationId);
                 log.info("增加sender未读计数: conversationId={}, result={}", conversationId, result);
+                if (result > 0) {
+                    chatUnreadCounter.add(toUserId, 1);
+                }
                 return result > 0;
             } else if (conversation.getPeerUserId(toUserId) != null) {
                 // 接收方是 receiver 角色，增加 receiver 的未读
                 int result = conversationMapper.incrementReceiverUnread(conversationId);
                 log.info("增加receiver未读计数: conversationId={}, result={}", conversationId, result);
+                if (result > 0) {
+                    chatUnreadCounter.add(toUserId, 1);
+                }
                 return result > 0;
             }
 
@@ -516,10 +502,8 @@ public class ConversationServiceImpl extends ServiceImpl<ConversationMapper, Con
     }
     private UserInfoVo getUserInfoVo(Long userId, Conversation conversation) {
         if (userId.equals(conversation.getSenderUserId())){
-            RpcResult<UserInfoVo> rpcResult = userDubboService.getUserInfo(conversation.getReceiveUserId());
-            return rpcResult.getData();
+            return userInfoCache.get(conversation.getReceiveUserId());
         }
-        RpcResult<UserInfoVo> rpcResult = userDubboService.getUserInfo(conversation.getSenderUserId());
-        return rpcResult.getData();
+        return userInfoCache.get(conversation.getSenderUserId());
     }
 }
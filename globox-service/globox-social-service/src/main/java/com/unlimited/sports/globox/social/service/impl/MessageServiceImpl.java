@@ -1,9 +1,8 @@
 package com.unlimited.sports.globox.social.service.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
-import com.unlimited.sports.globox.common.result.RpcResult;
-import com.unlimited.sports.globox.common.utils.Assert;
-import com.unlimited.sports.globox.dubbo.user.UserDubboService;
+import com.unlimited.sports.globox.common.user.UserInfoCache;
+import com.unlimited.sports.globox.common.utils.IdGenerator;
 import com.unlimited.sports.globox.model.auth.vo.UserInfoVo;
 import com.unlimited.sports.globox.model.social.dto.MessageDto;
 import com.unlimited.sports.globox.model.social.entity.*;
@@ -16,16 +15,37 @@ import com.unlimited.sports.globox.social.service.MessageService;
 import com.unlimited.sports.globox.social.util.SocialNotificationUtil;
 import com.unlimited.sports.globox.social.util.TencentCloudImUtil;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.RandomUtils;
-import org.apache.dubbo.config.annotation.DubboReference;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.RedisZSetCommands.Limit;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.net.InetAddress;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -50,15 +70,30 @@ public class MessageServiceImpl extends ServiceImpl<MessageMapper, MessageEntity
     @Autowired(required = false)  // 本地环境可能不存在，设为可选
     private MessageProducerService messageProducerService;
 
-    @DubboReference(group = "rpc")
-    private UserDubboService userDubboService;
+    @Autowired
+    private UserInfoCache userInfoCache;
 
     @Autowired
     private SocialNotificationUtil socialNotificationUtil;
 
+    @Autowired
+    private IdGenerator idGenerator;
+
+    // 旧版待同步消息列表（整体序列化的 List），仅用于排空升级前残留的数据
     private static final String REDIS_MESSAGE_QUEUE = "silence:im:message:queue:entity:";
+    // 待同步消息 Stream：key = 前缀 + fromUserId_toUserId，每条消息一个 entry
+    private static final String REDIS_MESSAGE_STREAM = "silence:im:message:stream:";
     private static final String REDIS_MESSAGE_KEY = "silence:im:message:entity:";
     private static final long MESSAGE_TTL = 86400; // 24小时
+    private static final String MESSAGE_STREAM_FIELD = "message";
+    // 从 Stream 读取未同步消息时单次最多返回的条数（Stream 本身只在落库并 ACK 后删除，不按长度裁剪）
+    private static final long MESSAGE_STREAM_READ_LIMIT = 1000;
+    private static final String MESSAGE_SYNC_GROUP = "message-sync";
+    private static final int MESSAGE_SYNC_BATCH_SIZE = 200;
+    // 其他消费者读取后超过该时长仍未 ACK 的消息视为其已宕机，由当前实例认领后重新落库
+    private static final Duration MESSAGE_SYNC_CLAIM_IDLE = Duration.ofMinutes(1);
+    // 当前实例在消费组中的消费者名，各实例互不相同，避免共用一个 PEL
+    private final String messageSyncConsumer = buildMessageSyncConsumer();
     @Autowired
     private ConversationMapper conversationMapper;
 
@@ -66,10 +101,7 @@ public class MessageServiceImpl extends ServiceImpl<MessageMapper, MessageEntity
     @Transactional(rollbackFor = Exception.class)
     public String sendMessage(MessageDto messageDto, Long conversationId) {
         try {
-            // 1. 生成消息随机值
-            Long msgRandom = RandomUtils.nextLong(0, 999999999);
-
-            // 2. 调用腾讯IM发送消息（同步调用，确保消息真实发送成功）
+            // 1. 调用腾讯IM发送消息（同步调用，确保消息真实发送成功）
             TencentImResult result = tencentCloudImUtil.sendMsgSync(
                     1, // 同步到发送方
                     messageDto.getFromUserId().toString(),
@@ -83,18 +115,18 @@ public class MessageServiceImpl extends ServiceImpl<MessageMapper, MessageEntity
                 return MessageResult.FAILURE.getMessage() + result.getErrorMessage();
             }
 
-            // 3. 保存消息到Redis缓存（快速响应）
-            MessageEntity messageEntity = convertToMessage(messageDto, result, msgRandom, conversationId);
+            // 2. 保存消息到Redis缓存（快速响应）
+            MessageEntity messageEntity = convertToMessage(messageDto, result, conversationId);
             saveMessageToRedis(messageEntity);
 
-            // 4. 同步保存到数据库（确保会话能立即更新）
+            // 3. 同步保存到数据库（确保会话能立即更新）
             saveMessageToDB(messageEntity);
             log.info("消息已同步保存到数据库，消息ID: {}", messageEntity.getMessageId());
 
-            // 5. 同步更新会话（确保会话立即更新）
+            // 4. 同步更新会话（确保会话立即更新）
             updateConversationAfterMessage(messageEntity, conversationId);
 
-            // 6. 发送新消息通知给接收人
+            // 5. 发送新消息通知给接收人
             socialNotificationUtil.sendChatMessageNotification(
                     conversationId,
                     messageEntity.getMessageId(),
@@ -116,8 +148,6 @@ public class MessageServiceImpl extends ServiceImpl<MessageMapper, MessageEntity
     @Transactional(rollbackFor = Exception.class)
     public String batchSendMessage(Long fromUserId, List<Long> toUserIds, MessageDto messageDto) {
         try {
-            Long msgRandom = RandomUtils.nextLong(0, 999999999);
-
             List<String> toUserIdsStr = new ArrayList<>();
             for (Long userId : toUserIds) {
                 toUserIdsStr.add(userId.toString());
@@ -151,7 +181,8 @@ public class MessageServiceImpl extends ServiceImpl<MessageMapper, MessageEntity
                         .status(MessageStatusEnum.SENT)
                         .isRead(false)
                         .sendTime(LocalDateTime.now())
-                        .random(msgRandom)
+                        // 每个接收方各自生成唯一键，见 convertToMessage
+                        .random(idGenerator.nextId())
                         .conversationId(conversation.getConversationId())
                         .extra(messageDto.getExtra())
                         .build();
@@ -347,6 +378,9 @@ public class MessageServiceImpl extends ServiceImpl<MessageMapper, MessageEntity
             messageMapper.insert(messageEntity);
             return MessageResult.MESSAGE_IMPORT_SUCCESS.getMessage();
 
+        } catch (DuplicateKeyException e) {
+            // 并发导入同一条消息，唯一键 uk_from_to_random 拦下了后插入的一方
+            return MessageResult.MESSAGE_HAS_EXISTED.getMessage();
         } catch (Exception e) {
             log.error("导入消息异常", e);
             throw new RuntimeException("导入消息异常: " + e.getMessage());
@@ -356,28 +390,18 @@ public class MessageServiceImpl extends ServiceImpl<MessageMapper, MessageEntity
     @Override
     public Integer syncMessageFromRedis(Long fromUserId, Long toUserId) {
         try {
-            String redisKey = REDIS_MESSAGE_QUEUE + fromUserId + "_" + toUserId;
-            List<MessageEntity> messageEntities = (List<MessageEntity>) redisTemplate.opsForValue().get(redisKey);
+            int count = syncLegacyMessageQueue(fromUserId, toUserId);
 
-            if (messageEntities == null || messageEntities.isEmpty()) {
-                return 0;
-            }
-
-            int count = 0;
-            for (MessageEntity messageEntity : messageEntities) {
-                try {
-                    // 检查是否已存在
-                    MessageEntity existing = messageMapper.selectById(messageEntity.getMessageId());
-                    if (existing == null) {
-                        messageMapper.insert(messageEntity);
-                        count++;
-                    }
-                } catch (Exception e) {
-                    log.error("同步消息到数据库失败: {}", messageEntity.getMessageId(), e);
-                }
+            String streamKey = REDIS_MESSAGE_STREAM + fromUserId + "_" + toUserId;
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(streamKey))) {
+                return count;
             }
+            ensureMessageSyncGroup(streamKey);
 
-            redisTemplate.delete(redisKey);
+            // 先认领其他实例读取后长时间未确认的消息，再重放本实例未确认的消息，最后读取新消息
+            claimStaleMessages(streamKey);
+            count += drainMessageStream(streamKey, ReadOffset.from("0"));
+            count += drainMessageStream(streamKey, ReadOffset.lastConsumed());
             return count;
 
         } catch (Exception e) {
@@ -386,9 +410,142 @@ public class MessageServiceImpl extends ServiceImpl<MessageMapper, MessageEntity
         }
     }
 
+    /**
+     * 按批读取 Stream 中的消息并落库，落库成功后只 XACK、XDEL 本批已确认的消息
+     * 落库按唯一键 (from_user_id, to_user_id, random) 幂等，ACK 前宕机导致的重放不会产生重复消息；
+     * random 在发送时由 IdGenerator 生成，不同消息不会撞键
+     *
+     * @return 新插入数据库的消息数
+     */
+    private int drainMessageStream(String streamKey, ReadOffset readOffset) {
+        int count = 0;
+        while (true) {
+            List<MapRecord<Object, Object, Object>> records = redisTemplate.opsForStream().read(
+                    Consumer.from(MESSAGE_SYNC_GROUP, messageSyncConsumer),
+                    StreamReadOptions.empty().count(MESSAGE_SYNC_BATCH_SIZE),
+                    StreamOffset.create(streamKey, readOffset));
+            if (records == null || records.isEmpty()) {
+                return count;
+            }
+
+            List<MessageEntity> messageEntities = new ArrayList<>(records.size());
+            for (MapRecord<Object, Object, Object> record : records) {
+                Object value = record.getValue().get(MESSAGE_STREAM_FIELD);
+                if (value instanceof MessageEntity messageEntity) {
+                    messageEntities.add(messageEntity);
+                }
+            }
+            count += persistMessages(messageEntities);
+
+            RecordId[] recordIds = records.stream().map(MapRecord::getId).toArray(RecordId[]::new);
+            redisTemplate.opsForStream().acknowledge(streamKey, MESSAGE_SYNC_GROUP, recordIds);
+            redisTemplate.opsForStream().delete(streamKey, recordIds);
+
+            if (records.size() < MESSAGE_SYNC_BATCH_SIZE) {
+                return count;
+            }
+        }
+    }
+
+    /**
+     * 将其他消费者读取后超过 MESSAGE_SYNC_CLAIM_IDLE 仍未确认的消息转给当前实例，随后按 "0" 重放
+     * XCLAIM 自身带最小空闲时间判断，多个实例同时认领同一条消息只有一个能成功
+     */
+    private void claimStaleMessages(String streamKey) {
+        while (true) {
+            PendingMessages pendingMessages = redisTemplate.opsForStream()
+                    .pending(streamKey, MESSAGE_SYNC_GROUP, Range.unbounded(), MESSAGE_SYNC_BATCH_SIZE);
+            if (pendingMessages == null || pendingMessages.isEmpty()) {
+                return;
+            }
+            RecordId[] staleIds = pendingMessages.stream()
+                    .filter(pending -> !messageSyncConsumer.equals(pending.getConsumerName()))
+                    .filter(pending -> pending.getElapsedTimeSinceLastDelivery().compareTo(MESSAGE_SYNC_CLAIM_IDLE) >= 0)
+                    .map(PendingMessage::getId)
+                    .toArray(RecordId[]::new);
+            if (staleIds.length == 0) {
+                return;
+            }
+            redisTemplate.opsForStream().claim(streamKey, MESSAGE_SYNC_GROUP, messageSyncConsumer,
+                    MESSAGE_SYNC_CLAIM_IDLE, staleIds);
+            log.info("认领其他实例未确认的消息 - streamKey: {}, count: {}", streamKey, staleIds.length);
+            if (pendingMessages.size() < MESSAGE_SYNC_BATCH_SIZE) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 创建同步消费组（已存在时忽略）
+     */
+    private void ensureMessageSyncGroup(String streamKey) {
+        try {
+            redisTemplate.opsForStream().createGroup(streamKey, ReadOffset.from("0"), MESSAGE_SYNC_GROUP);
+        } catch (RedisSystemException e) {
+            if (!String.valueOf(e.getMostSpecificCause().getMessage()).contains("BUSYGROUP")) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 排空旧版 List 结构的待同步消息
+     */
+    @SuppressWarnings("unchecked")
+    private int syncLegacyMessageQueue(Long fromUserId, Long toUserId) {
+        String redisKey = REDIS_MESSAGE_QUEUE + fromUserId + "_" + toUserId;
+        List<MessageEntity> messageEntities = (List<MessageEntity>) redisTemplate.opsForValue().get(redisKey);
+        if (messageEntities == null || messageEntities.isEmpty()) {
+            return 0;
+        }
+        int count = persistMessages(messageEntities);
+        redisTemplate.delete(redisKey);
+        return count;
+    }
+
+    /**
+     * 幂等批量落库：多行 INSERT IGNORE，由唯一键 uk_from_to_random (from_user_id, to_user_id, random) 跳过已存在的消息
+     * 判重在数据库内完成，多个实例并发落库同一批消息也不会重复插入
+     *
+     * 注意：正确性依赖以下 DDL，缺少该唯一键时重放会插入重复消息：
+     *   ALTER TABLE message ADD UNIQUE KEY uk_from_to_random (from_user_id, to_user_id, random);
+     * 本服务发送的消息 random 为雪花ID（见 sendMessage / batchSendMessage），只有同一条消息的重放才会撞键；
+     * 从腾讯IM导入的消息沿用腾讯的 32 位 MsgRandom，取值范围与雪花ID不重叠
+     *
+     * @return 新插入的消息数
+     */
+    int persistMessages(List<MessageEntity> messageEntities) {
+        if (messageEntities.isEmpty()) {
+            return 0;
+        }
+        Map<Long, MessageEntity> byRandom = new LinkedHashMap<>();
+        List<MessageEntity> toInsert = new ArrayList<>();
+        for (MessageEntity messageEntity : messageEntities) {
+            if (messageEntity.getRandom() == null) {
+                // 没有随机值无法判重，只在数据库中不存在该ID时插入
+                if (messageEntity.getMessageId() == null || messageMapper.selectById(messageEntity.getMessageId()) == null) {
+                    toInsert.add(messageEntity);
+                }
+                continue;
+            }
+            // 同一批内的重复消息（同一发送方/接收方下随机值相同）只保留第一条
+            byRandom.putIfAbsent(messageEntity.getRandom(), messageEntity);
+        }
+        toInsert.addAll(byRandom.values());
+        if (toInsert.isEmpty()) {
+            return 0;
+        }
 
+        // 自增主键由数据库生成
+        toInsert.forEach(messageEntity -> messageEntity.setMessageId(null));
+        return messageMapper.batchInsertIgnore(toInsert);
+    }
 
-    private MessageEntity convertToMessage(MessageDto dto, TencentImResult result, Long msgRandom, Long conversationId) {
+    /**
+     * 构建待发送的消息实体
+     * random 取雪花ID作为消息唯一键，落库幂等依赖它在 (from_user_id, to_user_id) 下不重复，见 persistMessages
+     */
+    private MessageEntity convertToMessage(MessageDto dto, TencentImResult result, Long conversationId) {
         MessageEntity messageEntity = MessageEntity.builder()
                 .fromUserId(dto.getFromUserId())
                 .toUserId(dto.getToUserId())
@@ -397,7 +554,7 @@ public class MessageServiceImpl extends ServiceImpl<MessageMapper, MessageEntity
                 .status(MessageStatusEnum.SENT)
                 .isRead(false)
                 .sendTime(LocalDateTime.now())
-                .random(msgRandom)
+                .random(idGenerator.nextId())
                 .conversationId(conversationId)
                 .extra(dto.getExtra()).build();
 
@@ -414,13 +571,22 @@ public class MessageServiceImpl extends ServiceImpl<MessageMapper, MessageEntity
             String messageKey = REDIS_MESSAGE_KEY + messageEntity.getMessageId();
             redisTemplate.opsForValue().set(messageKey, messageEntity, MESSAGE_TTL, TimeUnit.SECONDS);
 
-            String queueKey = REDIS_MESSAGE_QUEUE + messageEntity.getFromUserId() + "_" + messageEntity.getToUserId();
-            List<MessageEntity> queue = (List<MessageEntity>) redisTemplate.opsForValue().get(queueKey);
-            if (queue == null) {
-                queue = new ArrayList<>();
-            }
-            queue.add(messageEntity);
-            redisTemplate.opsForValue().set(queueKey, queue, MESSAGE_TTL, TimeUnit.SECONDS);
+            // XADD 追加写，不再读取和回写整个会话的消息列表，并发发送不会互相覆盖
+            String streamKey = REDIS_MESSAGE_STREAM + messageEntity.getFromUserId() + "_" + messageEntity.getToUserId();
+            Map<Object, Object> body = Collections.singletonMap(MESSAGE_STREAM_FIELD, messageEntity);
+            MapRecord<Object, Object, Object> record = StreamRecords.newRecord()
+                    .in((Object) streamKey)
+                    .ofMap(body);
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<Object, Object> ops = (RedisOperations<Object, Object>) operations;
+                    ops.opsForStream().add(record);
+                    ops.expire(streamKey, MESSAGE_TTL, TimeUnit.SECONDS);
+                    return null;
+                }
+            });
 
         } catch (Exception e) {
             log.error("保存消息到Redis异常", e);
@@ -446,6 +612,15 @@ public class MessageServiceImpl extends ServiceImpl<MessageMapper, MessageEntity
                 }
             }
             messageMapper.insert(messageEntity);
+        } catch (DuplicateKeyException e) {
+            // 同步任务已先一步从 Stream 落库了这条消息，沿用已入库的记录
+            // random 为本次发送生成的雪花ID，撞键的只可能是同一条消息（依赖唯一键 uk_from_to_random，见 persistMessages）
+            MessageEntity existing = messageMapper.selectByRandom(
+                    messageEntity.getFromUserId(), messageEntity.getToUserId(), messageEntity.getRandom());
+            if (existing == null) {
+                throw e;
+            }
+            messageEntity.setMessageId(existing.getMessageId());
         } catch (Exception e) {
             log.error("保存消息到数据库异常", e);
             throw e;
@@ -479,11 +654,15 @@ public class MessageServiceImpl extends ServiceImpl<MessageMapper, MessageEntity
         List<MessageEntity> result = new ArrayList<>();
 
         try {
-            String queueKey = REDIS_MESSAGE_QUEUE + fromUserId + "_" + toUserId;
-            List<MessageEntity> queue = (List<MessageEntity>) redisTemplate.opsForValue().get(queueKey);
-
-            if (queue != null) {
-                for (MessageEntity messageEntity : queue) {
+            String streamKey = REDIS_MESSAGE_STREAM + fromUserId + "_" + toUserId;
+            List<MapRecord<Object, Object, Object>> records = redisTemplate.opsForStream().range(
+                    streamKey, Range.unbounded(), Limit.limit().count((int) MESSAGE_STREAM_READ_LIMIT));
+
+            if (records != null) {
+                for (MapRecord<Object, Object, Object> record : records) {
+                    if (!(record.getValue().get(MESSAGE_STREAM_FIELD) instanceof MessageEntity messageEntity)) {
+                        continue;
+                    }
                     if (startTime != null && messageEntity.getSendTime() != null) {
                         if (messageEntity.getSendTime().toEpochSecond(java.time.ZoneOffset.UTC) < startTime) {
                             continue;
@@ -590,23 +769,35 @@ public class MessageServiceImpl extends ServiceImpl<MessageMapper, MessageEntity
 
             // 查询总条数
             Long total = messageMapper.selectCountByConversationId(conversationId);
+            Conversation conversation = conversationMapper.selectByConversationId(conversationId);
+            Long friendId = null;
+            if (userId.equals(conversation.getSenderUserId())){
+                friendId = conversation.getReceiveUserId();
+            }else {
+                friendId = conversation.getSenderUserId();
+            }
+
+            // 本页消息双方与会话对方的用户信息一次批量查询
+            Set<Long> userIds = new HashSet<>();
+            userIds.add(friendId);
+            messageEntities.forEach(messageEntity -> {
+                userIds.add(messageEntity.getFromUserId());
+                userIds.add(messageEntity.getToUserId());
+            });
+            Map<Long, UserInfoVo> userInfoMap = userInfoCache.getAll(userIds);
+
             List<MessageVo> messageVos = messageEntities.stream()
                     .map(messageEntity ->{
-                        RpcResult<UserInfoVo> rpcResult = userDubboService.getUserInfo(messageEntity.getFromUserId());
-                        Assert.rpcResultOk(rpcResult);
-                        UserInfoVo fromUser = rpcResult.getData();
-
-                        RpcResult<UserInfoVo> rpcResult2 = userDubboService.getUserInfo(messageEntity.getToUserId());
-                        Assert.rpcResultOk(rpcResult2);
-                        UserInfoVo toUser = rpcResult2.getData();
+                        UserInfoVo fromUser = userInfoMap.get(messageEntity.getFromUserId());
+                        UserInfoVo toUser = userInfoMap.get(messageEntity.getToUserId());
                         return MessageVo.builder()
                                 .messageId(messageEntity.getMessageId())
                                 .fromUserId(messageEntity.getFromUserId())
-                                .fromUserName(fromUser.getNickName())
-                                .fromUserAvatar(fromUser.getAvatarUrl())
+                                .fromUserName(fromUser != null ? fromUser.getNickName() : null)
+                                .fromUserAvatar(fromUser != null ? fromUser.getAvatarUrl() : null)
                                 .toUserId(messageEntity.getToUserId())
-                                .toUserName(toUser.getNickName())
-                                .toUserAvatar(toUser.getAvatarUrl())
+                                .toUserName(toUser != null ? toUser.getNickName() : null)
+                                .toUserAvatar(toUser != null ? toUser.getAvatarUrl() : null)
                                 .messageType(messageEntity.getMessageType())
                                 .content(messageEntity.getContent())
                                 .status(messageEntity.getStatus())
@@ -625,23 +816,14 @@ public class MessageServiceImpl extends ServiceImpl<MessageMapper, MessageEntity
                                 .build();
                     }).toList();
             log.info("查询会话消息列表成功{}",messageVos);
-            Conversation conversation = conversationMapper.selectByConversationId(conversationId);
-            Long friendId = null;
-            if (userId.equals(conversation.getSenderUserId())){
-                friendId = conversation.getReceiveUserId();
-            }else {
-                friendId = conversation.getSenderUserId();
-            }
-            RpcResult<UserInfoVo> rpcResult = userDubboService.getUserInfo(friendId);
-            Assert.rpcResultOk(rpcResult);
-            UserInfoVo userInfo = rpcResult.getData();
+            UserInfoVo userInfo = userInfoMap.get(friendId);
             return MessageListVo.builder()
                     .messageVoList(messageVos)
                     .total( total)
                     .page(page)
                     .pageSize(pageSize)
-                    .name(userInfo.getNickName())
-                    .avatar(userInfo.getAvatarUrl())
+                    .name(userInfo != null ? userInfo.getNickName() : null)
+                    .avatar(userInfo != null ? userInfo.getAvatarUrl() : null)
                     .build();
         } catch (Exception e) {
             log.error("查询会话消息列表异常", e);
@@ -680,5 +862,13 @@ public class MessageServiceImpl extends ServiceImpl<MessageMapper, MessageEntity
         }
     }
 
-
+    private static String buildMessageSyncConsumer() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return "message-sync-" + host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
 }
@@ -1,7 +1,6 @@
 package com.unlimited.sports.globox.social.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
@@ -12,6 +11,7 @@ import com.unlimited.sports.globox.common.result.RpcResult;
 import com.unlimited.sports.globox.common.result.SocialCode;
 import com.unlimited.sports.globox.common.utils.Assert;
 import com.unlimited.sports.globox.common.utils.NotificationSender;
+import com.unlimited.sports.globox.common.user.UserInfoCache;
 import com.unlimited.sports.globox.model.social.dto.DirectPublishNoteRequest;
 import com.unlimited.sports.globox.model.social.dto.NoteMediaRequest;
 import com.unlimited.sports.globox.model.social.dto.PublishNoteRequest;
@@ -19,7 +19,6 @@ import com.unlimited.sports.globox.model.social.dto.SaveDraftRequest;
 import com.unlimited.sports.globox.model.social.dto.UpdateNoteRequest;
 import com.unlimited.sports.globox.model.social.entity.SocialNote;
 import com.unlimited.sports.globox.model.social.enums.NoteTag;
-import com.unlimited.sports.globox.model.social.entity.SocialNoteComment;
 import com.unlimited.sports.globox.model.social.entity.SocialNoteLike;
 import com.unlimited.sports.globox.model.social.entity.SocialNoteMedia;
 import com.unlimited.sports.globox.model.social.entity.SocialNotePool;
@@ -29,7 +28,6 @@ import com.unlimited.sports.globox.model.social.vo.DraftNoteVo;
 import com.unlimited.sports.globox.model.social.vo.NoteDetailVo;
 import com.unlimited.sports.globox.model.social.vo.NoteItemVo;
 import com.unlimited.sports.globox.model.social.vo.NoteMediaVo;
-import com.unlimited.sports.globox.social.mapper.SocialNoteCommentMapper;
 import com.unlimited.sports.globox.social.mapper.SocialNoteLikeMapper;
 import com.unlimited.sports.globox.social.mapper.SocialNoteMapper;
 import com.unlimited.sports.globox.social.mapper.SocialNoteMediaMapper;
@@ -43,14 +41,12 @@ import com.unlimited.sports.globox.social.util.NoteSyncMQSender;
 import com.unlimited.sports.globox.social.util.SocialNotificationUtil;
 import com.unlimited.sports.globox.service.RedisService;
 import com.unlimited.sports.globox.dubbo.governance.SensitiveWordsDubboService;
-import com.unlimited.sports.globox.dubbo.user.UserDubboService;
-import com.unlimited.sports.globox.dubbo.user.dto.BatchUserInfoRequest;
-import com.unlimited.sports.globox.dubbo.user.dto.BatchUserInfoResponse;
 import com.unlimited.sports.globox.model.auth.vo.UserInfoVo;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.dubbo.config.annotation.DubboReference;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
@@ -59,6 +55,8 @@ import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -74,6 +72,15 @@ public class NoteServiceImpl   implements NoteService {
     private static final int MAX_PAGE_SIZE = 50;
     private static final String TAGS_DELIMITER = ";";
     private static final int BATCH_SIZE = 500;
+    private static final int POOL_PAGE_MAX_ROUNDS = 3;
+    /**
+     * 笔记池 shuffle_key 的最大值（取值 1~1000000）
+     */
+    private static final int POOL_SHUFFLE_KEY_MAX = 1_000_000;
+    /**
+     * 构建推荐流快照时单次写入 Redis 的笔记ID数
+     */
+    private static final int POOL_SNAPSHOT_PUSH_BATCH = 1000;
 
     @Autowired
     private SocialNoteMapper socialNoteMapper;
@@ -87,14 +94,11 @@ public class NoteServiceImpl   implements NoteService {
     @Autowired
     private SocialNoteLikeMapper socialNoteLikeMapper;
 
-    @Autowired
-    private SocialNoteCommentMapper socialNoteCommentMapper;
-
     @Autowired
     private NoteLikeSyncService noteLikeSyncService;
 
-    @DubboReference(group = "rpc")
-    private UserDubboService userDubboService;
+    @Autowired
+    private UserInfoCache userInfoCache;
 
     @DubboReference(group = "rpc")
     private SensitiveWordsDubboService sensitiveWordsDubboService;
@@ -114,6 +118,18 @@ public class NoteServiceImpl   implements NoteService {
     @Autowired
     private NoteSyncMQSender noteSyncMQSender;
 
+    /**
+     * 推荐流快照过期时间（分钟），精选池新增的笔记最晚在快照过期后可见
+     */
+    @Value("${social.note-pool.snapshot-ttl-minutes:30}")
+    private long poolSnapshotTtlMinutes;
+
+    /**
+     * 新会话seed的取值个数，即同时存在的快照数上限
+     */
+    @Value("${social.note-pool.seed-buckets:1024}")
+    private int poolSeedBuckets;
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public R<Long> saveDraft(Long userId, SaveDraftRequest request) {
@@ -514,11 +530,10 @@ public class NoteServiceImpl   implements NoteService {
 
         NoteDetailVo vo = new NoteDetailVo();
         BeanUtils.copyProperties(note, vo);
-        // 查询实际点赞数和评论数（覆盖 BeanUtils 拷贝的旧值）
-        Map<Long, Integer> likeCountMap = batchQueryLikeCounts(List.of(noteId));
-        Map<Long, Integer> commentCountMap = batchQueryCommentCounts(List.of(noteId));
-        vo.setLikeCount(likeCountMap.getOrDefault(noteId, 0));
-        vo.setCommentCount(commentCountMap.getOrDefault(noteId, 0));
+        // 计数列 + 尚未同步的 Redis 增量
+        Map<Long, int[]> pendingDeltas = noteLikeSyncService.batchGetPendingEngagementDeltas(List.of(noteId));
+        vo.setLikeCount(displayCount(note.getLikeCount(), pendingDeltas, noteId, 0));
+        vo.setCommentCount(displayCount(note.getCommentCount(), pendingDeltas, noteId, 1));
         vo.setStatus(note.getStatus() != null ? note.getStatus().name() : null);
         vo.setMediaType(note.getMediaType() != null ? note.getMediaType().name() : null);
         List<String> tags = parseTags(note.getTags());
@@ -540,10 +555,9 @@ public class NoteServiceImpl   implements NoteService {
             vo.setLiked(isCurrentlyLiked(userId, noteId));
         }
 
-        // 通过RPC获取作者信息
+        // 获取作者信息（共享用户信息缓存，未命中时回源RPC）
         try {
-            RpcResult<UserInfoVo> rpcResult = userDubboService.getUserInfo(note.getUserId());
-            UserInfoVo userInfo = rpcResult.getData();
+            UserInfoVo userInfo = userInfoCache.get(note.getUserId());
             if (userInfo != null) {
                 vo.setNickName(userInfo.getNickName());
                 vo.setAvatarUrl(userInfo.getAvatarUrl());
@@ -865,136 +879,134 @@ public class NoteServiceImpl   implements NoteService {
         }
 
         // 2. 解析游标，获取seed（如果存在），否则生成新的seed
+        // 新seed只在有限个取值中随机，同一seed的会话共用一份快照，Redis中的快照数量有上限；
+        // 各取值均匀分布在 shuffle_key 的整个取值范围内，不同seed的打散顺序才会不同
         Long seed;
         CursorUtils.PoolCursor poolCursorObj = null;
         if (StringUtils.hasText(cursor)) {
             poolCursorObj = CursorUtils.parsePoolCursor(cursor);
             seed = poolCursorObj.getSeed();
         } else {
-            // 生成1-1000000之间的随机数作为seed
-            seed = (long) (Math.random() * 1000000) + 1;
+            int buckets = Math.max(1, Math.min(poolSeedBuckets, POOL_SHUFFLE_KEY_MAX));
+            long bucket = ThreadLocalRandom.current().nextInt(buckets);
+            seed = bucket * (POOL_SHUFFLE_KEY_MAX / buckets) + 1;
+        }
+
+        // 3. 获取该seed的推荐流快照（不存在则构建）
+        String snapshotKey = SocialRedisKeyConstants.NOTE_POOL_SNAPSHOT_PREFIX + seed;
+        long snapshotSize = ensurePoolSnapshot(snapshotKey, seed);
+
+        // 4. 定位本页在快照中的起始位置
+        long offset = resolvePoolOffset(snapshotKey, poolCursorObj);
+
+        // 5. 按区间读取快照并回表，过滤已下架、已取消精选的笔记；不足一页时继续向后读
+        List<SocialNote> pageNotes = new ArrayList<>(size);
+        Long lastReadNoteId = poolCursorObj == null ? null : poolCursorObj.getNoteId();
+        int rounds = 0;
+        while (pageNotes.size() < size && offset < snapshotSize && rounds++ < POOL_PAGE_MAX_ROUNDS) {
+            int need = size - pageNotes.size();
+            List<Long> noteIds = redisService.getCacheListByRange(snapshotKey, offset, offset + need - 1, Long.class);
+            if (CollectionUtils.isEmpty(noteIds)) {
+                break;
+            }
+            offset += noteIds.size();
+            lastReadNoteId = noteIds.get(noteIds.size() - 1);
+            pageNotes.addAll(selectPoolNotes(noteIds));
         }
+        // 快照还有未读的笔记就有下一页（即使本页读到的笔记都已失效）
+        boolean hasMore = offset < snapshotSize;
 
-        // 3. 查询所有ENABLED的池子记录
-        LambdaQueryWrapper<SocialNotePool> poolQuery = new LambdaQueryWrapper<>();
-        poolQuery.eq(SocialNotePool::getPoolStatus, SocialNotePool.PoolStatus.ENABLED);
-        List<SocialNotePool> allPoolList = socialNotePoolMapper.selectList(poolQuery);
+        // 6. 转换为VO
+        List<NoteItemVo> voList = convertToNoteItemVo(pageNotes, userId);
 
-        if (allPoolList.isEmpty()) {
-            CursorPaginationResult<NoteItemVo> result = new CursorPaginationResult<>();
-            result.setList(Collections.emptyList());
-            result.setNextCursor(null);
-            result.setHasMore(false);
-            return R.ok(result);
+        // 7. 构建nextCursor（包含seed和快照偏移量，下一页只按偏移量定位；
+        // 本页没有有效笔记时 createdAt/noteId 取上一游标或最后读到的笔记ID，仅用于保持游标格式）
+        String nextCursor = null;
+        if (hasMore) {
+            if (!pageNotes.isEmpty()) {
+                SocialNote lastNote = pageNotes.get(pageNotes.size() - 1);
+                nextCursor = CursorUtils.buildPoolCursor(seed, lastNote.getCreatedAt(), lastNote.getNoteId(), offset);
+            } else {
+                LocalDateTime cursorTime = poolCursorObj == null ? LocalDateTime.now() : poolCursorObj.getCreatedAt();
+                nextCursor = CursorUtils.buildPoolCursor(seed, cursorTime, lastReadNoteId, offset);
+            }
         }
 
-        // 4. 批量查询笔记（只查询PUBLISHED状态的）
-        List<Long> allNoteIds = allPoolList.stream()
-                .map(SocialNotePool::getNoteId)
-                .collect(Collectors.toList());
-        LambdaQueryWrapper<SocialNote> noteQuery = new LambdaQueryWrapper<>();
-        noteQuery.in(SocialNote::getNoteId, allNoteIds)
-                .eq(SocialNote::getStatus, SocialNote.Status.PUBLISHED);
-        List<SocialNote> allNotes = socialNoteMapper.selectList(noteQuery);
-
-        // 5. 构建笔记映射
-        Map<Long, SocialNote> noteMap = allNotes.stream()
-                .collect(Collectors.toMap(SocialNote::getNoteId, note -> note));
-
-        // 6. 过滤出有效的池子记录（对应的笔记存在且已发布）
-        List<SocialNotePool> validPoolList = allPoolList.stream()
-                .filter(pool -> noteMap.containsKey(pool.getNoteId()))
-                .collect(Collectors.toList());
+        // 8. 构建结果
+        CursorPaginationResult<NoteItemVo> result = new CursorPaginationResult<>();
+        result.setList(voList);
+        result.setNextCursor(nextCursor);
+        result.setHasMore(hasMore);
 
-        // 7. 在内存中按ABS(shuffle_key - seed)排序，然后按created_at和note_id排序
-        validPoolList.sort((p1, p2) -> {
-            long sort1 = Math.abs(p1.getShuffleKey() - seed);
-            long sort2 = Math.abs(p2.getShuffleKey() - seed);
-            if (sort1 != sort2) {
-                return Long.compare(sort1, sort2);
-            }
-            // 如果排序值相同，按created_at倒序，再按note_id倒序
-            SocialNote n1 = noteMap.get(p1.getNoteId());
-            SocialNote n2 = noteMap.get(p2.getNoteId());
-            if (n1 != null && n2 != null) {
-                int timeCompare = n2.getCreatedAt().compareTo(n1.getCreatedAt());
-                if (timeCompare != 0) {
-                    return timeCompare;
-                }
-                return Long.compare(p2.getNoteId(), p1.getNoteId());
-            }
-            return 0;
-        });
+        return R.ok(result);
+    }
 
-        // 8. 如果有游标，过滤掉游标之前的记录
-        if (poolCursorObj != null) {
-            // 提取为final变量，以便在lambda中使用
-            final Long cursorNoteId = poolCursorObj.getNoteId();
-            final LocalDateTime cursorTime = poolCursorObj.getCreatedAt();
-            // 找到游标对应的池子记录
-            SocialNotePool cursorPool = validPoolList.stream()
-                    .filter(pool -> pool.getNoteId().equals(cursorNoteId))
-                    .findFirst()
-                    .orElse(null);
-
-            if (cursorPool != null) {
-                // 提取为final变量，以便在lambda中使用
-                final long cursorSortValue = Math.abs(cursorPool.getShuffleKey() - seed);
-                // 过滤：排序值小于游标，或排序值相等但创建时间更早，或创建时间相等但noteId更小
-                validPoolList = validPoolList.stream()
-                        .filter(pool -> {
-                            SocialNote note = noteMap.get(pool.getNoteId());
-                            if (note == null) {
-                                return false;
-                            }
-                            long poolSortValue = Math.abs(pool.getShuffleKey() - seed);
-                            if (poolSortValue < cursorSortValue) {
-                                return true;
-                            }
-                            if (poolSortValue == cursorSortValue) {
-                                int timeCompare = note.getCreatedAt().compareTo(cursorTime);
-                                if (timeCompare < 0) {
-                                    return true;
-                                }
-                                if (timeCompare == 0 && pool.getNoteId() < cursorNoteId) {
-                                    return true;
-                                }
-                            }
-                            return false;
-                        })
-                        .collect(Collectors.toList());
-            }
+    /**
+     * 获取推荐流快照长度，快照不存在时从数据库构建
+     * 快照包含池子中全部已发布笔记（只存ID），按批写入临时 key 再 RENAME，并发构建时不会产生重复元素
+     *
+     * @return 快照长度，池子为空时返回0
+     */
+    private long ensurePoolSnapshot(String snapshotKey, Long seed) {
+        long snapshotSize = redisService.getCacheListSize(snapshotKey);
+        if (snapshotSize > 0) {
+            return snapshotSize;
         }
 
-        // 9. 取size+1条记录（判断hasMore）
-        boolean hasMore = validPoolList.size() > size;
-        List<SocialNotePool> resultPoolList = hasMore
-                ? validPoolList.subList(0, size)
-                : validPoolList;
-
-        // 10. 按池子顺序构建笔记列表
-        List<SocialNote> sortedNotes = resultPoolList.stream()
-                .map(pool -> noteMap.get(pool.getNoteId()))
-                .filter(note -> note != null)
-                .collect(Collectors.toList());
+        List<Long> noteIds = socialNotePoolMapper.selectSnapshotNoteIds(seed);
+        if (noteIds.isEmpty()) {
+            return 0L;
+        }
+        String tempKey = snapshotKey + ":" + UUID.randomUUID();
+        for (int from = 0; from < noteIds.size(); from += POOL_SNAPSHOT_PUSH_BATCH) {
+            List<Long> batch = noteIds.subList(from, Math.min(from + POOL_SNAPSHOT_PUSH_BATCH, noteIds.size()));
+            redisService.setCacheList(tempKey, batch, poolSnapshotTtlMinutes, TimeUnit.MINUTES);
+        }
+        redisService.renameKey(tempKey, snapshotKey);
+        log.info("[首页推荐] 构建推荐流快照 - seed: {}, size: {}", seed, noteIds.size());
+        return noteIds.size();
+    }
 
-        // 11. 转换为VO
-        List<NoteItemVo> voList = convertToNoteItemVo(sortedNotes, userId);
+    /**
+     * 游标对应的快照起始位置
+     * 旧格式游标没有偏移量，按游标笔记在快照中的位置定位，找不到时从头开始
+     */
+    private long resolvePoolOffset(String snapshotKey, CursorUtils.PoolCursor poolCursor) {
+        if (poolCursor == null) {
+            return 0L;
+        }
+        if (poolCursor.getOffset() != null) {
+            return poolCursor.getOffset();
+        }
+        Long index = redisService.indexOfForList(snapshotKey, poolCursor.getNoteId());
+        return index == null ? 0L : index + 1;
+    }
 
-        // 12. 构建nextCursor（包含seed）
-        String nextCursor = null;
-        if (hasMore && !voList.isEmpty()) {
-            NoteItemVo lastVo = voList.get(voList.size() - 1);
-            nextCursor = CursorUtils.buildPoolCursor(seed, lastVo.getCreatedAt(), lastVo.getNoteId());
+    /**
+     * 按快照顺序批量查询笔记，只保留仍在池子中且已发布的笔记
+     */
+    private List<SocialNote> selectPoolNotes(List<Long> noteIds) {
+        Set<Long> enabledNoteIds = socialNotePoolMapper.selectList(new LambdaQueryWrapper<SocialNotePool>()
+                        .select(SocialNotePool::getNoteId)
+                        .in(SocialNotePool::getNoteId, noteIds)
+                        .eq(SocialNotePool::getPoolStatus, SocialNotePool.PoolStatus.ENABLED))
+                .stream()
+                .map(SocialNotePool::getNoteId)
+                .collect(Collectors.toSet());
+        if (enabledNoteIds.isEmpty()) {
+            return Collections.emptyList();
         }
 
-        // 13. 构建结果
-        CursorPaginationResult<NoteItemVo> result = new CursorPaginationResult<>();
-        result.setList(voList);
-        result.setNextCursor(nextCursor);
-        result.setHasMore(hasMore);
+        Map<Long, SocialNote> noteMap = socialNoteMapper.selectList(new LambdaQueryWrapper<SocialNote>()
+                        .in(SocialNote::getNoteId, enabledNoteIds)
+                        .eq(SocialNote::getStatus, SocialNote.Status.PUBLISHED))
+                .stream()
+                .collect(Collectors.toMap(SocialNote::getNoteId, note -> note));
 
-        return R.ok(result);
+        return noteIds.stream()
+                .map(noteMap::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -1048,9 +1060,10 @@ public class NoteServiceImpl   implements NoteService {
 
         // 8. 构建nextCursor
         String nextCursor = null;
-        if (hasMore && !voList.isEmpty()) {
-            NoteItemVo lastVo = voList.get(voList.size() - 1);
-            nextCursor = CursorUtils.buildHotCursor(lastVo.getLikeCount(), lastVo.getCreatedAt(), lastVo.getNoteId());
+        if (hasMore && !resultNotes.isEmpty()) {
+            // 游标必须用排序列本身（计数列），展示值叠加了 Redis 增量
+            SocialNote lastNote = resultNotes.get(resultNotes.size() - 1);
+            nextCursor = CursorUtils.buildHotCursor(lastNote.getLikeCount(), lastNote.getCreatedAt(), lastNote.getNoteId());
         }
 
         // 9. 构建结果
@@ -1334,10 +1347,9 @@ public class NoteServiceImpl   implements NoteService {
             return Collections.emptyList();
         }
 
-        // 0. 批量查询实际点赞数和评论数
+        // 0. 计数取 social_note 计数列，叠加尚未同步的 Redis 增量（一次 Pipeline），不再聚合明细表
         List<Long> allNoteIds = notes.stream().map(SocialNote::getNoteId).collect(Collectors.toList());
-        Map<Long, Integer> likeCountMap = batchQueryLikeCounts(allNoteIds);
-        Map<Long, Integer> commentCountMap = batchQueryCommentCounts(allNoteIds);
+        Map<Long, int[]> pendingDeltas = noteLikeSyncService.batchGetPendingEngagementDeltas(allNoteIds);
 
 
         // 1. 转换为VO
@@ -1345,8 +1357,8 @@ public class NoteServiceImpl   implements NoteService {
                 .map(note -> {
                     NoteItemVo vo = new NoteItemVo();
                     BeanUtils.copyProperties(note, vo);
-                    vo.setLikeCount(likeCountMap.getOrDefault(note.getNoteId(), 0));
-                    vo.setCommentCount(commentCountMap.getOrDefault(note.getNoteId(), 0));
+                    vo.setLikeCount(displayCount(note.getLikeCount(), pendingDeltas, note.getNoteId(), 0));
+                    vo.setCommentCount(displayCount(note.getCommentCount(), pendingDeltas, note.getNoteId(), 1));
                     vo.setStatus(note.getStatus() != null ? note.getStatus().name() : null);
                     vo.setMediaType(note.getMediaType() != null ? note.getMediaType().name() : null);
                     List<String> tags = parseTags(note.getTags());
@@ -1401,34 +1413,9 @@ public class NoteServiceImpl   implements NoteService {
                     .collect(Collectors.toSet());
             
             if (!userIds.isEmpty()) {
-                // 批量查询用户信息（最多50个，需要分批处理）
-                List<Long> userIdList = new ArrayList<>(userIds);
-                Map<Long, UserInfoVo> userInfoMap = new HashMap<>();
-                
-                // 分批处理，每批最多50个
-                int batchSize = 50;
-                for (int i = 0; i < userIdList.size(); i += batchSize) {
-                    int end = Math.min(i + batchSize, userIdList.size());
-                    List<Long> batch = userIdList.subList(i, end);
-                    
-                    BatchUserInfoRequest request = new BatchUserInfoRequest();
-                    request.setUserIds(batch);
-                    RpcResult<BatchUserInfoResponse> rpcResult = userDubboService.batchGetUserInfo(request);
-                    Assert.rpcResultOk(rpcResult);
-                    BatchUserInfoResponse response = rpcResult.getData();
-
-
-                    if (response != null && response.getUsers() != null) {
-                        response.getUsers().forEach(userInfo -> {
-                            if (userInfo != null && userInfo.getUserId() != null) {
-                                UserInfoVo userInfoVo = new UserInfoVo();
-                                BeanUtils.copyProperties(userInfo, userInfoVo);
-                                userInfoMap.put(userInfo.getUserId(), userInfoVo);
-                            }
-                        });
-                    }
-                }
-                
+                // 批量查询用户信息（本地/Redis 缓存未命中的用户合并回源）
+                Map<Long, UserInfoVo> userInfoMap = userInfoCache.getAll(userIds);
+
                 // 回填作者信息
                 voList.forEach(vo -> {
                     UserInfoVo userInfo = userInfoMap.get(vo.getUserId());
@@ -1560,43 +1547,46 @@ public class NoteServiceImpl   implements NoteService {
     @Override
     public Map<Long, Integer> batchQueryLikeCounts(List<Long> noteIds) {
         Map<Long, Integer> result = new HashMap<>();
-        if (noteIds == null || noteIds.isEmpty()) {
-            return result;
-        }
-        for (int i = 0; i < noteIds.size(); i += BATCH_SIZE) {
-            List<Long> batch = noteIds.subList(i, Math.min(i + BATCH_SIZE, noteIds.size()));
-            QueryWrapper<SocialNoteLike> query = new QueryWrapper<>();
-            query.select("note_id as noteId", "COUNT(*) as cnt")
-                    .in("note_id", batch)
-                    .eq("deleted", false)
-                    .groupBy("note_id");
-            List<Map<String, Object>> rows = socialNoteLikeMapper.selectMaps(query);
-            for (Map<String, Object> row : rows) {
-                result.put(((Number) row.get("noteId")).longValue(), ((Number) row.get("cnt")).intValue());
-            }
-        }
+        selectCounters(noteIds).forEach(note -> result.put(note.getNoteId(),
+                note.getLikeCount() != null ? note.getLikeCount() : 0));
         return result;
     }
 
     @Override
     public Map<Long, Integer> batchQueryCommentCounts(List<Long> noteIds) {
         Map<Long, Integer> result = new HashMap<>();
+        selectCounters(noteIds).forEach(note -> result.put(note.getNoteId(),
+                note.getCommentCount() != null ? note.getCommentCount() : 0));
+        return result;
+    }
+
+    /**
+     * 只查询计数列
+     */
+    private List<SocialNote> selectCounters(List<Long> noteIds) {
         if (noteIds == null || noteIds.isEmpty()) {
-            return result;
+            return Collections.emptyList();
         }
+        List<SocialNote> notes = new ArrayList<>(noteIds.size());
         for (int i = 0; i < noteIds.size(); i += BATCH_SIZE) {
             List<Long> batch = noteIds.subList(i, Math.min(i + BATCH_SIZE, noteIds.size()));
-            QueryWrapper<SocialNoteComment> query = new QueryWrapper<>();
-            query.select("note_id as noteId", "COUNT(*) as cnt")
-                    .in("note_id", batch)
-                    .eq("status", "PUBLISHED")
-                    .groupBy("note_id");
-            List<Map<String, Object>> rows = socialNoteCommentMapper.selectMaps(query);
-            for (Map<String, Object> row : rows) {
-                result.put(((Number) row.get("noteId")).longValue(), ((Number) row.get("cnt")).intValue());
-            }
+            notes.addAll(socialNoteMapper.selectList(new LambdaQueryWrapper<SocialNote>()
+                    .select(SocialNote::getNoteId, SocialNote::getLikeCount, SocialNote::getCommentCount)
+                    .in(SocialNote::getNoteId, batch)));
         }
-        return result;
+        return notes;
+    }
+
+    /**
+     * 展示用计数：计数列 + 尚未写入计数列的 Redis 增量（保证用户能立即看到自己的点赞/评论）
+     */
+    private static int displayCount(Integer stored, Map<Long, int[]> pendingDeltas, Long noteId, int column) {
+        int count = stored != null ? stored : 0;
+        int[] delta = pendingDeltas.get(noteId);
+        if (delta != null) {
+            count += delta[column];
+        }
+        return Math.max(0, count);
     }
 
 }
@@ -13,13 +13,11 @@ import com.unlimited.sports.globox.common.result.SocialCode;
 import com.unlimited.sports.globox.common.service.MQService;
 import com.unlimited.sports.globox.common.result.PaginationResult;
 import com.unlimited.sports.globox.common.result.RpcResult;
+import com.unlimited.sports.globox.common.user.UserInfoCache;
 import com.unlimited.sports.globox.common.utils.Assert;
 import com.unlimited.sports.globox.dubbo.governance.SensitiveWordsDubboService;
-import com.unlimited.sports.globox.dubbo.user.dto.BatchUserInfoRequest;
-import com.unlimited.sports.globox.dubbo.user.dto.BatchUserInfoResponse;
 import com.unlimited.sports.globox.model.auth.vo.UserInfoVo;
 import com.unlimited.sports.globox.dubbo.user.RegionDubboService;
-import com.unlimited.sports.globox.dubbo.user.UserDubboService;
 import com.unlimited.sports.globox.dubbo.user.dto.RegionDto;
 import com.unlimited.sports.globox.model.social.dto.RallyPostsDto;
 import com.unlimited.sports.globox.model.social.dto.RallyQueryDto;
@@ -48,7 +46,6 @@ import org.springframework.util.ObjectUtils;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.unlimited.sports.globox.model.social.entity.RallyPostsStatusEnum.fromCode;
@@ -75,8 +72,8 @@ public class RallyServiceImpl implements RallyService {
     @DubboReference(group = "rpc")
     private RegionDubboService regionDubboService;
 
-    @DubboReference(group = "rpc")
-    private UserDubboService userDubboService;
+    @Autowired
+    private UserInfoCache userInfoCache;
 
     @DubboReference(group = "rpc")
     private SensitiveWordsDubboService sensitiveWordsDubboService;
@@ -392,9 +389,8 @@ public class RallyServiceImpl implements RallyService {
         }
 
 
-        RpcResult<UserInfoVo> applicantInfoRpcResult = userDubboService.getUserInfo(userId);
-        Assert.rpcResultOk(applicantInfoRpcResult);
-        UserInfoVo applicantInfo = applicantInfoRpcResult.getData();
+        UserInfoVo applicantInfo = userInfoCache.get(userId);
+        Assert.isNotEmpty(applicantInfo, SocialCode.USER_NOT_FOUND);
 
         // 判断性别是否要求
         int genderLimit = rallyPosts.getRallyGenderLimit(); // 性别限制: 0=不限 1=仅男生 2=仅女生
@@ -741,31 +737,14 @@ public class RallyServiceImpl implements RallyService {
                 .distinct() // 去重，减少Dubbo接口调用压力
                 .toList();
 
-        BatchUserInfoRequest batchUserInfoRequest = new BatchUserInfoRequest();
-        batchUserInfoRequest.setUserIds(applicantIds);
-
-        // 5.3 调用实际Dubbo批量查询接口
-        RpcResult<BatchUserInfoResponse> batchUserInfoRpcResult = userDubboService.batchGetUserInfo(batchUserInfoRequest);
-        Assert.rpcResultOk(batchUserInfoRpcResult);
-
-        // 5.4 处理返回结果，转换为Map<用户ID, 用户信息>，方便后续快速取值（避免循环遍历列表）
-        BatchUserInfoResponse batchUserInfoResponse = batchUserInfoRpcResult.getData();
-        Map<Long, UserInfoVo> userInfoMap = new HashMap<>();
-        if (batchUserInfoResponse != null && !CollectionUtils.isEmpty(batchUserInfoResponse.getUsers())) {
-            userInfoMap = batchUserInfoResponse.getUsers().stream()
-                    .collect(Collectors.toMap(
-                            UserInfoVo::getUserId,
-                            userInfoVo -> userInfoVo,
-                            (existingValue, newValue) -> existingValue
-                    ));
-        }
+        // 5.3 批量查询用户信息（本地/Redis 缓存未命中的用户合并回源），返回Map<用户ID, 用户信息>
+        Map<Long, UserInfoVo> userInfoMap = userInfoCache.getAll(applicantIds);
 
         // 6. 转换为VO列表（从批量查询的Map中获取用户信息，避免循环调用）
-        Map<Long, UserInfoVo> finalUserInfoMap = userInfoMap;
         List<RallyApplicationVo> UserInfoList = rallyApplications.stream()
                 .map(rallyApplication -> {
                     // 兜底处理：若未查询到用户信息，创建空UserInfoVo避免空指针
-                    UserInfoVo userInfo = finalUserInfoMap.getOrDefault(rallyApplication.getApplicantId(), new UserInfoVo());
+                    UserInfoVo userInfo = userInfoMap.getOrDefault(rallyApplication.getApplicantId(), new UserInfoVo());
                     return RallyApplicationVo.builder()
                             .id(rallyApplication.getApplicationId())
                             .rallyPostId(rallyApplication.getRallyPostId())
@@ -823,23 +802,31 @@ public class RallyServiceImpl implements RallyService {
      */
     private List<RallyPostsVo> rallyPostsToRallyPostsVo (List<RallyPosts> rallyPostsList) {
 
-        // 批量获取用户信息，避免N+1查询
-        List<Long> userIds = rallyPostsList.stream()
-                .map(RallyPosts::getInitiatorId)
-                .collect(Collectors.toList());
-        BatchUserInfoRequest batchUserInfoRequest = new BatchUserInfoRequest();
+        if (CollectionUtils.isEmpty(rallyPostsList)) {
+            return Collections.emptyList();
+        }
 
-        batchUserInfoRequest.setUserIds(userIds);
+        // 批量查询所有活动的参与者，避免按活动逐个查询
+        List<Long> postIds = rallyPostsList.stream()
+                .map(RallyPosts::getRallyPostId)
+                .distinct()
+                .toList();
+        Map<Long, List<RallyParticipant>> participantsByPost = rallyParticipantMapper.selectList(
+                        Wrappers.<RallyParticipant>lambdaQuery()
+                                .in(RallyParticipant::getRallyPostId, postIds))
+                .stream()
+                .collect(Collectors.groupingBy(RallyParticipant::getRallyPostId));
 
-        RpcResult<BatchUserInfoResponse> batchResult = userDubboService.batchGetUserInfo(batchUserInfoRequest);
-        Assert.rpcResultOk(batchResult);
-        List<UserInfoVo> userInfoResult =  batchResult.getData().getUsers();
-        Map<Long, UserInfoVo> userInfoMap = userInfoResult.stream()
-                .collect(Collectors.toMap(UserInfoVo::getUserId, Function.identity()));
+        // 发起人与参与者的用户信息一次批量获取，避免N+1查询
+        Set<Long> userIds = new HashSet<>();
+        rallyPostsList.forEach(rallyPosts -> userIds.add(rallyPosts.getInitiatorId()));
+        participantsByPost.values().forEach(participants ->
+                participants.forEach(participant -> userIds.add(participant.getParticipantId())));
+        Map<Long, UserInfoVo> userInfoMap = userInfoCache.getAll(userIds);
 
         return rallyPostsList.stream()
                 .map(rallyPosts -> {
-                    UserInfoVo userInfo = userInfoMap.get(rallyPosts.getInitiatorId());
+                    UserInfoVo userInfo = userInfoMap.getOrDefault(rallyPosts.getInitiatorId(), new UserInfoVo());
                     return RallyPostsVo.builder()
                             .rallyPostId(rallyPosts.getRallyPostId())
                             .rallyInitiatorId(rallyPosts.getInitiatorId())
@@ -859,7 +846,9 @@ public class RallyServiceImpl implements RallyService {
                             .rallyTotalPeople(rallyPosts.getRallyTotalPeople())
                             .rallyStatusCode(rallyPosts.getRallyStatus())
                             .rallyStatus(fromCode(rallyPosts.getRallyStatus()).getDescription())
-                            .rallyParticipants(rallyParticipantVos(rallyPosts.getRallyPostId()))
+                            .rallyParticipants(toRallyParticipantVos(
+                                    participantsByPost.getOrDefault(rallyPosts.getRallyPostId(), Collections.emptyList()),
+                                    userInfoMap))
                             .createdAt(rallyPosts.getRallyCreatedAt())
                             .currentPeopleCount(rallyPosts.getRallyTotalPeople() - rallyPosts.getRallyRemainingPeople())
                             .rallyRemainingPeople(rallyPosts.getRallyRemainingPeople())
@@ -874,9 +863,8 @@ public class RallyServiceImpl implements RallyService {
      * @return 插入结果
      */
     private int initRallyParticipant (RallyPosts rallyPosts, Long rallyApplicantId){
-        RpcResult<UserInfoVo> rpcResult = userDubboService.getUserInfo(rallyApplicantId);
-        Assert.rpcResultOk(rpcResult);
-        UserInfoVo userInfo = rpcResult.getData();
+        UserInfoVo userInfo = userInfoCache.get(rallyApplicantId);
+        Assert.isNotEmpty(userInfo, SocialCode.USER_NOT_FOUND);
         RallyParticipant rallyParticipant = RallyParticipant.builder()
                 .rallyPostId(rallyPosts.getRallyPostId())
                 .participantId(rallyApplicantId)
@@ -900,11 +888,23 @@ public class RallyServiceImpl implements RallyService {
                 Wrappers.<RallyParticipant>lambdaQuery()
                         .eq(RallyParticipant::getRallyPostId, postId)
         );
+        Map<Long, UserInfoVo> userInfoMap = userInfoCache.getAll(rallyParticipantList.stream()
+                .map(RallyParticipant::getParticipantId)
+                .toList());
+        return toRallyParticipantVos(rallyParticipantList, userInfoMap);
+    }
+
+    /**
+     * 将参与者实体转换为视图对象，用户信息从预先批量查询的Map中获取
+     * @param rallyParticipantList 参与者实体列表
+     * @param userInfoMap 用户ID -> 用户信息
+     * @return 参与者视图对象列表
+     */
+    private List<RallyParticipantVo> toRallyParticipantVos(List<RallyParticipant> rallyParticipantList,
+                                                          Map<Long, UserInfoVo> userInfoMap) {
         return rallyParticipantList.stream()
                 .map(participant -> {
-                    RpcResult<UserInfoVo> rpcResult = userDubboService.getUserInfo(participant.getParticipantId());
-                    Assert.rpcResultOk(rpcResult);
-                    UserInfoVo userInfo = rpcResult.getData();
+                    UserInfoVo userInfo = userInfoMap.getOrDefault(participant.getParticipantId(), new UserInfoVo());
                     return RallyParticipantVo.builder()
                             .participantId(participant.getParticipantId())
                             .avatarUrl(userInfo.getAvatarUrl())
@@ -0,0 +1,137 @@
+package com.unlimited.sports.globox.social.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.unlimited.sports.globox.service.RedisService;
+import com.unlimited.sports.globox.social.mapper.ConversationMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.unlimited.sports.globox.social.consts.SocialRedisKeyConstants.*;
+
+/**
+ * 用户聊天未读总数计数器
+ *
+ * 会话表的 unread_count_sender / unread_count_receiver 仍是权威数据，这里只维护每个用户的汇总值：
+ * - 读：一次 HGETALL，Hash 不带初始化标记（不存在、已过期、或只被增量写出了部分字段）时按会话表 SUM 重建
+ * - 写：有事务时在提交后 HINCRBY / HSET，失败只记录日志，计数过期后自动从会话表重建
+ */
+@Slf4j
+@Component
+public class ChatUnreadCounter {
+
+    @Autowired
+    private RedisService redisService;
+
+    @Autowired
+    private ConversationMapper conversationMapper;
+
+    /**
+     * 获取用户聊天未读总数
+     */
+    public long getTotal(Long userId) {
+        try {
+            Map<String, Long> cached = redisService.getCacheMap(counterKey(userId),
+                    new TypeReference<Map<String, Long>>() {});
+            if (cached != null && cached.containsKey(CHAT_UNREAD_INIT_FIELD)) {
+                // 并发的已读与重建可能让计数短暂为负，展示时按0处理
+                return Math.max(0L, cached.getOrDefault(CHAT_UNREAD_TOTAL_FIELD, 0L));
+            }
+        } catch (Exception e) {
+            log.warn("[聊天未读计数] 读取缓存失败，回退会话表统计: userId={}", userId, e);
+            return sumFromDb(userId);
+        }
+        return rebuild(userId);
+    }
+
+    /**
+     * 未读数变化（新消息为正数，已读为负数）
+     */
+    public void add(Long userId, long delta) {
+        if (userId == null || delta == 0) {
+            return;
+        }
+        afterCommit(() -> {
+            try {
+                byte[] key = bytes(counterKey(userId));
+                redisService.executePipelined((RedisCallback<Object>) connection -> {
+                    connection.hashCommands().hIncrBy(key, bytes(CHAT_UNREAD_TOTAL_FIELD), delta);
+                    connection.keyCommands().expire(key, CHAT_UNREAD_TTL_SECONDS);
+                    return null;
+                });
+            } catch (Exception e) {
+                log.error("[聊天未读计数] 更新计数失败: userId={}, delta={}", userId, delta, e);
+            }
+        });
+    }
+
+    /**
+     * 全部已读后置0
+     */
+    public void reset(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        afterCommit(() -> {
+            try {
+                redisService.setCacheMapValue(counterKey(userId), CHAT_UNREAD_TOTAL_FIELD, 0);
+                redisService.expire(counterKey(userId), CHAT_UNREAD_TTL_SECONDS);
+            } catch (Exception e) {
+                log.error("[聊天未读计数] 置0失败: userId={}", userId, e);
+            }
+        });
+    }
+
+    /**
+     * 按会话表统计并覆盖写入计数
+     */
+    private long rebuild(Long userId) {
+        long total = sumFromDb(userId);
+        try {
+            Map<String, Long> hash = new HashMap<>();
+            hash.put(CHAT_UNREAD_TOTAL_FIELD, total);
+            hash.put(CHAT_UNREAD_INIT_FIELD, 1L);
+            redisService.setHashAll(counterKey(userId), hash);
+            redisService.expire(counterKey(userId), CHAT_UNREAD_TTL_SECONDS);
+        } catch (Exception e) {
+            log.warn("[聊天未读计数] 写入缓存失败: userId={}", userId, e);
+        }
+        return total;
+    }
+
+    private long sumFromDb(Long userId) {
+        Long total = conversationMapper.sumUnreadCount(userId);
+        return total == null ? 0L : total;
+    }
+
+    /**
+     * 当前有事务时在提交后执行，避免回滚后计数已变更
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static String counterKey(Long userId) {
+        return CHAT_UNREAD_PREFIX + userId;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -72,11 +72,12 @@ public class CursorUtils {
     }
 
     /**
-     * 解析推荐流游标（格式：pool|{seed}|{createdAt}|{noteId}）
-     * 示例：pool|123456|2025-12-28T10:00:00|123
+     * 解析推荐流游标（格式：pool|{seed}|{createdAt}|{noteId}|{offset}）
+     * 示例：pool|123456|2025-12-28T10:00:00|123|20
+     * 兼容旧格式 pool|{seed}|{createdAt}|{noteId}，此时 offset 为 null
      *
      * @param cursor 游标字符串
-     * @return 推荐流游标对象，包含seed、创建时间和笔记ID
+     * @return 推荐流游标对象，包含seed、创建时间、笔记ID和快照偏移量
      * @throws GloboxApplicationException 如果游标格式错误或前缀不匹配
      */
     public static PoolCursor parsePoolCursor(String cursor) {
@@ -84,8 +85,8 @@ public class CursorUtils {
             return null;
         }
 
-        String[] parts = cursor.split("\\" + CURSOR_SEPARATOR, 4);
-        if (parts.length != 4) {
+        String[] parts = cursor.split("\\" + CURSOR_SEPARATOR, 5);
+        if (parts.length != 4 && parts.length != 5) {
             throw new GloboxApplicationException(SocialCode.NOTE_CURSOR_INVALID);
         }
 
@@ -98,26 +99,31 @@ public class CursorUtils {
             Long seed = Long.parseLong(parts[1]);
             LocalDateTime createdAt = LocalDateTime.parse(parts[2], ISO_FORMATTER);
             Long noteId = Long.parseLong(parts[3]);
-            return new PoolCursor(seed, createdAt, noteId);
+            Long offset = parts.length == 5 ? Long.parseLong(parts[4]) : null;
+            if (offset != null && offset < 0) {
+                throw new GloboxApplicationException(SocialCode.NOTE_CURSOR_INVALID);
+            }
+            return new PoolCursor(seed, createdAt, noteId, offset);
         } catch (Exception e) {
             throw new GloboxApplicationException(SocialCode.NOTE_CURSOR_INVALID);
         }
     }
 
     /**
-     * 构建推荐流游标字符串（格式：pool|{seed}|{createdAt}|{noteId}）
+     * 构建推荐流游标字符串（格式：pool|{seed}|{createdAt}|{noteId}|{offset}）
      *
      * @param seed      随机种子
      * @param createdAt 创建时间
      * @param noteId    笔记ID
+     * @param offset    下一页在推荐流快照中的起始位置
      * @return 游标字符串
      */
-    public static String buildPoolCursor(Long seed, LocalDateTime createdAt, Long noteId) {
-        if (seed == null || createdAt == null || noteId == null) {
+    public static String buildPoolCursor(Long seed, LocalDateTime createdAt, Long noteId, Long offset) {
+        if (seed == null || createdAt == null || noteId == null || offset == null) {
             return null;
         }
-        return "pool" + CURSOR_SEPARATOR + seed + CURSOR_SEPARATOR + 
-               createdAt.format(ISO_FORMATTER) + CURSOR_SEPARATOR + noteId;
+        return "pool" + CURSOR_SEPARATOR + seed + CURSOR_SEPARATOR +
+               createdAt.format(ISO_FORMATTER) + CURSOR_SEPARATOR + noteId + CURSOR_SEPARATOR + offset;
     }
 
     /**
@@ -280,11 +286,16 @@ public class CursorUtils {
         private final Long seed;
         private final LocalDateTime createdAt;
         private final Long noteId;
+        /**
+         * 下一页在推荐流快照中的起始位置，旧格式游标为 null
+         */
+        private final Long offset;
 
-        public PoolCursor(Long seed, LocalDateTime createdAt, Long noteId) {
+        public PoolCursor(Long seed, LocalDateTime createdAt, Long noteId, Long offset) {
             this.seed = seed;
             this.createdAt = createdAt;
             this.noteId = noteId;
+            this.offset = offset;
         }
 
         public Long getSeed() {
@@ -298,6 +309,10 @@ public class CursorUtils {
         public Long getNoteId() {
             return noteId;
         }
+
+        public Long getOffset() {
+            return offset;
+        }
     }
 
     /**
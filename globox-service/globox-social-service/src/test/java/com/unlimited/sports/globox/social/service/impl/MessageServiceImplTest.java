@@ -0,0 +1,513 @@
+package com.unlimited.sports.globox.social.service.impl;
+
+import com.unlimited.sports.globox.common.utils.IdGenerator;
+import com.unlimited.sports.globox.model.social.dto.MessageDto;
+import com.unlimited.sports.globox.model.social.entity.MessageEntity;
+import com.unlimited.sports.globox.model.social.entity.MessageTypeEnum;
+import com.unlimited.sports.globox.social.mapper.MessageMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * MessageServiceImpl 待同步消息 Stream 的落库测试
+ * Redis Stream（含消费组、PEL、XCLAIM）和带唯一键的 message 表都用内存实现代替
+ */
+class MessageServiceImplTest {
+
+    private static final long FROM_USER_ID = 1001L;
+
+    private static final long TO_USER_ID = 2002L;
+
+    private static final int SENDS = 1000;
+
+    private static final int SENDER_THREADS = 8;
+
+    private FakeRedis redis;
+
+    private IdGenerator idGenerator;
+
+    private FakeMessageTable table;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redis = new FakeRedis();
+        table = new FakeMessageTable();
+        idGenerator = new IdGenerator(1, 1, 2000, 2000, mock(ObjectProvider.class));
+    }
+
+    @Test
+    void persistMessagesKeepsFirstOfDuplicateRandomsAndClearsIds() {
+        MessageMapper messageMapper = mock(MessageMapper.class);
+        MessageEntity stored = message(0L);
+        stored.setMessageId(7L);
+        when(messageMapper.selectById(7L)).thenReturn(stored);
+        when(messageMapper.batchInsertIgnore(anyList())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+        MessageServiceImpl service = newService(messageMapper);
+
+        MessageEntity first = message(1L);
+        first.setMessageId(100L);
+        MessageEntity duplicate = message(1L);
+        duplicate.setMessageId(101L);
+        MessageEntity second = message(2L);
+        MessageEntity withoutRandomStored = message(null);
+        withoutRandomStored.setMessageId(7L);
+        MessageEntity withoutRandomNew = message(null);
+
+        int inserted = service.persistMessages(List.of(first, duplicate, second, withoutRandomStored, withoutRandomNew));
+
+        assertEquals(3, inserted);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<MessageEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(messageMapper).batchInsertIgnore(captor.capture());
+        List<MessageEntity> rows = captor.getValue();
+        assertEquals(List.of(withoutRandomNew, first, second), rows);
+        rows.forEach(row -> assertNull(row.getMessageId()));
+    }
+
+    @Test
+    void persistMessagesReportsOnlyRowsTheDatabaseInserted() {
+        MessageServiceImpl service = newService(table.mapper());
+        assertEquals(2, service.persistMessages(List.of(message(1L), message(2L))));
+        assertEquals(1, service.persistMessages(List.of(message(1L), message(2L), message(3L))));
+        assertEquals(3, table.size());
+    }
+
+    @Test
+    void persistMessagesSkipsEmptyBatch() {
+        MessageMapper messageMapper = mock(MessageMapper.class);
+        assertEquals(0, newService(messageMapper).persistMessages(Collections.emptyList()));
+        verify(messageMapper, never()).batchInsertIgnore(any());
+    }
+
+    /**
+     * 同一发送方在同一毫秒内连续发送内容相同的消息，每条都有各自的唯一键，同步后全部落库而不被 INSERT IGNORE 当作重复丢弃
+     */
+    @Test
+    void identicalMessagesSentBackToBackAreAllPersisted() {
+        MessageServiceImpl sender = newService(table.mapper());
+        MessageDto dto = new MessageDto();
+        dto.setFromUserId(FROM_USER_ID);
+        dto.setToUserId(TO_USER_ID);
+        dto.setMessageType(MessageTypeEnum.TEXT);
+        dto.setContent("same");
+
+        for (int i = 0; i < SENDS; i++) {
+            MessageEntity messageEntity = ReflectionTestUtils.invokeMethod(sender, "convertToMessage", dto, null, 1L);
+            ReflectionTestUtils.invokeMethod(sender, "saveMessageToRedis", messageEntity);
+        }
+
+        assertEquals(SENDS, newService(table.mapper()).syncMessageFromRedis(FROM_USER_ID, TO_USER_ID));
+        assertEquals(SENDS, table.size());
+        assertEquals(0, redis.length());
+    }
+
+    /**
+     * 1000 条消息在约 1 秒内由多个线程发往同一会话，两个实例同时循环同步，结束后数据库中恰好有 1000 条消息且 Stream 已清空
+     */
+    @Test
+    void concurrentSendsAtOneThousandPerSecondLoseNothing() throws Exception {
+        MessageServiceImpl sender = newService(table.mapper());
+        List<MessageServiceImpl> instances = List.of(newService(table.mapper()), newService(table.mapper()));
+
+        AtomicBoolean sending = new AtomicBoolean(true);
+        ExecutorService syncPool = Executors.newFixedThreadPool(instances.size());
+        List<Future<?>> syncTasks = new ArrayList<>();
+        for (MessageServiceImpl instance : instances) {
+            syncTasks.add(syncPool.submit(() -> {
+                while (sending.get()) {
+                    instance.syncMessageFromRedis(FROM_USER_ID, TO_USER_ID);
+                    TimeUnit.MILLISECONDS.sleep(5);
+                }
+                return null;
+            }));
+        }
+
+        ExecutorService sendPool = Executors.newFixedThreadPool(SENDER_THREADS);
+        AtomicInteger nextRandom = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        long startNanos = System.nanoTime();
+        List<Future<?>> sendTasks = new ArrayList<>();
+        for (int t = 0; t < SENDER_THREADS; t++) {
+            sendTasks.add(sendPool.submit(() -> {
+                start.await();
+                int random;
+                while ((random = nextRandom.getAndIncrement()) < SENDS) {
+                    // 第 n 条消息不早于 start + n 毫秒发出，整体约 1000 条/秒
+                    long dueNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(random);
+                    long waitNanos = dueNanos - System.nanoTime();
+                    if (waitNanos > 0) {
+                        TimeUnit.NANOSECONDS.sleep(waitNanos);
+                    }
+                    ReflectionTestUtils.invokeMethod(sender, "saveMessageToRedis", message((long) random));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> task : sendTasks) {
+            task.get(30, TimeUnit.SECONDS);
+        }
+        sending.set(false);
+        for (Future<?> task : syncTasks) {
+            task.get(30, TimeUnit.SECONDS);
+        }
+        sendPool.shutdown();
+        syncPool.shutdown();
+        instances.forEach(instance -> instance.syncMessageFromRedis(FROM_USER_ID, TO_USER_ID));
+
+        assertEquals(SENDS, redis.added());
+        assertEquals(SENDS, table.size());
+        for (long random = 0; random < SENDS; random++) {
+            assertTrue(table.contains(random), "丢失消息 random=" + random);
+        }
+        assertEquals(0, redis.length());
+        assertEquals(0, redis.pendingCount());
+    }
+
+    /**
+     * 实例落库失败后未 ACK 的消息留在它自己的 PEL 中，超过认领空闲时间后由其他实例认领并落库
+     */
+    @Test
+    void unacknowledgedMessagesOfFailedInstanceAreClaimedByAnother() {
+        MessageServiceImpl sender = newService(table.mapper());
+        for (long random = 0; random < 5; random++) {
+            ReflectionTestUtils.invokeMethod(sender, "saveMessageToRedis", message(random));
+        }
+
+        MessageServiceImpl failing = newService(table.mapper());
+        MessageServiceImpl healthy = newService(table.mapper());
+        table.failNextInsert();
+        assertEquals(0, failing.syncMessageFromRedis(FROM_USER_ID, TO_USER_ID));
+        assertEquals(5, redis.pendingCount());
+
+        // 未到认领空闲时间，其他实例不动这些消息
+        assertEquals(0, healthy.syncMessageFromRedis(FROM_USER_ID, TO_USER_ID));
+        assertEquals(5, redis.pendingCount());
+
+        redis.advance(Duration.ofMinutes(2));
+        assertEquals(5, healthy.syncMessageFromRedis(FROM_USER_ID, TO_USER_ID));
+        assertEquals(5, table.size());
+        assertEquals(0, redis.length());
+        assertEquals(0, redis.pendingCount());
+    }
+
+    @Test
+    void replayAfterInsertBeforeAckDoesNotDuplicate() {
+        MessageServiceImpl sender = newService(table.mapper());
+        for (long random = 0; random < 3; random++) {
+            ReflectionTestUtils.invokeMethod(sender, "saveMessageToRedis", message(random));
+        }
+        // 模拟上一次同步已落库但在 ACK 前宕机
+        sender.persistMessages(List.of(message(0L), message(1L), message(2L)));
+
+        assertEquals(0, newService(table.mapper()).syncMessageFromRedis(FROM_USER_ID, TO_USER_ID));
+        assertEquals(3, table.size());
+        assertEquals(0, redis.length());
+    }
+
+    private MessageServiceImpl newService(MessageMapper messageMapper) {
+        MessageServiceImpl service = new MessageServiceImpl();
+        ReflectionTestUtils.setField(service, "redisTemplate", redis.template());
+        ReflectionTestUtils.setField(service, "messageMapper", messageMapper);
+        ReflectionTestUtils.setField(service, "idGenerator", idGenerator);
+        return service;
+    }
+
+    private static MessageEntity message(Long random) {
+        MessageEntity messageEntity = new MessageEntity();
+        messageEntity.setFromUserId(FROM_USER_ID);
+        messageEntity.setToUserId(TO_USER_ID);
+        messageEntity.setContent("message-" + random);
+        messageEntity.setRandom(random);
+        return messageEntity;
+    }
+
+    /**
+     * 带唯一键 (from_user_id, to_user_id, random) 的内存 message 表，batchInsertIgnore 按 INSERT IGNORE 语义返回实际插入行数
+     */
+    private static final class FakeMessageTable {
+
+        private final Map<String, MessageEntity> rows = new ConcurrentHashMap<>();
+
+        private final AtomicBoolean failNextInsert = new AtomicBoolean();
+
+        MessageMapper mapper() {
+            return mock(MessageMapper.class, this::answer);
+        }
+
+        void failNextInsert() {
+            failNextInsert.set(true);
+        }
+
+        int size() {
+            return rows.size();
+        }
+
+        boolean contains(long random) {
+            return rows.containsKey(key(FROM_USER_ID, TO_USER_ID, random));
+        }
+
+        private Object answer(InvocationOnMock invocation) {
+            if (!"batchInsertIgnore".equals(invocation.getMethod().getName())) {
+                return null;
+            }
+            if (failNextInsert.getAndSet(false)) {
+                throw new IllegalStateException("模拟数据库写入失败");
+            }
+            int inserted = 0;
+            for (MessageEntity row : invocation.<List<MessageEntity>>getArgument(0)) {
+                if (rows.putIfAbsent(key(row.getFromUserId(), row.getToUserId(), row.getRandom()), row) == null) {
+                    inserted++;
+                }
+            }
+            return inserted;
+        }
+
+        private static String key(Long fromUserId, Long toUserId, Long random) {
+            return fromUserId + "_" + toUserId + "_" + random;
+        }
+    }
+
+    /**
+     * 内存 Redis：只实现消息同步用到的 Stream 命令，按 Redis 语义维护消费组的 last-delivered-id 和各消费者的 PEL
+     */
+    private static final class FakeRedis {
+
+        private final Map<Object, FakeStream> streams = new HashMap<>();
+
+        private final AtomicInteger added = new AtomicInteger();
+
+        private long clockOffsetNanos;
+
+        private final RedisTemplate<Object, Object> template;
+
+        @SuppressWarnings("unchecked")
+        FakeRedis() {
+            StreamOperations<Object, Object, Object> streamOps = mock(StreamOperations.class, this::stream);
+            ValueOperations<Object, Object> valueOps = mock(ValueOperations.class);
+            template = mock(RedisTemplate.class, invocation -> {
+                switch (invocation.getMethod().getName()) {
+                    case "opsForStream":
+                        return streamOps;
+                    case "opsForValue":
+                        return valueOps;
+                    case "hasKey":
+                        synchronized (this) {
+                            return streams.containsKey(invocation.getArgument(0));
+                        }
+                    case "executePipelined":
+                        SessionCallback<Object> callback = invocation.getArgument(0);
+                        callback.execute((RedisOperations<Object, Object>) invocation.getMock());
+                        return Collections.emptyList();
+                    case "expire":
+                        return true;
+                    default:
+                        return null;
+                }
+            });
+        }
+
+        RedisTemplate<Object, Object> template() {
+            return template;
+        }
+
+        int added() {
+            return added.get();
+        }
+
+        synchronized int length() {
+            return streams.values().stream().mapToInt(stream -> stream.entries.size()).sum();
+        }
+
+        synchronized int pendingCount() {
+            return streams.values().stream().mapToInt(stream -> stream.pending.size()).sum();
+        }
+
+        synchronized void advance(Duration duration) {
+            clockOffsetNanos += duration.toNanos();
+        }
+
+        private long now() {
+            return System.nanoTime() + clockOffsetNanos;
+        }
+
+        @SuppressWarnings("unchecked")
+        private synchronized Object stream(InvocationOnMock invocation) {
+            Object[] args = invocation.getArguments();
+            switch (invocation.getMethod().getName()) {
+                case "add": {
+                    MapRecord<Object, Object, Object> record = (MapRecord<Object, Object, Object>) args[0];
+                    FakeStream stream = streams.computeIfAbsent(record.getStream(), key -> new FakeStream());
+                    long sequence = ++stream.lastSequence;
+                    stream.entries.put(sequence, record.getValue());
+                    added.incrementAndGet();
+                    return RecordId.of(1, sequence);
+                }
+                case "createGroup":
+                    streams.computeIfAbsent(args[0], key -> new FakeStream());
+                    return "OK";
+                case "read":
+                    return read((Consumer) args[0], (StreamReadOptions) args[1], (StreamOffset<Object>) args[2]);
+                case "acknowledge": {
+                    FakeStream stream = streams.get(args[0]);
+                    long acknowledged = 0;
+                    for (RecordId id : recordIds(args, 2)) {
+                        if (stream.pending.remove(id.getSequence()) != null) {
+                            acknowledged++;
+                        }
+                    }
+                    return acknowledged;
+                }
+                case "delete": {
+                    FakeStream stream = streams.get(args[0]);
+                    long deleted = 0;
+                    for (RecordId id : recordIds(args, 1)) {
+                        if (stream.entries.remove(id.getSequence()) != null) {
+                            deleted++;
+                        }
+                    }
+                    return deleted;
+                }
+                case "pending": {
+                    FakeStream stream = streams.get(args[0]);
+                    List<PendingMessage> pendingMessages = new ArrayList<>();
+                    stream.pending.entrySet().stream().limit((Long) args[3]).forEach(entry -> pendingMessages.add(
+                            new PendingMessage(RecordId.of(1, entry.getKey()),
+                                    Consumer.from((String) args[1], entry.getValue().consumer),
+                                    Duration.ofNanos(now() - entry.getValue().deliveredAt), 1)));
+                    return new PendingMessages((String) args[1], pendingMessages);
+                }
+                case "claim": {
+                    FakeStream stream = streams.get(args[0]);
+                    Duration minIdle = (Duration) args[3];
+                    List<MapRecord<Object, Object, Object>> claimed = new ArrayList<>();
+                    for (RecordId id : recordIds(args, 4)) {
+                        Delivery delivery = stream.pending.get(id.getSequence());
+                        if (delivery == null || now() - delivery.deliveredAt < minIdle.toNanos()) {
+                            continue;
+                        }
+                        delivery.consumer = (String) args[2];
+                        delivery.deliveredAt = now();
+                        claimed.add(record(args[0], id.getSequence(), stream.entries.get(id.getSequence())));
+                    }
+                    return claimed;
+                }
+                default:
+                    throw new UnsupportedOperationException(invocation.getMethod().getName());
+            }
+        }
+
+        /**
+         * Mockito 展开了可变参数，从 from 开始的参数都是 RecordId
+         */
+        private static List<RecordId> recordIds(Object[] args, int from) {
+            List<RecordId> ids = new ArrayList<>();
+            for (int i = from; i < args.length; i++) {
+                ids.add((RecordId) args[i]);
+            }
+            return ids;
+        }
+
+        private List<MapRecord<Object, Object, Object>> read(Consumer consumer, StreamReadOptions options,
+                                                             StreamOffset<Object> offset) {
+            FakeStream stream = streams.get(offset.getKey());
+            long count = options.getCount();
+            List<MapRecord<Object, Object, Object>> records = new ArrayList<>();
+            if (">".equals(offset.getOffset().getOffset())) {
+                Iterator<Map.Entry<Long, Map<Object, Object>>> iterator =
+                        stream.entries.tailMap(stream.lastDelivered, false).entrySet().iterator();
+                while (iterator.hasNext() && records.size() < count) {
+                    Map.Entry<Long, Map<Object, Object>> entry = iterator.next();
+                    stream.lastDelivered = entry.getKey();
+                    stream.pending.put(entry.getKey(), new Delivery(consumer.getName(), now()));
+                    records.add(record(offset.getKey(), entry.getKey(), entry.getValue()));
+                }
+                return records;
+            }
+            long after = RecordId.of(offset.getOffset().getOffset().contains("-")
+                    ? offset.getOffset().getOffset() : offset.getOffset().getOffset() + "-0").getSequence();
+            for (Map.Entry<Long, Delivery> entry : stream.pending.tailMap(after, false).entrySet()) {
+                if (records.size() >= count) {
+                    break;
+                }
+                if (entry.getValue().consumer.equals(consumer.getName())) {
+                    entry.getValue().deliveredAt = now();
+                    records.add(record(offset.getKey(), entry.getKey(), stream.entries.get(entry.getKey())));
+                }
+            }
+            return records;
+        }
+
+        private static MapRecord<Object, Object, Object> record(Object key, long sequence, Map<Object, Object> value) {
+            return StreamRecords.newRecord().in(key).withId(RecordId.of(1, sequence)).ofMap(value);
+        }
+    }
+
+    private static final class FakeStream {
+
+        private final TreeMap<Long, Map<Object, Object>> entries = new TreeMap<>();
+
+        private final TreeMap<Long, Delivery> pending = new TreeMap<>();
+
+        private long lastSequence;
+
+        private long lastDelivered;
+    }
+
+    private static final class Delivery {
+
+        private String consumer;
+
+        private long deliveredAt;
+
+        private Delivery(String consumer, long deliveredAt) {
+            this.consumer = consumer;
+            this.deliveredAt = deliveredAt;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.unlimited.sports.globox.social.util;
+
+import com.unlimited.sports.globox.service.RedisService;
+import com.unlimited.sports.globox.social.mapper.ConversationMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisHashCommands;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.unlimited.sports.globox.social.consts.SocialRedisKeyConstants.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * ChatUnreadCounter 的计数增减测试
+ * Pipeline 中的 HINCRBY 累加到内存 Map，按 key -> 总数 断言
+ */
+class ChatUnreadCounterTest {
+
+    private static final Long USER_ID = 7L;
+
+    private static final String KEY = CHAT_UNREAD_PREFIX + USER_ID;
+
+    private ChatUnreadCounter counter;
+
+    private RedisService redisService;
+
+    private ConversationMapper conversationMapper;
+
+    /**
+     * key -> total 字段的 HINCRBY 累加值
+     */
+    private Map<String, Long> increments;
+
+    @BeforeEach
+    void setUp() {
+        redisService = mock(RedisService.class);
+        conversationMapper = mock(ConversationMapper.class);
+        increments = new HashMap<>();
+
+        RedisHashCommands hashCommands = mock(RedisHashCommands.class);
+        doAnswer(invocation -> {
+            assertEquals(CHAT_UNREAD_TOTAL_FIELD, string(invocation.getArgument(1)));
+            increments.merge(string(invocation.getArgument(0)), invocation.getArgument(2), Long::sum);
+            return null;
+        }).when(hashCommands).hIncrBy(any(byte[].class), any(byte[].class), anyLong());
+        RedisConnection connection = mock(RedisConnection.class);
+        when(connection.hashCommands()).thenReturn(hashCommands);
+        when(connection.keyCommands()).thenReturn(mock(RedisKeyCommands.class));
+        when(redisService.executePipelined(any())).thenAnswer(invocation -> {
+            RedisCallback<?> callback = invocation.getArgument(0);
+            callback.doInRedis(connection);
+            return List.of();
+        });
+
+        counter = new ChatUnreadCounter();
+        ReflectionTestUtils.setField(counter, "redisService", redisService);
+        ReflectionTestUtils.setField(counter, "conversationMapper", conversationMapper);
+    }
+
+    @Test
+    void addAccumulatesNewMessagesAndReads() {
+        counter.add(USER_ID, 1);
+        counter.add(USER_ID, 1);
+        counter.add(USER_ID, 3);
+        // 标记一个会话已读，扣减该会话的未读数
+        counter.add(USER_ID, -2);
+
+        assertEquals(Map.of(KEY, 3L), increments);
+    }
+
+    @Test
+    void addIgnoresZeroDeltaAndMissingUser() {
+        counter.add(USER_ID, 0);
+        counter.add(null, 1);
+
+        verify(redisService, never()).executePipelined(any());
+    }
+
+    @Test
+    void addIsAppliedOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            counter.add(USER_ID, 2);
+            counter.reset(USER_ID);
+            verify(redisService, never()).executePipelined(any());
+            verify(redisService, never()).setCacheMapValue(anyString(), anyString(), any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(Map.of(KEY, 2L), increments);
+        verify(redisService).setCacheMapValue(KEY, CHAT_UNREAD_TOTAL_FIELD, 0);
+    }
+
+    @Test
+    void getTotalClampsNegativeCountToZero() {
+        when(redisService.<Long>getCacheMap(anyString(), any()))
+                .thenReturn(Map.of(CHAT_UNREAD_INIT_FIELD, 1L, CHAT_UNREAD_TOTAL_FIELD, -3L));
+
+        assertEquals(0L, counter.getTotal(USER_ID));
+        verify(conversationMapper, never()).sumUnreadCount(any());
+    }
+
+    @Test
+    void getTotalRebuildsWhenInitMarkerMissing() {
+        // HINCRBY 在 Hash 过期后只写出 total 字段，不能当作完整计数
+        when(redisService.<Long>getCacheMap(anyString(), any())).thenReturn(Map.of(CHAT_UNREAD_TOTAL_FIELD, 1L));
+        when(conversationMapper.sumUnreadCount(USER_ID)).thenReturn(5L);
+
+        assertEquals(5L, counter.getTotal(USER_ID));
+        verify(redisService).setHashAll(KEY, Map.of(CHAT_UNREAD_TOTAL_FIELD, 5L, CHAT_UNREAD_INIT_FIELD, 1L));
+        verify(redisService).expire(KEY, CHAT_UNREAD_TTL_SECONDS);
+    }
+
+    @Test
+    void getTotalFallsBackToDbWithoutWritingWhenRedisFails() {
+        when(redisService.<Long>getCacheMap(anyString(), any())).thenThrow(new IllegalStateException("redis down"));
+        when(conversationMapper.sumUnreadCount(USER_ID)).thenReturn(null);
+
+        assertEquals(0L, counter.getTotal(USER_ID));
+        verify(redisService, never()).setHashAll(anyString(), any());
+    }
+
+    private static String string(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,61 @@
+package com.unlimited.sports.globox.user.config;
+
+import com.unlimited.sports.globox.common.constants.RedisKeyConstants;
+import com.unlimited.sports.globox.user.service.RedisService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refresh Token 登记表回填（迁移期）
+ *
+ * 登记表上线前签发的 token 只有旧版索引key，启动时将其写入登记表。
+ * 滚动发布期间旧版本实例仍会签发只写旧版索引的 token，因此每次启动都重新回填（HSETNX，可重复执行），
+ * 不以"已回填"作为关闭旧版索引扫描的依据，扫描开关见 auth.refresh-token.legacy-index-cleanup-enabled。
+ * 同一时刻只有抢到执行锁的实例回填；失败不影响启动
+ */
+@Component
+@Slf4j
+public class RefreshTokenRegistryBackfillRunner implements ApplicationRunner {
+
+    /**
+     * 执行锁的持有时间（分钟），超过后其他实例可重新执行（回填可重复执行）
+     */
+    private static final long LOCK_MINUTES = 30;
+
+    @Autowired
+    private RedisService redisService;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Value("${auth.refresh-token.registry-backfill-enabled:true}")
+    private boolean backfillEnabled;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!backfillEnabled) {
+            return;
+        }
+        if (!Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(
+                RedisKeyConstants.REFRESH_TOKEN_REGISTRY_BACKFILL_LOCK, "1", LOCK_MINUTES, TimeUnit.MINUTES))) {
+            log.info("Refresh Token 登记表回填由其他实例执行，跳过");
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            int added = redisService.backfillRefreshTokenRegistry();
+            log.info("Refresh Token 登记表回填完成：新增登记项={}, 耗时={}ms", added, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Refresh Token 登记表回填失败", e);
+        } finally {
+            stringRedisTemplate.delete(RedisKeyConstants.REFRESH_TOKEN_REGISTRY_BACKFILL_LOCK);
+        }
+    }
+}
@@ -6,6 +6,8 @@ import com.unlimited.sports.globox.common.result.UserAuthCode;
 import com.unlimited.sports.globox.dubbo.user.IUserSearchDataService;
 import com.unlimited.sports.globox.model.auth.entity.UserProfile;
 import com.unlimited.sports.globox.model.auth.vo.UserSyncVo;
+import com.unlimited.sports.globox.model.search.dto.SearchSyncCursor;
+import com.unlimited.sports.globox.model.search.dto.SearchSyncPage;
 import com.unlimited.sports.globox.user.mapper.UserProfileMapper;
 import com.unlimited.sports.globox.user.service.UserProfileService;
 import lombok.extern.slf4j.Slf4j;
@@ -13,8 +15,6 @@ import org.apache.dubbo.config.annotation.DubboService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
-import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -31,26 +31,31 @@ public class UserSearchDataServiceImpl implements IUserSearchDataService {
     private UserProfileMapper userProfileMapper;
 
     @Override
-    public RpcResult<List<UserSyncVo>> syncUserData(LocalDateTime updatedTime) {
+    public RpcResult<SearchSyncPage<UserSyncVo>> syncUserData(SearchSyncCursor cursor, int pageSize) {
         try {
-            log.info("开始同步用户数据: updatedTime={}", updatedTime);
+            int limit = SearchSyncPage.clampPageSize(pageSize);
+            log.info("开始同步用户数据: cursor={}, pageSize={}", cursor, limit);
 
             // 构建查询条件
             LambdaQueryWrapper<UserProfile> queryWrapper = new LambdaQueryWrapper<>();
-            
-            // 如果有更新时间，则增量同步
-            if (updatedTime != null) {
-                queryWrapper.ge(UserProfile::getUpdatedAt, updatedTime);
+
+            // 如果有游标，则按 (updated_at, user_id) 增量同步
+            if (cursor != null && cursor.getUpdatedAt() != null) {
+                long lastId = cursor.getLastId() != null ? cursor.getLastId() : 0L;
+                queryWrapper.and(w -> w.gt(UserProfile::getUpdatedAt, cursor.getUpdatedAt())
+                        .or(o -> o.eq(UserProfile::getUpdatedAt, cursor.getUpdatedAt()).gt(UserProfile::getUserId, lastId)));
             }
-            
+
             // 排除已注销用户（可选，根据业务需求决定是否同步已注销用户）
-             queryWrapper.eq(UserProfile::getCancelled, false);
+            queryWrapper.eq(UserProfile::getCancelled, false);
+            queryWrapper.orderByAsc(UserProfile::getUpdatedAt, UserProfile::getUserId)
+                    .last("LIMIT " + limit);
 
             List<UserProfile> userProfiles = userProfileMapper.selectList(queryWrapper);
 
             if (userProfiles == null || userProfiles.isEmpty()) {
                 log.info("没有需要同步的用户数据");
-                return RpcResult.ok(Collections.emptyList());
+                return RpcResult.ok(SearchSyncPage.empty());
             }
 
             log.info("查询到用户数据: 数量={}", userProfiles.size());
@@ -60,10 +65,15 @@ public class UserSearchDataServiceImpl implements IUserSearchDataService {
                     .map(UserSyncVo::convertToSyncVo)
                     .collect(Collectors.toList());
 
-            return RpcResult.ok(syncVos);
+            UserProfile last = userProfiles.get(userProfiles.size() - 1);
+            return RpcResult.ok(SearchSyncPage.<UserSyncVo>builder()
+                    .records(syncVos)
+                    .nextCursor(new SearchSyncCursor(last.getUpdatedAt(), last.getUserId()))
+                    .hasMore(userProfiles.size() == limit)
+                    .build());
 
         } catch (Exception e) {
-            log.error("同步用户数据异常: updatedTime={}", updatedTime, e);
+            log.error("同步用户数据异常: cursor={}", cursor, e);
             return RpcResult.error(UserAuthCode.SYNC_USER_PROFILE_ERROR);
         }
     }
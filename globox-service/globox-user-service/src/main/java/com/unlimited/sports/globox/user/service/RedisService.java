@@ -95,7 +95,7 @@ public interface RedisService {
     void clearPasswordError(String phone);
 
     /**
-     * 保存Refresh Token（双存储方案）
+     * 保存Refresh Token（校验key + 用户登记表）
      *
      * @param userId        用户ID
      * @param refreshToken  Refresh Token字符串
@@ -121,13 +121,20 @@ public interface RedisService {
     void deleteRefreshToken(String refreshToken, String jwtSecret);
 
     /**
-     * 清除用户的所有Refresh Token
+     * 清除用户的所有Refresh Token（按用户登记表定位，不扫描全库）
      *
      * @param userId 用户ID
      */
     void deleteAllRefreshTokens(Long userId);
     void deleteRefreshTokensByClientType(Long userId, String clientType);
 
+    /**
+     * 将登记表上线前签发、只有旧版索引key的 Refresh Token 回填到用户登记表（一次性迁移，可重复执行）
+     *
+     * @return 新写入登记表的 token 数
+     */
+    int backfillRefreshTokenRegistry();
+
     /**
      * 保存 Access Token 的 jti（用于单点登录控制）
      *
@@ -214,4 +221,12 @@ public interface RedisService {
     long increment(String key, long expireSeconds);
 
     void clearSmsRateLimit(String phone);
+
+    /**
+     * 失效各服务共享的用户基础信息缓存（删除 Redis 缓存并广播变更通知）
+     * 当前有事务时在提交后执行，避免其他服务在提交前回源读到旧数据
+     *
+     * @param userId 用户ID
+     */
+    void evictUserInfoCache(Long userId);
 }
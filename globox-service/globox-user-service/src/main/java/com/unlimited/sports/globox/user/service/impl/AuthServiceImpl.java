@@ -1572,6 +1572,7 @@ public class AuthServiceImpl implements AuthService {
                 .set(UserProfile::getMental, DEFAULT_MENTAL)
                 .set(UserProfile::getCancelled, true);
         userProfileMapper.update(null, updateWrapper);
+        redisService.evictUserInfoCache(userId);
         cancelUserProfileRelations(userId);
     }
 
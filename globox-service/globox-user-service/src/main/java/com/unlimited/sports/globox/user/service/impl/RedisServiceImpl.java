@@ -6,15 +6,24 @@ import com.unlimited.sports.globox.common.constants.RedisKeyConstants;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 
+import javax.annotation.PreDestroy;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Redis服务实现
@@ -26,9 +35,46 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 public class RedisServiceImpl implements RedisService {
 
+    /**
+     * 登记表 value 中客户端类型与过期时间的分隔符
+     */
+    private static final String REGISTRY_VALUE_SEPARATOR = "|";
+
+    /**
+     * 扫描旧版索引key时每次 SCAN 的 COUNT 提示值
+     */
+    private static final long LEGACY_SCAN_COUNT = 1000;
+
     @Autowired
     private StringRedisTemplate stringRedisTemplate;
 
+    /**
+     * 是否在批量撤销时扫描清理旧版索引key
+     * 滚动发布期间旧版本实例签发的 token 只写旧版索引，回填（{@link #backfillRefreshTokenRegistry()}）之后仍可能新增，
+     * 因此默认开启；须在最后一个旧版本实例下线、且再经过一个 Refresh Token 有效期（user.jwt.refresh-token-expire）后才能关闭
+     */
+    @Value("${auth.refresh-token.legacy-index-cleanup-enabled:true}")
+    private boolean legacyIndexCleanupEnabled;
+
+    /**
+     * 用户信息缓存延迟二次删除的间隔（毫秒）
+     * 需大于其他服务一次回源（batchGetUserInfo RPC + 回写 Redis）的耗时：
+     * 回源在资料提交前读到旧值、在第一次删除之后才回写时，由第二次删除清掉
+     */
+    @Value("${globox.user-info-cache.evict-delay-millis:2000}")
+    private long userInfoEvictDelayMillis;
+
+    private final ScheduledExecutorService userInfoEvictScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "user-info-cache-evict");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    public void destroy() {
+        userInfoEvictScheduler.shutdown();
+    }
+
     @Override
     public void saveSmsCode(String phone, String code, long expireSeconds) {
         String key = RedisKeyConstants.SMS_CODE_PREFIX + phone;
@@ -108,25 +154,38 @@ public class RedisServiceImpl implements RedisService {
 
     @Override
     public void saveRefreshToken(Long userId, String refreshToken, long expireSeconds) {
+        saveRefreshTokenWithClient(userId, refreshToken, expireSeconds, null);
+    }
+
+    @Override
+    public void saveRefreshTokenWithClient(Long userId, String refreshToken, long expireSeconds, String clientType) {
         String hash = sha256(refreshToken);
         String userIdStr = String.valueOf(userId);
-        // 双存储：校验用key存储userId，批量删除用key存储1
         String checkKey = RedisKeyConstants.REFRESH_TOKEN_PREFIX + hash;
-        String userIndexKey = RedisKeyConstants.REFRESH_TOKEN_USER_PREFIX + userIdStr + ":" + hash;
+        String registryKey = RedisKeyConstants.REFRESH_TOKEN_REGISTRY_PREFIX + userIdStr;
+        long now = System.currentTimeMillis() / 1000;
+
+        // 校验用key存储userId；登记表记录 token 哈希 -> 客户端类型和过期时间，批量撤销时据此定位
         stringRedisTemplate.opsForValue().set(checkKey, userIdStr, expireSeconds, TimeUnit.SECONDS);
-        stringRedisTemplate.opsForValue().set(userIndexKey, "1", expireSeconds, TimeUnit.SECONDS);
-    }
+        stringRedisTemplate.opsForHash().put(registryKey, hash,
+                (StringUtils.hasText(clientType) ? clientType : "") + REGISTRY_VALUE_SEPARATOR + (now + expireSeconds));
+
+        // 顺带清理已过期的登记项，避免登记表随登录次数增长
+        List<Object> expiredHashes = new ArrayList<>();
+        stringRedisTemplate.opsForHash().entries(registryKey).forEach((field, value) -> {
+            if (registryExpireAt(String.valueOf(value)) <= now) {
+                expiredHashes.add(field);
+            }
+        });
+        if (!expiredHashes.isEmpty()) {
+            stringRedisTemplate.opsForHash().delete(registryKey, expiredHashes.toArray());
+        }
 
-    @Override
-    public void saveRefreshTokenWithClient(Long userId, String refreshToken, long expireSeconds, String clientType) {
-        saveRefreshToken(userId, refreshToken, expireSeconds);
-        if (!StringUtils.hasText(clientType)) {
-            return;
+        // 登记表的过期时间不短于其中最晚过期的 token
+        Long ttl = stringRedisTemplate.getExpire(registryKey, TimeUnit.SECONDS);
+        if (ttl == null || ttl < expireSeconds) {
+            stringRedisTemplate.expire(registryKey, expireSeconds, TimeUnit.SECONDS);
         }
-        String hash = sha256(refreshToken);
-        String key = RedisKeyConstants.REFRESH_TOKEN_USER_CLIENT_PREFIX
-                + userId + ":" + clientType + ":" + hash;
-        stringRedisTemplate.opsForValue().set(key, "1", expireSeconds, TimeUnit.SECONDS);
     }
 
     @Override
@@ -143,11 +202,11 @@ public class RedisServiceImpl implements RedisService {
             // 从token中解析userId（使用传入的secret）
             String userId = JwtUtil.getSubject(refreshToken, jwtSecret);
             String hash = sha256(refreshToken);
-            // 删除两个key
+            // 删除校验key（及旧版索引key）并移出登记表
             String checkKey = RedisKeyConstants.REFRESH_TOKEN_PREFIX + hash;
             String userIndexKey = RedisKeyConstants.REFRESH_TOKEN_USER_PREFIX + userId + ":" + hash;
-            stringRedisTemplate.delete(checkKey);
-            stringRedisTemplate.delete(userIndexKey);
+            stringRedisTemplate.unlink(List.of(checkKey, userIndexKey));
+            stringRedisTemplate.opsForHash().delete(RedisKeyConstants.REFRESH_TOKEN_REGISTRY_PREFIX + userId, hash);
         } catch (Exception e) {
             log.warn("删除Refresh Token失败，token可能已过期或无效：{}", e.getMessage());
         }
@@ -157,6 +216,7 @@ public class RedisServiceImpl implements RedisService {
     public void saveAccessTokenJti(Long userId, String clientType, String jti, long expireSeconds) {
         String key = RedisKeyConstants.ACCESS_TOKEN_JTI_PREFIX + clientType + ":" + userId;
         stringRedisTemplate.opsForValue().set(key, jti, expireSeconds, TimeUnit.SECONDS);
+        publishAccessTokenJtiChanged(key);
     }
 
     @Override
@@ -169,6 +229,61 @@ public class RedisServiceImpl implements RedisService {
     public void deleteAccessTokenJti(Long userId, String clientType) {
         String key = RedisKeyConstants.ACCESS_TOKEN_JTI_PREFIX + clientType + ":" + userId;
         stringRedisTemplate.delete(key);
+        publishAccessTokenJtiChanged(key);
+    }
+
+    /**
+     * 通知网关 JTI 已变更，使其立即失效本地缓存
+     * 通知失败不影响登录/登出，网关缓存最迟在过期后重新读取
+     */
+    private void publishAccessTokenJtiChanged(String key) {
+        try {
+            stringRedisTemplate.convertAndSend(RedisKeyConstants.ACCESS_TOKEN_JTI_CHANNEL, key);
+        } catch (Exception e) {
+            log.warn("发布JTI变更通知失败，网关将在本地缓存过期后生效：key={}, error={}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void evictUserInfoCache(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doEvictUserInfoCache(userId);
+                }
+            });
+        } else {
+            doEvictUserInfoCache(userId);
+        }
+    }
+
+    /**
+     * 立即删除一次，延迟后再删除一次（延迟双删），两次都广播变更通知使各服务失效本地缓存
+     */
+    private void doEvictUserInfoCache(Long userId) {
+        deleteUserInfoCache(userId);
+        try {
+            userInfoEvictScheduler.schedule(() -> deleteUserInfoCache(userId),
+                    userInfoEvictDelayMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.warn("提交用户信息缓存延迟删除失败：userId={}, error={}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * 失败只记录日志，各服务缓存最迟在过期后刷新
+     */
+    private void deleteUserInfoCache(Long userId) {
+        try {
+            stringRedisTemplate.delete(RedisKeyConstants.USER_INFO_CACHE_PREFIX + userId);
+            stringRedisTemplate.convertAndSend(RedisKeyConstants.USER_INFO_CHANGED_CHANNEL, String.valueOf(userId));
+        } catch (Exception e) {
+            log.warn("失效用户信息缓存失败，将在缓存过期后生效：userId={}, error={}", userId, e.getMessage());
+        }
     }
 
     @Override
@@ -220,21 +335,7 @@ public class RedisServiceImpl implements RedisService {
 
     @Override
     public void deleteAllRefreshTokens(Long userId) {
-        // 通过userId索引查找所有refresh token
-        String pattern = RedisKeyConstants.REFRESH_TOKEN_USER_PREFIX + String.valueOf(userId) + ":*";
-        Set<String> userIndexKeys = stringRedisTemplate.keys(pattern);
-        if (userIndexKeys != null && !userIndexKeys.isEmpty()) {
-            // 从索引key中提取hash，删除对应的校验key
-            for (String userIndexKey : userIndexKeys) {
-                // 提取hash：refresh_token:user:{userId}:{hash}
-                String hash = userIndexKey.substring(userIndexKey.lastIndexOf(":") + 1);
-                String checkKey = RedisKeyConstants.REFRESH_TOKEN_PREFIX + hash;
-                stringRedisTemplate.delete(checkKey);
-            }
-            // 删除所有索引key
-            stringRedisTemplate.delete(userIndexKeys);
-            log.info("清除用户所有Refresh Token：userId={}, count={}", userId, userIndexKeys.size());
-        }
+        revokeRefreshTokens(userId, null);
     }
 
 
@@ -243,22 +344,151 @@ public class RedisServiceImpl implements RedisService {
         if (!StringUtils.hasText(clientType)) {
             return;
         }
-        String pattern = RedisKeyConstants.REFRESH_TOKEN_USER_CLIENT_PREFIX
-                + userId + ":" + clientType + ":*";
-        Set<String> clientIndexKeys = stringRedisTemplate.keys(pattern);
-        if (clientIndexKeys == null || clientIndexKeys.isEmpty()) {
-            return;
+        revokeRefreshTokens(userId, clientType);
+    }
+
+    /**
+     * 按登记表批量撤销 Refresh Token：一次 HGETALL 定位 token，一次 UNLINK 删除
+     *
+     * @param userId     用户ID
+     * @param clientType 客户端类型，为 null 时撤销全部
+     */
+    private void revokeRefreshTokens(Long userId, String clientType) {
+        String registryKey = RedisKeyConstants.REFRESH_TOKEN_REGISTRY_PREFIX + userId;
+        List<Object> hashes = new ArrayList<>();
+        stringRedisTemplate.opsForHash().entries(registryKey).forEach((field, value) -> {
+            if (clientType == null || clientType.equals(registryClientType(String.valueOf(value)))) {
+                hashes.add(field);
+            }
+        });
+
+        List<String> keys = new ArrayList<>();
+        hashes.forEach(hash -> keys.add(RedisKeyConstants.REFRESH_TOKEN_PREFIX + hash));
+        int legacyCount = 0;
+        if (legacyIndexCleanupEnabled) {
+            List<String> legacyKeys = collectLegacyRefreshTokenKeys(userId, clientType);
+            legacyCount = legacyKeys.size();
+            keys.addAll(legacyKeys);
         }
-        for (String clientIndexKey : clientIndexKeys) {
-            String hash = clientIndexKey.substring(clientIndexKey.lastIndexOf(":") + 1);
-            String checkKey = RedisKeyConstants.REFRESH_TOKEN_PREFIX + hash;
-            String userIndexKey = RedisKeyConstants.REFRESH_TOKEN_USER_PREFIX + userId + ":" + hash;
-            stringRedisTemplate.delete(checkKey);
-            stringRedisTemplate.delete(userIndexKey);
+        if (clientType == null) {
+            keys.add(registryKey);
+        } else if (!hashes.isEmpty()) {
+            stringRedisTemplate.opsForHash().delete(registryKey, hashes.toArray());
+        }
+        if (!keys.isEmpty()) {
+            stringRedisTemplate.unlink(keys);
+        }
+        log.info("清除用户Refresh Token：userId={}, clientType={}, count={}, legacyKeys={}",
+                userId, clientType, hashes.size(), legacyCount);
+    }
+
+    /**
+     * 迁移期兼容：登记表上线前签发的 token 只有旧版索引key，用 SCAN（不阻塞 Redis）找出其索引key和校验key
+     * 仅在 auth.refresh-token.legacy-index-cleanup-enabled 开启时使用，旧版索引全部过期后即可关闭
+     */
+    private List<String> collectLegacyRefreshTokenKeys(Long userId, String clientType) {
+        List<String> keys = new ArrayList<>();
+        if (clientType == null) {
+            scanKeys(RedisKeyConstants.REFRESH_TOKEN_USER_PREFIX + userId + ":*", userIndexKey -> {
+                String hash = userIndexKey.substring(userIndexKey.lastIndexOf(":") + 1);
+                keys.add(userIndexKey);
+                keys.add(RedisKeyConstants.REFRESH_TOKEN_PREFIX + hash);
+            });
+        } else {
+            scanKeys(RedisKeyConstants.REFRESH_TOKEN_USER_CLIENT_PREFIX + userId + ":" + clientType + ":*",
+                    clientIndexKey -> {
+                        String hash = clientIndexKey.substring(clientIndexKey.lastIndexOf(":") + 1);
+                        keys.add(clientIndexKey);
+                        keys.add(RedisKeyConstants.REFRESH_TOKEN_PREFIX + hash);
+                        keys.add(RedisKeyConstants.REFRESH_TOKEN_USER_PREFIX + userId + ":" + hash);
+                    });
+        }
+        return keys;
+    }
+
+    /**
+     * 依次扫描旧版客户端索引和用户索引，按校验key的剩余有效期写入登记表
+     * 先处理客户端索引，带客户端类型的登记项不会被随后的用户索引覆盖（HSETNX）
+     */
+    @Override
+    public int backfillRefreshTokenRegistry() {
+        int[] added = {0};
+        String clientPrefix = RedisKeyConstants.REFRESH_TOKEN_USER_CLIENT_PREFIX;
+        scanKeys(clientPrefix + "*", clientIndexKey -> {
+            // 格式：前缀 + userId:clientType:hash
+            String rest = clientIndexKey.substring(clientPrefix.length());
+            int first = rest.indexOf(':');
+            int last = rest.lastIndexOf(':');
+            if (first <= 0 || last <= first) {
+                return;
+            }
+            if (registerLegacyRefreshToken(rest.substring(0, first), rest.substring(last + 1),
+                    rest.substring(first + 1, last))) {
+                added[0]++;
+            }
+        });
+        String userPrefix = RedisKeyConstants.REFRESH_TOKEN_USER_PREFIX;
+        scanKeys(userPrefix + "*", userIndexKey -> {
+            // 格式：前缀 + userId:hash
+            String rest = userIndexKey.substring(userPrefix.length());
+            int separator = rest.indexOf(':');
+            if (separator <= 0) {
+                return;
+            }
+            if (registerLegacyRefreshToken(rest.substring(0, separator), rest.substring(separator + 1), "")) {
+                added[0]++;
+            }
+        });
+        return added[0];
+    }
+
+    /**
+     * 校验key仍有效时写入登记表（已存在的登记项不覆盖），并保证登记表过期时间不短于该 token
+     *
+     * @return 是否新写入了登记项
+     */
+    private boolean registerLegacyRefreshToken(String userId, String hash, String clientType) {
+        Long ttl = stringRedisTemplate.getExpire(RedisKeyConstants.REFRESH_TOKEN_PREFIX + hash, TimeUnit.SECONDS);
+        if (ttl == null || ttl <= 0) {
+            // 校验key已过期或已删除，token 不再有效
+            return false;
+        }
+        String registryKey = RedisKeyConstants.REFRESH_TOKEN_REGISTRY_PREFIX + userId;
+        long expireAt = System.currentTimeMillis() / 1000 + ttl;
+        boolean added = Boolean.TRUE.equals(stringRedisTemplate.opsForHash()
+                .putIfAbsent(registryKey, hash, clientType + REGISTRY_VALUE_SEPARATOR + expireAt));
+        Long registryTtl = stringRedisTemplate.getExpire(registryKey, TimeUnit.SECONDS);
+        if (registryTtl == null || registryTtl < ttl) {
+            stringRedisTemplate.expire(registryKey, ttl, TimeUnit.SECONDS);
+        }
+        return added;
+    }
+
+    private void scanKeys(String pattern, Consumer<String> consumer) {
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(LEGACY_SCAN_COUNT).build();
+        try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+            cursor.forEachRemaining(consumer);
+        }
+    }
+
+    /**
+     * 登记项 value（clientType|expireAt）中的客户端类型，没有分隔符时为空
+     */
+    static String registryClientType(String value) {
+        int index = value.lastIndexOf(REGISTRY_VALUE_SEPARATOR);
+        return index < 0 ? "" : value.substring(0, index);
+    }
+
+    /**
+     * 登记项 value（clientType|expireAt）中的过期时间（秒），无法解析时返回0，按已过期处理
+     */
+    static long registryExpireAt(String value) {
+        int index = value.lastIndexOf(REGISTRY_VALUE_SEPARATOR);
+        try {
+            return Long.parseLong(value.substring(index + 1));
+        } catch (NumberFormatException e) {
+            return 0L;
         }
-        stringRedisTemplate.delete(clientIndexKeys);
-        log.info("Cleared refresh tokens by clientType: userId={}, clientType={}, count={}",
-                userId, clientType, clientIndexKeys.size());
     }
 
     /**
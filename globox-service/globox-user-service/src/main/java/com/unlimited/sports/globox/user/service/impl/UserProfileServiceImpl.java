@@ -47,6 +47,7 @@ import com.unlimited.sports.globox.user.mapper.UserStyleTagMapper;
 import com.unlimited.sports.globox.user.prop.UserProfileDefaultProperties;
 import com.unlimited.sports.globox.user.service.FileUploadService;
 import com.unlimited.sports.globox.user.service.PortraitMattingService;
+import com.unlimited.sports.globox.user.service.RedisService;
 import com.unlimited.sports.globox.user.service.UserProfileService;
 import com.unlimited.sports.globox.user.util.UserSyncMQSender;
 import lombok.extern.slf4j.Slf4j;
@@ -123,6 +124,9 @@ public class UserProfileServiceImpl implements UserProfileService {
     @Autowired
     private UserSyncMQSender userSyncMQSender;
 
+    @Autowired
+    private RedisService redisService;
+
     @Value("${user.globox-no.cooldown-seconds:5184000}")
     private long globoxNoCooldownSeconds;
 
@@ -561,6 +565,8 @@ public class UserProfileServiceImpl implements UserProfileService {
 
         if (needUpdate) {
             userProfileMapper.updateById(profile);
+            // 昵称、头像等变更后失效各服务的用户信息缓存
+            redisService.evictUserInfoCache(userId);
         }
 
         // 5. 再更新球拍列表（如果提供）
@@ -0,0 +1,188 @@
+package com.unlimited.sports.globox.user.service.impl;
+
+import com.unlimited.sports.globox.common.constants.RedisKeyConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * RedisServiceImpl 测试：Refresh Token 登记表（token 哈希 -> clientType|expireAt）的解析与使用、用户信息缓存失效
+ */
+class RedisServiceImplTest {
+
+    private static final Long USER_ID = 7L;
+
+    private static final String REGISTRY_KEY = RedisKeyConstants.REFRESH_TOKEN_REGISTRY_PREFIX + USER_ID;
+
+    private RedisServiceImpl redisService;
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        hashOperations = mock(HashOperations.class);
+        doReturn(hashOperations).when(stringRedisTemplate).opsForHash();
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        redisService = new RedisServiceImpl();
+        ReflectionTestUtils.setField(redisService, "stringRedisTemplate", stringRedisTemplate);
+    }
+
+    @Test
+    void registryClientTypeIsTextBeforeLastSeparator() {
+        assertEquals("app", RedisServiceImpl.registryClientType("app|1700000000"));
+        assertEquals("", RedisServiceImpl.registryClientType("|1700000000"));
+        assertEquals("third|party", RedisServiceImpl.registryClientType("third|party|1700000000"));
+        assertEquals("", RedisServiceImpl.registryClientType("1700000000"));
+    }
+
+    @Test
+    void registryExpireAtIsNumberAfterLastSeparator() {
+        assertEquals(1700000000L, RedisServiceImpl.registryExpireAt("app|1700000000"));
+        assertEquals(1700000000L, RedisServiceImpl.registryExpireAt("|1700000000"));
+        assertEquals(1700000000L, RedisServiceImpl.registryExpireAt("third|party|1700000000"));
+    }
+
+    @Test
+    void unparseableExpireAtCountsAsExpired() {
+        assertEquals(0L, RedisServiceImpl.registryExpireAt("app|"));
+        assertEquals(0L, RedisServiceImpl.registryExpireAt("app|soon"));
+        assertEquals(0L, RedisServiceImpl.registryExpireAt("app"));
+        assertEquals(0L, RedisServiceImpl.registryExpireAt(""));
+    }
+
+    @Test
+    void savePrunesExpiredAndMalformedEntries() {
+        long now = System.currentTimeMillis() / 1000;
+        Map<Object, Object> entries = new LinkedHashMap<>();
+        entries.put("valid", "app|" + (now + 3600));
+        entries.put("expired", "app|" + (now - 1));
+        entries.put("malformed", "app|soon");
+        when(hashOperations.entries(REGISTRY_KEY)).thenReturn(entries);
+
+        redisService.saveRefreshTokenWithClient(USER_ID, "token", 3600, "app");
+
+        verify(hashOperations).delete(REGISTRY_KEY, "expired", "malformed");
+        verify(stringRedisTemplate).expire(REGISTRY_KEY, 3600L, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void saveStoresClientTypeAndExpireAt() {
+        when(hashOperations.entries(REGISTRY_KEY)).thenReturn(Map.of());
+        long before = System.currentTimeMillis() / 1000;
+
+        redisService.saveRefreshTokenWithClient(USER_ID, "token", 3600, null);
+
+        ArgumentCaptor<Object> value = ArgumentCaptor.forClass(Object.class);
+        verify(hashOperations).put(eq(REGISTRY_KEY), anyString(), value.capture());
+        String stored = (String) value.getValue();
+        assertEquals("", RedisServiceImpl.registryClientType(stored));
+        long expireAt = RedisServiceImpl.registryExpireAt(stored);
+        assertTrue(expireAt >= before + 3600 && expireAt <= System.currentTimeMillis() / 1000 + 3600,
+                () -> "expireAt=" + expireAt);
+        verify(hashOperations, never()).delete(anyString(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void revokeByClientTypeMatchesParsedClientTypeOnly() {
+        Map<Object, Object> entries = new LinkedHashMap<>();
+        entries.put("h1", "app|1700000000");
+        entries.put("h2", "mini|1700000000");
+        entries.put("h3", "|1700000000");
+        entries.put("h4", "third|app|1700000000");
+        when(hashOperations.entries(REGISTRY_KEY)).thenReturn(entries);
+
+        redisService.deleteRefreshTokensByClientType(USER_ID, "app");
+
+        ArgumentCaptor<Collection<String>> keys = ArgumentCaptor.forClass(Collection.class);
+        verify(stringRedisTemplate).unlink(keys.capture());
+        assertEquals(List.of(RedisKeyConstants.REFRESH_TOKEN_PREFIX + "h1"), List.copyOf(keys.getValue()));
+        verify(hashOperations).delete(REGISTRY_KEY, "h1");
+        verify(stringRedisTemplate, never()).scan(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void revokeAlsoDropsLegacyIndexedTokensWhileCleanupEnabled() {
+        // 滚动发布期间旧版本实例签发的 token 只有旧版索引，不在登记表中
+        ReflectionTestUtils.setField(redisService, "legacyIndexCleanupEnabled", true);
+        when(hashOperations.entries(REGISTRY_KEY)).thenReturn(Map.of());
+        Cursor<String> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenReturn(true, false);
+        when(cursor.next()).thenReturn(RedisKeyConstants.REFRESH_TOKEN_USER_PREFIX + USER_ID + ":old");
+        doCallRealMethod().when(cursor).forEachRemaining(any());
+        when(stringRedisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
+
+        redisService.deleteAllRefreshTokens(USER_ID);
+
+        ArgumentCaptor<Collection<String>> keys = ArgumentCaptor.forClass(Collection.class);
+        verify(stringRedisTemplate).unlink(keys.capture());
+        assertEquals(List.of(RedisKeyConstants.REFRESH_TOKEN_USER_PREFIX + USER_ID + ":old",
+                RedisKeyConstants.REFRESH_TOKEN_PREFIX + "old", REGISTRY_KEY), List.copyOf(keys.getValue()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void revokeAllDropsEveryEntryAndTheRegistry() {
+        Map<Object, Object> entries = new LinkedHashMap<>();
+        entries.put("h1", "app|1700000000");
+        entries.put("h2", "garbage");
+        when(hashOperations.entries(REGISTRY_KEY)).thenReturn(entries);
+
+        redisService.deleteAllRefreshTokens(USER_ID);
+
+        ArgumentCaptor<Collection<String>> keys = ArgumentCaptor.forClass(Collection.class);
+        verify(stringRedisTemplate).unlink(keys.capture());
+        assertEquals(List.of(RedisKeyConstants.REFRESH_TOKEN_PREFIX + "h1", RedisKeyConstants.REFRESH_TOKEN_PREFIX + "h2",
+                REGISTRY_KEY), List.copyOf(keys.getValue()));
+        verify(hashOperations, never()).delete(anyString(), any());
+        verify(stringRedisTemplate, never()).expire(anyString(), anyLong(), any());
+    }
+
+    @Test
+    void userInfoEvictionDeletesAgainAfterDelay() {
+        ReflectionTestUtils.setField(redisService, "userInfoEvictDelayMillis", 50L);
+        String key = RedisKeyConstants.USER_INFO_CACHE_PREFIX + USER_ID;
+
+        redisService.evictUserInfoCache(USER_ID);
+
+        // 立即删除一次，延迟后再删除一次，两次都广播变更
+        verify(stringRedisTemplate, timeout(2000).times(2)).delete(key);
+        verify(stringRedisTemplate, timeout(2000).times(2))
+                .convertAndSend(RedisKeyConstants.USER_INFO_CHANGED_CHANNEL, String.valueOf(USER_ID));
+        redisService.destroy();
+    }
+}
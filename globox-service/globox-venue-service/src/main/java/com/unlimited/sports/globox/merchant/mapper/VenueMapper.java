@@ -39,8 +39,11 @@ public interface VenueMapper extends BaseMapper<Venue> {
 
     /**
      * 搜索场馆（V2版本 - 数据库层面过滤和排序）
-     * 支持多条件筛选：关键词、场地数量、距离等
-     * 价格过滤已在Java层面预处理，通过priceQualifiedVenueIds传入
+     * 支持多条件筛选：关键词、场地数量、距离、价格等
+     * 价格筛选：场馆默认模板的启用时段中存在落在区间内的价格；价格排序基于 venues.min_price 价格摘要
+     * 距离筛选先用边界框（minLat/maxLat/minLng/maxLng）预筛选，再对候选行计算精确距离
+     * 指定预订时段时只在 candidateVenueIds（时段内可预订的场馆）中搜索
+     * 传入 cursorDistance/cursorVenueId 时按距离游标翻页
      */
     List<Map<String, Object>> searchVenues(
             @Param("keyword") String keyword,
@@ -49,12 +52,19 @@ public interface VenueMapper extends BaseMapper<Venue> {
             @Param("userLat") Double userLat,
             @Param("userLng") Double userLng,
             @Param("maxDistance") Double maxDistance,
+            @Param("minLat") Double minLat,
+            @Param("maxLat") Double maxLat,
+            @Param("minLng") Double minLng,
+            @Param("maxLng") Double maxLng,
+            @Param("cursorDistance") Double cursorDistance,
+            @Param("cursorVenueId") Long cursorVenueId,
             @Param("sortBy") String sortBy,
             @Param("sortOrder") Integer sortOrder,
             @Param("facilityVenueIds") List<Long> facilityVenueIds,
             @Param("courtTypeVenueIds") List<Long> courtTypeVenueIds,
-            @Param("unavailableVenueIds") List<Long> unavailableVenueIds,
-            @Param("priceQualifiedVenueIds") List<Long> priceQualifiedVenueIds,
+            @Param("candidateVenueIds") List<Long> candidateVenueIds,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice,
             @Param("offset") int offset,
             @Param("pageSize") int pageSize
     );
@@ -63,7 +73,7 @@ public interface VenueMapper extends BaseMapper<Venue> {
 
     /**
      * 统计搜索场馆总数
-     * 价格过滤已在Java层面预处理，通过priceQualifiedVenueIds传入
+     * 价格筛选与 searchVenues 相同
      */
     long countSearchVenues(
             @Param("keyword") String keyword,
@@ -72,10 +82,15 @@ public interface VenueMapper extends BaseMapper<Venue> {
             @Param("userLat") Double userLat,
             @Param("userLng") Double userLng,
             @Param("maxDistance") Double maxDistance,
+            @Param("minLat") Double minLat,
+            @Param("maxLat") Double maxLat,
+            @Param("minLng") Double minLng,
+            @Param("maxLng") Double maxLng,
             @Param("facilityVenueIds") List<Long> facilityVenueIds,
             @Param("courtTypeVenueIds") List<Long> courtTypeVenueIds,
-            @Param("unavailableVenueIds") List<Long> unavailableVenueIds,
-            @Param("priceQualifiedVenueIds") List<Long> priceQualifiedVenueIds
+            @Param("candidateVenueIds") List<Long> candidateVenueIds,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice
     );
 
     /**
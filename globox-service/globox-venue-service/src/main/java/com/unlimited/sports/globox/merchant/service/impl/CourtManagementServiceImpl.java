@@ -14,6 +14,7 @@ import com.unlimited.sports.globox.model.merchant.entity.Court;
 import com.unlimited.sports.globox.model.merchant.entity.Venue;
 import com.unlimited.sports.globox.model.merchant.vo.MerchantVenueBasicInfo;
 import com.unlimited.sports.globox.model.merchant.vo.MerchantVenueDetailVo;
+import com.unlimited.sports.globox.venue.service.IVenueSlotGridService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -37,6 +38,7 @@ public class CourtManagementServiceImpl implements CourtManagementService {
 
     private final CourtMapper courtMapper;
     private final VenueMapper venueMapper;
+    private final IVenueSlotGridService venueSlotGridService;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -62,6 +64,7 @@ public class CourtManagementServiceImpl implements CourtManagementService {
         Court insertedCourt = courtMapper.selectById(court.getCourtId());
 
         log.info("创建场地成功，场地ID：{}，场馆ID：{}", insertedCourt.getCourtId(), createDTO.getVenueId());
+        venueSlotGridService.evictVenue(createDTO.getVenueId());
         return convertToVO(insertedCourt);
     }
 
@@ -99,6 +102,7 @@ public class CourtManagementServiceImpl implements CourtManagementService {
         }).collect(Collectors.toList());
 
         log.info("批量创建场地成功，场馆ID：{}，创建数量：{}", venueId, resultVos.size());
+        venueSlotGridService.evictVenue(venueId);
         return resultVos;
     }
 
@@ -128,6 +132,7 @@ public class CourtManagementServiceImpl implements CourtManagementService {
         Court latestCourt = courtMapper.selectById(updateDTO.getCourtId());
 
         log.info("更新场地成功，场地ID：{}", updateDTO.getCourtId());
+        venueSlotGridService.evictVenue(court.getVenueId());
         return convertToVO(latestCourt);
     }
 
@@ -152,6 +157,7 @@ public class CourtManagementServiceImpl implements CourtManagementService {
         courtMapper.deleteById(courtId);
 
         log.info("删除场地成功，场地ID：{}", courtId);
+        venueSlotGridService.evictVenue(court.getVenueId());
     }
 
     @Override
@@ -190,6 +196,7 @@ public class CourtManagementServiceImpl implements CourtManagementService {
         courtMapper.updateById(court);
 
         log.info("切换场地状态成功，场地ID：{}，状态：{}", courtId, status);
+        venueSlotGridService.evictVenue(court.getVenueId());
         return convertToVO(court);
     }
 
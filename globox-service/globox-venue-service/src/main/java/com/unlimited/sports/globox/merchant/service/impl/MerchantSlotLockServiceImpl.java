@@ -2,6 +2,7 @@ package com.unlimited.sports.globox.merchant.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.unlimited.sports.globox.common.exception.GloboxApplicationException;
+import com.unlimited.sports.globox.common.lock.BatchLock;
 import com.unlimited.sports.globox.common.lock.RedisDistributedLock;
 import com.unlimited.sports.globox.common.utils.IdGenerator;
 import com.unlimited.sports.globox.merchant.mapper.*;
@@ -10,9 +11,9 @@ import com.unlimited.sports.globox.model.merchant.entity.*;
 import com.unlimited.sports.globox.model.merchant.enums.SlotRecordStatusEnum;
 import com.unlimited.sports.globox.model.merchant.vo.LockedSlotVo;
 import com.unlimited.sports.globox.venue.constants.BookingCacheConstants;
+import com.unlimited.sports.globox.venue.service.IVenueSlotGridService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.redisson.api.RLock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,6 +21,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -36,6 +38,7 @@ public class MerchantSlotLockServiceImpl implements MerchantSlotLockService {
     private final CourtMapper courtMapper;
     private final VenueMapper venueMapper;
     private final RedisDistributedLock redisDistributedLock;
+    private final IVenueSlotGridService venueSlotGridService;
 
     @Autowired
     private final IdGenerator idGenerator;
@@ -50,12 +53,12 @@ public class MerchantSlotLockServiceImpl implements MerchantSlotLockService {
         String lockKey = buildLockKey(templateId, bookingDate);
         List<String> lockKeys = List.of(lockKey);
 
-        List<RLock> locks = null;
+        BatchLock batchLock = null;
 
         try {
             // 3. 获取分布式锁
-            locks = redisDistributedLock.tryLockMultiple(lockKeys, 1, -1L, TimeUnit.SECONDS);
-            if (locks == null) {
+            batchLock = redisDistributedLock.tryLockBatch(lockKeys, 1, -1L, TimeUnit.SECONDS);
+            if (!batchLock.isLocked()) {
                 log.warn("获取分布式锁失败 - merchantId: {}, templateId: {}, date: {}",
                         merchantId, templateId, bookingDate);
                 throw new GloboxApplicationException("该时段正在被操作，请稍后重试");
@@ -71,8 +74,8 @@ public class MerchantSlotLockServiceImpl implements MerchantSlotLockService {
 
         } finally {
             // 5. 释放锁（无论事务成功还是失败）
-            if (locks != null) {
-                redisDistributedLock.unlockMultiple(locks);
+            if (batchLock != null) {
+                redisDistributedLock.unlockBatch(batchLock);
                 log.info("【锁包事务】释放分布式锁 - merchantId: {}", merchantId);
             }
         }
@@ -137,6 +140,10 @@ public class MerchantSlotLockServiceImpl implements MerchantSlotLockService {
 
         log.info("商家ID: {} 锁定了模板ID: {}, 日期: {}, 原因: {}, 使用人: {} ({}), 批次ID: {}",
                 merchantId, templateId, bookingDate, reason, userName, userPhone, batchId);
+
+        // 事务提交后增量更新槽位网格
+        venueSlotGridService.occupySlots(resolveVenueId(template), bookingDate, UNAVAILABLE.getCode(),
+                record.getOperatorId(), Map.of(templateId, record.getBookingSlotRecordId()));
     }
 
     @Override
@@ -165,12 +172,12 @@ public class MerchantSlotLockServiceImpl implements MerchantSlotLockService {
                 .map(templateId -> buildLockKey(templateId, bookingDate))
                 .collect(Collectors.toList());
 
-        List<RLock> locks = null;
+        BatchLock batchLock = null;
 
         try {
             // 4. 批量获取所有时段的锁
-            locks = redisDistributedLock.tryLockMultiple(lockKeys, 1, -1L, TimeUnit.SECONDS);
-            if (locks == null) {
+            batchLock = redisDistributedLock.tryLockBatch(lockKeys, 1, -1L, TimeUnit.SECONDS);
+            if (!batchLock.isLocked()) {
                 log.warn("批量获取分布式锁失败 - merchantId: {}, 时段数: {}",
                         merchantId, templateIds.size());
                 throw new GloboxApplicationException("部分时段正在被操作，请稍后重试");
@@ -187,8 +194,8 @@ public class MerchantSlotLockServiceImpl implements MerchantSlotLockService {
 
         } finally {
             // 6. 释放所有锁
-            if (locks != null) {
-                redisDistributedLock.unlockMultiple(locks);
+            if (batchLock != null) {
+                redisDistributedLock.unlockBatch(batchLock);
                 log.info("【锁包事务】释放批量分布式锁 - merchantId: {}", merchantId);
             }
         }
@@ -234,12 +241,12 @@ public class MerchantSlotLockServiceImpl implements MerchantSlotLockService {
         String lockKey = buildLockKey(templateId, bookingDate);
         List<String> lockKeys = List.of(lockKey);
 
-        List<RLock> locks = null;
+        BatchLock batchLock = null;
 
         try {
             // 3. 获取分布式锁
-            locks = redisDistributedLock.tryLockMultiple(lockKeys, 1, -1L, TimeUnit.SECONDS);
-            if (locks == null) {
+            batchLock = redisDistributedLock.tryLockBatch(lockKeys, 1, -1L, TimeUnit.SECONDS);
+            if (!batchLock.isLocked()) {
                 log.warn("获取分布式锁失败 - merchantId: {}, templateId: {}, date: {}",
                         merchantId, templateId, bookingDate);
                 throw new GloboxApplicationException("该时段正在被操作，请稍后重试");
@@ -254,8 +261,8 @@ public class MerchantSlotLockServiceImpl implements MerchantSlotLockService {
 
         } finally {
             // 5. 释放锁
-            if (locks != null) {
-                redisDistributedLock.unlockMultiple(locks);
+            if (batchLock != null) {
+                redisDistributedLock.unlockBatch(batchLock);
                 log.info("【锁包事务】释放分布式锁 - merchantId: {}", merchantId);
             }
         }
@@ -294,6 +301,12 @@ public class MerchantSlotLockServiceImpl implements MerchantSlotLockService {
         recordMapper.updateById(record);
 
         log.info("商家ID: {} 解锁了模板ID: {}, 日期: {}", merchantId, templateId, bookingDate);
+
+        // 事务提交后增量更新槽位网格
+        VenueBookingSlotTemplate template = templateMapper.selectById(templateId);
+        if (template != null) {
+            venueSlotGridService.releaseSlots(resolveVenueId(template), bookingDate, List.of(templateId));
+        }
     }
 
     @Override
@@ -317,12 +330,12 @@ public class MerchantSlotLockServiceImpl implements MerchantSlotLockService {
                 .map(templateId -> buildLockKey(templateId, bookingDate))
                 .collect(Collectors.toList());
 
-        List<RLock> locks = null;
+        BatchLock batchLock = null;
 
         try {
             // 3. 批量获取所有时段的锁
-            locks = redisDistributedLock.tryLockMultiple(lockKeys, 1, -1L, TimeUnit.SECONDS);
-            if (locks == null) {
+            batchLock = redisDistributedLock.tryLockBatch(lockKeys, 1, -1L, TimeUnit.SECONDS);
+            if (!batchLock.isLocked()) {
                 log.warn("批量获取分布式锁失败 - merchantId: {}, 时段数: {}",
                         merchantId, templateIds.size());
                 throw new GloboxApplicationException("部分时段正在被操作，请稍后重试");
@@ -338,8 +351,8 @@ public class MerchantSlotLockServiceImpl implements MerchantSlotLockService {
 
         } finally {
             // 5. 释放所有锁
-            if (locks != null) {
-                redisDistributedLock.unlockMultiple(locks);
+            if (batchLock != null) {
+                redisDistributedLock.unlockBatch(batchLock);
                 log.info("【锁包事务】释放批量分布式锁 - merchantId: {}", merchantId);
             }
         }
@@ -432,6 +445,14 @@ public class MerchantSlotLockServiceImpl implements MerchantSlotLockService {
         }
     }
 
+    /**
+     * 根据槽位模板解析所属场馆ID
+     */
+    private Long resolveVenueId(VenueBookingSlotTemplate template) {
+        Court court = courtMapper.selectById(template.getCourtId());
+        return court == null ? null : court.getVenueId();
+    }
+
     /**
      * 获取状态名称
      */
@@ -12,6 +12,8 @@ import com.unlimited.sports.globox.model.venue.entity.venues.VenuePriceTemplate;
 import com.unlimited.sports.globox.model.venue.entity.venues.VenuePriceTemplatePeriod;
 import com.unlimited.sports.globox.venue.mapper.venues.VenuePriceTemplateMapper;
 import com.unlimited.sports.globox.venue.mapper.venues.VenuePriceTemplatePeriodMapper;
+import com.unlimited.sports.globox.venue.service.IVenuePriceService;
+import com.unlimited.sports.globox.venue.service.IVenueSlotGridService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -20,7 +22,9 @@ import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -36,6 +40,8 @@ public class PriceTemplateServiceImpl implements PriceTemplateService {
     private final VenuePriceTemplatePeriodMapper priceTemplatePeriodMapper;
     private final CourtMapper courtMapper;
     private final VenueMapper venueMapper;
+    private final IVenueSlotGridService venueSlotGridService;
+    private final IVenuePriceService venuePriceService;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -137,6 +143,7 @@ public class PriceTemplateServiceImpl implements PriceTemplateService {
         }
 
         log.info("更新价格模板成功，商家ID：{}，模板ID：{}", merchantId, dto.getTemplateId());
+        onTemplateChanged(dto.getTemplateId());
 
         return getPriceTemplate(merchantId, dto.getTemplateId());
     }
@@ -178,6 +185,7 @@ public class PriceTemplateServiceImpl implements PriceTemplateService {
         priceTemplateMapper.updateById(template);
 
         log.info("删除价格模板成功（逻辑删除），商家ID：{}，模板ID：{}", merchantId, templateId);
+        onTemplateChanged(templateId);
     }
 
     @Override
@@ -367,6 +375,7 @@ public class PriceTemplateServiceImpl implements PriceTemplateService {
 
             log.info("绑定价格模板成功，场地ID：{}，场地名称：{}，模板ID：{}",
                     courtId, court.getName(), newTemplate.getTemplateId());
+            venueSlotGridService.evictVenue(venue.getVenueId());
 
             return detailBuilder
                     .status("success")
@@ -404,6 +413,27 @@ public class PriceTemplateServiceImpl implements PriceTemplateService {
         log.info("设置默认价格模板成功，商家ID：{}，模板ID：{}", merchantId, templateId);
     }
 
+    /**
+     * 价格模板变化后刷新使用该模板的场馆价格摘要，并失效其槽位网格
+     */
+    private void onTemplateChanged(Long templateId) {
+        Set<Long> venueIds = courtMapper.selectList(new LambdaQueryWrapper<Court>()
+                        .eq(Court::getTemplateId, templateId)
+                        .select(Court::getVenueId))
+                .stream()
+                .map(Court::getVenueId)
+                .collect(Collectors.toCollection(HashSet::new));
+        venueMapper.selectList(new LambdaQueryWrapper<Venue>()
+                        .eq(Venue::getTemplateId, templateId)
+                        .select(Venue::getVenueId))
+                .forEach(venue -> venueIds.add(venue.getVenueId()));
+
+        venueIds.forEach(venueId -> {
+            venuePriceService.refreshPriceSummary(venueId);
+            venueSlotGridService.evictVenue(venueId);
+        });
+    }
+
     /**
      * 取消商家的所有默认模板
      */
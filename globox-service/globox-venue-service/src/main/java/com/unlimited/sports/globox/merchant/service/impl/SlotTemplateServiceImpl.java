@@ -8,6 +8,7 @@ import com.unlimited.sports.globox.model.merchant.dto.BatchTemplateInitDto;
 import com.unlimited.sports.globox.model.merchant.entity.Court;
 import com.unlimited.sports.globox.model.merchant.entity.VenueBookingSlotTemplate;
 import com.unlimited.sports.globox.model.merchant.vo.BatchTemplateInitResultVo;
+import com.unlimited.sports.globox.venue.service.IVenueSlotGridService;
 import com.unlimited.sports.globox.venue.util.TimeSlotSplitUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -29,6 +30,7 @@ public class SlotTemplateServiceImpl implements SlotTemplateService {
 
     private final MerchantVenueBookingSlotTemplateMapper templateMapper;
     private final CourtMapper courtMapper;
+    private final IVenueSlotGridService venueSlotGridService;
 
     private static final int SLOT_INTERVAL_MINUTES = 30;
 
@@ -73,6 +75,7 @@ public class SlotTemplateServiceImpl implements SlotTemplateService {
 
         int count = templateMapper.batchInsert(templates);
         log.info("场地ID: {} 初始化完成，创建了 {} 个时段模板", courtId, count);
+        evictSlotGrid(courtId);
         return count;
     }
 
@@ -97,6 +100,17 @@ public class SlotTemplateServiceImpl implements SlotTemplateService {
     public void deleteTemplatesByCourtId(Long courtId) {
         int count = templateMapper.deleteByCourtId(courtId);
         log.info("删除场地ID: {} 的所有模板，共 {} 个", courtId, count);
+        evictSlotGrid(courtId);
+    }
+
+    /**
+     * 槽位模板变化后失效场地所属场馆的槽位网格
+     */
+    private void evictSlotGrid(Long courtId) {
+        Court court = courtMapper.selectById(courtId);
+        if (court != null) {
+            venueSlotGridService.evictVenue(court.getVenueId());
+        }
     }
     /**
      * 批量初始化场地时段模板
@@ -189,6 +203,7 @@ public class SlotTemplateServiceImpl implements SlotTemplateService {
 
                     log.info("场地ID: {} ({}) 初始化成功，创建了 {} 个模板",
                             courtId, court.getName(), count);
+                    venueSlotGridService.evictVenue(court.getVenueId());
                 }
 
             } catch (Exception e) {
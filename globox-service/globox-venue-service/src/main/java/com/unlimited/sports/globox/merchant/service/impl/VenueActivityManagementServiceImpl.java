@@ -2,6 +2,7 @@ package com.unlimited.sports.globox.merchant.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.unlimited.sports.globox.common.exception.GloboxApplicationException;
+import com.unlimited.sports.globox.common.lock.BatchLock;
 import com.unlimited.sports.globox.common.lock.RedisDistributedLock;
 import com.unlimited.sports.globox.common.result.RpcResult;
 import com.unlimited.sports.globox.common.result.VenueCode;
@@ -36,10 +37,11 @@ import com.unlimited.sports.globox.venue.mapper.VenueActivitySlotLockMapper;
 import com.unlimited.sports.globox.venue.mapper.VenueBookingSlotRecordMapper;
 import com.unlimited.sports.globox.venue.mapper.VenueBookingSlotTemplateMapper;
 import com.unlimited.sports.globox.venue.service.IVenueActivitySlotLockService;
+import com.unlimited.sports.globox.venue.service.IActivityQuotaService;
+import com.unlimited.sports.globox.venue.service.IVenueSlotGridService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.dubbo.config.annotation.DubboReference;
-import org.redisson.api.RLock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
@@ -72,6 +74,8 @@ public class VenueActivityManagementServiceImpl implements VenueActivityManageme
     private final RedisDistributedLock redisDistributedLock;
     private final IVenueActivitySlotLockService activitySlotLockService;
     private final IdGenerator idGenerator;  // 注入雪花算法ID生成器
+    private final IVenueSlotGridService venueSlotGridService;
+    private final IActivityQuotaService activityQuotaService;
 
     private final ParticipantMapper participantMapper;
 
@@ -186,12 +190,12 @@ public class VenueActivityManagementServiceImpl implements VenueActivityManageme
                 .map(slotId -> buildLockKey(slotId, dto.getActivityDate()))
                 .collect(Collectors.toList());
 
-        List<RLock> locks = null;
+        BatchLock batchLock = null;
 
         try {
             // 批量获取所有槽位的分布式锁
-            locks = redisDistributedLock.tryLockMultiple(lockKeys, 1, -1L, TimeUnit.SECONDS);
-            if (locks == null) {
+            batchLock = redisDistributedLock.tryLockBatch(lockKeys, 1, -1L, TimeUnit.SECONDS);
+            if (!batchLock.isLocked()) {
                 throw new GloboxApplicationException("该时段正在被操作，请稍后重试");
             }
             log.info("成功获取分布式锁 - organizerId: {}, organizerType: {}, 槽位数: {}",
@@ -205,14 +209,15 @@ public class VenueActivityManagementServiceImpl implements VenueActivityManageme
 
             log.info("活动创建成功 - activityId: {}, organizerId: {}, organizerName: {}, batchId: {}",
                     activity.getActivityId(), organizerId, organizerName, merchantBatchId);
+            venueSlotGridService.evict(venueId, dto.getActivityDate());
 
             // 构建返回结果
             return buildActivityCreationResult(activity, court, templates, dto, merchantBatchId);
 
         } finally {
             // 释放锁（无论事务成功还是失败）
-            if (locks != null) {
-                redisDistributedLock.unlockMultiple(locks);
+            if (batchLock != null) {
+                redisDistributedLock.unlockBatch(batchLock);
                 log.info("【锁包事务】释放分布式锁 - organizerId: {}, organizerType: {}",
                         organizerId, organizerType);
             }
@@ -283,6 +288,7 @@ public class VenueActivityManagementServiceImpl implements VenueActivityManageme
             needUpdate = true;
         }
 
+        Integer oldMaxParticipants = activity.getMaxParticipants();
         if (dto.getMaxParticipants() != null && !dto.getMaxParticipants().equals(activity.getMaxParticipants())) {
             activity.setMaxParticipants(dto.getMaxParticipants());
             needUpdate = true;
@@ -318,6 +324,10 @@ public class VenueActivityManagementServiceImpl implements VenueActivityManageme
 
         log.info("活动更新成功 - activityId: {}",
                 activityId);
+        venueSlotGridService.evict(activity.getVenueId(), activity.getActivityDate());
+        // 同步 Redis 剩余名额；updateById 会写回读取时的参与人数，交由对账任务按报名记录重算
+        activityQuotaService.adjustCapacity(activityId, oldMaxParticipants, activity.getMaxParticipants());
+        activityQuotaService.markDirty(activityId);
 
         // 9. 返回更新后的活动详情
         return convertActivityToVo(activity);
@@ -391,6 +401,8 @@ public class VenueActivityManagementServiceImpl implements VenueActivityManageme
 
         log.info("活动已成功取消并释放槽位 - activityId: {}, 操作人: {}",
                 activityId, context.getEmployeeId());
+        venueSlotGridService.evict(activity.getVenueId(), activity.getActivityDate());
+        activityQuotaService.evict(activityId);
     }
     // 在实现类中添加/修改以下方法
 
@@ -15,6 +15,7 @@ import com.unlimited.sports.globox.model.merchant.enums.BusinessHourRuleTypeEnum
 import com.unlimited.sports.globox.model.merchant.vo.MerchantVenueBasicInfo;
 import com.unlimited.sports.globox.model.merchant.vo.VenueInfoVo;
 import com.unlimited.sports.globox.model.merchant.vo.VenueBusinessHoursVo;
+import com.unlimited.sports.globox.venue.service.IVenueSlotGridService;
 import com.unlimited.sports.globox.venue.service.impl.VenueBusinessHoursService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -38,6 +39,7 @@ public class VenueManagementServiceImpl implements VenueManagementService {
     private final VenueMapper venueMapper;
     private final MerchantVenueBusinessHoursMapper businessHoursMapper;
     private final CourtMapper courtMapper;
+    private final IVenueSlotGridService venueSlotGridService;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -72,21 +74,30 @@ public class VenueManagementServiceImpl implements VenueManagementService {
         Venue venue = validateVenueOwnership(dto.getVenueId(), merchantId);
 
         // 2. 更新基本信息
+        Integer oldStatus = venue.getStatus();
         updateVenueBasicInfo(venue, dto);
         venueMapper.updateById(venue);
         log.info("场馆基本信息更新成功 - venueId: {}", venue.getVenueId());
 
         // 3. 更新营业时间（如果提供）
+        boolean businessHoursChanged = false;
         if (dto.getBusinessHours() != null && !dto.getBusinessHours().isEmpty()) {
             updateBusinessHours(venue.getVenueId(), dto.getBusinessHours());
+            businessHoursChanged = true;
             log.info("场馆营业时间更新成功 - venueId: {}, 规则数: {}",
                     venue.getVenueId(), dto.getBusinessHours().size());
         } else if (Boolean.TRUE.equals(dto.getClearBusinessHours())) {
             // 清空营业时间
             deleteBusinessHours(venue.getVenueId());
+            businessHoursChanged = true;
             log.info("场馆营业时间已清空 - venueId: {}", venue.getVenueId());
         }
 
+        // 状态或营业时间变化后，事务提交时失效槽位网格和可用性索引
+        if (businessHoursChanged || !Objects.equals(oldStatus, venue.getStatus())) {
+            venueSlotGridService.evictVenue(venue.getVenueId());
+        }
+
         // 4. 返回基本信息
         return convertToVenueBasicVo(venue);
     }
@@ -106,6 +117,7 @@ public class VenueManagementServiceImpl implements VenueManagementService {
 
         // 3. 删除场馆（物理删除，建议改为逻辑删除）
         venueMapper.deleteById(venueId);
+        venueSlotGridService.evictVenue(venueId);
 
         log.info("场馆删除成功 - venueId: {}", venueId);
     }
@@ -127,6 +139,7 @@ public class VenueManagementServiceImpl implements VenueManagementService {
             courtMapper.disableCourtsByVenueId(venueId);
             log.info("场馆禁用，同步禁用场地 - venueId: {}", venueId);
         }
+        venueSlotGridService.evictVenue(venueId);
 
         log.info("场馆状态切换成功 - venueId: {}, status: {}", venueId, status);
 
@@ -2,7 +2,7 @@ package com.unlimited.sports.globox.merchant.service.impl;
 
 import com.unlimited.sports.globox.common.exception.GloboxApplicationException;
 import com.unlimited.sports.globox.dubbo.order.OrderForMerchantDubboService;
-import com.unlimited.sports.globox.dubbo.order.dto.MerchantGetOrderDetailsRequestDto;
+import com.unlimited.sports.globox.dubbo.order.dto.MerchantGetOrderDetailsBatchRequestDto;
 import com.unlimited.sports.globox.dubbo.order.dto.MerchantGetOrderResultDto;
 import com.unlimited.sports.globox.merchant.mapper.*;
 import com.unlimited.sports.globox.merchant.service.VenueSlotRecordService;
@@ -329,9 +329,9 @@ public class VenueSlotRecordServiceImpl implements VenueSlotRecordService {
 
         // 6. 批量查询所有场地该日期的槽位记录（只查询在营业时间内的槽位）
         // 先获取所有在营业时间内的模板ID
-        List<Long> templateIds = allTemplates.stream()
+        Set<Long> templateIds = allTemplates.stream()
                 .map(VenueBookingSlotTemplate::getBookingSlotTemplateId)
-                .toList();
+                .collect(Collectors.toSet());
 
         // 查询对应的记录
         List<VenueBookingSlotRecord> allRecords = recordMapper.MerchantSelectByCourtIdsAndDate(
@@ -419,23 +419,22 @@ public class VenueSlotRecordServiceImpl implements VenueSlotRecordService {
                 .filter(Objects::nonNull)
                 .collect(Collectors.toSet());
 
+        // 一次 RPC 批量获取订单详情
         Map<Long, MerchantGetOrderResultDto> orderDetailMap = new HashMap<>();
         if (!orderNos.isEmpty()) {
-            for (Long orderNo : orderNos) {
-                try {
-                    var result = orderForMerchantDubboService.getOrderDetails(
-                            MerchantGetOrderDetailsRequestDto.builder()
-                                    .orderNo(orderNo)
-                                    .merchantId(venue.getMerchantId())
-                                    .venueId(venueId)
-                                    .build()
-                    );
-                    if (result != null && result.getData() != null) {
-                        orderDetailMap.put(orderNo, result.getData());
-                    }
-                } catch (Exception e) {
-                    log.warn("获取订单详情失败 - orderNo: {}", orderNo, e);
+            try {
+                var result = orderForMerchantDubboService.getOrderDetailsBatch(
+                        MerchantGetOrderDetailsBatchRequestDto.builder()
+                                .orderNos(new ArrayList<>(orderNos))
+                                .merchantId(venue.getMerchantId())
+                                .venueId(venueId)
+                                .build()
+                );
+                if (result != null && result.getData() != null) {
+                    result.getData().forEach(orderDto -> orderDetailMap.put(orderDto.getOrderNo(), orderDto));
                 }
+            } catch (Exception e) {
+                log.warn("批量获取订单详情失败 - venueId: {}, 订单数: {}", venueId, orderNos.size(), e);
             }
         }
 
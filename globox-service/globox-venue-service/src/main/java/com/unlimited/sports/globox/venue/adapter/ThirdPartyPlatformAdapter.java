@@ -13,7 +13,7 @@ import java.util.Map;
 public interface ThirdPartyPlatformAdapter {
 
     /**
-     * 查询指定日期的场地槽位信息
+     * 查询指定日期的场地槽位信息（优先读取缓存）
      *
      * @param config 第三方平台配置
      * @param date 查询日期
@@ -21,6 +21,27 @@ public interface ThirdPartyPlatformAdapter {
      */
     List<ThirdPartyCourtSlotDto> querySlots(VenueThirdPartyConfig config, LocalDate date);
 
+    /**
+     * 查询下单预览、计价使用的场地槽位信息
+     * 缓存数据年龄不超过 {@link com.unlimited.sports.globox.venue.adapter.constant.AwayVenueCacheConstants#SLOTS_CACHE_BOOKING_MAX_AGE_SECONDS}，
+     * 否则同步调用第三方API，不返回过期数据
+     *
+     * @param config 第三方平台配置
+     * @param date 查询日期
+     * @return 统一格式的场地槽位信息列表，查询失败返回null
+     */
+    List<ThirdPartyCourtSlotDto> querySlotsForBooking(VenueThirdPartyConfig config, LocalDate date);
+
+    /**
+     * 直接调用第三方API查询指定日期的场地槽位信息（不经过缓存）
+     * 供缓存回源和后台预取使用
+     *
+     * @param config 第三方平台配置
+     * @param date 查询日期
+     * @return 统一格式的场地槽位信息列表，查询失败返回null
+     */
+    List<ThirdPartyCourtSlotDto> querySlotsFromAPI(VenueThirdPartyConfig config, LocalDate date);
+
     /**
      * 批量锁定槽位（一次API调用锁定多个槽位）
      * 支持跨场地锁定：slotRequests 中的 slots 可以来自不同的场地
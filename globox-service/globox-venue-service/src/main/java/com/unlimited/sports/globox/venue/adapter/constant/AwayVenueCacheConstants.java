@@ -16,15 +16,50 @@ public class AwayVenueCacheConstants {
 
     /**
      * 槽位缓存 - 前缀
-     * 格式: third_party:slots:{venueId}:{date}
+     * 格式: third_party:slot_cache:{venueId}:{date}
+     * 值为 AwaySlotCacheEntry（槽位列表 + 拉取时间），与旧的纯列表格式不兼容，因此使用新前缀
      */
-    public static final String SLOTS_CACHE_KEY_PREFIX = "third_party:slots:";
+    public static final String SLOTS_CACHE_KEY_PREFIX = "third_party:slot_cache:";
 
     /**
-     * 槽位缓存 - TTL（分钟）
-     * 5分钟过期，与lock/unlock操作的缓存清除策略同步
+     * 槽位缓存 - 新鲜期（秒）
+     * 超过新鲜期的数据仍可返回，但会触发后台刷新（stale-while-revalidate）
      */
-    public static final long SLOTS_CACHE_TTL_MINUTES = 5;
+    public static final long SLOTS_CACHE_FRESH_SECONDS = 300;
+
+    /**
+     * 槽位缓存 - 下单预览/计价允许的最大数据年龄（秒）
+     * 超过后不再返回旧数据，而是同步回源（stale-while-revalidate 只用于展示路径）
+     */
+    public static final long SLOTS_CACHE_BOOKING_MAX_AGE_SECONDS = 60;
+
+    /**
+     * 槽位缓存 - 硬过期时间（分钟）
+     * 过期数据最多保留的时长，超过后缓存被删除，只能同步回源
+     */
+    public static final long SLOTS_CACHE_TTL_MINUTES = 30;
+
+    /**
+     * 槽位缓存 - 硬过期时间的随机抖动上限（秒），避免大量key同时过期
+     */
+    public static final long SLOTS_CACHE_TTL_JITTER_SECONDS = 120;
+
+    /**
+     * 槽位刷新锁 - 前缀
+     * 格式: third_party:slot_refresh:{venueId}:{date}
+     * 保证同一 (venueId, date) 同一时间只有一个实例在调用第三方API
+     */
+    public static final String SLOTS_REFRESH_LOCK_PREFIX = "third_party:slot_refresh:";
+
+    /**
+     * 槽位刷新锁 - 持有时间（秒），需覆盖第三方API的超时时间
+     */
+    public static final long SLOTS_REFRESH_LOCK_SECONDS = 40;
+
+    /**
+     * 槽位预取任务的分布式锁，同一时刻只有一个实例执行预取
+     */
+    public static final String SLOTS_PREFETCH_LOCK_KEY = "third_party:slot_prefetch:lock";
 
     /**
      * 构建槽位缓存key
@@ -47,4 +82,15 @@ public class AwayVenueCacheConstants {
     public static String buildSlotsCacheKey(Long venueId, LocalDate date) {
         return buildSlotsCacheKey(venueId, date.toString());
     }
+
+    /**
+     * 构建槽位刷新锁key
+     *
+     * @param venueId 场馆ID
+     * @param date    日期
+     * @return 刷新锁key
+     */
+    public static String buildSlotsRefreshLockKey(Long venueId, LocalDate date) {
+        return SLOTS_REFRESH_LOCK_PREFIX + venueId + ":" + date;
+    }
 }
@@ -0,0 +1,39 @@
+package com.unlimited.sports.globox.venue.adapter.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Away球场槽位缓存条目
+ * 缓存值同时记录拉取时间，用于判断新鲜度和向调用方报告数据时效
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AwaySlotCacheEntry {
+
+    /**
+     * 场地槽位列表
+     */
+    private List<ThirdPartyCourtSlotDto> slots;
+
+    /**
+     * 从第三方API拉取的时间（毫秒时间戳）
+     */
+    private Long fetchedAt;
+
+    /**
+     * 数据时效（秒）
+     */
+    public long ageSeconds() {
+        if (fetchedAt == null) {
+            return 0L;
+        }
+        return Math.max(0L, (System.currentTimeMillis() - fetchedAt) / 1000);
+    }
+}
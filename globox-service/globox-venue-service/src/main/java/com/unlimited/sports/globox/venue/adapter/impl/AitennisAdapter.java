@@ -3,7 +3,6 @@ package com.unlimited.sports.globox.venue.adapter.impl;
 import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONObject;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.unlimited.sports.globox.common.exception.GloboxApplicationException;
 import com.unlimited.sports.globox.common.result.VenueCode;
 import com.unlimited.sports.globox.model.venue.entity.venues.ThirdPartyPlatform;
@@ -14,6 +13,7 @@ import com.unlimited.sports.globox.venue.adapter.constant.AwayVenueCacheConstant
 import com.unlimited.sports.globox.venue.adapter.dto.*;
 import com.unlimited.sports.globox.venue.adapter.dto.aitennis.*;
 import com.unlimited.sports.globox.venue.mapper.ThirdPartyPlatformMapper;
+import com.unlimited.sports.globox.venue.service.IAwaySlotCacheService;
 import com.unlimited.sports.globox.venue.service.IThirdPartyTokenService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,7 +31,6 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import com.unlimited.sports.globox.venue.util.TimeSlotSplitUtil;
@@ -57,6 +56,9 @@ public class AitennisAdapter implements ThirdPartyPlatformAdapter {
     @Autowired
     private RedisService redisService;
 
+    @Autowired
+    private IAwaySlotCacheService awaySlotCacheService;
+
     private static final String PLATFORM_CODE = "aitennis";
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
 
@@ -119,39 +121,33 @@ public class AitennisAdapter implements ThirdPartyPlatformAdapter {
 
     @Override
     public List<ThirdPartyCourtSlotDto> querySlots(VenueThirdPartyConfig config, LocalDate date) {
-        log.info("[aitennis] 查询槽位: venueId={}, thirdPartyVenueId={}, date={}",
-                config.getVenueId(), config.getThirdPartyVenueId(), date);
-        String cacheKey = AwayVenueCacheConstants.buildSlotsCacheKey(config.getVenueId(), date);
-        List<ThirdPartyCourtSlotDto> cachedSlots = redisService.getCacheObject(cacheKey,
-                new TypeReference<>() {
-                });
-
-        if (cachedSlots != null && !cachedSlots.isEmpty()) {
-            log.info("[aitennis] 从缓存获取槽位成功: venueId={}, date={}, 场地数: {}",
-                    config.getVenueId(), date, cachedSlots.size());
-            return cachedSlots;
+        // 缓存新鲜期内直接返回，过期数据先返回再后台刷新，缓存缺失时单飞回源
+        AwaySlotCacheEntry entry = awaySlotCacheService.getEntry(config.getVenueId(), date,
+                () -> querySlotsFromAPI(config, date));
+        if (entry == null) {
+            log.warn("[aitennis] 查询槽位失败: venueId={}, date={}", config.getVenueId(), date);
+            return null;
         }
-        try {
-            List<ThirdPartyCourtSlotDto> slots = querySlotsFromAPI(config, date);
-
-            if (slots != null && !slots.isEmpty()) {
-                redisService.setCacheObject(cacheKey, slots, AwayVenueCacheConstants.SLOTS_CACHE_TTL_MINUTES, TimeUnit.MINUTES);
-                log.info("[aitennis] 槽位已缓存: venueId={}, date={}, ttl={}min",
-                        config.getVenueId(), date, AwayVenueCacheConstants.SLOTS_CACHE_TTL_MINUTES);
-            }
-
-            return slots;
+        return entry.getSlots();
+    }
 
-        } catch (Exception e) {
-            log.error("[aitennis] 查询槽位异常: venueId={}", config.getVenueId(), e);
+    @Override
+    public List<ThirdPartyCourtSlotDto> querySlotsForBooking(VenueThirdPartyConfig config, LocalDate date) {
+        // 下单/计价只接受足够新的数据，过旧时同步回源
+        AwaySlotCacheEntry entry = awaySlotCacheService.getBoundedEntry(config.getVenueId(), date,
+                () -> querySlotsFromAPI(config, date), AwayVenueCacheConstants.SLOTS_CACHE_BOOKING_MAX_AGE_SECONDS);
+        if (entry == null) {
+            log.warn("[aitennis] 查询下单槽位失败: venueId={}, date={}", config.getVenueId(), date);
             return null;
         }
+        return entry.getSlots();
     }
 
     /**
      * 从API查询槽位
      */
-    private List<ThirdPartyCourtSlotDto> querySlotsFromAPI(VenueThirdPartyConfig config, LocalDate date) {
+    @Override
+    public List<ThirdPartyCourtSlotDto> querySlotsFromAPI(VenueThirdPartyConfig config, LocalDate date) {
         try {
             List<AitennisCourtEvent> aitennisCourtEvents = queryDailyCourtEvents(config, date);
             if(aitennisCourtEvents == null) {
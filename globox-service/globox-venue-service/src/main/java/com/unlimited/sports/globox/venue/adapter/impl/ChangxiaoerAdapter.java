@@ -4,7 +4,6 @@ import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.unlimited.sports.globox.model.venue.entity.venues.ThirdPartyPlatform;
 import com.unlimited.sports.globox.model.venue.entity.venues.VenueThirdPartyConfig;
 import com.unlimited.sports.globox.service.RedisService;
@@ -20,6 +19,7 @@ import com.unlimited.sports.globox.venue.adapter.dto.changxiaoer.ChangxiaoerResp
 import com.unlimited.sports.globox.venue.adapter.dto.changxiaoer.ChangxiaoerUnlockSlotRequest;
 import com.unlimited.sports.globox.venue.config.AwayConfig;
 import com.unlimited.sports.globox.venue.mapper.ThirdPartyPlatformMapper;
+import com.unlimited.sports.globox.venue.service.IAwaySlotCacheService;
 import com.unlimited.sports.globox.venue.service.IThirdPartyTokenService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -38,7 +38,6 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -62,6 +61,9 @@ public class ChangxiaoerAdapter implements ThirdPartyPlatformAdapter {
     @Autowired
     private RedisService redisService;
 
+    @Autowired
+    private IAwaySlotCacheService awaySlotCacheService;
+
 
     @Autowired
     private AwayConfig awayConfig;
@@ -138,40 +140,33 @@ public class ChangxiaoerAdapter implements ThirdPartyPlatformAdapter {
 
     @Override
     public List<ThirdPartyCourtSlotDto> querySlots(VenueThirdPartyConfig config, LocalDate date) {
-        log.info("[changxiaoer] 查询槽位: venueId={}, thirdPartyVenueId={}, date={}",
-                config.getVenueId(), config.getThirdPartyVenueId(), date);
-
-        // 先从Redis缓存获取
-        String cacheKey = AwayVenueCacheConstants.buildSlotsCacheKey(config.getVenueId(), date);
-        List<ThirdPartyCourtSlotDto> cachedSlots = redisService.getCacheObject(cacheKey,
-                new TypeReference<>() {
-                });
-
-        if (cachedSlots != null && !cachedSlots.isEmpty()) {
-            log.info("[changxiaoer] 从缓存获取槽位成功: venueId={}, date={}, 场地数: {}",
-                    config.getVenueId(), date, cachedSlots.size());
-            return cachedSlots;
+        // 缓存新鲜期内直接返回，过期数据先返回再后台刷新，缓存缺失时单飞回源
+        AwaySlotCacheEntry entry = awaySlotCacheService.getEntry(config.getVenueId(), date,
+                () -> querySlotsFromAPI(config, date));
+        if (entry == null) {
+            log.warn("[changxiaoer] 查询槽位失败: venueId={}, date={}", config.getVenueId(), date);
+            return null;
         }
-        try {
-            //  缓存未命中，调用API获取槽位
-            List<ThirdPartyCourtSlotDto> slots = querySlotsFromAPI(config, date);
-            // 将结果缓存
-            if (slots != null && !slots.isEmpty()) {
-                redisService.setCacheObject(cacheKey, slots, AwayVenueCacheConstants.SLOTS_CACHE_TTL_MINUTES, TimeUnit.MINUTES);
-                log.info("[changxiaoer] 槽位已缓存: venueId={}, date={}, ttl={}min",
-                        config.getVenueId(), date, AwayVenueCacheConstants.SLOTS_CACHE_TTL_MINUTES);
-            }
-            return slots;
-        } catch (Exception e) {
-            log.error("[changxiaoer] 查询槽位异常: venueId={}", config.getVenueId(), e);
+        return entry.getSlots();
+    }
+
+    @Override
+    public List<ThirdPartyCourtSlotDto> querySlotsForBooking(VenueThirdPartyConfig config, LocalDate date) {
+        // 下单/计价只接受足够新的数据，过旧时同步回源
+        AwaySlotCacheEntry entry = awaySlotCacheService.getBoundedEntry(config.getVenueId(), date,
+                () -> querySlotsFromAPI(config, date), AwayVenueCacheConstants.SLOTS_CACHE_BOOKING_MAX_AGE_SECONDS);
+        if (entry == null) {
+            log.warn("[changxiaoer] 查询下单槽位失败: venueId={}, date={}", config.getVenueId(), date);
             return null;
         }
+        return entry.getSlots();
     }
 
     /**
      * 从API查询槽位
      */
-    private List<ThirdPartyCourtSlotDto> querySlotsFromAPI(VenueThirdPartyConfig config, LocalDate date) {
+    @Override
+    public List<ThirdPartyCourtSlotDto> querySlotsFromAPI(VenueThirdPartyConfig config, LocalDate date) {
         try {
             // 获取认证信息
             ThirdPartyAuthInfo authInfo = tokenService.getAuthInfo(config, this);
@@ -978,7 +973,7 @@ public class ChangxiaoerAdapter implements ThirdPartyPlatformAdapter {
      */
     @Override
     public List<AwaySlotPrice> calculatePricing(VenueThirdPartyConfig config, LocalDate date) {
-        List<ThirdPartyCourtSlotDto> slotDtos = querySlots(config,date);
+        List<ThirdPartyCourtSlotDto> slotDtos = querySlotsForBooking(config, date);
         if (slotDtos == null || slotDtos.isEmpty()) {
             log.error("[changxiaoer] 槽位数据为空，无法计算价格");
             throw new GloboxApplicationException(VenueCode.VENUE_BOOKING_FAIL);
@@ -3,7 +3,6 @@ package com.unlimited.sports.globox.venue.adapter.impl;
 import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONObject;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.unlimited.sports.globox.common.exception.GloboxApplicationException;
 import com.unlimited.sports.globox.common.result.VenueCode;
 import com.unlimited.sports.globox.model.venue.entity.venues.ThirdPartyPlatform;
@@ -14,6 +13,7 @@ import com.unlimited.sports.globox.venue.adapter.constant.AwayVenueCacheConstant
 import com.unlimited.sports.globox.venue.adapter.dto.*;
 import com.unlimited.sports.globox.venue.adapter.dto.wefitos.*;
 import com.unlimited.sports.globox.venue.mapper.ThirdPartyPlatformMapper;
+import com.unlimited.sports.globox.venue.service.IAwaySlotCacheService;
 import com.unlimited.sports.globox.venue.service.IThirdPartyTokenService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,7 +33,6 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import com.unlimited.sports.globox.venue.util.TimeSlotSplitUtil;
@@ -60,6 +59,9 @@ public class WefitosAdapter implements ThirdPartyPlatformAdapter {
     @Autowired
     private RedisService redisService;
 
+    @Autowired
+    private IAwaySlotCacheService awaySlotCacheService;
+
     private static final String PLATFORM_CODE = "wefitos";
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
@@ -316,38 +318,33 @@ public class WefitosAdapter implements ThirdPartyPlatformAdapter {
 
     @Override
     public List<ThirdPartyCourtSlotDto> querySlots(VenueThirdPartyConfig config, LocalDate date) {
-        // 先从Redis缓存获取
-        String cacheKey = AwayVenueCacheConstants.buildSlotsCacheKey(config.getVenueId(), date);
-        List<ThirdPartyCourtSlotDto> cachedSlots = redisService.getCacheObject(cacheKey,
-                new TypeReference<>() {
-                });
-
-        if (cachedSlots != null && !cachedSlots.isEmpty()) {
-            return cachedSlots;
+        // 缓存新鲜期内直接返回，过期数据先返回再后台刷新，缓存缺失时单飞回源
+        AwaySlotCacheEntry entry = awaySlotCacheService.getEntry(config.getVenueId(), date,
+                () -> querySlotsFromAPI(config, date));
+        if (entry == null) {
+            log.warn("[wefitos] 查询槽位失败: venueId={}, date={}", config.getVenueId(), date);
+            return null;
         }
+        return entry.getSlots();
+    }
 
-        try {
-            // 缓存未命中，调用API获取槽位
-            List<ThirdPartyCourtSlotDto> slots = querySlotsFromAPI(config, date);
-
-            // 将结果缓存
-            if (slots != null && !slots.isEmpty()) {
-                redisService.setCacheObject(cacheKey, slots,
-                        AwayVenueCacheConstants.SLOTS_CACHE_TTL_MINUTES, TimeUnit.MINUTES);
-            }
-
-            return slots;
-
-        } catch (Exception e) {
-            log.error("[wefitos] 查询槽位异常: venueId={}, date={}", config.getVenueId(), date, e);
+    @Override
+    public List<ThirdPartyCourtSlotDto> querySlotsForBooking(VenueThirdPartyConfig config, LocalDate date) {
+        // 下单/计价只接受足够新的数据，过旧时同步回源
+        AwaySlotCacheEntry entry = awaySlotCacheService.getBoundedEntry(config.getVenueId(), date,
+                () -> querySlotsFromAPI(config, date), AwayVenueCacheConstants.SLOTS_CACHE_BOOKING_MAX_AGE_SECONDS);
+        if (entry == null) {
+            log.warn("[wefitos] 查询下单槽位失败: venueId={}, date={}", config.getVenueId(), date);
             return null;
         }
+        return entry.getSlots();
     }
 
     /**
      * 从API查询槽位
      */
-    private List<ThirdPartyCourtSlotDto> querySlotsFromAPI(VenueThirdPartyConfig config, LocalDate date) {
+    @Override
+    public List<ThirdPartyCourtSlotDto> querySlotsFromAPI(VenueThirdPartyConfig config, LocalDate date) {
         try {
             // 1. 获取认证信息
             ThirdPartyAuthInfo authInfo = tokenService.getAuthInfo(config, this);
@@ -1162,7 +1159,7 @@ public class WefitosAdapter implements ThirdPartyPlatformAdapter {
     @Override
     public List<AwaySlotPrice> calculatePricing(VenueThirdPartyConfig config, LocalDate date) {
         try {
-            List<ThirdPartyCourtSlotDto> courtSlots = querySlots(config, date);
+            List<ThirdPartyCourtSlotDto> courtSlots = querySlotsForBooking(config, date);
             if (courtSlots == null || courtSlots.isEmpty()) {
                 return new ArrayList<>();
             }
@@ -7,6 +7,7 @@ import com.unlimited.sports.globox.venue.admin.dto.CreateVenueInitDto;
 import com.unlimited.sports.globox.venue.admin.service.IVenueInitService;
 import com.unlimited.sports.globox.venue.admin.vo.VenueInitResultVo;
 import com.unlimited.sports.globox.venue.service.IFileUploadService;
+import com.unlimited.sports.globox.venue.service.IVenuePriceService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
@@ -32,6 +33,9 @@ public class VenueInitController {
     @Autowired
     private IFileUploadService fileUploadService;
 
+    @Autowired
+    private IVenuePriceService venuePriceService;
+
     /**
      * 上传场馆图片（批量）
      *
@@ -91,4 +95,18 @@ public class VenueInitController {
         log.info("场馆创建成功：venueId={}", result.getVenueId());
         return R.ok(result);
     }
+
+    /**
+     * 全量刷新场馆价格摘要（min_price / max_price）
+     * 用于上线后初始化历史场馆，或价格覆盖被直接修改后修复数据
+     *
+     * @return 刷新的场馆数量
+     */
+    @PostMapping("/price-summary/refresh")
+    @Operation(summary = "刷新场馆价格摘要", description = "重新计算所有启用场馆的最低价/最高价")
+    public R<Integer> refreshPriceSummaries() {
+        int count = venuePriceService.refreshAllPriceSummaries();
+        log.info("场馆价格摘要刷新完成：count={}", count);
+        return R.ok(count);
+    }
 }
@@ -23,6 +23,8 @@ import com.unlimited.sports.globox.venue.mapper.*;
 import com.unlimited.sports.globox.venue.mapper.venues.VenuePriceTemplateMapper;
 import com.unlimited.sports.globox.venue.mapper.venues.VenuePriceTemplatePeriodMapper;
 import com.unlimited.sports.globox.venue.service.IVenueFacilityRelationService;
+import com.unlimited.sports.globox.venue.service.IVenuePriceService;
+import com.unlimited.sports.globox.venue.service.IVenueSlotGridService;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -77,6 +79,12 @@ public class VenueInitServiceImpl implements IVenueInitService {
     @Autowired
     private VenueExtraChargeTemplateMapper venueExtraChargeTemplateMapper;
 
+    @Autowired
+    private IVenueSlotGridService venueSlotGridService;
+
+    @Autowired
+    private IVenuePriceService venuePriceService;
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public VenueInitResultVo createVenue(Long merchantId, CreateVenueInitDto dto) {
@@ -141,6 +149,9 @@ public class VenueInitServiceImpl implements IVenueInitService {
         int extraChargeCount = createExtraCharges(venueId, dto.getExtraCharges(), courtIndexToIdMap);
         log.info("额外费用配置创建成功：共{}条", extraChargeCount);
 
+        // 11. 刷新场馆价格摘要（搜索价格筛选/排序使用）
+        venuePriceService.refreshPriceSummary(venueId);
+
         // 返回结果
         return VenueInitResultVo.builder()
                 .venueId(venueId)
@@ -495,6 +506,7 @@ public class VenueInitServiceImpl implements IVenueInitService {
             venueActivitySlotLockMapper.insert(lock);
         }
         log.info("活动槽位锁定成功，已锁定{}个槽位", templateIds.size());
+        venueSlotGridService.evict(dto.getVenueId(), dto.getActivityDate());
 
         return activityId;
     }
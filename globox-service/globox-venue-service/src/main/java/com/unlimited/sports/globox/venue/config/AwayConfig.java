@@ -14,6 +14,11 @@ public class AwayConfig {
 
     private Booking booking;
 
+    /**
+     * 槽位预取配置
+     */
+    private Prefetch prefetch = new Prefetch();
+
     public Booking getBooking() {
         return booking;
     }
@@ -25,6 +30,24 @@ public class AwayConfig {
 
 
 
+    @Data
+    public static class Prefetch {
+        /**
+         * 是否开启后台预取
+         */
+        private boolean enabled = true;
+
+        /**
+         * 预取的天数（从今天开始）
+         */
+        private int days = 7;
+
+        /**
+         * 预取并发数
+         */
+        private int concurrency = 5;
+    }
+
     @Data
     public static class Booking{
         /**
@@ -1,5 +1,7 @@
 package com.unlimited.sports.globox.venue.constants;
 
+import java.time.LocalDate;
+
 /**
  * 订场缓存常量
  */
@@ -12,4 +14,125 @@ public class BookingCacheConstants {
 
 
     public static final String BOOKING_LOCK_KEY_SEPARATOR = ":";
+
+    /**
+     * 槽位网格静态层（场地、模板、价格向量、活动）
+     * 格式: venue:slot:grid:{venueId}:{date}
+     */
+    public static final String SLOT_GRID_KEY_PREFIX = "venue:slot:grid:";
+
+    /**
+     * 槽位网格状态层（Hash: templateId -> status:recordId:operatorId）
+     * 格式: venue:slot:grid:state:{venueId}:{date}
+     */
+    public static final String SLOT_GRID_STATE_KEY_PREFIX = "venue:slot:grid:state:";
+
+    /**
+     * 槽位网格状态层版本号，每次增量变更自增，用于防止重建时覆盖并发写入
+     * 格式: venue:slot:grid:gen:{venueId}:{date}
+     */
+    public static final String SLOT_GRID_GEN_KEY_PREFIX = "venue:slot:grid:gen:";
+
+    /**
+     * 状态层哨兵字段，用于区分"已构建但全部空闲"和"未构建"
+     */
+    public static final String SLOT_GRID_STATE_SENTINEL = "_";
+
+    /**
+     * 槽位网格TTL（分钟），到期后整体重建，兜底数据漂移
+     */
+    public static final long SLOT_GRID_TTL_MINUTES = 30;
+
+    /**
+     * 按场馆整体失效时覆盖的天数（从今天起）
+     */
+    public static final int SLOT_GRID_EVICT_DAYS = 31;
+
+    /**
+     * 场馆可用性索引（Hash: venueId -> 空闲半小时位图）
+     * 格式: venue:availability:{date}
+     * 位图第 i 位为 1 表示当天 [i*30min, (i+1)*30min) 内至少有一片场地空闲
+     */
+    public static final String AVAILABILITY_INDEX_KEY_PREFIX = "venue:availability:";
+
+    /**
+     * 场馆可用性索引版本号，每次增量变更自增，用于防止重建时覆盖并发写入
+     * 格式: venue:availability:gen:{date}
+     */
+    public static final String AVAILABILITY_INDEX_GEN_KEY_PREFIX = "venue:availability:gen:";
+
+    /**
+     * 场馆可用性索引TTL（分钟），到期后整体重建，兜底漏掉的增量更新
+     */
+    public static final long AVAILABILITY_INDEX_TTL_MINUTES = 10;
+
+    /**
+     * 场馆可用性索引的时间桶大小（分钟）
+     */
+    public static final int AVAILABILITY_BUCKET_MINUTES = 30;
+
+    /**
+     * 活动剩余名额（String）
+     * 格式: venue:activity:quota:{activityId}
+     */
+    public static final String ACTIVITY_QUOTA_KEY_PREFIX = "venue:activity:quota:";
+
+    /**
+     * 活动已预留名额的用户（Hash: userId -> 名额数:预留时间戳，时间戳为0表示已随事务提交确认）
+     * 格式: venue:activity:quota:users:{activityId}
+     */
+    public static final String ACTIVITY_QUOTA_USERS_KEY_PREFIX = "venue:activity:quota:users:";
+
+    /**
+     * 待对账的活动（ZSet: activityId -> 最近一次名额变更时间戳）
+     */
+    public static final String ACTIVITY_QUOTA_DIRTY_KEY = "venue:activity:quota:dirty";
+
+    /**
+     * 活动名额对账任务的分布式锁，同一时刻只有一个实例执行对账
+     */
+    public static final String ACTIVITY_QUOTA_RECONCILE_LOCK_KEY = "venue:activity:quota:reconcile:lock";
+
+    /**
+     * 未确认的名额预留超过该时间（秒）仍没有对应的有效报名记录，视为泄漏并归还
+     */
+    public static final long ACTIVITY_QUOTA_RESERVATION_GRACE_SECONDS = 120;
+
+    /**
+     * 活动名额缓存在活动日期结束后继续保留的时间（小时）
+     */
+    public static final long ACTIVITY_QUOTA_RETAIN_HOURS = 24;
+
+    /**
+     * 场馆价格摘要刷新任务的分布式锁，同一时刻只有一个实例执行全量刷新
+     */
+    public static final String PRICE_SUMMARY_REFRESH_LOCK_KEY = "venue:price:summary:refresh:lock";
+
+    public static String buildSlotGridKey(Long venueId, LocalDate date) {
+        return SLOT_GRID_KEY_PREFIX + venueId + BOOKING_LOCK_KEY_SEPARATOR + date;
+    }
+
+    public static String buildSlotGridStateKey(Long venueId, LocalDate date) {
+        return SLOT_GRID_STATE_KEY_PREFIX + venueId + BOOKING_LOCK_KEY_SEPARATOR + date;
+    }
+
+    public static String buildSlotGridGenKey(Long venueId, LocalDate date) {
+        return SLOT_GRID_GEN_KEY_PREFIX + venueId + BOOKING_LOCK_KEY_SEPARATOR + date;
+    }
+
+    public static String buildAvailabilityIndexKey(LocalDate date) {
+        return AVAILABILITY_INDEX_KEY_PREFIX + date;
+    }
+
+    public static String buildAvailabilityIndexGenKey(LocalDate date) {
+        return AVAILABILITY_INDEX_GEN_KEY_PREFIX + date;
+    }
+
+    public static String buildActivityQuotaKey(Long activityId) {
+        return ACTIVITY_QUOTA_KEY_PREFIX + activityId;
+    }
+
+    public static String buildActivityQuotaUsersKey(Long activityId) {
+        return ACTIVITY_QUOTA_USERS_KEY_PREFIX + activityId;
+    }
 }
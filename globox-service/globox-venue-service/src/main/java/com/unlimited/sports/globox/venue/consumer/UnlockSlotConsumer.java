@@ -28,6 +28,8 @@ import com.unlimited.sports.globox.merchant.mapper.CourtMapper;
 import com.unlimited.sports.globox.merchant.mapper.VenueMapper;
 import com.unlimited.sports.globox.venue.mapper.VenueThirdPartyConfigMapper;
 import com.unlimited.sports.globox.venue.mapper.ThirdPartyPlatformMapper;
+import com.unlimited.sports.globox.venue.service.IActivityQuotaService;
+import com.unlimited.sports.globox.venue.service.IVenueSlotGridService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitHandler;
@@ -78,6 +80,12 @@ public class UnlockSlotConsumer {
     @Autowired
     private ThirdPartyPlatformAdapterFactory adapterFactory;
 
+    @Autowired
+    private IVenueSlotGridService venueSlotGridService;
+
+    @Autowired
+    private IActivityQuotaService activityQuotaService;
+
     /**
      * 处理解锁槽位消息
      * MQ自动确认搭配自己的消费失败重试
@@ -156,6 +164,15 @@ public class UnlockSlotConsumer {
                 userId, recordIds.size(), lockedRecordIds.size(), updatedCount);
 
         Long venueId = records.get(0).getVenueId();
+
+        // 事务提交后增量更新槽位网格（只释放本用户锁定的槽位）
+        List<Long> releasedTemplateIds = records.stream()
+                .filter(record -> record.getStatus() == BookingSlotStatus.LOCKED_IN.getValue())
+                .filter(record -> Objects.equals(record.getOperatorId(), userId))
+                .map(VenueBookingSlotRecord::getSlotTemplateId)
+                .toList();
+        venueSlotGridService.releaseSlots(venueId, records.get(0).getBookingDate().toLocalDate(), releasedTemplateIds);
+
         Venue venue = venueMapper.selectById(venueId);
         if(venue == null) {
             log.error("检查away获取到的场馆信息为空,消息{},venueId{}",message,venueId);
@@ -308,7 +325,7 @@ public class UnlockSlotConsumer {
      * 1. 根据参与记录ID（participantId）批量查询有效的参与记录
      * 2. 校验所有参与记录是否属于同一个活动
      * 3. 将这些记录标记为已取消（status=CANCELLED）
-     * 4. 原子性递减活动人数（支持部分删除）
+     * 4. 按有效报名记录重算活动人数，并归还 Redis 预留名额（支持部分删除）
      *
      * @param userId 用户ID
      * @param participantIds 要删除的参与记录ID列表（从recordIds传入）
@@ -362,21 +379,17 @@ public class UnlockSlotConsumer {
         log.info("[活动解绑] 成功取消参与记录 - activityId={}, userId={}, participantIds={}, 取消数量={}",
                 activityId, userId, participantIds, cancelCount);
 
-        // 原子性递减活动人数（数据库级别保证原子性）
-        int decrementCount = venueActivityMapper.update(null,
-                new LambdaUpdateWrapper<VenueActivity>()
-                        .setSql("current_participants = current_participants - " + cancelCount)
-                        .eq(VenueActivity::getActivityId, activityId)
-                        .apply("current_participants >= {0}", cancelCount)
-        );
+        // 按有效报名记录重算活动人数（数据库为准），事务提交后归还 Redis 中的名额
+        venueActivityMapper.syncCurrentParticipants(activityId, VenueActivityParticipantStatusEnum.ACTIVE.getValue());
+        activityQuotaService.release(activityId, userId, cancelCount);
 
-        if (decrementCount == 0) {
-            log.warn("[活动解绑] 递减失败 - 活动不存在或人数不足 - activityId={}, 需要递减={}",
-                    activityId, cancelCount);
-            return;
-        }
-
-        log.info("[活动解绑] 解绑成功 - activityId={}, userId={}, participantIds={}, 递减人数={}",
+        log.info("[活动解绑] 解绑成功 - activityId={}, userId={}, participantIds={}, 归还名额={}",
                 activityId, userId, participantIds, cancelCount);
+
+        // 活动人数变化，失效当天槽位网格
+        VenueActivity activity = venueActivityMapper.selectById(activityId);
+        if (activity != null) {
+            venueSlotGridService.evict(activity.getVenueId(), activity.getActivityDate());
+        }
     }
 }
@@ -0,0 +1,40 @@
+package com.unlimited.sports.globox.venue.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * 场馆空闲时段（同一场馆下开始/结束时间相同的空闲槽位合并为一行）
+ * 用于构建场馆可用性索引
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VenueFreeSlotRange {
+
+    /**
+     * 场馆ID
+     */
+    private Long venueId;
+
+    /**
+     * 预订日期（按单个场馆跨日期查询时返回）
+     */
+    private LocalDate bookingDate;
+
+    /**
+     * 槽位开始时间
+     */
+    private LocalTime startTime;
+
+    /**
+     * 槽位结束时间
+     */
+    private LocalTime endTime;
+}
@@ -0,0 +1,92 @@
+package com.unlimited.sports.globox.venue.dto;
+
+import com.unlimited.sports.globox.model.venue.entity.venues.VenueActivity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 场馆单日槽位网格（静态层）
+ * 与用户无关、只随商家配置变化的数据：场地、槽位模板、价格向量、活动占用
+ * 槽位占用状态单独存放在状态层 Hash 中，支持增量更新
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VenueSlotGrid {
+
+    /**
+     * 场馆ID
+     */
+    private Long venueId;
+
+    /**
+     * 预订日期
+     */
+    private LocalDate bookingDate;
+
+    /**
+     * 场地行，按 courtId 升序；当天不营业时为空列表
+     */
+    private List<CourtRow> courts;
+
+    /**
+     * 当天活动列表
+     */
+    private List<VenueActivity> activities;
+
+    /**
+     * 构建时间
+     */
+    private LocalDateTime builtAt;
+
+    /**
+     * 单个场地的槽位向量，各数组下标一一对应，按开始时间升序
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CourtRow {
+
+        private Long courtId;
+
+        private String courtName;
+
+        private Integer courtType;
+
+        private Integer groundType;
+
+        /**
+         * 槽位模板ID
+         */
+        private long[] templateIds;
+
+        /**
+         * 开始时间（一天中的秒数）
+         */
+        private int[] startSeconds;
+
+        /**
+         * 结束时间（一天中的秒数）
+         */
+        private int[] endSeconds;
+
+        /**
+         * 价格向量，null 表示未配置价格
+         */
+        private BigDecimal[] prices;
+
+        /**
+         * 占用该槽位的活动ID，0 表示未被活动占用
+         */
+        private long[] activityIds;
+    }
+}
@@ -20,6 +20,7 @@ import com.unlimited.sports.globox.venue.dto.SlotBookingContext;
 import com.unlimited.sports.globox.model.venue.entity.booking.VenueBookingSlotTemplate;
 import com.unlimited.sports.globox.venue.constants.BookingCacheConstants;
 
+import com.unlimited.sports.globox.common.lock.BatchLock;
 import com.unlimited.sports.globox.common.lock.RedisDistributedLock;
 import com.unlimited.sports.globox.model.venue.entity.venues.VenueActivity;
 
@@ -30,7 +31,6 @@ import com.unlimited.sports.globox.model.venue.entity.venues.VenueActivityPartic
 import lombok.extern.slf4j.Slf4j;
 import org.apache.dubbo.config.annotation.DubboReference;
 import org.apache.dubbo.config.annotation.DubboService;
-import org.redisson.api.RLock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -93,7 +93,7 @@ public class MerchantDubboServiceImpl implements MerchantDubboService {
                     .map(slotId -> buildLockKey(slotId, dto.getBookingDate()))
                     .collect(Collectors.toList());
 
-            List<RLock> locks = null;
+            BatchLock batchLock = null;
 
             try {
                 // 获取用户信息（昵称）
@@ -106,9 +106,10 @@ public class MerchantDubboServiceImpl implements MerchantDubboService {
                 }
 
                 // 批量获取所有槽位的锁
-                locks = redisDistributedLock.tryLockMultiple(lockKeys, 1, -1L, TimeUnit.SECONDS);
-                if (locks == null) {
-                    log.warn("获取分布式锁失败 - userId: {}, slotTemplateIds: {}", dto.getUserId(), dto.getSlotIds());
+                batchLock = redisDistributedLock.tryLockBatch(lockKeys, 1, -1L, TimeUnit.SECONDS);
+                if (!batchLock.isLocked()) {
+                    log.warn("获取分布式锁失败 - userId: {}, slotTemplateIds: {}, 冲突锁键: {}",
+                            dto.getUserId(), dto.getSlotIds(), batchLock.getConflictKeys());
                     return RpcResult.error(VenueCode.SLOT_BEING_BOOKED);
                 }
                 log.info("【锁包事务】成功获取分布式锁 - userId: {}, 槽位数: {}", dto.getUserId(), dto.getSlotIds().size());
@@ -122,8 +123,8 @@ public class MerchantDubboServiceImpl implements MerchantDubboService {
 
             } finally {
                 // 释放锁（无论事务成功还是失败）
-                if (locks != null) {
-                    redisDistributedLock.unlockMultiple(locks);
+                if (batchLock != null) {
+                    redisDistributedLock.unlockBatch(batchLock);
                     log.info("【锁包事务】释放分布式锁 - userId: {}", dto.getUserId());
                 }
             }
@@ -2,17 +2,20 @@ package com.unlimited.sports.globox.venue.dubbo;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.unlimited.sports.globox.common.result.RpcResult;
+import com.unlimited.sports.globox.common.result.VenueCode;
 import com.unlimited.sports.globox.dubbo.venue.IVenueSearchDataService;
 import com.unlimited.sports.globox.merchant.mapper.CourtMapper;
 import com.unlimited.sports.globox.merchant.mapper.VenueMapper;
 import com.unlimited.sports.globox.merchant.mapper.VenueFacilityRelationMapper;
 import com.unlimited.sports.globox.model.merchant.entity.Court;
 import com.unlimited.sports.globox.model.merchant.entity.Venue;
+import com.unlimited.sports.globox.model.search.dto.SearchSyncCursor;
+import com.unlimited.sports.globox.model.search.dto.SearchSyncPage;
 import com.unlimited.sports.globox.model.venue.entity.venues.VenuePriceTemplatePeriod;
 import com.unlimited.sports.globox.model.venue.enums.VenueStatus;
 import com.unlimited.sports.globox.model.venue.entity.venues.VenueFacilityRelation;
 import com.unlimited.sports.globox.model.venue.vo.VenueSyncVO;
-import com.unlimited.sports.globox.venue.mapper.VenueBookingSlotRecordMapper;
+import com.unlimited.sports.globox.venue.service.IVenueAvailabilityIndexService;
 import com.unlimited.sports.globox.venue.mapper.venues.VenuePriceTemplatePeriodMapper;
 import com.unlimited.sports.globox.venue.service.impl.AwayVenueSearchService;
 import lombok.extern.slf4j.Slf4j;
@@ -22,7 +25,6 @@ import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -37,10 +39,10 @@ import java.util.stream.Collectors;
 public class VenueSearchDataServiceImpl implements IVenueSearchDataService {
 
     @Autowired
-    private VenueBookingSlotRecordMapper venueBookingSlotRecordMapper;
+    private AwayVenueSearchService awayVenueSearchService;
 
     @Autowired
-    private AwayVenueSearchService awayVenueSearchService;
+    private IVenueAvailabilityIndexService venueAvailabilityIndexService;
 
     @Autowired
     private VenueMapper venueMapper;
@@ -111,21 +113,15 @@ public class VenueSearchDataServiceImpl implements IVenueSearchDataService {
      */
     private Set<Long> queryUnavailableHomeVenueIds(LocalDate bookingDate, LocalTime startTime, LocalTime endTime) {
         try {
-            // 调用Mapper查询不可用的场馆ID
-            // venueIds为null表示查询所有场馆
-            List<Long> unavailableIds = venueBookingSlotRecordMapper.selectUnavailableVenueIds(
-                    null,
+            // 通过场馆可用性索引查询不可用的场馆ID
+            Set<Long> unavailableIds = venueAvailabilityIndexService.getUnavailableVenueIds(
                     bookingDate,
                     startTime,
                     endTime
             );
 
-            if (unavailableIds == null) {
-                return new HashSet<>();
-            }
-
             log.info("HOME场馆查询完成: 日期={}, 时间={}-{}, 不可用数={}", bookingDate, startTime, endTime, unavailableIds.size());
-            return new HashSet<>(unavailableIds);
+            return unavailableIds;
 
         } catch (Exception e) {
             log.error("查询HOME场馆不可用ID异常: 日期={}, 时间={}-{}", bookingDate, startTime, endTime, e);
@@ -164,23 +160,32 @@ public class VenueSearchDataServiceImpl implements IVenueSearchDataService {
     }
 
     /**
-     * 增量同步场馆数据
+     * 按 (updatedAt, venueId) 游标分页增量同步场馆数据
      *
-     * @param updatedTime 上一次同步的时间戳，为空表示同步全部数据，不为空表示同步该时间之后的数据
-     * @return 同步的场馆数据列表（VenueSyncVO格式）
+     * @param cursor 上一页游标，为空表示从头同步全部数据
+     * @param pageSize 每页条数
+     * @return 一页场馆数据（VenueSyncVO格式）及下一页游标
      *
      * 注意：同步所有状态的场馆，由search-service根据状态决定是否保存到ES或删除
      */
     @Override
-    public RpcResult<List<VenueSyncVO>> syncVenueData(LocalDateTime updatedTime) {
+    public RpcResult<SearchSyncPage<VenueSyncVO>> syncVenueData(SearchSyncCursor cursor, int pageSize) {
         try {
-            log.info("开始同步场馆数据: updatedTime={}", updatedTime);
-            //批量查询场馆数据（同步所有状态的场馆）
-            List<Venue> venues = venueMapper.selectList(new LambdaQueryWrapper<Venue>()
-                    .gt(updatedTime != null, Venue::getUpdatedAt, updatedTime));
+            int limit = SearchSyncPage.clampPageSize(pageSize);
+            log.info("开始同步场馆数据: cursor={}, pageSize={}", cursor, limit);
+            //按游标分页查询场馆数据（同步所有状态的场馆）
+            LambdaQueryWrapper<Venue> wrapper = new LambdaQueryWrapper<>();
+            if (cursor != null && cursor.getUpdatedAt() != null) {
+                long lastId = cursor.getLastId() != null ? cursor.getLastId() : 0L;
+                wrapper.and(w -> w.gt(Venue::getUpdatedAt, cursor.getUpdatedAt())
+                        .or(o -> o.eq(Venue::getUpdatedAt, cursor.getUpdatedAt()).gt(Venue::getVenueId, lastId)));
+            }
+            wrapper.orderByAsc(Venue::getUpdatedAt, Venue::getVenueId)
+                    .last("LIMIT " + limit);
+            List<Venue> venues = venueMapper.selectList(wrapper);
             if (venues == null || venues.isEmpty()) {
                 log.info("没有需要同步的场馆数据");
-                return RpcResult.ok(new ArrayList<>());
+                return RpcResult.ok(SearchSyncPage.empty());
             }
             // 批量获取所有场馆的Court数据
             List<Long> venueIds = venues.stream().map(Venue::getVenueId).toList();
@@ -231,12 +236,17 @@ public class VenueSearchDataServiceImpl implements IVenueSearchDataService {
                 }
             });
 
-            log.info("场馆数据同步完成: 转换数={}", vos.size());
-            return RpcResult.ok(vos);
+            Venue last = venues.get(venues.size() - 1);
+            log.info("场馆数据同步完成: 查询数={}, 转换数={}", venues.size(), vos.size());
+            return RpcResult.ok(SearchSyncPage.<VenueSyncVO>builder()
+                    .records(vos)
+                    .nextCursor(new SearchSyncCursor(last.getUpdatedAt(), last.getVenueId()))
+                    .hasMore(venues.size() == limit)
+                    .build());
 
         } catch (Exception e) {
-            log.error("同步场馆数据异常: updatedTime={}", updatedTime, e);
-            return RpcResult.ok(new ArrayList<>());
+            log.error("同步场馆数据异常: cursor={}", cursor, e);
+            return RpcResult.error(VenueCode.VENUE_SYNC_FAILED);
         }
     }
 
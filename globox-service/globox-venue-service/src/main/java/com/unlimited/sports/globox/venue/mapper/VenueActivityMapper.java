@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.unlimited.sports.globox.model.venue.entity.venues.VenueActivity;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -14,6 +15,17 @@ import java.util.List;
 @Mapper
 public interface VenueActivityMapper extends BaseMapper<VenueActivity> {
 
-
-
+    /**
+     * 按有效报名记录数重算活动当前参与人数
+     * 只有人数不一致时才更新，返回值大于0表示人数发生了变化
+     *
+     * @param activityId 活动ID
+     * @param activeStatus 有效报名状态值
+     * @return 更新行数
+     */
+    @Update("UPDATE venue_activity SET current_participants = " +
+            "(SELECT COUNT(*) FROM venue_activity_participant WHERE activity_id = #{activityId} AND status = #{activeStatus}) " +
+            "WHERE activity_id = #{activityId} AND current_participants <> " +
+            "(SELECT COUNT(*) FROM venue_activity_participant WHERE activity_id = #{activityId} AND status = #{activeStatus})")
+    int syncCurrentParticipants(@Param("activityId") Long activityId, @Param("activeStatus") Integer activeStatus);
 }
@@ -2,11 +2,12 @@ package com.unlimited.sports.globox.venue.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.unlimited.sports.globox.model.venue.entity.booking.VenueBookingSlotRecord;
+import com.unlimited.sports.globox.model.venue.enums.OperatorSourceEnum;
+import com.unlimited.sports.globox.venue.dto.VenueFreeSlotRange;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
 import java.time.LocalDate;
-import java.time.LocalTime;
 import java.util.List;
 
 /**
@@ -64,35 +65,62 @@ public interface VenueBookingSlotRecordMapper extends BaseMapper<VenueBookingSlo
     );
 
     /**
-     * 查询在指定时间段内没有可用场地的场馆ID列表
-     * 用于时段预订过滤
+     * 查询正常营业场馆在指定日期的空闲时段
+     * 同一场馆下开始/结束时间相同的空闲槽位合并为一行，用于构建场馆可用性索引
      *
-     * @param venueIds 要检查的场馆ID列表（可选，为空则检查所有）
+     * @param venueIds 要查询的场馆ID列表（可选，为空则查询所有场馆）
      * @param bookingDate 预订日期
-     * @param startTime 开始时间
-     * @param endTime 结束时间
-     * @return 没有可用场地的场馆ID列表
+     * @return 空闲时段列表
      */
-    List<Long> selectUnavailableVenueIds(
+    List<VenueFreeSlotRange> selectFreeSlotRanges(
             @Param("venueIds") List<Long> venueIds,
-            @Param("bookingDate") LocalDate bookingDate,
-            @Param("startTime") LocalTime startTime,
-            @Param("endTime") LocalTime endTime
+            @Param("bookingDate") LocalDate bookingDate
+    );
+
+    /**
+     * 查询单个场馆在多个日期的空闲时段
+     * 同一日期下开始/结束时间相同的空闲槽位合并为一行，场馆非正常营业时返回空列表
+     *
+     * @param venueId 场馆ID
+     * @param bookingDates 预订日期列表（不能为空）
+     * @return 空闲时段列表（带 bookingDate）
+     */
+    List<VenueFreeSlotRange> selectVenueFreeSlotRanges(
+            @Param("venueId") Long venueId,
+            @Param("bookingDates") List<LocalDate> bookingDates
     );
 
     /**
-     * 原子性地更新槽位状态（只有当前状态为available时才能更新）
-     * 返回受影响的行数，0表示该槽位已被其他用户占用
+     * 批量原子性地占用槽位（只有当前状态为available的记录才会被更新）
+     * 返回受影响的行数，小于记录数表示部分槽位已被其他用户占用
      *
-     * @param recordId 记录ID
+     * @param recordIds 记录ID列表
      * @param newStatus 新状态
+     * @param lockedType 锁定类型
+     * @param operatorSource 操作人来源
      * @param userId 操作人ID
+     * @param userName 用户昵称
+     * @param userPhone 用户手机号
      * @return 受影响的行数
      */
-    int updateStatusIfAvailable(
-            @Param("recordId") Long recordId,
+    int updateStatusIfAvailableBatch(
+            @Param("recordIds") List<Long> recordIds,
             @Param("newStatus") Integer newStatus,
-            @Param("userId") Long userId
+            @Param("lockedType") Integer lockedType,
+            @Param("operatorSource") OperatorSourceEnum operatorSource,
+            @Param("userId") Long userId,
+            @Param("userName") String userName,
+            @Param("userPhone") String userPhone
     );
 
+    /**
+     * 批量插入槽位记录（单条 INSERT，全部成功或整体失败）
+     * 任一行唯一键冲突（槽位已被并发写入）时抛出 {@link org.springframework.dao.DuplicateKeyException}，
+     * 其他错误按原异常抛出，不会被忽略
+     *
+     * @param records 槽位记录列表
+     * @return 插入的行数
+     */
+    int batchInsert(@Param("records") List<VenueBookingSlotRecord> records);
+
 }
@@ -0,0 +1,40 @@
+package com.unlimited.sports.globox.venue.scheduled;
+
+import com.unlimited.sports.globox.common.lock.RedisLock;
+import com.unlimited.sports.globox.venue.constants.BookingCacheConstants;
+import com.unlimited.sports.globox.venue.service.IActivityQuotaService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 活动名额对账定时任务
+ *
+ * 负责：
+ * 1. 按有效报名记录数批量回写待对账活动的 current_participants
+ * 2. 归还超过宽限期仍未确认的泄漏预留
+ *
+ * 每轮先抢占分布式锁（不等待），同一时刻只有一个实例执行对账，其余实例跳过本轮；
+ * 锁由看门狗续期，持有锁的实例宕机后锁过期，由其他实例在下一轮接手
+ */
+@Slf4j
+@Component
+public class ActivityQuotaReconcileHandler {
+
+    @Autowired
+    private IActivityQuotaService activityQuotaService;
+
+    /**
+     * 每2秒执行一次，上一轮结束后再开始下一轮
+     */
+    @Scheduled(initialDelay = 10_000, fixedDelay = 2_000)
+    @RedisLock(value = "'" + BookingCacheConstants.ACTIVITY_QUOTA_RECONCILE_LOCK_KEY + "'", waitTime = 0, failFast = false)
+    public void reconcile() {
+        try {
+            activityQuotaService.reconcileDirty();
+        } catch (Exception e) {
+            log.error("[定时任务] 活动名额对账异常", e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.unlimited.sports.globox.venue.scheduled;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.unlimited.sports.globox.common.lock.RedisLock;
+import com.unlimited.sports.globox.model.venue.entity.venues.ThirdPartyPlatform;
+import com.unlimited.sports.globox.model.venue.entity.venues.VenueThirdPartyConfig;
+import com.unlimited.sports.globox.model.venue.enums.VenueThirdPartyConfigStatusEnum;
+import com.unlimited.sports.globox.venue.adapter.ThirdPartyPlatformAdapter;
+import com.unlimited.sports.globox.venue.adapter.ThirdPartyPlatformAdapterFactory;
+import com.unlimited.sports.globox.venue.adapter.constant.AwayVenueCacheConstants;
+import com.unlimited.sports.globox.venue.adapter.dto.AwaySlotCacheEntry;
+import com.unlimited.sports.globox.venue.config.AwayConfig;
+import com.unlimited.sports.globox.venue.mapper.ThirdPartyPlatformMapper;
+import com.unlimited.sports.globox.venue.mapper.VenueThirdPartyConfigMapper;
+import com.unlimited.sports.globox.venue.service.IAwaySlotCacheService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Away球场槽位预取定时任务
+ *
+ * 负责：
+ * 1. 为所有正常状态的Away球场预取未来N天的槽位数据
+ * 2. 只刷新缺失或即将过新鲜期的key，使搜索和槽位查询尽量命中新鲜缓存，不阻塞在第三方API上
+ *
+ * 每轮先抢占分布式锁（不等待），同一时刻只有一个实例执行预取，其余实例跳过本轮；
+ * 同一key仍由 Redis 刷新锁保证与读路径的同步回源不重复调用第三方API
+ */
+@Slf4j
+@Component
+public class AwaySlotPrefetchHandler {
+
+    /**
+     * 提前刷新的时间窗口（秒）：数据在新鲜期结束前这段时间内即被刷新
+     */
+    private static final long REFRESH_AHEAD_SECONDS = 90;
+
+    /**
+     * 单轮预取的最长执行时间（秒）
+     */
+    private static final long ROUND_TIMEOUT_SECONDS = 240;
+
+    @Autowired
+    private AwayConfig awayConfig;
+
+    @Autowired
+    private VenueThirdPartyConfigMapper venueThirdPartyConfigMapper;
+
+    @Autowired
+    private ThirdPartyPlatformMapper thirdPartyPlatformMapper;
+
+    @Autowired
+    private ThirdPartyPlatformAdapterFactory adapterFactory;
+
+    @Autowired
+    private IAwaySlotCacheService awaySlotCacheService;
+
+    /**
+     * 每分钟检查一次，上一轮结束后再开始下一轮
+     */
+    @Scheduled(initialDelay = 30_000, fixedDelay = 60_000)
+    @RedisLock(value = "'" + AwayVenueCacheConstants.SLOTS_PREFETCH_LOCK_KEY + "'", waitTime = 0, failFast = false)
+    public void prefetch() {
+        AwayConfig.Prefetch prefetchConfig = awayConfig.getPrefetch();
+        if (prefetchConfig == null || !prefetchConfig.isEnabled()) {
+            return;
+        }
+
+        List<VenueThirdPartyConfig> configs = venueThirdPartyConfigMapper.selectList(
+                new LambdaQueryWrapper<VenueThirdPartyConfig>()
+                        .eq(VenueThirdPartyConfig::getStatus, VenueThirdPartyConfigStatusEnum.NORMAL.getValue()));
+        if (configs.isEmpty()) {
+            return;
+        }
+
+        Map<Long, String> platformCodeById = thirdPartyPlatformMapper.selectList(null).stream()
+                .collect(Collectors.toMap(ThirdPartyPlatform::getPlatformId,
+                        ThirdPartyPlatform::getPlatformCode, (a, b) -> a));
+        Map<Long, VenueThirdPartyConfig> configByVenueId = configs.stream()
+                .collect(Collectors.toMap(VenueThirdPartyConfig::getVenueId, Function.identity(), (a, b) -> a));
+
+        // 收集需要刷新的 (venueId, date)
+        List<Map.Entry<VenueThirdPartyConfig, LocalDate>> tasks = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < prefetchConfig.getDays(); i++) {
+            LocalDate date = today.plusDays(i);
+            Map<Long, AwaySlotCacheEntry> cached = awaySlotCacheService.getCachedEntries(configByVenueId.keySet(), date);
+            configByVenueId.forEach((venueId, config) -> {
+                if (needsRefresh(cached.get(venueId))) {
+                    tasks.add(Map.entry(config, date));
+                }
+            });
+        }
+        if (tasks.isEmpty()) {
+            log.debug("[定时任务] Away槽位缓存均新鲜，无需预取");
+            return;
+        }
+
+        log.info("[定时任务] 开始预取Away槽位: 场馆数={}, 待刷新key数={}", configs.size(), tasks.size());
+        AtomicInteger refreshed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, prefetchConfig.getConcurrency()));
+        try {
+            List<CompletableFuture<Void>> futures = tasks.stream()
+                    .map(task -> CompletableFuture.runAsync(() -> {
+                        VenueThirdPartyConfig config = task.getKey();
+                        LocalDate date = task.getValue();
+                        String platformCode = platformCodeById.get(config.getThirdPartyPlatformId());
+                        if (platformCode == null) {
+                            log.warn("[定时任务] 未找到第三方平台配置: thirdPartyPlatformId={}, venueId={}",
+                                    config.getThirdPartyPlatformId(), config.getVenueId());
+                            return;
+                        }
+                        try {
+                            ThirdPartyPlatformAdapter adapter = adapterFactory.getAdapter(platformCode);
+                            if (awaySlotCacheService.refresh(config.getVenueId(), date,
+                                    () -> adapter.querySlotsFromAPI(config, date))) {
+                                refreshed.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            log.error("[定时任务] 预取Away槽位异常: venueId={}, date={}", config.getVenueId(), date, e);
+                        }
+                    }, executor))
+                    .toList();
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(ROUND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            log.warn("[定时任务] Away槽位预取超时，剩余任务下一轮继续");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("[定时任务] Away槽位预取异常", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("[定时任务] Away槽位预取完成: 刷新成功={}/{}", refreshed.get(), tasks.size());
+    }
+
+    private boolean needsRefresh(AwaySlotCacheEntry entry) {
+        return entry == null
+                || entry.ageSeconds() >= AwayVenueCacheConstants.SLOTS_CACHE_FRESH_SECONDS - REFRESH_AHEAD_SECONDS;
+    }
+}
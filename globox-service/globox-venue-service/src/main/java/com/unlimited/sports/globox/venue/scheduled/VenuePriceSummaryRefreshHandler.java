@@ -0,0 +1,38 @@
+package com.unlimited.sports.globox.venue.scheduled;
+
+import com.unlimited.sports.globox.common.lock.RedisLock;
+import com.unlimited.sports.globox.venue.constants.BookingCacheConstants;
+import com.unlimited.sports.globox.venue.service.IVenuePriceService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 场馆价格摘要刷新定时任务
+ *
+ * 价格摘要（venues.min_price / max_price）取自场馆默认模板的启用时段，模板变更时已即时刷新；
+ * 直接写库修改的模板时段没有触发点，因此定期全量重算兜底
+ *
+ * 每轮先抢占分布式锁（不等待），同一时刻只有一个实例执行全量刷新，其余实例跳过本轮
+ */
+@Slf4j
+@Component
+public class VenuePriceSummaryRefreshHandler {
+
+    @Autowired
+    private IVenuePriceService venuePriceService;
+
+    /**
+     * 每10分钟执行一次，上一轮结束后再开始下一轮
+     */
+    @Scheduled(initialDelay = 60_000, fixedDelay = 600_000)
+    @RedisLock(value = "'" + BookingCacheConstants.PRICE_SUMMARY_REFRESH_LOCK_KEY + "'", waitTime = 0, failFast = false)
+    public void refresh() {
+        try {
+            venuePriceService.refreshAllPriceSummaries();
+        } catch (Exception e) {
+            log.error("[定时任务] 场馆价格摘要刷新异常", e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.unlimited.sports.globox.venue.service;
+
+import com.unlimited.sports.globox.model.venue.entity.venues.VenueActivity;
+
+/**
+ * 活动名额预留服务
+ * 有人数限制的活动把剩余名额预加载到 Redis，报名时用 Lua 原子扣减并按用户去重，
+ * 不再在报名事务中对 venue_activity 同一行加锁；current_participants 由定时对账按有效报名记录数回写，
+ * 数据库报名记录始终是最终依据
+ */
+public interface IActivityQuotaService {
+
+    /**
+     * 为用户预留活动名额
+     * 在报名事务内调用：事务提交后确认预留，事务回滚后归还名额
+     *
+     * @param activity 活动
+     * @param userId 用户ID
+     * @param quantity 名额数
+     * @throws com.unlimited.sports.globox.common.exception.GloboxApplicationException 已报名或名额不足
+     */
+    void reserve(VenueActivity activity, Long userId, int quantity);
+
+    /**
+     * 归还用户已确认的名额（报名取消后调用，事务内调用时在提交后执行）
+     *
+     * @param activityId 活动ID
+     * @param userId 用户ID
+     * @param quantity 取消的名额数
+     */
+    void release(Long activityId, Long userId, int quantity);
+
+    /**
+     * 活动最大人数变更后调整剩余名额（事务内调用时在提交后执行）
+     * 新旧人数都有限制时按差值调整；在有限制与不限人数之间切换时删除名额缓存，下次报名按有效报名记录重新加载
+     *
+     * @param activityId 活动ID
+     * @param oldCapacity 原最大人数，null 或不大于 0 表示不限人数
+     * @param newCapacity 新最大人数，null 或不大于 0 表示不限人数
+     */
+    void adjustCapacity(Long activityId, Integer oldCapacity, Integer newCapacity);
+
+    /**
+     * 删除活动名额缓存（活动取消后调用，事务内调用时在提交后执行）
+     *
+     * @param activityId 活动ID
+     */
+    void evict(Long activityId);
+
+    /**
+     * 标记活动待对账（事务内调用时在提交后执行）
+     *
+     * @param activityId 活动ID
+     */
+    void markDirty(Long activityId);
+
+    /**
+     * 对账所有待对账的活动：按有效报名记录数回写 current_participants，并归还泄漏的预留
+     */
+    void reconcileDirty();
+}
@@ -0,0 +1,77 @@
+package com.unlimited.sports.globox.venue.service;
+
+import com.unlimited.sports.globox.venue.adapter.dto.AwaySlotCacheEntry;
+import com.unlimited.sports.globox.venue.adapter.dto.ThirdPartyCourtSlotDto;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Away球场槽位缓存服务
+ * 采用 stale-while-revalidate 策略：新鲜期内直接返回；超过新鲜期但未硬过期时返回旧数据并后台刷新；
+ * 只有缓存完全缺失时才同步调用第三方API。同一 (venueId, date) 的回源在进程内和实例间都只有一个在执行。
+ * 下单预览、计价等路径使用 {@link #getBoundedEntry}，数据年龄有上限，不会读到旧数据
+ */
+public interface IAwaySlotCacheService {
+
+    /**
+     * 获取槽位缓存条目，缓存缺失时同步回源
+     *
+     * @param venueId 场馆ID
+     * @param date 日期
+     * @param loader 第三方API查询
+     * @return 缓存条目，回源失败时返回null
+     */
+    AwaySlotCacheEntry getEntry(Long venueId, LocalDate date, Supplier<List<ThirdPartyCourtSlotDto>> loader);
+
+    /**
+     * 获取数据年龄不超过 maxAgeSeconds 的槽位缓存条目，缓存缺失或超过该年龄时同步回源
+     *
+     * @param venueId 场馆ID
+     * @param date 日期
+     * @param loader 第三方API查询
+     * @param maxAgeSeconds 允许的最大数据年龄（秒）
+     * @return 缓存条目，回源失败时返回null（不会退回更旧的数据）
+     */
+    AwaySlotCacheEntry getBoundedEntry(Long venueId, LocalDate date, Supplier<List<ThirdPartyCourtSlotDto>> loader,
+                                       long maxAgeSeconds);
+
+    /**
+     * 批量读取已缓存的槽位条目（不回源）
+     *
+     * @param venueIds 场馆ID列表
+     * @param date 日期
+     * @return venueId -> 缓存条目，未缓存的场馆不在结果中
+     */
+    Map<Long, AwaySlotCacheEntry> getCachedEntries(Collection<Long> venueIds, LocalDate date);
+
+    /**
+     * 同步刷新槽位缓存（其他实例正在刷新时直接跳过）
+     *
+     * @param venueId 场馆ID
+     * @param date 日期
+     * @param loader 第三方API查询
+     * @return 是否由本次调用完成了刷新
+     */
+    boolean refresh(Long venueId, LocalDate date, Supplier<List<ThirdPartyCourtSlotDto>> loader);
+
+    /**
+     * 异步刷新槽位缓存，同一key已有刷新在执行时忽略
+     *
+     * @param venueId 场馆ID
+     * @param date 日期
+     * @param loader 第三方API查询
+     */
+    void refreshAsync(Long venueId, LocalDate date, Supplier<List<ThirdPartyCourtSlotDto>> loader);
+
+    /**
+     * 判断缓存条目是否已超过新鲜期
+     *
+     * @param entry 缓存条目
+     * @return true表示需要刷新
+     */
+    boolean isStale(AwaySlotCacheEntry entry);
+}
@@ -12,8 +12,8 @@ public interface IVenueActivityParticipantService extends IService<VenueActivity
 
     /**
      * 用户报名活动
-     * 原子操作：检查人数 + 增加参与人数 + 插入参与记录
-     * 防止超卖问题
+     * 名额在 Redis 中原子预留（防止超卖、重复报名），事务内只插入参与记录，
+     * 活动参与人数由对账任务异步回写
      *
      * @param activityId 活动ID
      * @param userId 用户ID
@@ -23,8 +23,8 @@ public interface IVenueActivityParticipantService extends IService<VenueActivity
 
     /**
      * 批量报名活动（支持多个名额）
-     * 原子操作：检查人数 + 一次性增加参与人数 + 批量插入参与记录
-     * 如果名额不足或插入失败，整个事务回滚，一个名额都不占用
+     * 名额在 Redis 中一次性原子预留，事务内批量插入参与记录
+     * 如果名额不足或插入失败，整个事务回滚并归还预留，一个名额都不占用
      *
      * @param activityId 活动ID
      * @param userId 用户ID
@@ -0,0 +1,52 @@
+package com.unlimited.sports.globox.venue.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+/**
+ * 场馆可用性索引服务
+ * 按日期为每个正常营业的场馆维护一个半小时粒度的空闲位图（所有开放场地的空闲槽位按位或），
+ * "指定时间段内是否有场地空闲"的判断只需一次位与运算，代替逐请求的 场地 × 模板 × 记录 关联查询
+ */
+public interface IVenueAvailabilityIndexService {
+
+    /**
+     * 查询在指定时间段内有空闲场地的正常营业场馆ID（候选场馆）
+     * 只要时间段内有任意一个半小时时段有场地空闲，场馆即视为可用
+     *
+     * @param bookingDate 预订日期
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @return 可用的场馆ID集合
+     */
+    Set<Long> getAvailableVenueIds(LocalDate bookingDate, LocalTime startTime, LocalTime endTime);
+
+    /**
+     * 查询在指定时间段内没有任何空闲场地的正常营业场馆ID
+     * 供搜索服务按排除列表过滤使用，场馆库内的搜索请使用 {@link #getAvailableVenueIds}
+     *
+     * @param bookingDate 预订日期
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @return 不可用的场馆ID集合
+     */
+    Set<Long> getUnavailableVenueIds(LocalDate bookingDate, LocalTime startTime, LocalTime endTime);
+
+    /**
+     * 重新计算场馆在指定日期的空闲位图（索引不存在时忽略，等待查询时整体构建）
+     * 槽位锁定/解锁、活动变更等事务提交后调用
+     *
+     * @param venueId 场馆ID
+     * @param bookingDate 日期
+     */
+    void refreshVenue(Long venueId, LocalDate bookingDate);
+
+    /**
+     * 重新计算场馆在所有已构建日期上的空闲位图（一次查询覆盖这些日期）
+     * 场地、槽位模板等配置变更事务提交后调用
+     *
+     * @param venueId 场馆ID
+     */
+    void refreshVenue(Long venueId);
+}
@@ -64,4 +64,20 @@ public interface IVenuePriceService {
             Long venueId,
             LocalDate bookingDate,
             Map<Long, Court> courtMap);
+
+    /**
+     * 刷新场馆价格摘要（min_price / max_price）
+     * 取场馆默认模板启用时段的工作日/周末/节假日价格，与搜索价格筛选使用同一来源，
+     * 在调用方事务内执行
+     *
+     * @param venueId 场馆ID
+     */
+    void refreshPriceSummary(Long venueId);
+
+    /**
+     * 刷新所有启用场馆的价格摘要（用于初始化或数据修复）
+     *
+     * @return 刷新的场馆数量
+     */
+    int refreshAllPriceSummaries();
 }
@@ -0,0 +1,63 @@
+package com.unlimited.sports.globox.venue.service;
+
+import com.unlimited.sports.globox.model.merchant.entity.Venue;
+import com.unlimited.sports.globox.model.venue.vo.CourtSlotVo;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 场馆槽位网格服务
+ * 按 (venueId, date) 物化槽位可用性网格，读路径只访问 Redis，
+ * 槽位锁定/解锁时增量更新，配置变更时失效重建
+ */
+public interface IVenueSlotGridService {
+
+    /**
+     * 基于槽位网格构建场地槽位列表（HOME 场馆）
+     *
+     * @param venue 场馆
+     * @param bookingDate 预订日期
+     * @param userId 当前用户ID（可为空）
+     * @return 场地槽位列表
+     */
+    List<CourtSlotVo> getCourtSlots(Venue venue, LocalDate bookingDate, Long userId);
+
+    /**
+     * 标记槽位被占用（事务内调用时在提交后生效）
+     *
+     * @param venueId 场馆ID
+     * @param bookingDate 预订日期
+     * @param status 槽位状态
+     * @param operatorId 操作人ID
+     * @param recordIdByTemplateId 槽位模板ID -> 槽位记录ID
+     */
+    void occupySlots(Long venueId, LocalDate bookingDate, int status, Long operatorId,
+                     Map<Long, Long> recordIdByTemplateId);
+
+    /**
+     * 标记槽位已释放（事务内调用时在提交后生效）
+     *
+     * @param venueId 场馆ID
+     * @param bookingDate 预订日期
+     * @param templateIds 槽位模板ID
+     */
+    void releaseSlots(Long venueId, LocalDate bookingDate, Collection<Long> templateIds);
+
+    /**
+     * 失效指定日期的静态层（活动、价格等变化时调用）
+     *
+     * @param venueId 场馆ID
+     * @param bookingDate 日期
+     */
+    void evict(Long venueId, LocalDate bookingDate);
+
+    /**
+     * 失效场馆近期所有日期的静态层（场地、模板、价格模板等配置变化时调用）
+     *
+     * @param venueId 场馆ID
+     */
+    void evictVenue(Long venueId);
+}
@@ -0,0 +1,435 @@
+package com.unlimited.sports.globox.venue.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.unlimited.sports.globox.common.exception.GloboxApplicationException;
+import com.unlimited.sports.globox.common.result.VenueCode;
+import com.unlimited.sports.globox.model.venue.entity.venues.VenueActivity;
+import com.unlimited.sports.globox.model.venue.entity.venues.VenueActivityParticipant;
+import com.unlimited.sports.globox.model.venue.entity.venues.VenueActivityParticipantStatusEnum;
+import com.unlimited.sports.globox.venue.constants.BookingCacheConstants;
+import com.unlimited.sports.globox.venue.mapper.VenueActivityMapper;
+import com.unlimited.sports.globox.venue.mapper.VenueActivityParticipantMapper;
+import com.unlimited.sports.globox.venue.service.IActivityQuotaService;
+import com.unlimited.sports.globox.venue.service.IVenueSlotGridService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 活动名额预留服务实现
+ *
+ * 每个有人数限制的活动在 Redis 中有两个 key：剩余名额（String）和已预留用户（Hash），
+ * 两者由加载脚本一次性写入、同一 TTL。报名时的去重、名额判断和扣减在一个 Lua 脚本内完成。
+ * 预留先以"名额数:时间戳"的形式写入，报名事务提交后改为"名额数:0"表示已确认；
+ * 事务回滚时按原值归还。进程在两者之间崩溃留下的预留由对账任务在宽限期后核对数据库归还
+ */
+@Slf4j
+@Service
+public class ActivityQuotaServiceImpl implements IActivityQuotaService {
+
+    /**
+     * 预留名额
+     * KEYS[1]=剩余名额 KEYS[2]=预留用户 KEYS[3]=待对账集合
+     * ARGV[1]=userId ARGV[2]=名额数 ARGV[3]=当前时间戳 ARGV[4]=activityId
+     * 返回：1成功 0名额不足 -1未加载 -2已报名
+     */
+    private static final DefaultRedisScript<Long> RESERVE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return -1 end " +
+            "if redis.call('HEXISTS', KEYS[2], ARGV[1]) == 1 then return -2 end " +
+            "if tonumber(redis.call('GET', KEYS[1])) < tonumber(ARGV[2]) then return 0 end " +
+            "redis.call('DECRBY', KEYS[1], ARGV[2]) " +
+            "redis.call('HSET', KEYS[2], ARGV[1], ARGV[2] .. ':' .. ARGV[3]) " +
+            "redis.call('ZADD', KEYS[3], ARGV[3], ARGV[4]) " +
+            "return 1",
+            Long.class);
+
+    /**
+     * 预留值未变化时确认预留
+     * KEYS[1]=预留用户 ARGV[1]=userId ARGV[2]=预留值
+     */
+    private static final DefaultRedisScript<Long> CONFIRM_SCRIPT = new DefaultRedisScript<>(
+            "local v = redis.call('HGET', KEYS[1], ARGV[1]) " +
+            "if v ~= ARGV[2] then return 0 end " +
+            "redis.call('HSET', KEYS[1], ARGV[1], string.match(v, '^(%d+)') .. ':0') " +
+            "return 1",
+            Long.class);
+
+    /**
+     * 预留值未变化时撤销预留并归还名额
+     * KEYS[1]=剩余名额 KEYS[2]=预留用户 ARGV[1]=userId ARGV[2]=预留值
+     */
+    private static final DefaultRedisScript<Long> CANCEL_RESERVATION_SCRIPT = new DefaultRedisScript<>(
+            "local v = redis.call('HGET', KEYS[2], ARGV[1]) " +
+            "if v ~= ARGV[2] then return 0 end " +
+            "redis.call('HDEL', KEYS[2], ARGV[1]) " +
+            "if redis.call('EXISTS', KEYS[1]) == 1 then " +
+            "redis.call('INCRBY', KEYS[1], tonumber(string.match(v, '^(%d+)'))) end " +
+            "return 1",
+            Long.class);
+
+    /**
+     * 归还已确认的部分或全部名额
+     * KEYS[1]=剩余名额 KEYS[2]=预留用户 ARGV[1]=userId ARGV[2]=归还名额数
+     * 返回实际归还的名额数
+     */
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "local v = redis.call('HGET', KEYS[2], ARGV[1]) " +
+            "if not v then return 0 end " +
+            "local held = tonumber(string.match(v, '^(%d+)')) " +
+            "local n = math.min(held, tonumber(ARGV[2])) " +
+            "if held - n <= 0 then redis.call('HDEL', KEYS[2], ARGV[1]) " +
+            "else redis.call('HSET', KEYS[2], ARGV[1], (held - n) .. ':0') end " +
+            "if redis.call('EXISTS', KEYS[1]) == 1 then redis.call('INCRBY', KEYS[1], n) end " +
+            "return n",
+            Long.class);
+
+    /**
+     * 加载名额缓存（已存在时不覆盖）
+     * KEYS[1]=剩余名额 KEYS[2]=预留用户 ARGV[1]=剩余名额 ARGV[2]=TTL秒 ARGV[3..]=userId/预留值对
+     */
+    private static final DefaultRedisScript<Long> LOAD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end " +
+            "redis.call('DEL', KEYS[2]) " +
+            "redis.call('SET', KEYS[1], ARGV[1], 'EX', ARGV[2]) " +
+            "for i = 3, #ARGV, 2 do redis.call('HSET', KEYS[2], ARGV[i], ARGV[i + 1]) end " +
+            "redis.call('EXPIRE', KEYS[2], ARGV[2]) " +
+            "return 1",
+            Long.class);
+
+    /**
+     * 按名额变化量调整剩余名额（未加载时忽略）
+     * KEYS[1]=剩余名额 ARGV[1]=变化量
+     */
+    private static final DefaultRedisScript<Long> ADJUST_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+            "redis.call('INCRBY', KEYS[1], ARGV[1]) " +
+            "return 1",
+            Long.class);
+
+    /**
+     * 对账期间没有新的变更时移出待对账集合
+     * KEYS[1]=待对账集合 ARGV[1]=activityId ARGV[2]=对账开始时读到的时间戳
+     */
+    private static final DefaultRedisScript<Long> CLEAR_DIRTY_SCRIPT = new DefaultRedisScript<>(
+            "local score = redis.call('ZSCORE', KEYS[1], ARGV[1]) " +
+            "if score and tonumber(score) == tonumber(ARGV[2]) then " +
+            "return redis.call('ZREM', KEYS[1], ARGV[1]) end " +
+            "return 0",
+            Long.class);
+
+    /**
+     * 预留用户 Hash 的哨兵字段，保证 Hash 与剩余名额同时存在、同一 TTL
+     */
+    private static final String USERS_SENTINEL = "_";
+
+    /**
+     * 已确认预留的时间戳
+     */
+    private static final String CONFIRMED = "0";
+
+    /**
+     * 单次对账的最大活动数
+     */
+    private static final int RECONCILE_BATCH_SIZE = 100;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private VenueActivityMapper activityMapper;
+
+    @Autowired
+    private VenueActivityParticipantMapper participantMapper;
+
+    @Autowired
+    private IVenueSlotGridService venueSlotGridService;
+
+    @Override
+    public void reserve(VenueActivity activity, Long userId, int quantity) {
+        Long activityId = activity.getActivityId();
+        long now = System.currentTimeMillis();
+        List<String> keys = List.of(
+                BookingCacheConstants.buildActivityQuotaKey(activityId),
+                BookingCacheConstants.buildActivityQuotaUsersKey(activityId),
+                BookingCacheConstants.ACTIVITY_QUOTA_DIRTY_KEY);
+
+        Long result = executeReserve(keys, userId, quantity, now, activityId);
+        if (result != null && result == -1L) {
+            load(activity);
+            result = executeReserve(keys, userId, quantity, now, activityId);
+        }
+        if (result == null || result == -1L) {
+            log.error("[活动名额] 名额缓存加载失败 - activityId: {}", activityId);
+            throw new GloboxApplicationException(VenueCode.VENUE_BOOKING_FAIL);
+        }
+        if (result == -2L) {
+            log.warn("用户已报名活动 - activityId: {}, userId: {}", activityId, userId);
+            throw new GloboxApplicationException(VenueCode.ACTIVITY_ALREADY_REGISTERED);
+        }
+        if (result == 0L) {
+            log.warn("活动名额不足 - activityId: {}, userId: {}, 需要名额: {}", activityId, userId, quantity);
+            throw new GloboxApplicationException(VenueCode.ACTIVITY_NO_SLOTS);
+        }
+
+        String reservation = quantity + ":" + now;
+        log.info("[活动名额] 预留成功 - activityId: {}, userId: {}, 名额: {}", activityId, userId, quantity);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            confirm(activityId, userId, reservation);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    confirm(activityId, userId, reservation);
+                    markDirtyNow(activityId);
+                } else {
+                    cancelReservation(activityId, userId, reservation);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void release(Long activityId, Long userId, int quantity) {
+        runAfterCommit(() -> {
+            try {
+                Long released = stringRedisTemplate.execute(RELEASE_SCRIPT,
+                        List.of(BookingCacheConstants.buildActivityQuotaKey(activityId),
+                                BookingCacheConstants.buildActivityQuotaUsersKey(activityId)),
+                        String.valueOf(userId), String.valueOf(quantity));
+                log.info("[活动名额] 归还名额 - activityId: {}, userId: {}, 请求: {}, 实际: {}",
+                        activityId, userId, quantity, released);
+            } catch (Exception e) {
+                // 归还失败只会让名额偏少，删除缓存后按数据库重新加载
+                log.error("[活动名额] 归还名额失败，删除名额缓存 - activityId: {}, userId: {}", activityId, userId, e);
+                deleteQuietly(activityId);
+            }
+            markDirtyNow(activityId);
+        });
+    }
+
+    @Override
+    public void adjustCapacity(Long activityId, Integer oldCapacity, Integer newCapacity) {
+        if (Objects.equals(oldCapacity, newCapacity)) {
+            return;
+        }
+        if (!isCapped(oldCapacity) || !isCapped(newCapacity)) {
+            // 不限人数期间报名不经过名额缓存，缓存中的剩余名额已不可信，按差值调整会多放或少放名额
+            log.info("[活动名额] 人数限制方式变更，删除名额缓存 - activityId: {}, {} -> {}",
+                    activityId, oldCapacity, newCapacity);
+            evict(activityId);
+            return;
+        }
+        int delta = newCapacity - oldCapacity;
+        runAfterCommit(() -> {
+            try {
+                stringRedisTemplate.execute(ADJUST_SCRIPT,
+                        List.of(BookingCacheConstants.buildActivityQuotaKey(activityId)),
+                        String.valueOf(delta));
+            } catch (Exception e) {
+                log.error("[活动名额] 调整名额失败，删除名额缓存 - activityId: {}, delta: {}", activityId, delta, e);
+                deleteQuietly(activityId);
+            }
+        });
+    }
+
+    @Override
+    public void evict(Long activityId) {
+        runAfterCommit(() -> deleteQuietly(activityId));
+    }
+
+    @Override
+    public void markDirty(Long activityId) {
+        runAfterCommit(() -> markDirtyNow(activityId));
+    }
+
+    @Override
+    public void reconcileDirty() {
+        Set<ZSetOperations.TypedTuple<String>> dirty = stringRedisTemplate.opsForZSet()
+                .rangeWithScores(BookingCacheConstants.ACTIVITY_QUOTA_DIRTY_KEY, 0, RECONCILE_BATCH_SIZE - 1);
+        if (dirty == null || dirty.isEmpty()) {
+            return;
+        }
+        for (ZSetOperations.TypedTuple<String> tuple : dirty) {
+            if (tuple.getValue() == null || tuple.getScore() == null) {
+                continue;
+            }
+            Long activityId = Long.valueOf(tuple.getValue());
+            try {
+                boolean settled = reconcile(activityId);
+                if (settled) {
+                    stringRedisTemplate.execute(CLEAR_DIRTY_SCRIPT,
+                            List.of(BookingCacheConstants.ACTIVITY_QUOTA_DIRTY_KEY),
+                            tuple.getValue(), String.valueOf(tuple.getScore().longValue()));
+                }
+            } catch (Exception e) {
+                log.error("[活动名额] 对账失败，下一轮重试 - activityId: {}", activityId, e);
+            }
+        }
+    }
+
+    /**
+     * 对账单个活动
+     *
+     * @return 是否已没有未确认的预留（可以移出待对账集合）
+     */
+    private boolean reconcile(Long activityId) {
+        int updated = activityMapper.syncCurrentParticipants(activityId,
+                VenueActivityParticipantStatusEnum.ACTIVE.getValue());
+        if (updated > 0) {
+            VenueActivity activity = activityMapper.selectById(activityId);
+            if (activity != null) {
+                venueSlotGridService.evict(activity.getVenueId(), activity.getActivityDate());
+            }
+            log.debug("[活动名额] 参与人数已回写 - activityId: {}", activityId);
+        }
+
+        String usersKey = BookingCacheConstants.buildActivityQuotaUsersKey(activityId);
+        Map<Object, Object> reservations = stringRedisTemplate.opsForHash().entries(usersKey);
+        long graceDeadline = System.currentTimeMillis()
+                - TimeUnit.SECONDS.toMillis(BookingCacheConstants.ACTIVITY_QUOTA_RESERVATION_GRACE_SECONDS);
+        boolean settled = true;
+        for (Map.Entry<Object, Object> entry : reservations.entrySet()) {
+            String userId = (String) entry.getKey();
+            String reservation = (String) entry.getValue();
+            if (USERS_SENTINEL.equals(userId)) {
+                continue;
+            }
+            long reservedAt = Long.parseLong(reservation.substring(reservation.indexOf(':') + 1));
+            if (reservedAt == 0L) {
+                continue;
+            }
+            if (reservedAt > graceDeadline) {
+                settled = false;
+                continue;
+            }
+            // 超过宽限期仍未确认：有有效报名记录说明确认丢失，否则是泄漏的预留
+            long activeCount = participantMapper.selectCount(new LambdaQueryWrapper<VenueActivityParticipant>()
+                    .eq(VenueActivityParticipant::getActivityId, activityId)
+                    .eq(VenueActivityParticipant::getUserId, Long.valueOf(userId))
+                    .eq(VenueActivityParticipant::getStatus, VenueActivityParticipantStatusEnum.ACTIVE.getValue()));
+            if (activeCount > 0) {
+                confirm(activityId, Long.valueOf(userId), reservation);
+            } else {
+                log.warn("[活动名额] 归还泄漏的预留 - activityId: {}, userId: {}, reservation: {}",
+                        activityId, userId, reservation);
+                cancelReservation(activityId, Long.valueOf(userId), reservation);
+            }
+        }
+        return settled;
+    }
+
+    /**
+     * 从数据库加载剩余名额和已报名用户，名额按有效报名记录数计算（不依赖对账中的 current_participants）
+     */
+    private void load(VenueActivity activity) {
+        Long activityId = activity.getActivityId();
+        Map<Long, Long> countByUser = participantMapper.selectList(new LambdaQueryWrapper<VenueActivityParticipant>()
+                        .select(VenueActivityParticipant::getUserId)
+                        .eq(VenueActivityParticipant::getActivityId, activityId)
+                        .eq(VenueActivityParticipant::getStatus, VenueActivityParticipantStatusEnum.ACTIVE.getValue()))
+                .stream()
+                .collect(Collectors.groupingBy(VenueActivityParticipant::getUserId, Collectors.counting()));
+        long activeCount = countByUser.values().stream().mapToLong(Long::longValue).sum();
+        long remaining = Math.max(0L, activity.getMaxParticipants() - activeCount);
+
+        long ttlSeconds = Math.max(
+                Duration.between(LocalDateTime.now(), activity.getActivityDate().plusDays(1).atStartOfDay()).getSeconds(), 0L)
+                + TimeUnit.HOURS.toSeconds(BookingCacheConstants.ACTIVITY_QUOTA_RETAIN_HOURS);
+
+        List<String> args = new ArrayList<>(countByUser.size() * 2 + 4);
+        args.add(String.valueOf(remaining));
+        args.add(String.valueOf(ttlSeconds));
+        args.add(USERS_SENTINEL);
+        args.add(CONFIRMED);
+        countByUser.forEach((userId, count) -> {
+            args.add(String.valueOf(userId));
+            args.add(count + ":" + CONFIRMED);
+        });
+        Long loaded = stringRedisTemplate.execute(LOAD_SCRIPT,
+                List.of(BookingCacheConstants.buildActivityQuotaKey(activityId),
+                        BookingCacheConstants.buildActivityQuotaUsersKey(activityId)),
+                args.toArray());
+        if (loaded != null && loaded == 1L) {
+            log.info("[活动名额] 名额缓存加载完成 - activityId: {}, 剩余: {}, 已报名用户: {}",
+                    activityId, remaining, countByUser.size());
+        }
+    }
+
+    private static boolean isCapped(Integer capacity) {
+        return capacity != null && capacity > 0;
+    }
+
+    private Long executeReserve(List<String> keys, Long userId, int quantity, long now, Long activityId) {
+        return stringRedisTemplate.execute(RESERVE_SCRIPT, keys,
+                String.valueOf(userId), String.valueOf(quantity), String.valueOf(now), String.valueOf(activityId));
+    }
+
+    private void confirm(Long activityId, Long userId, String reservation) {
+        try {
+            stringRedisTemplate.execute(CONFIRM_SCRIPT,
+                    List.of(BookingCacheConstants.buildActivityQuotaUsersKey(activityId)),
+                    String.valueOf(userId), reservation);
+        } catch (Exception e) {
+            // 确认失败由对账任务核对数据库后补确认
+            log.error("[活动名额] 确认预留失败 - activityId: {}, userId: {}", activityId, userId, e);
+        }
+    }
+
+    private void cancelReservation(Long activityId, Long userId, String reservation) {
+        try {
+            stringRedisTemplate.execute(CANCEL_RESERVATION_SCRIPT,
+                    List.of(BookingCacheConstants.buildActivityQuotaKey(activityId),
+                            BookingCacheConstants.buildActivityQuotaUsersKey(activityId)),
+                    String.valueOf(userId), reservation);
+            log.info("[活动名额] 报名未成功，已归还预留 - activityId: {}, userId: {}", activityId, userId);
+        } catch (Exception e) {
+            // 撤销失败由对账任务在宽限期后归还
+            log.error("[活动名额] 撤销预留失败 - activityId: {}, userId: {}", activityId, userId, e);
+        }
+    }
+
+    private void markDirtyNow(Long activityId) {
+        try {
+            stringRedisTemplate.opsForZSet().add(BookingCacheConstants.ACTIVITY_QUOTA_DIRTY_KEY,
+                    String.valueOf(activityId), System.currentTimeMillis());
+        } catch (Exception e) {
+            log.error("[活动名额] 标记待对账失败 - activityId: {}", activityId, e);
+        }
+    }
+
+    private void deleteQuietly(Long activityId) {
+        try {
+            stringRedisTemplate.delete(List.of(
+                    BookingCacheConstants.buildActivityQuotaKey(activityId),
+                    BookingCacheConstants.buildActivityQuotaUsersKey(activityId)));
+        } catch (Exception e) {
+            log.error("[活动名额] 删除名额缓存失败 - activityId: {}", activityId, e);
+        }
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.unlimited.sports.globox.venue.service.impl;
+
+import com.unlimited.sports.globox.service.RedisService;
+import com.unlimited.sports.globox.venue.adapter.constant.AwayVenueCacheConstants;
+import com.unlimited.sports.globox.venue.adapter.dto.AwaySlotCacheEntry;
+import com.unlimited.sports.globox.venue.adapter.dto.ThirdPartyCourtSlotDto;
+import com.unlimited.sports.globox.venue.service.IAwaySlotCacheService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Away球场槽位缓存服务实现
+ * 单飞（single-flight）分两层：进程内通过 inFlight 合并同一key的并发回源，
+ * 实例间通过 Redis 刷新锁保证同一时间只有一个实例调用第三方API；
+ * 刷新锁的值为每次加锁生成的 token，释放时比较后删除，不会误删锁过期后其他实例持有的锁
+ */
+@Slf4j
+@Service
+public class AwaySlotCacheServiceImpl implements IAwaySlotCacheService {
+
+    /**
+     * 缓存缺失且其他实例正在回源时，等待其写入缓存的最长时间（毫秒）
+     */
+    private static final long PEER_WAIT_MILLIS = 3000L;
+
+    /**
+     * 合并到进程内正在进行的回源时，等待其结果的最长时间（毫秒），
+     * 超时后读一次缓存，没有可用数据则返回 null，不让请求线程无限期挂在第三方API上
+     */
+    private static final long IN_FLIGHT_WAIT_MILLIS = PEER_WAIT_MILLIS;
+
+    /**
+     * 等待其他实例回源时的轮询间隔（毫秒）
+     */
+    private static final long PEER_POLL_INTERVAL_MILLIS = 200L;
+
+    /**
+     * 后台刷新线程数
+     */
+    private static final int REFRESH_THREADS = 4;
+
+    /**
+     * 后台刷新队列容量，队列满时丢弃刷新任务（旧数据仍可用，下次读取会再次触发）
+     */
+    private static final int REFRESH_QUEUE_CAPACITY = 200;
+
+    /**
+     * 释放刷新锁：值仍为本次加锁的 token 时才删除
+     * KEYS[1]=刷新锁 ARGV[1]=token
+     */
+    private static final DefaultRedisScript<Long> RELEASE_LOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end " +
+            "return 0",
+            Long.class);
+
+    @Autowired
+    private RedisService redisService;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 进程内正在回源的key -> 回源结果
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<AwaySlotCacheEntry>> inFlight = new ConcurrentHashMap<>();
+
+    private final ThreadPoolExecutor refreshExecutor = new ThreadPoolExecutor(
+            REFRESH_THREADS, REFRESH_THREADS, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(REFRESH_QUEUE_CAPACITY),
+            new ThreadFactory() {
+                private final AtomicInteger index = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "away-slot-refresh-" + index.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            },
+            new ThreadPoolExecutor.DiscardPolicy());
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    @Override
+    public AwaySlotCacheEntry getEntry(Long venueId, LocalDate date, Supplier<List<ThirdPartyCourtSlotDto>> loader) {
+        AwaySlotCacheEntry cached = readEntry(venueId, date);
+        if (cached != null) {
+            if (isStale(cached)) {
+                // 返回旧数据，后台刷新
+                log.debug("[AwaySlotCache] 数据已过新鲜期，后台刷新: venueId={}, date={}, age={}s",
+                        venueId, date, cached.ageSeconds());
+                refreshAsync(venueId, date, loader);
+            }
+            return cached;
+        }
+
+        // 缓存缺失，同步回源（合并并发请求）
+        return loadSingleFlight(venueId, date, loader, true, Long.MAX_VALUE);
+    }
+
+    @Override
+    public AwaySlotCacheEntry getBoundedEntry(Long venueId, LocalDate date,
+                                              Supplier<List<ThirdPartyCourtSlotDto>> loader, long maxAgeSeconds) {
+        AwaySlotCacheEntry cached = readEntry(venueId, date);
+        if (cached != null && cached.ageSeconds() <= maxAgeSeconds) {
+            return cached;
+        }
+        // 缓存缺失或数据过旧，同步回源（合并并发请求），等待其他实例时也只接受足够新的数据
+        AwaySlotCacheEntry loaded = loadSingleFlight(venueId, date, loader, true, maxAgeSeconds);
+        if (loaded != null) {
+            return loaded;
+        }
+        // 合并到的是跳过了回源的后台刷新时，其他实例可能刚写入新数据
+        AwaySlotCacheEntry latest = readEntry(venueId, date);
+        return latest != null && latest.ageSeconds() <= maxAgeSeconds ? latest : null;
+    }
+
+    @Override
+    public Map<Long, AwaySlotCacheEntry> getCachedEntries(Collection<Long> venueIds, LocalDate date) {
+        Map<Long, AwaySlotCacheEntry> resultMap = new HashMap<>();
+        if (venueIds == null || venueIds.isEmpty()) {
+            return resultMap;
+        }
+
+        Map<String, Long> keyToVenueIdMap = new HashMap<>();
+        for (Long venueId : venueIds) {
+            keyToVenueIdMap.put(AwayVenueCacheConstants.buildSlotsCacheKey(venueId, date), venueId);
+        }
+
+        Map<String, AwaySlotCacheEntry> cachedMap = redisService.getCacheObjects(
+                keyToVenueIdMap.keySet(), AwaySlotCacheEntry.class);
+        if (cachedMap == null || cachedMap.isEmpty()) {
+            return resultMap;
+        }
+
+        cachedMap.forEach((cacheKey, entry) -> {
+            if (isUsable(entry)) {
+                resultMap.put(keyToVenueIdMap.get(cacheKey), entry);
+            }
+        });
+        return resultMap;
+    }
+
+    @Override
+    public boolean refresh(Long venueId, LocalDate date, Supplier<List<ThirdPartyCourtSlotDto>> loader) {
+        return loadSingleFlight(venueId, date, loader, false, Long.MAX_VALUE) != null;
+    }
+
+    @Override
+    public void refreshAsync(Long venueId, LocalDate date, Supplier<List<ThirdPartyCourtSlotDto>> loader) {
+        String cacheKey = AwayVenueCacheConstants.buildSlotsCacheKey(venueId, date);
+        if (inFlight.containsKey(cacheKey)) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            try {
+                loadSingleFlight(venueId, date, loader, false, Long.MAX_VALUE);
+            } catch (Exception e) {
+                log.error("[AwaySlotCache] 后台刷新异常: venueId={}, date={}", venueId, date, e);
+            }
+        });
+    }
+
+    @Override
+    public boolean isStale(AwaySlotCacheEntry entry) {
+        return entry.ageSeconds() >= AwayVenueCacheConstants.SLOTS_CACHE_FRESH_SECONDS;
+    }
+
+    /**
+     * 进程内单飞回源：同一key只有一个线程调用第三方API，其余线程等待其结果
+     *
+     * @param waitForPeer 其他实例正在回源时是否等待其结果（同步读路径为true，刷新路径为false直接跳过）
+     * @param maxAgeSeconds 等待其他实例时可接受的最大数据年龄（秒）
+     */
+    private AwaySlotCacheEntry loadSingleFlight(Long venueId, LocalDate date,
+                                                Supplier<List<ThirdPartyCourtSlotDto>> loader,
+                                                boolean waitForPeer, long maxAgeSeconds) {
+        String cacheKey = AwayVenueCacheConstants.buildSlotsCacheKey(venueId, date);
+        CompletableFuture<AwaySlotCacheEntry> future = new CompletableFuture<>();
+        CompletableFuture<AwaySlotCacheEntry> existing = inFlight.putIfAbsent(cacheKey, future);
+        if (existing != null) {
+            try {
+                return existing.get(IN_FLIGHT_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException e) {
+                return null;
+            } catch (TimeoutException e) {
+                log.warn("[AwaySlotCache] 等待进程内回源超时，使用缓存数据: venueId={}, date={}", venueId, date);
+                AwaySlotCacheEntry cached = readEntry(venueId, date);
+                return cached != null && cached.ageSeconds() <= maxAgeSeconds ? cached : null;
+            }
+        }
+
+        try {
+            AwaySlotCacheEntry entry = loadWithRefreshLock(venueId, date, loader, waitForPeer, maxAgeSeconds);
+            future.complete(entry);
+            return entry;
+        } catch (Exception e) {
+            log.error("[AwaySlotCache] 回源异常: venueId={}, date={}", venueId, date, e);
+            future.complete(null);
+            return null;
+        } finally {
+            inFlight.remove(cacheKey, future);
+        }
+    }
+
+    /**
+     * 实例间单飞回源：持有 Redis 刷新锁的实例调用第三方API并写缓存
+     */
+    private AwaySlotCacheEntry loadWithRefreshLock(Long venueId, LocalDate date,
+                                                   Supplier<List<ThirdPartyCourtSlotDto>> loader,
+                                                   boolean waitForPeer, long maxAgeSeconds) throws InterruptedException {
+        String lockKey = AwayVenueCacheConstants.buildSlotsRefreshLockKey(venueId, date);
+        String token = UUID.randomUUID().toString();
+        Boolean locked = stringRedisTemplate.opsForValue().setIfAbsent(lockKey, token,
+                AwayVenueCacheConstants.SLOTS_REFRESH_LOCK_SECONDS, TimeUnit.SECONDS);
+
+        if (!Boolean.TRUE.equals(locked)) {
+            if (!waitForPeer) {
+                log.debug("[AwaySlotCache] 其他实例正在刷新，跳过: venueId={}, date={}", venueId, date);
+                return null;
+            }
+            // 等待其他实例写入缓存，超时后自行回源兜底
+            long deadline = System.currentTimeMillis() + PEER_WAIT_MILLIS;
+            while (System.currentTimeMillis() < deadline) {
+                Thread.sleep(PEER_POLL_INTERVAL_MILLIS);
+                AwaySlotCacheEntry cached = readEntry(venueId, date);
+                if (cached != null && cached.ageSeconds() <= maxAgeSeconds) {
+                    return cached;
+                }
+            }
+            log.warn("[AwaySlotCache] 等待其他实例回源超时，自行回源: venueId={}, date={}", venueId, date);
+            return fetchAndStore(venueId, date, loader);
+        }
+
+        try {
+            return fetchAndStore(venueId, date, loader);
+        } finally {
+            stringRedisTemplate.execute(RELEASE_LOCK_SCRIPT, List.of(lockKey), token);
+        }
+    }
+
+    /**
+     * 调用第三方API并写入缓存，硬过期时间带随机抖动
+     */
+    private AwaySlotCacheEntry fetchAndStore(Long venueId, LocalDate date, Supplier<List<ThirdPartyCourtSlotDto>> loader) {
+        List<ThirdPartyCourtSlotDto> slots = loader.get();
+        if (slots == null || slots.isEmpty()) {
+            return null;
+        }
+
+        AwaySlotCacheEntry entry = AwaySlotCacheEntry.builder()
+                .slots(slots)
+                .fetchedAt(System.currentTimeMillis())
+                .build();
+        long ttlSeconds = TimeUnit.MINUTES.toSeconds(AwayVenueCacheConstants.SLOTS_CACHE_TTL_MINUTES)
+                + ThreadLocalRandom.current().nextLong(AwayVenueCacheConstants.SLOTS_CACHE_TTL_JITTER_SECONDS + 1);
+        redisService.setCacheObject(AwayVenueCacheConstants.buildSlotsCacheKey(venueId, date),
+                entry, ttlSeconds, TimeUnit.SECONDS);
+        log.info("[AwaySlotCache] 槽位已缓存: venueId={}, date={}, 场地数={}, ttl={}s",
+                venueId, date, slots.size(), ttlSeconds);
+        return entry;
+    }
+
+    private AwaySlotCacheEntry readEntry(Long venueId, LocalDate date) {
+        AwaySlotCacheEntry entry = redisService.getCacheObject(
+                AwayVenueCacheConstants.buildSlotsCacheKey(venueId, date), AwaySlotCacheEntry.class);
+        return isUsable(entry) ? entry : null;
+    }
+
+    private boolean isUsable(AwaySlotCacheEntry entry) {
+        return entry != null && entry.getSlots() != null && !entry.getSlots().isEmpty();
+    }
+}
@@ -1,20 +1,19 @@
 package com.unlimited.sports.globox.venue.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.unlimited.sports.globox.common.utils.LocalDateUtils;
 import com.unlimited.sports.globox.merchant.mapper.CourtMapper;
 import com.unlimited.sports.globox.model.merchant.entity.Court;
 import com.unlimited.sports.globox.model.venue.entity.venues.ThirdPartyPlatform;
 import com.unlimited.sports.globox.model.venue.entity.venues.VenueThirdPartyConfig;
 import com.unlimited.sports.globox.model.venue.enums.VenueThirdPartyConfigStatusEnum;
-import com.unlimited.sports.globox.service.RedisService;
 import com.unlimited.sports.globox.venue.adapter.ThirdPartyPlatformAdapter;
 import com.unlimited.sports.globox.venue.adapter.ThirdPartyPlatformAdapterFactory;
-import com.unlimited.sports.globox.venue.adapter.constant.AwayVenueCacheConstants;
+import com.unlimited.sports.globox.venue.adapter.dto.AwaySlotCacheEntry;
 import com.unlimited.sports.globox.venue.adapter.dto.ThirdPartyCourtSlotDto;
 import com.unlimited.sports.globox.venue.mapper.ThirdPartyPlatformMapper;
 import com.unlimited.sports.globox.venue.mapper.VenueThirdPartyConfigMapper;
+import com.unlimited.sports.globox.venue.service.IAwaySlotCacheService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -28,7 +27,7 @@ import java.util.stream.Collectors;
 
 /**
  * Away球场搜索服务
- * 负责并行查询away球场的时段数据，并处理缓存
+ * 负责并行查询away球场的时段数据，槽位缓存由后台预取保持新鲜，只有未缓存的场馆才同步请求API
  */
 @Slf4j
 @Service
@@ -51,15 +50,15 @@ public class AwayVenueSearchService {
     @Autowired
     private  ThirdPartyPlatformMapper thirdPartyPlatformMapper;
 
-    @Autowired
-    private  RedisService redisService;
-
     @Autowired
     private  ThirdPartyPlatformAdapterFactory adapterFactory;
 
     @Autowired
     private CourtMapper courtMapper;
 
+    @Autowired
+    private IAwaySlotCacheService awaySlotCacheService;
+
     /**
      * 查询所有away球场在指定时间段的不可预订场馆ID
      * 优化策略：先批量从缓存获取，缓存miss的再并发请求API
@@ -162,7 +161,7 @@ public class AwayVenueSearchService {
 
     /**
      * 批量从缓存获取槽位数据
-     * 使用批量查询减少网络往返次数
+     * 使用批量查询减少网络往返次数，已过新鲜期的数据照常返回并触发后台刷新
      */
     private Map<Long, List<ThirdPartyCourtSlotDto>> batchGetFromCache(List<VenueThirdPartyConfig> configs, LocalDate date) {
         Map<Long, List<ThirdPartyCourtSlotDto>> resultMap = new HashMap<>();
@@ -171,41 +170,40 @@ public class AwayVenueSearchService {
             return resultMap;
         }
 
-        // 1. 批量构建cacheKey和venueId的映射
-        Map<String, Long> keyToVenueIdMap = new HashMap<>();
-        List<String> cacheKeys = configs.stream()
-                .map(config -> {
-                    String cacheKey = AwayVenueCacheConstants.buildSlotsCacheKey(config.getVenueId(), date);
-                    keyToVenueIdMap.put(cacheKey, config.getVenueId());
-                    return cacheKey;
-                })
-                .collect(Collectors.toList());
-
-        // 2. 批量从Redis获取
-        Map<String, List<ThirdPartyCourtSlotDto>> cachedObjectsMap = redisService.getCacheObjects(
-                cacheKeys,
-                new TypeReference<>() {
-                }
-        );
-
-        if (cachedObjectsMap == null || cachedObjectsMap.isEmpty()) {
-            return resultMap;
+        Map<Long, VenueThirdPartyConfig> configByVenueId = configs.stream()
+                .collect(Collectors.toMap(VenueThirdPartyConfig::getVenueId, config -> config, (a, b) -> a));
+        Map<Long, AwaySlotCacheEntry> cachedEntries = awaySlotCacheService.getCachedEntries(configByVenueId.keySet(), date);
+
+        long maxAgeSeconds = 0L;
+        for (Map.Entry<Long, AwaySlotCacheEntry> entry : cachedEntries.entrySet()) {
+            AwaySlotCacheEntry cacheEntry = entry.getValue();
+            resultMap.put(entry.getKey(), cacheEntry.getSlots());
+            maxAgeSeconds = Math.max(maxAgeSeconds, cacheEntry.ageSeconds());
+            if (awaySlotCacheService.isStale(cacheEntry)) {
+                VenueThirdPartyConfig config = configByVenueId.get(entry.getKey());
+                awaySlotCacheService.refreshAsync(config.getVenueId(), date, () -> querySlotsFromApi(config, date));
+            }
+        }
+        if (!cachedEntries.isEmpty()) {
+            log.info("[AwayVenueSearch] 缓存数据最大时效: {}s, date={}", maxAgeSeconds, date);
         }
-
-        // 3. 将缓存结果转换为venueId映射
-        cachedObjectsMap.entrySet().stream()
-                .filter(entry -> entry.getValue() != null && !entry.getValue().isEmpty())
-                .forEach(entry -> {
-                    String cacheKey = entry.getKey();
-                    Long venueId = keyToVenueIdMap.get(cacheKey);
-                    if (venueId != null) {
-                        resultMap.put(venueId, entry.getValue());
-                    }
-                });
 
         return resultMap;
     }
 
+    /**
+     * 直接调用第三方API查询槽位，供后台刷新使用
+     */
+    private List<ThirdPartyCourtSlotDto> querySlotsFromApi(VenueThirdPartyConfig config, LocalDate date) {
+        ThirdPartyPlatform platform = thirdPartyPlatformMapper.selectById(config.getThirdPartyPlatformId());
+        if (platform == null) {
+            log.warn("[AwayVenueSearch] 未找到第三方平台配置: thirdPartyPlatformId={}, venueId={}",
+                    config.getThirdPartyPlatformId(), config.getVenueId());
+            return null;
+        }
+        return adapterFactory.getAdapter(platform.getPlatformCode()).querySlotsFromAPI(config, date);
+    }
+
     /**
      * 并发请求API获取槽位数据
      * 请求失败的场馆不会出现在返回的Map中
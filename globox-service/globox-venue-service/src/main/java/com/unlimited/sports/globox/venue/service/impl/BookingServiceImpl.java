@@ -23,15 +23,10 @@ import com.unlimited.sports.globox.venue.adapter.ThirdPartyPlatformAdapter;
 import com.unlimited.sports.globox.venue.adapter.ThirdPartyPlatformAdapterFactory;
 import com.unlimited.sports.globox.venue.mapper.VenueThirdPartyConfigMapper;
 import com.unlimited.sports.globox.venue.mapper.ThirdPartyPlatformMapper;
-import com.unlimited.sports.globox.venue.mapper.VenueActivityParticipantMapper;
 import com.unlimited.sports.globox.model.venue.entity.venues.VenueThirdPartyConfig;
 import com.unlimited.sports.globox.model.venue.entity.venues.ThirdPartyPlatform;
-import com.unlimited.sports.globox.model.venue.entity.venues.VenueActivityParticipant;
-import com.unlimited.sports.globox.model.venue.entity.venues.VenueActivityParticipantStatusEnum;
 import com.unlimited.sports.globox.model.merchant.entity.Court;
 import com.unlimited.sports.globox.model.merchant.entity.Venue;
-import com.unlimited.sports.globox.model.merchant.entity.VenueBusinessHours;
-import com.unlimited.sports.globox.model.merchant.enums.BusinessHourRuleTypeEnum;
 import com.unlimited.sports.globox.model.venue.entity.booking.VenueBookingSlotRecord;
 import com.unlimited.sports.globox.model.venue.entity.booking.VenueBookingSlotTemplate;
 import com.unlimited.sports.globox.model.venue.entity.venues.VenueActivity;
@@ -44,6 +39,7 @@ import com.unlimited.sports.globox.venue.util.TimeSlotSplitUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
@@ -80,12 +76,6 @@ public class BookingServiceImpl implements IBookingService {
     @Autowired
     private VenueBookingSlotTemplateMapper slotTemplateMapper;
 
-    @Autowired
-    private IVenueActivityService venueActivityService;
-
-    @Autowired
-    private IVenueBusinessHoursService venueBusinessHoursService;
-
     @Autowired
     private VenueFacilityRelationMapper venueFacilityRelationMapper;
 
@@ -98,9 +88,6 @@ public class BookingServiceImpl implements IBookingService {
     @Autowired
     private VenueThirdPartyConfigMapper venueThirdPartyConfigMapper;
 
-    @Autowired
-    private VenueActivityParticipantMapper venueActivityParticipantMapper;
-
     @Autowired
     private VenuePriceServiceImpl venuePriceServiceImpl;
 
@@ -116,10 +103,16 @@ public class BookingServiceImpl implements IBookingService {
 
     @Autowired
     private AwayConfig awayConfig;
+
+    @Autowired
+    private IVenueSlotGridService venueSlotGridService;
+
+    @Autowired
+    private IAwaySlotCacheService awaySlotCacheService;
     /**
      * 获取场馆指定日期所有场地的槽位占用情况
-     * 基于槽位模板和实际预订记录返回数据
-     * 支持价格计算（基于价格模板和价格覆盖表）
+     * 基于槽位网格返回数据：网格在首次访问时由槽位模板、预订记录、价格模板构建，
+     * 之后随锁场/解锁增量更新
      *
      * @param dto 查询条件，包含场馆ID和预订日期
      * @return 场地列表，每个场地包含其所有时间槽位的占用状态和价格
@@ -146,122 +139,8 @@ public class BookingServiceImpl implements IBookingService {
             return getAwayCourtSlots(dto.getVenueId(), dto.getBookingDate());
         }
 
-        // 查询所有开放的场地
-        List<Court> courts = courtMapper.selectList(
-                new LambdaQueryWrapper<Court>()
-                        .eq(Court::getVenueId, dto.getVenueId())
-                        .eq(Court::getStatus, CourtStatus.OPEN.getValue())
-                        .orderByAsc(Court::getCourtId)
-        );
-
-        if (courts.isEmpty()) {
-            log.warn("场馆没有开放的场地: venueId={}", dto.getVenueId());
-            return Collections.emptyList();
-        }
-
-        // 获取营业时间配置
-        VenueBusinessHours businessHours = venueBusinessHoursService.getBusinessHoursByDate(dto.getVenueId(),
-                dto.getBookingDate());
-        if (businessHours == null) {
-            log.warn("场馆未配置营业时间: venueId={}, bookingDate={}", dto.getVenueId(), dto.getBookingDate());
-            return Collections.emptyList();
-        }
-        if(BusinessHourRuleTypeEnum.CLOSED_DATE.getCode().equals(businessHours.getRuleType())) {
-            // 当天不开放
-            return Collections.emptyList();
-        }
-        LocalDate bookingDate = dto.getBookingDate();
-        LocalTime openTime = businessHours.getOpenTime();
-        LocalTime closeTime = businessHours.getCloseTime();
-        List<Long> courtIds = courts.stream().map(Court::getCourtId).toList();
-
-        // 批量查询所有场地的槽位模板
-        List<VenueBookingSlotTemplate> allTemplates = slotTemplateMapper.selectByCourtIdsAndTimeRange(
-                courtIds,
-                openTime,
-                closeTime
-        );
-
-        // 批量查询所有场地该日期的槽位记录
-        List<VenueBookingSlotRecord> allRecords = slotRecordMapper.selectByCourtIdsAndDate(
-                courtIds,
-                bookingDate
-        );
-
-        // 构建映射表
-        Map<Long, List<VenueBookingSlotTemplate>> templatesByCourtId = allTemplates.stream()
-                .collect(Collectors.groupingBy(VenueBookingSlotTemplate::getCourtId));
-
-        Map<Long, VenueBookingSlotRecord> recordMap = allRecords.stream()
-                .collect(Collectors.toMap(VenueBookingSlotRecord::getSlotTemplateId, record -> record));
-
-        // 计算完整价格 - 使用获取按场地分组的价格
-        Map<Long, Court> courtMap = courts.stream()
-                .collect(Collectors.toMap(Court::getCourtId, court -> court));
-
-        Map<Long, Map<LocalTime, BigDecimal>> pricesByCourtId = venuePriceServiceImpl.calculateSlotPricesByCourtTemplates(
-                allTemplates,
-                venue.getVenueId(),
-                bookingDate,
-                courtMap
-        );
-
-        log.debug("批量获取价格完成 - 场地数: {}", pricesByCourtId.size());
-
-        // 批量获取场馆在该日期的所有活动
-        List<VenueActivity> allActivities = venueActivityService.getActivitiesByVenueAndDate(
-                venue.getVenueId(),
-                bookingDate
-        );
-
-        // 构建活动ID映射表，用于快速查询活动详情：活动ID -> 活动详情
-        Map<Long, VenueActivity> activityMap = allActivities.stream()
-                .collect(Collectors.toMap(VenueActivity::getActivityId, activity -> activity));
-
-        // 批量获取所有活动占用的槽位映射（槽位模板ID -> 活动ID）
-        List<Long> allActivityIds = allActivities.stream()
-                .map(VenueActivity::getActivityId)
-                .collect(Collectors.toList());
-
-        Map<Long, Long> activityLockedSlots = allActivityIds.isEmpty() ?
-                Map.of() :
-                venueActivityService.getActivityLockedSlotsByIds(allActivityIds, bookingDate);
-
-        // 批量查询用户报名的活动（活动ID集合，只查询未取消的记录）
-        Set<Long> userRegisteredActivityIds = Collections.emptySet();
-        if (dto.getUserId() != null && !allActivityIds.isEmpty()) {
-            List<VenueActivityParticipant> participants = venueActivityParticipantMapper.selectList(
-                    new LambdaQueryWrapper<VenueActivityParticipant>()
-                            .eq(VenueActivityParticipant::getUserId, dto.getUserId())
-                            .in(VenueActivityParticipant::getActivityId, allActivityIds)
-                            .eq(VenueActivityParticipant::getStatus, VenueActivityParticipantStatusEnum.ACTIVE.getValue())
-            );
-            userRegisteredActivityIds = participants.stream()
-                    .map(VenueActivityParticipant::getActivityId)
-                    .collect(Collectors.toSet());
-        }
-
-        // 构建场地槽位结果，过滤掉没有槽位模板的场地
-        Set<Long> finalUserRegisteredActivityIds = userRegisteredActivityIds;
-        return courts.stream()
-                .map(court -> {
-                    // 为该场地提取对应的价格
-                    Map<LocalTime, BigDecimal> courtPrices = pricesByCourtId
-                            .getOrDefault(court.getCourtId(), new HashMap<>());
-
-                    return CourtSlotVo.buildVo(
-                            court,
-                            templatesByCourtId.getOrDefault(court.getCourtId(), Collections.emptyList()),
-                            recordMap,
-                            courtPrices,
-                            activityMap,
-                            activityLockedSlots,
-                            dto.getUserId(),
-                            finalUserRegisteredActivityIds
-                    );
-                })
-                .filter(courtSlotVo -> !courtSlotVo.getSlots().isEmpty())  // 过滤掉没有槽位的场地
-                .collect(Collectors.toList());
+        // 从槽位网格读取（静态层 + 状态层），稳态下不访问数据库
+        return venueSlotGridService.getCourtSlots(venue, dto.getBookingDate(), dto.getUserId());
     }
 
 
@@ -315,8 +194,8 @@ public class BookingServiceImpl implements IBookingService {
 
             ThirdPartyPlatformAdapter adapter = adapterFactory.getAdapter(platform.getPlatformCode());
 
-            // 调用querySlots获取实时槽位数据
-            List<ThirdPartyCourtSlotDto> slotDtos = adapter.querySlots(config, dto.getBookingDate());
+            // 获取实时槽位数据（数据年龄有上限，不使用过期缓存）
+            List<ThirdPartyCourtSlotDto> slotDtos = adapter.querySlotsForBooking(config, dto.getBookingDate());
             if (slotDtos == null || slotDtos.isEmpty()) {
                 log.error("[Away预览] 查询槽位失败 - venueId: {}, date: {}", venue.getVenueId(), dto.getBookingDate());
                 throw new GloboxApplicationException(VenueCode.VENUE_BOOKING_FAIL);
@@ -741,10 +620,6 @@ public class BookingServiceImpl implements IBookingService {
         //先占用本地槽位（不设置thirdPartyBookingId）
         List<VenueBookingSlotRecord> records = lockBookingSlots(
                 templates, dto.getUserId(), dto.getBookingDate(), userName, dto.getUserPhone(),context.getVenue().getVenueId());
-        if (records == null) {
-            log.warn("占用槽位失败 - 槽位已被其他用户占用 userId: {}", dto.getUserId());
-            throw new GloboxApplicationException(VenueCode.SLOT_OCCUPIED);
-        }
         log.info("本地槽位占用成功，recordIds: {}",
                 records.stream()
                         .map(VenueBookingSlotRecord::getBookingSlotRecordId)
@@ -959,6 +834,7 @@ public class BookingServiceImpl implements IBookingService {
      * @param userName 用户昵称
      * @param userPhone 用户手机号
      * @return 返回占用的槽位记录列表（按templates顺序）
+     * @throws GloboxApplicationException 任一槽位已被占用时抛出 SLOT_OCCUPIED，由外层事务回滚
      */
     private List<VenueBookingSlotRecord> lockBookingSlots(List<VenueBookingSlotTemplate> templates, Long userId, LocalDate bookingDate, String userName, String userPhone,Long venueId) {
         log.info("开始占用槽位 - userId: {}, 槽位数: {}, userName: {}", userId, templates.size(), userName);
@@ -978,100 +854,85 @@ public class BookingServiceImpl implements IBookingService {
                 bookingDate
         );
 
-        // 构建已有记录的ID集合
-        Set<Long> existingTemplateIds = existingRecords.stream()
-                .map(VenueBookingSlotRecord::getSlotTemplateId)
-                .collect(Collectors.toSet());
+        // 按模板ID索引已有记录
+        Map<Long, VenueBookingSlotRecord> existingByTemplateId = existingRecords.stream()
+                .collect(Collectors.toMap(VenueBookingSlotRecord::getSlotTemplateId, r -> r, (a, b) -> a));
 
         // 保持 template 和 record 的对应关系
         Map<Long, VenueBookingSlotRecord> templateToRecordMap = new LinkedHashMap<>();
+        List<VenueBookingSlotRecord> toInsert = new ArrayList<>();
+        List<VenueBookingSlotRecord> toUpdate = new ArrayList<>();
 
-        // 分组处理 - 使用 partition 区分要新增和要更新的记录
-        Map<Boolean, List<VenueBookingSlotTemplate>> partitioned = templates.stream()
-                .collect(Collectors.partitioningBy(
-                        t -> existingTemplateIds.contains(t.getBookingSlotTemplateId())));
-
-        // 处理要新增的记录
-        List<VenueBookingSlotRecord> toInsert = partitioned.get(false).stream()
-                .map(template -> {
-                    Long templateId = template.getBookingSlotTemplateId();
-
-                    VenueBookingSlotRecord record = VenueBookingSlotRecord.builder()
-                            .slotTemplateId(templateId)
-                            .bookingDate(bookingDate.atStartOfDay())
-                            .status(BookingSlotStatus.LOCKED_IN.getValue())
-                            .lockedType(OperatorSourceEnum.USER.getCode())
-                            .operatorId(userId)
-                            .operatorSource(OperatorSourceEnum.USER)
-                            .userName(userName)
-                            .userPhone(userPhone)
-                            .venueId(venueId)
-                            .build();
-                    templateToRecordMap.put(templateId, record);
-                    return record;
-                })
-                .collect(Collectors.toList());
-
-        // 处理要更新的记录
-        List<VenueBookingSlotRecord> toUpdate = partitioned.get(true).stream()
-                .map(template -> {
-                    Long templateId = template.getBookingSlotTemplateId();
-
-                    return existingRecords.stream()
-                            .filter(r -> r.getSlotTemplateId().equals(templateId))
-                            .peek(record -> {
-                                record.setStatus(BookingSlotStatus.LOCKED_IN.getValue());
-                                record.setLockedType(OperatorSourceEnum.USER.getCode());
-                                record.setOperatorId(userId);
-                                record.setOperatorSource(OperatorSourceEnum.USER);
-                                record.setUserName(userName);
-                                record.setUserPhone(userPhone);
-                                templateToRecordMap.put(templateId, record);
-                            })
-                            .findFirst()
-                            .orElse(null);
-                })
-                .filter(Objects::nonNull)
-                .toList();
-
-        // 批量insert
-        if (!toInsert.isEmpty()) {
-            slotRecordService.saveBatch(toInsert);
+        for (VenueBookingSlotTemplate template : templates) {
+            Long templateId = template.getBookingSlotTemplateId();
+            VenueBookingSlotRecord record = existingByTemplateId.get(templateId);
+            if (record == null) {
+                record = VenueBookingSlotRecord.builder()
+                        .slotTemplateId(templateId)
+                        .bookingDate(bookingDate.atStartOfDay())
+                        .venueId(venueId)
+                        .build();
+                toInsert.add(record);
+            } else {
+                toUpdate.add(record);
+            }
+            record.setStatus(BookingSlotStatus.LOCKED_IN.getValue());
+            record.setLockedType(OperatorSourceEnum.USER.getCode());
+            record.setOperatorId(userId);
+            record.setOperatorSource(OperatorSourceEnum.USER);
+            record.setUserName(userName);
+            record.setUserPhone(userPhone);
+            templateToRecordMap.put(templateId, record);
         }
 
-        // 批量update - 使用原子性更新，只有当前状态为AVAILABLE时才能更新
-        // 如果返回0表示槽位已被其他用户占用（超卖防护）
-        List<Map.Entry<VenueBookingSlotRecord, Integer>> updateResults = toUpdate.stream()
-                .map(record -> new java.util.AbstractMap.SimpleEntry<>(record,
-                        slotRecordMapper.updateStatusIfAvailable(
-                                record.getBookingSlotRecordId(),
-                                BookingSlotStatus.LOCKED_IN.getValue(),
-                                userId)))
-                .collect(Collectors.toList());
-
-        // 检查是否有失败的更新
-        var failedUpdate = updateResults.stream()
-                .filter(entry -> entry.getValue() == 0)
-                .findFirst();
-
-        if (failedUpdate.isPresent()) {
-            VenueBookingSlotRecord record = failedUpdate.get().getKey();
-            log.error("【事务内】[lockLock不应该出现这样的错误]槽位已被其他用户占用 - recordId: {}, slotTemplateId: {}",
-                    record.getBookingSlotRecordId(), record.getSlotTemplateId());
-            return null;  // 返回null表示占用失败
+        // 批量update - 一条语句认领全部已有记录，只有当前状态为AVAILABLE的行会被更新
+        // 受影响行数小于记录数表示部分槽位已被其他用户占用（超卖防护）
+        if (!toUpdate.isEmpty()) {
+            List<Long> recordIds = toUpdate.stream()
+                    .map(VenueBookingSlotRecord::getBookingSlotRecordId)
+                    .toList();
+            int updated = slotRecordMapper.updateStatusIfAvailableBatch(
+                    recordIds,
+                    BookingSlotStatus.LOCKED_IN.getValue(),
+                    OperatorSourceEnum.USER.getCode(),
+                    OperatorSourceEnum.USER,
+                    userId,
+                    userName,
+                    userPhone);
+            if (updated != recordIds.size()) {
+                log.error("【事务内】[lockLock不应该出现这样的错误]槽位已被其他用户占用 - 期望更新: {}, 实际更新: {}, recordIds: {}",
+                        recordIds.size(), updated, recordIds);
+                // 部分行已被更新，抛出异常回滚事务
+                throw new GloboxApplicationException(VenueCode.SLOT_OCCUPIED);
+            }
         }
 
-        int successUpdateCount = (int) updateResults.stream().filter(entry -> entry.getValue() > 0).count();
+        // 批量insert - 只有唯一键冲突（槽位记录已被并发创建）视为槽位已占用，其他数据库错误原样抛出
+        if (!toInsert.isEmpty()) {
+            try {
+                slotRecordMapper.batchInsert(toInsert);
+            } catch (DuplicateKeyException e) {
+                log.error("【事务内】[lockLock不应该出现这样的错误]槽位记录已被并发创建 - 期望插入: {}, templateIds: {}",
+                        toInsert.size(), toInsert.stream().map(VenueBookingSlotRecord::getSlotTemplateId).toArray());
+                throw new GloboxApplicationException(VenueCode.SLOT_OCCUPIED);
+            }
+        }
 
         // 按照 templates 的顺序返回 records，确保顺序正确
         List<VenueBookingSlotRecord> records = templates.stream()
                 .map(template -> templateToRecordMap.get(template.getBookingSlotTemplateId()))
                 .collect(Collectors.toList());
 
-        log.info("【事务内】槽位占用完成 - userId: {}, 槽位数: {}, 新增: {}, 更新: {} (成功: {}), recordIds: {}",
-                userId, templates.size(), toInsert.size(), toUpdate.size(), successUpdateCount,
+        log.info("【事务内】槽位占用完成 - userId: {}, 槽位数: {}, 新增: {}, 更新: {}, recordIds: {}",
+                userId, templates.size(), toInsert.size(), toUpdate.size(),
                 records.stream().map(VenueBookingSlotRecord::getBookingSlotRecordId).toArray());
 
+        // 事务提交后增量更新槽位网格
+        venueSlotGridService.occupySlots(venueId, bookingDate, BookingSlotStatus.LOCKED_IN.getValue(), userId,
+                records.stream().collect(Collectors.toMap(
+                        VenueBookingSlotRecord::getSlotTemplateId,
+                        VenueBookingSlotRecord::getBookingSlotRecordId)));
+
         return records;
     }
 
@@ -1135,13 +996,16 @@ public class BookingServiceImpl implements IBookingService {
         // 根据 platformCode 获取对应的适配器
         ThirdPartyPlatformAdapter adapter = adapterFactory.getAdapter(platformCode);
 
-        // 调用第三方平台查询槽位
-        List<ThirdPartyCourtSlotDto> thirdPartySlots = adapter.querySlots(config, bookingDate);
+        // 读取槽位缓存（由后台预取保持新鲜，过期数据先返回再后台刷新，缓存缺失时才同步调用第三方平台）
+        AwaySlotCacheEntry cacheEntry = awaySlotCacheService.getEntry(venueId, bookingDate,
+                () -> adapter.querySlotsFromAPI(config, bookingDate));
 
-        if (thirdPartySlots == null || thirdPartySlots.isEmpty()) {
+        if (cacheEntry == null) {
             log.info("第三方平台无可用槽位 - venueId: {}, date: {}", venueId, bookingDate);
             return Collections.emptyList();
         }
+        List<ThirdPartyCourtSlotDto> thirdPartySlots = cacheEntry.getSlots();
+        long dataAgeSeconds = cacheEntry.ageSeconds();
 
         // 查询本地场地信息（用于获取场地基本信息）
         // 以Away平台数据为准，本地可能没有对应的场地记录
@@ -1195,7 +1059,8 @@ public class BookingServiceImpl implements IBookingService {
             log.error("本地未找到对应场地，跳过{}个场地 - venueId: {}, 场地列表: {}",
                     notFoundCourts.size(), venueId, notFoundCourts);
         }
-        log.info("获取Away球场槽位成功 - venueId: {}, 场地数: {}", venueId, result.size());
+        result.forEach(vo -> vo.setDataAgeSeconds(dataAgeSeconds));
+        log.info("获取Away球场槽位成功 - venueId: {}, 场地数: {}, 数据时效: {}s", venueId, result.size(), dataAgeSeconds);
         return result;
     }
 
@@ -1,7 +1,6 @@
 package com.unlimited.sports.globox.venue.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.unlimited.sports.globox.common.exception.GloboxApplicationException;
 import com.unlimited.sports.globox.common.result.VenueCode;
@@ -11,6 +10,7 @@ import com.unlimited.sports.globox.model.venue.entity.venues.VenueActivityPartic
 import com.unlimited.sports.globox.model.venue.enums.VenueActivityStatusEnum;
 import com.unlimited.sports.globox.venue.mapper.VenueActivityMapper;
 import com.unlimited.sports.globox.venue.mapper.VenueActivityParticipantMapper;
+import com.unlimited.sports.globox.venue.service.IActivityQuotaService;
 import com.unlimited.sports.globox.venue.service.IVenueActivityParticipantService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -37,6 +37,9 @@ public class VenueActivityParticipantServiceImpl extends ServiceImpl<VenueActivi
     @Autowired
     private IdGenerator idGenerator;
 
+    @Autowired
+    private IActivityQuotaService activityQuotaService;
+
     @Override
     @Transactional(isolation = Isolation.READ_COMMITTED)
     public VenueActivityParticipant registerUserToActivity(Long activityId, Long userId) {
@@ -50,41 +53,10 @@ public class VenueActivityParticipantServiceImpl extends ServiceImpl<VenueActivi
             throw new GloboxApplicationException(VenueCode.ACTIVITY_NOT_EXIST);
         }
 
-        // 检查是否已经报名（只检查未取消的记录）
-        VenueActivityParticipant existing = this.getOne(
-                new LambdaQueryWrapper<VenueActivityParticipant>()
-                        .eq(VenueActivityParticipant::getActivityId, activityId)
-                        .eq(VenueActivityParticipant::getUserId, userId)
-                        .eq(VenueActivityParticipant::getStatus, VenueActivityParticipantStatusEnum.ACTIVE.getValue())
-        );
-        if (existing != null) {
-            throw new GloboxApplicationException(VenueCode.ACTIVITY_ALREADY_REGISTERED);
-        }
-
-        // 原子操作：检查人数限制并增加参与人数
-        // 使用 current_participants = current_participants + 1 和 WHERE 条件防止超卖
-        int updated = 0;
-        if (activity.getMaxParticipants() != null && activity.getMaxParticipants() > 0) {
-            // 有人数限制：使用 current_participants + 1 而不是常数值
-            updated = activityMapper.update(null, new LambdaUpdateWrapper<VenueActivity>()
-                    .setSql("current_participants = current_participants + 1")
-                    .eq(VenueActivity::getActivityId, activityId)
-                    .lt(VenueActivity::getCurrentParticipants, activity.getMaxParticipants())
-            );
-        } else {
-            // 无人数限制，直接增加
-            updated = activityMapper.update(null, new LambdaUpdateWrapper<VenueActivity>()
-                    .setSql("current_participants = current_participants + 1")
-                    .eq(VenueActivity::getActivityId, activityId)
-            );
-        }
-
-        if (updated == 0) {
-            log.warn("活动名额已满或不存在 - activityId: {}, userId: {}", activityId, userId);
-            throw new GloboxApplicationException(VenueCode.ACTIVITY_FULL);
-        }
+        // 名额预留与重复报名校验，不再锁定活动行
+        reserveQuota(activity, userId, 1);
 
-        log.info("活动人数已增加 - activityId: {}, userId: {}", activityId, userId);
+        log.info("活动名额已预留 - activityId: {}, userId: {}", activityId, userId);
 
         VenueActivityParticipant participant = VenueActivityParticipant.builder()
                 .activityId(activityId)
@@ -95,6 +67,7 @@ public class VenueActivityParticipantServiceImpl extends ServiceImpl<VenueActivi
         this.save(participant);
         log.info("用户报名成功 - activityId: {}, userId: {}, participantId: {}",
                 activityId, userId, participant.getParticipantId());
+        // 参与人数由对账任务回写，回写后再失效槽位网格
         return participant;
     }
 
@@ -111,45 +84,10 @@ public class VenueActivityParticipantServiceImpl extends ServiceImpl<VenueActivi
             throw new GloboxApplicationException(VenueCode.ACTIVITY_NOT_EXIST);
         }
 
-        // 检查该用户是否已经报名（未取消的记录）
-        long existingCount = this.count(
-                new LambdaQueryWrapper<VenueActivityParticipant>()
-                        .eq(VenueActivityParticipant::getActivityId, activityId)
-                        .eq(VenueActivityParticipant::getUserId, userId)
-                        .eq(VenueActivityParticipant::getStatus, VenueActivityParticipantStatusEnum.ACTIVE.getValue())
-        );
+        // 名额预留与重复报名校验，不再锁定活动行
+        reserveQuota(activity, userId, quantity);
 
-        if (existingCount > 0) {
-            log.warn("用户已报名活动 - activityId: {}, userId: {}, 已报名数: {}",
-                    activityId, userId, existingCount);
-            throw new GloboxApplicationException(VenueCode.ACTIVITY_ALREADY_REGISTERED);
-        }
-
-        // 原子操作：一次性增加 quantity 个名额
-        // 直接在数据库层判断：current_participants + quantity <= max_participants
-        int updated = 0;
-        if (activity.getMaxParticipants() != null && activity.getMaxParticipants() > 0) {
-            // 有人数限制：使用数据库字段判断
-            updated = activityMapper.update(null, new LambdaUpdateWrapper<VenueActivity>()
-                    .setSql("current_participants = current_participants + " + quantity)
-                    .eq(VenueActivity::getActivityId, activityId)
-                    .apply("current_participants + {0} <= max_participants", quantity)
-            );
-        } else {
-            // 无人数限制，直接增加
-            updated = activityMapper.update(null, new LambdaUpdateWrapper<VenueActivity>()
-                    .setSql("current_participants = current_participants + " + quantity)
-                    .eq(VenueActivity::getActivityId, activityId)
-            );
-        }
-
-        if (updated == 0) {
-            log.warn("活动名额不足 - activityId: {}, userId: {}, 需要名额: {}",
-                    activityId, userId, quantity);
-            throw new GloboxApplicationException(VenueCode.ACTIVITY_NO_SLOTS);
-        }
-
-        log.info("活动人数已增加 - activityId: {}, userId: {}, 增加数量: {}", activityId, userId, quantity);
+        log.info("活动名额已预留 - activityId: {}, userId: {}, 数量: {}", activityId, userId, quantity);
 
         // 生成唯一的batch_id用于追踪同一批次的所有报名（使用雪花算法）
         String batchId = String.valueOf(idGenerator.nextId());
@@ -179,4 +117,29 @@ public class VenueActivityParticipantServiceImpl extends ServiceImpl<VenueActivi
         return participants;
     }
 
+    /**
+     * 预留活动名额
+     * 有人数限制的活动在 Redis 中原子扣减名额并按用户去重，事务回滚时自动归还；
+     * 无人数限制的活动只做数据库去重。两种情况下 current_participants 都由对账任务按报名记录回写
+     */
+    private void reserveQuota(VenueActivity activity, Long userId, int quantity) {
+        Long activityId = activity.getActivityId();
+        if (activity.getMaxParticipants() != null && activity.getMaxParticipants() > 0) {
+            activityQuotaService.reserve(activity, userId, quantity);
+            return;
+        }
+
+        long existingCount = this.count(
+                new LambdaQueryWrapper<VenueActivityParticipant>()
+                        .eq(VenueActivityParticipant::getActivityId, activityId)
+                        .eq(VenueActivityParticipant::getUserId, userId)
+                        .eq(VenueActivityParticipant::getStatus, VenueActivityParticipantStatusEnum.ACTIVE.getValue())
+        );
+        if (existingCount > 0) {
+            log.warn("用户已报名活动 - activityId: {}, userId: {}, 已报名数: {}",
+                    activityId, userId, existingCount);
+            throw new GloboxApplicationException(VenueCode.ACTIVITY_ALREADY_REGISTERED);
+        }
+        activityQuotaService.markDirty(activityId);
+    }
 }
@@ -0,0 +1,261 @@
+package com.unlimited.sports.globox.venue.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.unlimited.sports.globox.merchant.mapper.VenueMapper;
+import com.unlimited.sports.globox.model.merchant.entity.Venue;
+import com.unlimited.sports.globox.model.venue.enums.VenueStatus;
+import com.unlimited.sports.globox.venue.constants.BookingCacheConstants;
+import com.unlimited.sports.globox.venue.dto.VenueFreeSlotRange;
+import com.unlimited.sports.globox.venue.mapper.VenueBookingSlotRecordMapper;
+import com.unlimited.sports.globox.venue.service.IVenueAvailabilityIndexService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 场馆可用性索引服务实现
+ *
+ * 索引按日期存放在 Redis Hash 中：field 为 venueId，value 为 48 位空闲位图（十进制字符串），
+ * 第 i 位为 1 表示 [i*30min, (i+1)*30min) 内至少有一片开放场地空闲。
+ * 首次查询某日期时用一条聚合查询整体构建；之后槽位锁定/解锁时只重算该场馆在该日期的字段，
+ * 场馆配置变更时只为已构建的日期重算该场馆，多个日期合并为一次查询。
+ * 与槽位网格相同，索引配有版本号 key，重建期间若有增量更新则放弃写入，避免旧数据覆盖并发变更
+ */
+@Slf4j
+@Service
+public class VenueAvailabilityIndexServiceImpl implements IVenueAvailabilityIndexService {
+
+    /**
+     * 增量更新单个场馆
+     * KEYS[1]=索引 KEYS[2]=版本号 ARGV[1]=TTL秒 ARGV[2]=venueId ARGV[3]=位图（为空表示只自增版本号）
+     * 索引不存在时只自增版本号，不创建残缺的索引
+     */
+    private static final DefaultRedisScript<Long> UPDATE_VENUE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('INCR', KEYS[2]) " +
+            "redis.call('EXPIRE', KEYS[2], ARGV[1]) " +
+            "if ARGV[3] == '' or redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+            "redis.call('HSET', KEYS[1], ARGV[2], ARGV[3]) " +
+            "return 1",
+            Long.class);
+
+    /**
+     * 全量写入索引
+     * KEYS[1]=索引 KEYS[2]=版本号 ARGV[1]=读库前的版本号 ARGV[2]=TTL秒 ARGV[3..]=字段/值对
+     */
+    private static final DefaultRedisScript<Long> LOAD_INDEX_SCRIPT = new DefaultRedisScript<>(
+            "local gen = redis.call('GET', KEYS[2]) or '0' " +
+            "if gen ~= ARGV[1] then return 0 end " +
+            "redis.call('DEL', KEYS[1]) " +
+            "for i = 3, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[2]) " +
+            "return 1",
+            Long.class);
+
+    /**
+     * 索引哨兵字段，用于区分"已构建但没有场馆"和"未构建"
+     */
+    private static final String INDEX_SENTINEL = "_";
+
+    private static final int BUCKET_SECONDS = BookingCacheConstants.AVAILABILITY_BUCKET_MINUTES * 60;
+
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private VenueBookingSlotRecordMapper slotRecordMapper;
+
+    @Autowired
+    private VenueMapper venueMapper;
+
+    @Override
+    public Set<Long> getAvailableVenueIds(LocalDate bookingDate, LocalTime startTime, LocalTime endTime) {
+        long window = toBucketMask(startTime, endTime);
+        Map<Long, Long> index = loadIndex(bookingDate);
+
+        Set<Long> availableVenueIds = new HashSet<>();
+        index.forEach((venueId, freeMask) -> {
+            if ((freeMask & window) != 0L) {
+                availableVenueIds.add(venueId);
+            }
+        });
+        log.debug("[可用性索引] 查询完成 - date: {}, time: {}-{}, 场馆数: {}, 可用: {}",
+                bookingDate, startTime, endTime, index.size(), availableVenueIds.size());
+        return availableVenueIds;
+    }
+
+    @Override
+    public Set<Long> getUnavailableVenueIds(LocalDate bookingDate, LocalTime startTime, LocalTime endTime) {
+        long window = toBucketMask(startTime, endTime);
+        Map<Long, Long> index = loadIndex(bookingDate);
+
+        Set<Long> unavailableVenueIds = new HashSet<>();
+        index.forEach((venueId, freeMask) -> {
+            if ((freeMask & window) == 0L) {
+                unavailableVenueIds.add(venueId);
+            }
+        });
+        log.debug("[可用性索引] 查询完成 - date: {}, time: {}-{}, 场馆数: {}, 不可用: {}",
+                bookingDate, startTime, endTime, index.size(), unavailableVenueIds.size());
+        return unavailableVenueIds;
+    }
+
+    @Override
+    public void refreshVenue(Long venueId, LocalDate bookingDate) {
+        if (venueId == null || bookingDate == null) {
+            return;
+        }
+        refreshVenueDates(venueId, List.of(bookingDate));
+    }
+
+    @Override
+    public void refreshVenue(Long venueId) {
+        if (venueId == null) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        List<LocalDate> dates = new ArrayList<>(BookingCacheConstants.SLOT_GRID_EVICT_DAYS + 1);
+        for (int i = 0; i <= BookingCacheConstants.SLOT_GRID_EVICT_DAYS; i++) {
+            dates.add(today.plusDays(i));
+        }
+        refreshVenueDates(venueId, dates);
+    }
+
+    /**
+     * 重新计算场馆在指定日期上的空闲位图
+     * 只为索引已构建的日期查库，且只查这一个场馆，多个日期合并为一次查询；
+     * 索引未构建的日期不查库，只自增版本号使并发中的构建放弃写入，首次查询时再整体构建
+     */
+    private void refreshVenueDates(Long venueId, List<LocalDate> dates) {
+        try {
+            List<LocalDate> indexedDates = dates.stream()
+                    .filter(date -> Boolean.TRUE.equals(
+                            stringRedisTemplate.hasKey(BookingCacheConstants.buildAvailabilityIndexKey(date))))
+                    .toList();
+            Map<LocalDate, Long> freeMasks = new HashMap<>();
+            if (!indexedDates.isEmpty()) {
+                indexedDates.forEach(date -> freeMasks.put(date, 0L));
+                for (VenueFreeSlotRange range : slotRecordMapper.selectVenueFreeSlotRanges(venueId, indexedDates)) {
+                    freeMasks.merge(range.getBookingDate(),
+                            toBucketMask(range.getStartTime(), range.getEndTime()), (a, b) -> a | b);
+                }
+            }
+
+            String ttlSeconds = String.valueOf(
+                    TimeUnit.MINUTES.toSeconds(BookingCacheConstants.AVAILABILITY_INDEX_TTL_MINUTES * 2));
+            for (LocalDate date : dates) {
+                Long freeMask = freeMasks.get(date);
+                stringRedisTemplate.execute(UPDATE_VENUE_SCRIPT,
+                        List.of(BookingCacheConstants.buildAvailabilityIndexKey(date),
+                                BookingCacheConstants.buildAvailabilityIndexGenKey(date)),
+                        ttlSeconds,
+                        String.valueOf(venueId),
+                        freeMask == null ? "" : String.valueOf(freeMask));
+            }
+        } catch (Exception e) {
+            log.error("[可用性索引] 增量更新失败，删除索引等待重建 - venueId: {}, dates: {}", venueId, dates, e);
+            List<String> indexKeys = dates.stream().map(BookingCacheConstants::buildAvailabilityIndexKey).toList();
+            try {
+                stringRedisTemplate.delete(indexKeys);
+            } catch (Exception ex) {
+                log.error("[可用性索引] 删除索引失败，等待TTL过期 - keys: {}", indexKeys, ex);
+            }
+        }
+    }
+
+    /**
+     * 读取索引，未命中时从数据库整体构建并按版本号条件写回
+     *
+     * @return venueId -> 空闲位图
+     */
+    private Map<Long, Long> loadIndex(LocalDate bookingDate) {
+        String indexKey = BookingCacheConstants.buildAvailabilityIndexKey(bookingDate);
+        String genKey = BookingCacheConstants.buildAvailabilityIndexGenKey(bookingDate);
+        String gen;
+        try {
+            Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(indexKey);
+            if (!entries.isEmpty()) {
+                Map<Long, Long> index = new HashMap<>(entries.size() * 2);
+                entries.forEach((field, value) -> {
+                    if (!INDEX_SENTINEL.equals(field)) {
+                        index.put(Long.valueOf((String) field), Long.valueOf((String) value));
+                    }
+                });
+                return index;
+            }
+            gen = Optional.ofNullable(stringRedisTemplate.opsForValue().get(genKey)).orElse("0");
+        } catch (Exception e) {
+            log.error("[可用性索引] 读取索引失败，回源数据库 - key: {}", indexKey, e);
+            return computeFreeMasks(bookingDate);
+        }
+
+        Map<Long, Long> index = computeFreeMasks(bookingDate);
+
+        List<String> args = new ArrayList<>(index.size() * 2 + 4);
+        args.add(gen);
+        args.add(String.valueOf(TimeUnit.MINUTES.toSeconds(BookingCacheConstants.AVAILABILITY_INDEX_TTL_MINUTES)));
+        args.add(INDEX_SENTINEL);
+        args.add("1");
+        index.forEach((venueId, freeMask) -> {
+            args.add(String.valueOf(venueId));
+            args.add(String.valueOf(freeMask));
+        });
+        try {
+            Long loaded = stringRedisTemplate.execute(LOAD_INDEX_SCRIPT, List.of(indexKey, genKey), args.toArray());
+            if (loaded == null || loaded == 0L) {
+                log.debug("[可用性索引] 构建期间发生变更，放弃写入 - key: {}", indexKey);
+            } else {
+                log.info("[可用性索引] 全量构建完成 - date: {}, 场馆数: {}", bookingDate, index.size());
+            }
+        } catch (Exception e) {
+            log.error("[可用性索引] 写入索引失败 - key: {}", indexKey, e);
+        }
+        return index;
+    }
+
+    /**
+     * 从数据库计算所有正常营业场馆的空闲位图（没有空闲时段的场馆位图为0）
+     *
+     * @return venueId -> 空闲位图
+     */
+    private Map<Long, Long> computeFreeMasks(LocalDate bookingDate) {
+        Map<Long, Long> freeMasks = new HashMap<>();
+        venueMapper.selectList(new LambdaQueryWrapper<Venue>()
+                        .select(Venue::getVenueId)
+                        .eq(Venue::getStatus, VenueStatus.NORMAL.getValue()))
+                .forEach(venue -> freeMasks.put(venue.getVenueId(), 0L));
+
+        List<VenueFreeSlotRange> ranges = slotRecordMapper.selectFreeSlotRanges(null, bookingDate);
+        for (VenueFreeSlotRange range : ranges) {
+            freeMasks.merge(range.getVenueId(), toBucketMask(range.getStartTime(), range.getEndTime()), (a, b) -> a | b);
+        }
+        return freeMasks;
+    }
+
+    /**
+     * 将时间段转换为半小时位图，覆盖与 [startTime, endTime) 有交集的所有时间桶
+     * 结束时间不晚于开始时间时（如 23:00-00:00）视为到当天结束
+     */
+    private static long toBucketMask(LocalTime startTime, LocalTime endTime) {
+        int startSeconds = startTime.toSecondOfDay();
+        int endSeconds = endTime.toSecondOfDay();
+        if (endSeconds <= startSeconds) {
+            endSeconds = SECONDS_PER_DAY;
+        }
+        int fromBucket = startSeconds / BUCKET_SECONDS;
+        int toBucket = (endSeconds + BUCKET_SECONDS - 1) / BUCKET_SECONDS;
+        int width = toBucket - fromBucket;
+        if (width <= 0) {
+            return 0L;
+        }
+        return (width >= Long.SIZE ? -1L : (1L << width) - 1) << fromBucket;
+    }
+}
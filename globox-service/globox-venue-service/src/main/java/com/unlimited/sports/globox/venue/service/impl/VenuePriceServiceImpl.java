@@ -1,11 +1,14 @@
 package com.unlimited.sports.globox.venue.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.unlimited.sports.globox.common.enums.order.ChargeModeEnum;
 import com.unlimited.sports.globox.common.exception.GloboxApplicationException;
 import com.unlimited.sports.globox.common.result.VenueCode;
 import com.unlimited.sports.globox.dubbo.merchant.dto.OrderLevelExtraQuote;
+import com.unlimited.sports.globox.merchant.mapper.VenueMapper;
 import com.unlimited.sports.globox.model.merchant.entity.Court;
+import com.unlimited.sports.globox.model.merchant.entity.Venue;
 import com.unlimited.sports.globox.model.venue.dto.DetailedPricingInfo;
 import com.unlimited.sports.globox.model.venue.entity.booking.VenueBookingSlotTemplate;
 import com.unlimited.sports.globox.model.venue.entity.booking.VenuePriceOverride;
@@ -53,6 +56,9 @@ public class VenuePriceServiceImpl implements IVenuePriceService {
     @Autowired
     private VenuePriceOverrideMapper priceOverrideMapper;
 
+    @Autowired
+    private VenueMapper venueMapper;
+
     private static final BigDecimal DEFAULT_MISSING_PRICE = new BigDecimal("999");
 
     /**
@@ -755,6 +761,50 @@ public class VenuePriceServiceImpl implements IVenuePriceService {
                 ));
     }
 
+    @Override
+    public void refreshPriceSummary(Long venueId) {
+        if (venueId == null) {
+            return;
+        }
+        Venue venue = venueMapper.selectById(venueId);
+        if (venue == null) {
+            return;
+        }
+
+        // 与搜索价格筛选取同一来源：场馆默认模板的启用时段
+        List<BigDecimal> prices = new ArrayList<>();
+        if (venue.getTemplateId() != null) {
+            priceTemplatePeriodMapper.selectByTemplateId(venue.getTemplateId())
+                    .forEach(period -> {
+                        prices.add(period.getWeekdayPrice());
+                        prices.add(period.getWeekendPrice());
+                        prices.add(period.getHolidayPrice());
+                    });
+        }
+
+        BigDecimal minPrice = prices.stream().filter(Objects::nonNull).min(BigDecimal::compareTo).orElse(null);
+        BigDecimal maxPrice = prices.stream().filter(Objects::nonNull).max(BigDecimal::compareTo).orElse(null);
+
+        venueMapper.update(null, new LambdaUpdateWrapper<Venue>()
+                .set(Venue::getMinPrice, minPrice)
+                .set(Venue::getMaxPrice, maxPrice)
+                .eq(Venue::getVenueId, venueId));
+        log.info("[价格摘要] 刷新完成 - venueId: {}, minPrice: {}, maxPrice: {}", venueId, minPrice, maxPrice);
+    }
+
+    @Override
+    public int refreshAllPriceSummaries() {
+        List<Long> venueIds = venueMapper.selectList(new LambdaQueryWrapper<Venue>()
+                        .select(Venue::getVenueId)
+                        .eq(Venue::getStatus, 1))
+                .stream()
+                .map(Venue::getVenueId)
+                .toList();
+        venueIds.forEach(this::refreshPriceSummary);
+        log.info("[价格摘要] 全量刷新完成 - 场馆数: {}", venueIds.size());
+        return venueIds.size();
+    }
+
     private Integer findExtraChargeDefault(List<VenueExtraChargeTemplate> templates, Long templateId) {
         if (templates == null || templateId == null) {
             return 0;
@@ -1,23 +1,20 @@
 package com.unlimited.sports.globox.venue.service.impl;
 
-import com.alibaba.fastjson2.JSON;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.unlimited.sports.globox.common.result.PaginationResult;
+import com.unlimited.sports.globox.common.utils.DistanceUtils;
 import com.unlimited.sports.globox.merchant.mapper.CourtMapper;
 import com.unlimited.sports.globox.merchant.mapper.VenueFacilityRelationMapper;
 import com.unlimited.sports.globox.merchant.mapper.VenueMapper;
 import com.unlimited.sports.globox.model.merchant.entity.Court;
-import com.unlimited.sports.globox.model.merchant.entity.Venue;
 import com.unlimited.sports.globox.model.venue.dto.GetVenueListDto;
 import com.unlimited.sports.globox.model.venue.entity.venues.VenueFacilityRelation;
-import com.unlimited.sports.globox.model.venue.entity.venues.VenuePriceTemplatePeriod;
 import com.unlimited.sports.globox.model.venue.enums.CourtCountFilter;
 import com.unlimited.sports.globox.model.venue.enums.CourtStatus;
 import com.unlimited.sports.globox.model.venue.enums.CourtType;
 import com.unlimited.sports.globox.model.venue.enums.GroundType;
 import com.unlimited.sports.globox.model.venue.vo.VenueItemVo;
-import com.unlimited.sports.globox.venue.mapper.VenueBookingSlotRecordMapper;
-import com.unlimited.sports.globox.venue.mapper.venues.VenuePriceTemplatePeriodMapper;
+import com.unlimited.sports.globox.venue.service.IVenueAvailabilityIndexService;
 import com.unlimited.sports.globox.venue.service.IVenueBusinessHoursService;
 import com.unlimited.sports.globox.venue.service.IVenueSearchService;
 import lombok.RequiredArgsConstructor;
@@ -42,6 +39,8 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class VenueSearchServiceImpl implements IVenueSearchService {
 
+    private static final BigDecimal DEFAULT_MISSING_PRICE = new BigDecimal("999");
+
     @Autowired
     private VenueMapper venueMapper;
 
@@ -51,9 +50,6 @@ public class VenueSearchServiceImpl implements IVenueSearchService {
     @Autowired
     private VenueFacilityRelationMapper venueFacilityRelationMapper;
 
-    @Autowired
-    private VenueBookingSlotRecordMapper venueBookingSlotRecordMapper;
-
     @Value("${default_image.venue_list_cover}")
     private String defaultVenueListCoverImage;
 
@@ -62,10 +58,10 @@ public class VenueSearchServiceImpl implements IVenueSearchService {
     private IVenueBusinessHoursService venueBusinessHoursService;
 
     @Autowired
-    private VenuePriceTemplatePeriodMapper venuePriceTemplatePeriodMapper;
+    private AwayVenueSearchService awayVenueSearchService;
 
     @Autowired
-    private AwayVenueSearchService awayVenueSearchService;
+    private IVenueAvailabilityIndexService venueAvailabilityIndexService;
 
     @Override
     public PaginationResult<VenueItemVo> searchVenues(GetVenueListDto dto) {
@@ -98,41 +94,36 @@ public class VenueSearchServiceImpl implements IVenueSearchService {
                 return PaginationResult.build(Collections.emptyList(), 0L, dto.getPage(), dto.getPageSize());
             }
         }
-        // 预处理：查询时段内不可预订的场馆ID列表（基于时间可见性、营业时间和已预订槽位）
-        Set<Long> unavailableVenueIds = new HashSet<>();
+        // 预处理：查询时段内可预订的候选场馆ID列表（基于已预订槽位，再排除时间可见性、营业时间和AWAY槽位不满足的场馆）
+        List<Long> candidateVenueIdsList = null;
         if (dto.getBookingDate() != null && dto.getStartTime() != null && dto.getEndTime() != null) {
-            // 1. 基于时间可见性规则过滤（maxAdvanceDays + slotVisibilityTime）
+            // 1. 基于已预订槽位的候选场馆（可用性索引：每个场馆一次位与运算）
+            Set<Long> candidateVenueIds = venueAvailabilityIndexService.getAvailableVenueIds(
+                    dto.getBookingDate(),
+                    dto.getStartTime(),
+                    dto.getEndTime()
+            );
+            log.info("已预订槽位过滤后的候选场馆数量：{}", candidateVenueIds.size());
+
+            // 2. 排除不符合时间可见性规则的场馆（maxAdvanceDays + slotVisibilityTime）
             List<Long> visibilityViolations = venueMapper.selectVenuesViolatingVisibilityRules(dto.getBookingDate());
             if (visibilityViolations != null && !visibilityViolations.isEmpty()) {
-                unavailableVenueIds.addAll(visibilityViolations);
+                visibilityViolations.forEach(candidateVenueIds::remove);
                 log.info("时间可见性规则过滤的场馆数量：{}", visibilityViolations.size());
             }
 
-            // 2. 基于营业时间规则过滤不可预订的场馆（优先级：关闭 > 特殊 > 常规）
+            // 3. 排除营业时间规则下不可预订的场馆（优先级：关闭 > 特殊 > 常规）
             List<Long> businessHoursUnavailable = venueBusinessHoursService.getUnavailableVenueIds(
                     dto.getBookingDate(),
                     dto.getStartTime(),
                     dto.getEndTime()
             );
             if (businessHoursUnavailable != null && !businessHoursUnavailable.isEmpty()) {
-                unavailableVenueIds.addAll(businessHoursUnavailable);
+                businessHoursUnavailable.forEach(candidateVenueIds::remove);
                 log.info("营业时间规则过滤的不可预订场馆数量：{}", businessHoursUnavailable.size());
             }
 
-            // 3. 基于已预订槽位过滤不可预订的HOME场馆
-            List<Long> slotUnavailable = venueBookingSlotRecordMapper.selectUnavailableVenueIds(
-                    null,
-                    dto.getBookingDate(),
-                    dto.getStartTime(),
-                    dto.getEndTime()
-            );
-            log.info("HOME场馆时间筛选后不可预定的{}", JSON.toJSONString(slotUnavailable));
-            if (slotUnavailable != null && !slotUnavailable.isEmpty()) {
-                unavailableVenueIds.addAll(slotUnavailable);
-                log.info("HOME场馆已预订槽位过滤的不可预订场馆数量：{}", slotUnavailable.size());
-            }
-
-            // 4. 基于AWAY球场实时槽位过滤不可预订的场馆
+            // 4. 排除AWAY球场实时槽位不可预订的场馆
             try {
                 Set<Long> awayUnavailable = awayVenueSearchService.getUnavailableAwayVenueIds(
                         dto.getBookingDate(),
@@ -140,27 +131,18 @@ public class VenueSearchServiceImpl implements IVenueSearchService {
                         dto.getEndTime()
                 );
                 if (awayUnavailable != null && !awayUnavailable.isEmpty()) {
-                    unavailableVenueIds.addAll(awayUnavailable);
+                    candidateVenueIds.removeAll(awayUnavailable);
                     log.info("AWAY场馆槽位过滤的不可预订场馆数量：{}", awayUnavailable.size());
                 }
             } catch (Exception e) {
                 log.error("查询AWAY场馆槽位异常，跳过AWAY场馆过滤", e);
             }
 
-            log.info("总计不可预订的场馆数量（HOME+AWAY）：{}", unavailableVenueIds.size());
-        }
-
-        // 预处理：查询符合价格范围的场馆ID列表
-        Set<Long> priceQualifiedVenueIds = null;
-        if (dto.getMinPrice() != null || dto.getMaxPrice() != null) {
-            List<Long> priceQualifiedList = getPriceQualifiedVenueIds(dto.getMinPrice(), dto.getMaxPrice());
-            if (priceQualifiedList != null && !priceQualifiedList.isEmpty()) {
-                priceQualifiedVenueIds = new HashSet<>(priceQualifiedList);
-                log.info("价格范围过滤的符合条件场馆数量：{}", priceQualifiedVenueIds.size());
-            } else {
-                log.info("价格范围{}~{}无匹配场馆", dto.getMinPrice(), dto.getMaxPrice());
+            log.info("时段内可预订的候选场馆数量：{}", candidateVenueIds.size());
+            if (candidateVenueIds.isEmpty()) {
                 return PaginationResult.build(Collections.emptyList(), 0L, dto.getPage(), dto.getPageSize());
             }
+            candidateVenueIdsList = new ArrayList<>(candidateVenueIds);
         }
 
         // 解析场地片数筛选
@@ -177,14 +159,31 @@ public class VenueSearchServiceImpl implements IVenueSearchService {
             }
         }
 
+        // 距离预筛选：按最大距离计算经纬度边界框
+        double[] boundingBox = null;
+        if (dto.getLatitude() != null && dto.getLongitude() != null && dto.getMaxDistance() != null) {
+            boundingBox = DistanceUtils.calculateBoundingBoxApprox(
+                    dto.getLatitude(), dto.getLongitude(), dto.getMaxDistance());
+        }
+        Double minLat = boundingBox != null ? boundingBox[0] : null;
+        Double maxLat = boundingBox != null ? boundingBox[1] : null;
+        Double minLng = boundingBox != null ? boundingBox[2] : null;
+        Double maxLng = boundingBox != null ? boundingBox[3] : null;
+
+        // 距离游标：仅在传入用户经纬度且按距离升序时生效，游标模式下不再使用 offset
+        boolean useDistanceCursor = dto.getLatitude() != null && dto.getLongitude() != null
+                && dto.getCursorDistance() != null && dto.getCursorVenueId() != null
+                && !"price".equals(dto.getSortBy()) && !"courtCount".equals(dto.getSortBy())
+                && Integer.valueOf(1).equals(dto.getSortOrder());
+        Double cursorDistance = useDistanceCursor ? dto.getCursorDistance() : null;
+        Long cursorVenueId = useDistanceCursor ? dto.getCursorVenueId() : null;
+
         // 计算分页偏移量
-        int offset = (dto.getPage() - 1) * dto.getPageSize();
+        int offset = useDistanceCursor ? 0 : (dto.getPage() - 1) * dto.getPageSize();
 
 
         List<Long> facilityVenueIdsList = facilityVenueIds != null ? new ArrayList<>(facilityVenueIds) : null;
         List<Long> courtTypeVenueIdsList = courtTypeVenueIds != null ? new ArrayList<>(courtTypeVenueIds) : null;
-        List<Long> unavailableVenueIdsList = unavailableVenueIds.isEmpty() ? null : new ArrayList<>(unavailableVenueIds);
-        List<Long> priceQualifiedVenueIdsList = priceQualifiedVenueIds != null ? new ArrayList<>(priceQualifiedVenueIds) : null;
 
         // 使用XML方法在数据库层面进行所有过滤、排序和计算距离
         List<Map<String, Object>> searchResults = venueMapper.searchVenues(
@@ -194,12 +193,19 @@ public class VenueSearchServiceImpl implements IVenueSearchService {
                 dto.getLatitude(),
                 dto.getLongitude(),
                 dto.getMaxDistance(),
+                minLat,
+                maxLat,
+                minLng,
+                maxLng,
+                cursorDistance,
+                cursorVenueId,
                 dto.getSortBy(),
                 dto.getSortOrder(),
                 facilityVenueIdsList,
                 courtTypeVenueIdsList,
-                unavailableVenueIdsList,
-                priceQualifiedVenueIdsList,
+                candidateVenueIdsList,
+                dto.getMinPrice(),
+                dto.getMaxPrice(),
                 offset,
                 dto.getPageSize()
         );
@@ -212,18 +218,19 @@ public class VenueSearchServiceImpl implements IVenueSearchService {
                 dto.getLatitude(),
                 dto.getLongitude(),
                 dto.getMaxDistance(),
+                minLat,
+                maxLat,
+                minLng,
+                maxLng,
                 facilityVenueIdsList,
                 courtTypeVenueIdsList,
-                unavailableVenueIdsList,
-                priceQualifiedVenueIdsList
+                candidateVenueIdsList,
+                dto.getMinPrice(),
+                dto.getMaxPrice()
         );
 
         log.info("搜索结果总数：{}", total);
 
-        if ("price".equals(dto.getSortBy())) {
-            sortSearchResultsByPrice(searchResults, dto.getSortOrder());
-        }
-
         // 转换为VO
         List<VenueItemVo> venueItemVos = convertToVo(searchResults);
 
@@ -282,11 +289,10 @@ public class VenueSearchServiceImpl implements IVenueSearchService {
                     ? ((Number) result.get("ratingCount")).intValue()
                     : 0;
 
-            // 最低价格（从templateId动态计算）
-            Long templateId = result.get("templateId") != null
-                    ? ((Number) result.get("templateId")).longValue()
-                    : null;
-            BigDecimal minPrice = calculateMinPrice(templateId);
+            // 最低价格（价格摘要，未配置价格时默认999）
+            BigDecimal minPrice = result.get("minPrice") != null
+                    ? new BigDecimal(result.get("minPrice").toString())
+                    : DEFAULT_MISSING_PRICE;
 
             // 获取设施列表
             List<String> facilities = facilityMap.getOrDefault(venueId, Collections.emptyList());
@@ -382,113 +388,4 @@ public class VenueSearchServiceImpl implements IVenueSearchService {
         String[] urls = imageUrls.split(";");
         return urls.length > 0 ? urls[0] : defaultVenueListCoverImage;
     }
-
-    /**
-     * 预处理：查询符合价格范围的场馆ID列表
-     * 从价格模板中检查是否存在符合用户价格范围的价格
-     * 只要存在任何一种价格类型（工作日/周末/节假日）符合条件，就认为场馆符合
-     *
-     * @param minPrice 最低价格（null则不限制）
-     * @param maxPrice 最高价格（null则不限制）
-     * @return 符合条件的场馆ID列表
-     */
-    private List<Long> getPriceQualifiedVenueIds(BigDecimal minPrice, BigDecimal maxPrice) {
-        // 查询所有启用场馆及其价格模板
-        List<Venue> allVenues = venueMapper.selectList(new LambdaQueryWrapper<Venue>()
-                .eq(Venue::getStatus, 1));  // 只查询启用的场馆
-
-        List<Long> qualifiedVenueIds = new ArrayList<>();
-
-        for (Venue venue : allVenues) {
-            if (venue.getTemplateId() == null) {
-                // 没有配置价格模板的场馆不符合条件
-                continue;
-            }
-
-            // 查询该场馆的所有价格时段
-            List<VenuePriceTemplatePeriod> periods = venuePriceTemplatePeriodMapper.selectByTemplateId(venue.getTemplateId());
-
-            if (periods == null || periods.isEmpty()) {
-                continue;
-            }
-
-            // 检查是否存在任何价格符合用户的价格范围
-            boolean hasPriceInRange = periods.stream().anyMatch(period -> {
-                List<BigDecimal> prices = new ArrayList<>();
-                if (period.getWeekdayPrice() != null) {
-                    prices.add(period.getWeekdayPrice());
-                }
-                if (period.getWeekendPrice() != null) {
-                    prices.add(period.getWeekendPrice());
-                }
-                if (period.getHolidayPrice() != null) {
-                    prices.add(period.getHolidayPrice());
-                }
-
-                // 检查是否存在价格符合范围
-                return prices.stream().anyMatch(price -> {
-                    boolean meetsMin = minPrice == null || price.compareTo(minPrice) >= 0;
-                    boolean meetsMax = maxPrice == null || price.compareTo(maxPrice) <= 0;
-                    return meetsMin && meetsMax;
-                });
-            });
-
-            if (hasPriceInRange) {
-                qualifiedVenueIds.add(venue.getVenueId());
-            }
-        }
-
-        return qualifiedVenueIds;
-    }
-
-    /**
-     * 对搜索结果按价格排序
-     *
-     * @param searchResults 数据库查询的原始结果
-     * @param sortOrder 排序顺序：1=升序, 2=降序
-     */
-    private void sortSearchResultsByPrice(List<Map<String, Object>> searchResults, Integer sortOrder) {
-        searchResults.sort((r1, r2) -> {
-            Long templateId1 = r1.get("templateId") != null ? ((Number) r1.get("templateId")).longValue() : null;
-            Long templateId2 = r2.get("templateId") != null ? ((Number) r2.get("templateId")).longValue() : null;
-
-            BigDecimal price1 = calculateMinPrice(templateId1);
-            BigDecimal price2 = calculateMinPrice(templateId2);
-
-            // sortOrder: 1=升序(ASC), 2=降序(DESC)
-            if (sortOrder != null && sortOrder == 2) {
-                return price2.compareTo(price1);  // 降序
-            } else {
-                return price1.compareTo(price2);  // 升序（默认）
-            }
-        });
-    }
-
-    /**
-     * 计算场馆最低价格
-     * 从价格模板中获取所有价格类型（工作日、周末、节假日），取最小值
-     * 如果查不到价格则默认999
-     *
-     * @param templateId 价格模板ID
-     * @return 最低价格
-     */
-    private BigDecimal calculateMinPrice(Long templateId) {
-        if (templateId == null) {
-            return new BigDecimal("999");
-        }
-
-        List<VenuePriceTemplatePeriod> periods = venuePriceTemplatePeriodMapper.selectByTemplateId(templateId);
-
-        if (periods == null || periods.isEmpty()) {
-            return new BigDecimal("999");
-        }
-
-        return periods.stream()
-                .flatMap(period -> java.util.Arrays.stream(
-                        new BigDecimal[]{period.getWeekdayPrice(), period.getWeekendPrice(), period.getHolidayPrice()}
-                ))
-                .filter(Objects::nonNull)
-                .min(BigDecimal::compareTo)
-                .orElse(new BigDecimal("999"));
-    }
 }
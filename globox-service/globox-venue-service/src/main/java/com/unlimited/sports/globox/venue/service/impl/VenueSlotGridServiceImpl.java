@@ -0,0 +1,493 @@
+package com.unlimited.sports.globox.venue.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.unlimited.sports.globox.merchant.mapper.CourtMapper;
+import com.unlimited.sports.globox.model.merchant.entity.Court;
+import com.unlimited.sports.globox.model.merchant.entity.Venue;
+import com.unlimited.sports.globox.model.merchant.entity.VenueBusinessHours;
+import com.unlimited.sports.globox.model.merchant.enums.BusinessHourRuleTypeEnum;
+import com.unlimited.sports.globox.model.venue.entity.booking.VenueBookingSlotRecord;
+import com.unlimited.sports.globox.model.venue.entity.booking.VenueBookingSlotTemplate;
+import com.unlimited.sports.globox.model.venue.entity.venues.VenueActivity;
+import com.unlimited.sports.globox.model.venue.entity.venues.VenueActivityParticipant;
+import com.unlimited.sports.globox.model.venue.entity.venues.VenueActivityParticipantStatusEnum;
+import com.unlimited.sports.globox.model.venue.enums.CourtStatus;
+import com.unlimited.sports.globox.model.venue.vo.CourtSlotVo;
+import com.unlimited.sports.globox.service.RedisService;
+import com.unlimited.sports.globox.venue.constants.BookingCacheConstants;
+import com.unlimited.sports.globox.venue.dto.VenueSlotGrid;
+import com.unlimited.sports.globox.venue.mapper.VenueActivityParticipantMapper;
+import com.unlimited.sports.globox.venue.mapper.VenueBookingSlotRecordMapper;
+import com.unlimited.sports.globox.venue.mapper.VenueBookingSlotTemplateMapper;
+import com.unlimited.sports.globox.venue.service.IVenueActivityService;
+import com.unlimited.sports.globox.venue.service.IVenueAvailabilityIndexService;
+import com.unlimited.sports.globox.venue.service.IVenueBusinessHoursService;
+import com.unlimited.sports.globox.venue.service.IVenueSlotGridService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 场馆槽位网格服务实现
+ *
+ * 网格分两层存放在 Redis：
+ * 1. 静态层（JSON）：场地、槽位模板、价格向量、活动占用，只随商家配置变化，变化时整体失效
+ * 2. 状态层（Hash）：被占用槽位的 status/recordId/operatorId，锁定/解锁时按字段增量更新
+ * 状态层配有版本号 key，增量更新总是自增版本号，重建时若版本号变化则放弃写入，避免用旧数据覆盖并发变更
+ * 网格的每次变更同时重算场馆可用性索引中对应场馆的空闲位图
+ */
+@Slf4j
+@Service
+public class VenueSlotGridServiceImpl implements IVenueSlotGridService {
+
+    /**
+     * 增量更新状态层
+     * KEYS[1]=状态层 KEYS[2]=版本号 ARGV[1]=TTL秒 ARGV[2]=set|del ARGV[3..]=字段（set时为字段/值对）
+     * 状态层不存在时只自增版本号，不创建残缺的状态层
+     */
+    private static final DefaultRedisScript<Long> UPDATE_STATE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('INCR', KEYS[2]) " +
+            "redis.call('EXPIRE', KEYS[2], ARGV[1]) " +
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+            "if ARGV[2] == 'set' then " +
+            "  for i = 3, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+            "else " +
+            "  for i = 3, #ARGV do redis.call('HDEL', KEYS[1], ARGV[i]) end " +
+            "end " +
+            "return 1",
+            Long.class);
+
+    /**
+     * 全量写入状态层
+     * KEYS[1]=状态层 KEYS[2]=版本号 ARGV[1]=读库前的版本号 ARGV[2]=TTL秒 ARGV[3..]=字段/值对
+     */
+    private static final DefaultRedisScript<Long> LOAD_STATE_SCRIPT = new DefaultRedisScript<>(
+            "local gen = redis.call('GET', KEYS[2]) or '0' " +
+            "if gen ~= ARGV[1] then return 0 end " +
+            "redis.call('DEL', KEYS[1]) " +
+            "for i = 3, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[2]) " +
+            "return 1",
+            Long.class);
+
+    private static final String STATE_VALUE_SEPARATOR = ":";
+
+    @Autowired
+    private RedisService redisService;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private CourtMapper courtMapper;
+
+    @Autowired
+    private VenueBookingSlotTemplateMapper slotTemplateMapper;
+
+    @Autowired
+    private VenueBookingSlotRecordMapper slotRecordMapper;
+
+    @Autowired
+    private IVenueBusinessHoursService venueBusinessHoursService;
+
+    @Autowired
+    private IVenueActivityService venueActivityService;
+
+    @Autowired
+    private VenueActivityParticipantMapper venueActivityParticipantMapper;
+
+    @Autowired
+    private VenuePriceServiceImpl venuePriceServiceImpl;
+
+    @Autowired
+    private IVenueAvailabilityIndexService venueAvailabilityIndexService;
+
+    @Override
+    public List<CourtSlotVo> getCourtSlots(Venue venue, LocalDate bookingDate, Long userId) {
+        VenueSlotGrid grid = loadGrid(venue, bookingDate);
+        if (grid.getCourts() == null || grid.getCourts().isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, VenueBookingSlotRecord> recordMap = loadState(grid);
+
+        // 活动映射（活动ID -> 活动）与活动占用映射（槽位模板ID -> 活动ID）
+        List<VenueActivity> activities = grid.getActivities() == null ? List.of() : grid.getActivities();
+        Map<Long, VenueActivity> activityMap = activities.stream()
+                .collect(Collectors.toMap(VenueActivity::getActivityId, activity -> activity));
+        Map<Long, Long> activityLockedSlots = new HashMap<>();
+        for (VenueSlotGrid.CourtRow row : grid.getCourts()) {
+            for (int i = 0; i < row.getTemplateIds().length; i++) {
+                if (row.getActivityIds()[i] != 0L) {
+                    activityLockedSlots.put(row.getTemplateIds()[i], row.getActivityIds()[i]);
+                }
+            }
+        }
+
+        // 用户报名的活动（只在当天有活动且用户已登录时查询）
+        Set<Long> userRegisteredActivityIds = Collections.emptySet();
+        if (userId != null && !activityMap.isEmpty()) {
+            userRegisteredActivityIds = venueActivityParticipantMapper.selectList(
+                            new LambdaQueryWrapper<VenueActivityParticipant>()
+                                    .eq(VenueActivityParticipant::getUserId, userId)
+                                    .in(VenueActivityParticipant::getActivityId, activityMap.keySet())
+                                    .eq(VenueActivityParticipant::getStatus, VenueActivityParticipantStatusEnum.ACTIVE.getValue()))
+                    .stream()
+                    .map(VenueActivityParticipant::getActivityId)
+                    .collect(Collectors.toSet());
+        }
+
+        List<CourtSlotVo> result = new ArrayList<>(grid.getCourts().size());
+        for (VenueSlotGrid.CourtRow row : grid.getCourts()) {
+            int size = row.getTemplateIds().length;
+            List<VenueBookingSlotTemplate> templates = new ArrayList<>(size);
+            Map<LocalTime, BigDecimal> priceMap = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                LocalTime startTime = LocalTime.ofSecondOfDay(row.getStartSeconds()[i]);
+                templates.add(VenueBookingSlotTemplate.builder()
+                        .bookingSlotTemplateId(row.getTemplateIds()[i])
+                        .courtId(row.getCourtId())
+                        .startTime(startTime)
+                        .endTime(LocalTime.ofSecondOfDay(row.getEndSeconds()[i]))
+                        .build());
+                if (row.getPrices()[i] != null) {
+                    priceMap.put(startTime, row.getPrices()[i]);
+                }
+            }
+            Court court = Court.builder()
+                    .courtId(row.getCourtId())
+                    .name(row.getCourtName())
+                    .courtType(row.getCourtType())
+                    .groundType(row.getGroundType())
+                    .build();
+            CourtSlotVo vo = CourtSlotVo.buildVo(court, templates, recordMap, priceMap,
+                    activityMap, activityLockedSlots, userId, userRegisteredActivityIds);
+            if (!vo.getSlots().isEmpty()) {
+                result.add(vo);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void occupySlots(Long venueId, LocalDate bookingDate, int status, Long operatorId,
+                            Map<Long, Long> recordIdByTemplateId) {
+        if (venueId == null || bookingDate == null || recordIdByTemplateId == null || recordIdByTemplateId.isEmpty()) {
+            return;
+        }
+        List<String> args = new ArrayList<>(recordIdByTemplateId.size() * 2 + 2);
+        args.add(String.valueOf(TimeUnit.MINUTES.toSeconds(BookingCacheConstants.SLOT_GRID_TTL_MINUTES * 2)));
+        args.add("set");
+        recordIdByTemplateId.forEach((templateId, recordId) -> {
+            args.add(String.valueOf(templateId));
+            args.add(encodeState(status, recordId, operatorId));
+        });
+        runAfterCommit(() -> {
+            updateState(venueId, bookingDate, args);
+            venueAvailabilityIndexService.refreshVenue(venueId, bookingDate);
+        });
+    }
+
+    @Override
+    public void releaseSlots(Long venueId, LocalDate bookingDate, Collection<Long> templateIds) {
+        if (venueId == null || bookingDate == null || templateIds == null || templateIds.isEmpty()) {
+            return;
+        }
+        List<String> args = new ArrayList<>(templateIds.size() + 2);
+        args.add(String.valueOf(TimeUnit.MINUTES.toSeconds(BookingCacheConstants.SLOT_GRID_TTL_MINUTES * 2)));
+        args.add("del");
+        templateIds.forEach(templateId -> args.add(String.valueOf(templateId)));
+        runAfterCommit(() -> {
+            updateState(venueId, bookingDate, args);
+            venueAvailabilityIndexService.refreshVenue(venueId, bookingDate);
+        });
+    }
+
+    @Override
+    public void evict(Long venueId, LocalDate bookingDate) {
+        if (venueId == null || bookingDate == null) {
+            return;
+        }
+        runAfterCommit(() -> {
+            try {
+                redisService.deleteObject(BookingCacheConstants.buildSlotGridKey(venueId, bookingDate));
+            } catch (Exception e) {
+                log.error("[槽位网格] 失效失败 - venueId: {}, date: {}", venueId, bookingDate, e);
+            }
+            venueAvailabilityIndexService.refreshVenue(venueId, bookingDate);
+        });
+    }
+
+    @Override
+    public void evictVenue(Long venueId) {
+        if (venueId == null) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        List<String> keys = new ArrayList<>(BookingCacheConstants.SLOT_GRID_EVICT_DAYS + 1);
+        for (int i = 0; i <= BookingCacheConstants.SLOT_GRID_EVICT_DAYS; i++) {
+            keys.add(BookingCacheConstants.buildSlotGridKey(venueId, today.plusDays(i)));
+        }
+        runAfterCommit(() -> {
+            try {
+                redisService.deleteObjects(keys);
+                log.info("[槽位网格] 场馆配置变更，失效近{}天网格 - venueId: {}",
+                        BookingCacheConstants.SLOT_GRID_EVICT_DAYS, venueId);
+            } catch (Exception e) {
+                log.error("[槽位网格] 场馆失效失败 - venueId: {}", venueId, e);
+            }
+            venueAvailabilityIndexService.refreshVenue(venueId);
+        });
+    }
+
+    /**
+     * 读取静态层，未命中时从数据库构建并写回
+     */
+    private VenueSlotGrid loadGrid(Venue venue, LocalDate bookingDate) {
+        String key = BookingCacheConstants.buildSlotGridKey(venue.getVenueId(), bookingDate);
+        try {
+            VenueSlotGrid cached = redisService.getCacheObject(key, VenueSlotGrid.class);
+            if (cached != null) {
+                return cached;
+            }
+        } catch (Exception e) {
+            log.error("[槽位网格] 读取静态层失败，回源数据库 - key: {}", key, e);
+            return buildGrid(venue, bookingDate);
+        }
+
+        VenueSlotGrid grid = buildGrid(venue, bookingDate);
+        try {
+            redisService.setCacheObject(key, grid, BookingCacheConstants.SLOT_GRID_TTL_MINUTES, TimeUnit.MINUTES);
+        } catch (Exception e) {
+            log.error("[槽位网格] 写入静态层失败 - key: {}", key, e);
+        }
+        return grid;
+    }
+
+    /**
+     * 读取状态层，未命中时从数据库加载并按版本号条件写回
+     *
+     * @return 槽位模板ID -> 槽位记录（只包含被占用的槽位）
+     */
+    private Map<Long, VenueBookingSlotRecord> loadState(VenueSlotGrid grid) {
+        String stateKey = BookingCacheConstants.buildSlotGridStateKey(grid.getVenueId(), grid.getBookingDate());
+        try {
+            Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(stateKey);
+            if (!entries.isEmpty()) {
+                Map<Long, VenueBookingSlotRecord> recordMap = new HashMap<>(entries.size() * 2);
+                entries.forEach((field, value) -> {
+                    if (!BookingCacheConstants.SLOT_GRID_STATE_SENTINEL.equals(field)) {
+                        Long templateId = Long.valueOf((String) field);
+                        recordMap.put(templateId, decodeState(templateId, (String) value));
+                    }
+                });
+                return recordMap;
+            }
+        } catch (Exception e) {
+            log.error("[槽位网格] 读取状态层失败，回源数据库 - key: {}", stateKey, e);
+            return queryOccupiedRecords(grid);
+        }
+        return reloadState(grid);
+    }
+
+    /**
+     * 从数据库加载占用记录并写入状态层
+     * 读库前先读取版本号，写入时版本号已变化说明期间有增量更新，放弃写入
+     */
+    private Map<Long, VenueBookingSlotRecord> reloadState(VenueSlotGrid grid) {
+        String stateKey = BookingCacheConstants.buildSlotGridStateKey(grid.getVenueId(), grid.getBookingDate());
+        String genKey = BookingCacheConstants.buildSlotGridGenKey(grid.getVenueId(), grid.getBookingDate());
+        String gen;
+        try {
+            gen = Optional.ofNullable(stringRedisTemplate.opsForValue().get(genKey)).orElse("0");
+        } catch (Exception e) {
+            log.error("[槽位网格] 读取版本号失败 - key: {}", genKey, e);
+            return queryOccupiedRecords(grid);
+        }
+
+        Map<Long, VenueBookingSlotRecord> recordMap = queryOccupiedRecords(grid);
+
+        List<String> args = new ArrayList<>(recordMap.size() * 2 + 4);
+        args.add(gen);
+        args.add(String.valueOf(TimeUnit.MINUTES.toSeconds(BookingCacheConstants.SLOT_GRID_TTL_MINUTES)));
+        args.add(BookingCacheConstants.SLOT_GRID_STATE_SENTINEL);
+        args.add("1");
+        recordMap.forEach((templateId, record) -> {
+            args.add(String.valueOf(templateId));
+            args.add(encodeState(record.getStatus(), record.getBookingSlotRecordId(), record.getOperatorId()));
+        });
+        try {
+            Long loaded = stringRedisTemplate.execute(LOAD_STATE_SCRIPT, List.of(stateKey, genKey), args.toArray());
+            if (loaded == null || loaded == 0L) {
+                log.debug("[槽位网格] 状态层加载期间发生变更，放弃写入 - key: {}", stateKey);
+            }
+        } catch (Exception e) {
+            log.error("[槽位网格] 写入状态层失败 - key: {}", stateKey, e);
+        }
+        return recordMap;
+    }
+
+    private Map<Long, VenueBookingSlotRecord> queryOccupiedRecords(VenueSlotGrid grid) {
+        List<Long> courtIds = grid.getCourts().stream().map(VenueSlotGrid.CourtRow::getCourtId).toList();
+        return slotRecordMapper.selectByCourtIdsAndDate(courtIds, grid.getBookingDate()).stream()
+                .collect(Collectors.toMap(VenueBookingSlotRecord::getSlotTemplateId, record -> record,
+                        (first, second) -> first));
+    }
+
+    private void updateState(Long venueId, LocalDate bookingDate, List<String> args) {
+        String stateKey = BookingCacheConstants.buildSlotGridStateKey(venueId, bookingDate);
+        String genKey = BookingCacheConstants.buildSlotGridGenKey(venueId, bookingDate);
+        try {
+            stringRedisTemplate.execute(UPDATE_STATE_SCRIPT, List.of(stateKey, genKey), args.toArray());
+        } catch (Exception e) {
+            log.error("[槽位网格] 增量更新失败，删除状态层等待重建 - key: {}", stateKey, e);
+            try {
+                stringRedisTemplate.delete(stateKey);
+            } catch (Exception ex) {
+                log.error("[槽位网格] 删除状态层失败，等待TTL过期 - key: {}", stateKey, ex);
+            }
+        }
+    }
+
+    /**
+     * 从数据库构建静态层：场地、营业时间内的槽位模板、价格向量、活动占用
+     */
+    private VenueSlotGrid buildGrid(Venue venue, LocalDate bookingDate) {
+        Long venueId = venue.getVenueId();
+        VenueSlotGrid grid = VenueSlotGrid.builder()
+                .venueId(venueId)
+                .bookingDate(bookingDate)
+                .courts(Collections.emptyList())
+                .activities(Collections.emptyList())
+                .builtAt(LocalDateTime.now())
+                .build();
+
+        // 查询所有开放的场地
+        List<Court> courts = courtMapper.selectList(
+                new LambdaQueryWrapper<Court>()
+                        .eq(Court::getVenueId, venueId)
+                        .eq(Court::getStatus, CourtStatus.OPEN.getValue())
+                        .orderByAsc(Court::getCourtId)
+        );
+        if (courts.isEmpty()) {
+            log.warn("场馆没有开放的场地: venueId={}", venueId);
+            return grid;
+        }
+
+        // 获取营业时间配置
+        VenueBusinessHours businessHours = venueBusinessHoursService.getBusinessHoursByDate(venueId, bookingDate);
+        if (businessHours == null) {
+            log.warn("场馆未配置营业时间: venueId={}, bookingDate={}", venueId, bookingDate);
+            return grid;
+        }
+        if (BusinessHourRuleTypeEnum.CLOSED_DATE.getCode().equals(businessHours.getRuleType())) {
+            // 当天不开放
+            return grid;
+        }
+
+        List<Long> courtIds = courts.stream().map(Court::getCourtId).toList();
+        List<VenueBookingSlotTemplate> allTemplates = slotTemplateMapper.selectByCourtIdsAndTimeRange(
+                courtIds,
+                businessHours.getOpenTime(),
+                businessHours.getCloseTime()
+        );
+        Map<Long, List<VenueBookingSlotTemplate>> templatesByCourtId = allTemplates.stream()
+                .collect(Collectors.groupingBy(VenueBookingSlotTemplate::getCourtId));
+
+        Map<Long, Court> courtMap = courts.stream()
+                .collect(Collectors.toMap(Court::getCourtId, court -> court));
+        Map<Long, Map<LocalTime, BigDecimal>> pricesByCourtId = venuePriceServiceImpl.calculateSlotPricesByCourtTemplates(
+                allTemplates,
+                venueId,
+                bookingDate,
+                courtMap
+        );
+
+        List<VenueActivity> activities = venueActivityService.getActivitiesByVenueAndDate(venueId, bookingDate);
+        Map<Long, Long> activityLockedSlots = activities.isEmpty() ?
+                Map.of() :
+                venueActivityService.getActivityLockedSlotsByIds(
+                        activities.stream().map(VenueActivity::getActivityId).toList(), bookingDate);
+
+        List<VenueSlotGrid.CourtRow> rows = new ArrayList<>(courts.size());
+        for (Court court : courts) {
+            List<VenueBookingSlotTemplate> templates = templatesByCourtId.getOrDefault(court.getCourtId(), List.of());
+            Map<LocalTime, BigDecimal> courtPrices = pricesByCourtId.getOrDefault(court.getCourtId(), Map.of());
+            int size = templates.size();
+            long[] templateIds = new long[size];
+            int[] startSeconds = new int[size];
+            int[] endSeconds = new int[size];
+            BigDecimal[] prices = new BigDecimal[size];
+            long[] activityIds = new long[size];
+            for (int i = 0; i < size; i++) {
+                VenueBookingSlotTemplate template = templates.get(i);
+                templateIds[i] = template.getBookingSlotTemplateId();
+                startSeconds[i] = template.getStartTime().toSecondOfDay();
+                endSeconds[i] = template.getEndTime().toSecondOfDay();
+                prices[i] = courtPrices.get(template.getStartTime());
+                activityIds[i] = activityLockedSlots.getOrDefault(template.getBookingSlotTemplateId(), 0L);
+            }
+            rows.add(VenueSlotGrid.CourtRow.builder()
+                    .courtId(court.getCourtId())
+                    .courtName(court.getName())
+                    .courtType(court.getCourtType())
+                    .groundType(court.getGroundType())
+                    .templateIds(templateIds)
+                    .startSeconds(startSeconds)
+                    .endSeconds(endSeconds)
+                    .prices(prices)
+                    .activityIds(activityIds)
+                    .build());
+        }
+
+        grid.setCourts(rows);
+        grid.setActivities(activities);
+        log.debug("[槽位网格] 构建完成 - venueId: {}, date: {}, 场地数: {}, 模板数: {}",
+                venueId, bookingDate, rows.size(), allTemplates.size());
+        return grid;
+    }
+
+    private String encodeState(int status, Long recordId, Long operatorId) {
+        return status + STATE_VALUE_SEPARATOR
+                + (recordId == null ? "" : recordId) + STATE_VALUE_SEPARATOR
+                + (operatorId == null ? "" : operatorId);
+    }
+
+    private VenueBookingSlotRecord decodeState(Long templateId, String value) {
+        String[] parts = value.split(STATE_VALUE_SEPARATOR, -1);
+        VenueBookingSlotRecord record = new VenueBookingSlotRecord();
+        record.setSlotTemplateId(templateId);
+        record.setStatus(Integer.parseInt(parts[0]));
+        record.setBookingSlotRecordId(parts[1].isEmpty() ? templateId : Long.valueOf(parts[1]));
+        record.setOperatorId(parts.length > 2 && !parts[2].isEmpty() ? Long.valueOf(parts[2]) : null);
+        return record;
+    }
+
+    /**
+     * 事务内的变更在提交后再同步到网格，避免回滚后网格与数据库不一致
+     */
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.unlimited.sports.globox.venue.service.impl;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.unlimited.sports.globox.common.exception.GloboxApplicationException;
+import com.unlimited.sports.globox.model.venue.entity.venues.VenueActivity;
+import com.unlimited.sports.globox.model.venue.entity.venues.VenueActivityParticipant;
+import com.unlimited.sports.globox.venue.constants.BookingCacheConstants;
+import com.unlimited.sports.globox.venue.mapper.VenueActivityParticipantMapper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * ActivityQuotaServiceImpl 名额缓存测试
+ * Redis 用内存实现代替：按脚本对象分派到等价的 Java 实现，脚本之间互斥执行，与 Redis 单线程执行 Lua 一致
+ */
+class ActivityQuotaServiceImplTest {
+
+    private static final Long ACTIVITY_ID = 42L;
+
+    private static final String QUOTA_KEY = BookingCacheConstants.buildActivityQuotaKey(ACTIVITY_ID);
+
+    private static final String USERS_KEY = BookingCacheConstants.buildActivityQuotaUsersKey(ACTIVITY_ID);
+
+    /**
+     * 压测：并发报名的线程数
+     */
+    private static final int REGISTER_THREADS = 32;
+
+    /**
+     * 压测：报名人数（等于活动最大人数，全部应报名成功）
+     */
+    private static final int REGISTRATIONS = 1000;
+
+    /**
+     * 压测：报名事务中除名额扣减外的耗时（插入报名记录、提交），改造前这段时间内一直持有活动行锁
+     */
+    private static final long TRANSACTION_MILLIS = 2;
+
+    private FakeRedis redis;
+
+    private VenueActivityParticipantMapper participantMapper;
+
+    private ActivityQuotaServiceImpl service;
+
+    @BeforeAll
+    static void initTableInfo() {
+        // load() 中的 LambdaQueryWrapper.select 需要实体的列缓存
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""),
+                VenueActivityParticipant.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        redis = new FakeRedis();
+        participantMapper = mock(VenueActivityParticipantMapper.class);
+        when(participantMapper.selectList(any())).thenReturn(List.of());
+        service = new ActivityQuotaServiceImpl();
+        ReflectionTestUtils.setField(service, "stringRedisTemplate", redis);
+        ReflectionTestUtils.setField(service, "participantMapper", participantMapper);
+    }
+
+    @Test
+    void capacityChangeWithinLimitAdjustsRemaining() {
+        service.reserve(activity(10), 1L, 1);
+        assertEquals("9", redis.get(QUOTA_KEY));
+
+        service.adjustCapacity(ACTIVITY_ID, 10, 15);
+        assertEquals("14", redis.get(QUOTA_KEY));
+
+        service.adjustCapacity(ACTIVITY_ID, 15, 12);
+        assertEquals("11", redis.get(QUOTA_KEY));
+    }
+
+    @Test
+    void switchingToUnlimitedEvictsQuotaCache() {
+        service.reserve(activity(10), 1L, 1);
+
+        service.adjustCapacity(ACTIVITY_ID, 10, null);
+
+        assertFalse(redis.exists(QUOTA_KEY));
+        assertFalse(redis.exists(USERS_KEY));
+    }
+
+    /**
+     * 不限人数期间的报名不经过名额缓存：切回有限制时按差值调整会沿用过期的剩余名额，
+     * 应删除缓存并在下次报名时按有效报名记录重新加载
+     */
+    @Test
+    void switchingBackToLimitedReloadsFromActiveParticipants() {
+        service.reserve(activity(10), 1L, 1);
+        // 模拟缓存残留：旧逻辑下切换为不限人数不会删除缓存
+        when(participantMapper.selectList(any())).thenReturn(participants(1L, 2L, 3L, 4L));
+
+        service.adjustCapacity(ACTIVITY_ID, 0, 5);
+        assertFalse(redis.exists(QUOTA_KEY));
+
+        service.reserve(activity(5), 5L, 1);
+        assertEquals("0", redis.get(QUOTA_KEY));
+        assertThrows(GloboxApplicationException.class, () -> service.reserve(activity(5), 6L, 1));
+    }
+
+    @Test
+    void unchangedCapacityLeavesCacheUntouched() {
+        service.reserve(activity(10), 1L, 1);
+
+        service.adjustCapacity(ACTIVITY_ID, null, null);
+        service.adjustCapacity(ACTIVITY_ID, 10, 10);
+
+        assertEquals("9", redis.get(QUOTA_KEY));
+    }
+
+    /**
+     * 同一活动的报名吞吐对比
+     * 改造前：UPDATE venue_activity SET current_participants = current_participants + ? 对活动行加锁，
+     * 行锁持有到报名事务提交，所有报名在这一行上串行，用一把锁包住整个事务模拟；
+     * 改造后：名额在 Redis 中用 Lua 原子扣减，报名事务之间不再互相等待
+     */
+    @Test
+    @Tag("benchmark")
+    void registrationThroughputOnOneActivity() throws Exception {
+        Object activityRow = new Object();
+        AtomicInteger currentParticipants = new AtomicInteger();
+        double before = registrationsPerSecond(userId -> {
+            synchronized (activityRow) {
+                if (currentParticipants.get() + 1 > REGISTRATIONS) {
+                    throw new IllegalStateException("名额不足");
+                }
+                currentParticipants.incrementAndGet();
+                sleepTransaction();
+            }
+        });
+
+        VenueActivity activity = activity(REGISTRATIONS);
+        double after = registrationsPerSecond(userId -> {
+            service.reserve(activity, userId, 1);
+            sleepTransaction();
+        });
+
+        System.out.printf("单活动报名吞吐（%d 线程，%d 人，事务耗时 %dms）：改造前 %.0f 次/秒，改造后 %.0f 次/秒%n",
+                REGISTER_THREADS, REGISTRATIONS, TRANSACTION_MILLIS, before, after);
+        assertEquals(REGISTRATIONS, currentParticipants.get());
+        assertEquals("0", redis.get(QUOTA_KEY));
+        assertEquals(REGISTRATIONS + 1, redis.hashSize(USERS_KEY));
+        assertTrue(after > before * 4, () -> "before=" + before + ", after=" + after);
+    }
+
+    private double registrationsPerSecond(Registration registration) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(REGISTER_THREADS);
+        AtomicInteger nextUser = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int t = 0; t < REGISTER_THREADS; t++) {
+            tasks.add(pool.submit(() -> {
+                start.await();
+                int user;
+                while ((user = nextUser.incrementAndGet()) <= REGISTRATIONS) {
+                    registration.register((long) user);
+                }
+                return null;
+            }));
+        }
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> task : tasks) {
+            task.get(60, TimeUnit.SECONDS);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        pool.shutdown();
+        return REGISTRATIONS * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    private static void sleepTransaction() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(TRANSACTION_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static VenueActivity activity(Integer maxParticipants) {
+        return VenueActivity.builder()
+                .activityId(ACTIVITY_ID)
+                .venueId(1L)
+                .maxParticipants(maxParticipants)
+                .activityDate(LocalDate.now().plusDays(1))
+                .build();
+    }
+
+    private static List<VenueActivityParticipant> participants(Long... userIds) {
+        return Arrays.stream(userIds)
+                .map(userId -> VenueActivityParticipant.builder().userId(userId).build())
+                .collect(Collectors.toList());
+    }
+
+    @FunctionalInterface
+    private interface Registration {
+        void register(Long userId) throws Exception;
+    }
+
+    /**
+     * 只实现名额服务用到的脚本和删除操作
+     */
+    private static class FakeRedis extends StringRedisTemplate {
+
+        private static final Object RESERVE = script("RESERVE_SCRIPT");
+        private static final Object CONFIRM = script("CONFIRM_SCRIPT");
+        private static final Object LOAD = script("LOAD_SCRIPT");
+        private static final Object ADJUST = script("ADJUST_SCRIPT");
+
+        private final Map<String, String> strings = new HashMap<>();
+
+        private final Map<String, Map<String, String>> hashes = new HashMap<>();
+
+        private static Object script(String name) {
+            return ReflectionTestUtils.getField(ActivityQuotaServiceImpl.class, name);
+        }
+
+        synchronized String get(String key) {
+            return strings.get(key);
+        }
+
+        synchronized boolean exists(String key) {
+            return strings.containsKey(key) || hashes.containsKey(key);
+        }
+
+        synchronized int hashSize(String key) {
+            return hashes.getOrDefault(key, Map.of()).size();
+        }
+
+        @Override
+        public synchronized Long delete(Collection<String> keys) {
+            long deleted = 0;
+            for (String key : keys) {
+                if (strings.remove(key) != null | hashes.remove(key) != null) {
+                    deleted++;
+                }
+            }
+            return deleted;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public synchronized <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            return (T) Long.valueOf(run(script, keys, args));
+        }
+
+        private long run(Object script, List<String> keys, Object[] args) {
+            if (script == RESERVE) {
+                if (!strings.containsKey(keys.get(0))) {
+                    return -1;
+                }
+                Map<String, String> users = hashes.computeIfAbsent(keys.get(1), key -> new HashMap<>());
+                if (users.containsKey((String) args[0])) {
+                    return -2;
+                }
+                long remaining = Long.parseLong(strings.get(keys.get(0)));
+                long quantity = Long.parseLong((String) args[1]);
+                if (remaining < quantity) {
+                    return 0;
+                }
+                strings.put(keys.get(0), String.valueOf(remaining - quantity));
+                users.put((String) args[0], args[1] + ":" + args[2]);
+                return 1;
+            }
+            if (script == CONFIRM) {
+                Map<String, String> users = hashes.getOrDefault(keys.get(0), Map.of());
+                String value = users.get((String) args[0]);
+                if (value == null || !value.equals(args[1])) {
+                    return 0;
+                }
+                users.put((String) args[0], value.substring(0, value.indexOf(':')) + ":0");
+                return 1;
+            }
+            if (script == LOAD) {
+                if (strings.containsKey(keys.get(0))) {
+                    return 0;
+                }
+                strings.put(keys.get(0), (String) args[0]);
+                Map<String, String> users = new HashMap<>();
+                for (int i = 2; i + 1 < args.length; i += 2) {
+                    users.put((String) args[i], (String) args[i + 1]);
+                }
+                hashes.put(keys.get(1), users);
+                return 1;
+            }
+            if (script == ADJUST) {
+                if (!strings.containsKey(keys.get(0))) {
+                    return 0;
+                }
+                long remaining = Long.parseLong(strings.get(keys.get(0)));
+                strings.put(keys.get(0), String.valueOf(remaining + Long.parseLong((String) args[0])));
+                return 1;
+            }
+            throw new UnsupportedOperationException("未模拟的脚本");
+        }
+    }
+}